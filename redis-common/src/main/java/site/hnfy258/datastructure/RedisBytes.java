@@ -13,7 +13,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * <ul>
  *   <li>命令池缓存：预创建常用Redis命令实例，避免重复分配
  *   <li>字符串缓存：延迟初始化并缓存字符串表示，减少重复编码开销
- *   <li>哈希值缓存：预计算哈希值，提升HashMap等容器的查找性能
+ *   <li>哈希值缓存：首次作为键使用时计算并缓存哈希值，大体积的值不再付出O(n)哈希开销
  *   <li>智能拷贝策略：优化数组拷贝，充分利用JVM内建优化
  *   <li>零拷贝接口：为受信任场景提供高性能访问路径
  * </ul>
@@ -44,6 +44,16 @@ public final class RedisBytes implements Comparable<RedisBytes>, Serializable {
     private static final ConcurrentHashMap<String, RedisBytes> COMMAND_CACHE =
             new ConcurrentHashMap<>(64);
 
+    /**
+     * 共享整数实例的数量，[0, SHARED_INTEGERS)内的整数共享同一个实例。
+     */
+    public static final int SHARED_INTEGERS = 10000;
+
+    /**
+     * 共享整数实例池，首次使用时创建；实例不可变，并发创建重复实例也不影响正确性。
+     */
+    private static final RedisBytes[] SHARED_INTEGER_POOL = new RedisBytes[SHARED_INTEGERS];
+
     /**
      * 预分配的空字节数组实例。
      */
@@ -75,9 +85,9 @@ public final class RedisBytes implements Comparable<RedisBytes>, Serializable {
     private final byte[] bytes;
 
     /**
-     * 预计算的哈希值，提升HashMap性能。
+     * 延迟计算的哈希值，0表示尚未计算（与String相同的无锁缓存方式）。
      */
-    private final int hashCode;
+    private int hashCode;
 
     /**
      * 标记是否为受信任的数组，用于零拷贝优化。
@@ -123,9 +133,7 @@ public final class RedisBytes implements Comparable<RedisBytes>, Serializable {
             this.bytes = bytes.clone();
             this.isTrusted = false;
         }
-
-        // 3. 预计算哈希值，提升HashMap查找性能
-        this.hashCode = Arrays.hashCode(this.bytes);
+        // 3. 哈希值在首次调用hashCode()时计算，只存储不作为键的值无需哈希
     }
 
     // ========== 工厂方法 ==========
@@ -189,6 +197,52 @@ public final class RedisBytes implements Comparable<RedisBytes>, Serializable {
         return redisBytes;
     }
 
+    /**
+     * 创建整数的十进制字节表示。
+     *
+     * <p>[0, {@link #SHARED_INTEGERS})内的整数返回共享实例，计数器和标志位不再各自持有一份字节数组。
+     * 直接按位写入字节，不经过String。</p>
+     *
+     * @param value 整数值
+     * @return RedisBytes实例
+     */
+    public static RedisBytes fromLong(final long value) {
+        if (value >= 0 && value < SHARED_INTEGERS) {
+            RedisBytes shared = SHARED_INTEGER_POOL[(int) value];
+            if (shared == null) {
+                shared = new RedisBytes(longToBytes(value), true);
+                SHARED_INTEGER_POOL[(int) value] = shared;
+            }
+            return shared;
+        }
+        return new RedisBytes(longToBytes(value), true);
+    }
+
+    /**
+     * 把整数转换为十进制字节，按负数计算以覆盖Long.MIN_VALUE
+     */
+    private static byte[] longToBytes(final long value) {
+        // 1. 计算数字位数
+        final long negative = value < 0 ? value : -value;
+        int digits = 1;
+        for (long v = negative; v <= -10; v /= 10) {
+            digits++;
+        }
+
+        // 2. 从低位向高位填充
+        final int length = value < 0 ? digits + 1 : digits;
+        final byte[] result = new byte[length];
+        long v = negative;
+        for (int i = length - 1; i >= length - digits; i--) {
+            result[i] = (byte) ('0' - (v % 10));
+            v /= 10;
+        }
+        if (value < 0) {
+            result[0] = '-';
+        }
+        return result;
+    }
+
     /**
      * 判断字符串是否可能是Redis命令
      */
@@ -203,17 +257,20 @@ public final class RedisBytes implements Comparable<RedisBytes>, Serializable {
     private static void initializeCommonCommands() {
         final String[] commands = {
                 // 字符串命令
-                "GET", "SET", "MSET", "APPEND", "INCR", "STRLEN", "GETRANGE",
+                "GET", "SET", "MSET", "APPEND", "INCR", "INCRBY", "DECR", "DECRBY", "INCRBYFLOAT", "STRLEN", "GETRANGE",
                 // 列表命令
-                "LPUSH", "LPOP", "RPUSH", "RPOP", "LRANGE", "LLEN",
+                "LPUSH", "LPOP", "RPUSH", "RPOP", "LRANGE", "LLEN", "LINDEX", "LSET", "LINSERT", "LTRIM",
                 // 集合命令
                 "SADD", "SPOP", "SREM", "SCARD",
                 // 哈希命令
                 "HSET", "HGET", "HDEL",
                 // 有序集合命令
-                "ZADD", "ZRANGE", "ZCARD",
+                "ZADD", "ZRANGE", "ZCARD", "ZREVRANGE", "ZRANGEBYSCORE", "ZREVRANGEBYSCORE",
+                "ZRANK", "ZREVRANK", "ZSCORE", "ZCOUNT", "ZREM", "ZINCRBY", "ZREMRANGEBYRANK", "ZREMRANGEBYSCORE",
+                // 键命令
+                "DEL", "TTL", "PTTL", "EXPIRE", "PEXPIRE", "EXPIREAT", "PEXPIREAT", "PERSIST",
                 // 服务器命令
-                "PING", "SELECT", "SCAN", "KEYS", "INFO", "CONFIG", "DBSIZE",
+                "PING", "SELECT", "SCAN", "KEYS", "RANDOMKEY", "INFO", "CONFIG", "DBSIZE",
                 // 持久化命令
                 "SAVE", "BGSAVE", "BGREWRITEAOF"
         };
@@ -351,7 +408,13 @@ public final class RedisBytes implements Comparable<RedisBytes>, Serializable {
 
     @Override
     public int hashCode() {
-        return hashCode; // 返回预计算的哈希值
+        // 1. 首次作为键使用时计算，int写入是原子的，并发下最多重复计算一次
+        int h = hashCode;
+        if (h == 0) {
+            h = Arrays.hashCode(bytes);
+            hashCode = h;
+        }
+        return h;
     }
 
     @Override
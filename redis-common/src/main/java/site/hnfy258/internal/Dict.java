@@ -4,13 +4,19 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
-public class Dict<K,V> {
+public class Dict<K,V> implements SnapshotDict<K,V> {
 
     private static final int INITIAL_SIZE = 4;
     private static final double LOAD_FACTOR = 0.75;
     private static final int REHASH_MAX_SIZE =5;
     private static final int MAX_EMPTY_PERCENT = 10;
+    // 元素数量低于桶数的该百分比时允许缩容
+    private static final int MIN_FILL_PERCENT = 10;
+    // 主动rehash每执行这么多步检查一次时间
+    private static final int ACTIVE_REHASH_BATCH = 100;
 
     private AtomicBoolean isSnapshotting = new AtomicBoolean(false);
     
@@ -26,6 +32,11 @@ public class Dict<K,V> {
     private DictHashTable<K,V> ht1;
     private int rehashIndex;
 
+    // 主线程可见的元素数量，随插入、删除和ForwardNode状态变化维护，rehash不影响
+    private int liveCount;
+    // 快照视图的元素数量，快照期间快照视图不变，在startSnapshot时固定
+    private int snapshotCount;
+
     static class ForwardNode{
         final AtomicReference<Object> oldValue;  // 快照时的旧值
         final AtomicReference<Object> newValue;  // 等待应用的新值
@@ -236,6 +247,7 @@ public class Dict<K,V> {
                     oldValue = entry.value;
                     entry.value = value;
                 }
+                adjustLiveCount(oldValue, value);
                 return oldValue;
             }
 
@@ -261,9 +273,9 @@ public class Dict<K,V> {
                 ht0.used++;
                 if(isSnapshotting.get()) {
                     modifiedKeys.add(key); // 记录新增的key
-                    System.out.println("新增key到modifiedKeys: " + key + ", 当前modifiedKeys大小: " + modifiedKeys.size());
                 }
             }
+            adjustLiveCount(null, value);
 
             return null;
         }
@@ -312,6 +324,7 @@ public class Dict<K,V> {
                 // 不在快照期间，直接删除
                 removeEntryFromTable(key);
             }
+            adjustLiveCount(oldValue, null);
             
             return (V) oldValue;
         }
@@ -363,6 +376,8 @@ public class Dict<K,V> {
 
     private void rehashStep(){
         if(rehashIndex ==-1 || ht1 ==null) return;
+        // 快照期间暂停迁移，保证快照遍历不会因为entry在两张表之间移动而遗漏或重复
+        if(isSnapshotting.get()) return;
 
         int emptyVisited = 0;
         int processed =0;
@@ -401,6 +416,271 @@ public class Dict<K,V> {
         }
     }
 
+    public boolean isRehashing(){
+        return rehashIndex != -1;
+    }
+
+    // 在时间预算内主动推进渐进式rehash，返回之后是否仍在rehash。
+    // 供后台定时任务调用，没有读写访问的表也能完成迁移；快照期间不迁移
+    public boolean rehashFor(long budgetNanos){
+        if(rehashIndex == -1 || isSnapshotting.get()) return rehashIndex != -1;
+
+        long deadline = System.nanoTime() + budgetNanos;
+        do {
+            for(int i = 0; i < ACTIVE_REHASH_BATCH && rehashIndex != -1; i++){
+                rehashStep();
+            }
+        } while(rehashIndex != -1 && System.nanoTime() - deadline < 0);
+        return rehashIndex != -1;
+    }
+
+    // 元素数量远小于桶数时开始缩容，新表为负载不超过LOAD_FACTOR的最小2的幂，
+    // 之后与扩容一样通过渐进式rehash迁移。rehash或快照期间不缩容，返回是否开始了缩容
+    public boolean tryShrink(){
+        if(rehashIndex != -1 || isSnapshotting.get() || ht0.size <= INITIAL_SIZE) return false;
+        if((long) ht0.used * 100 >= (long) ht0.size * MIN_FILL_PERCENT) return false;
+
+        int size = INITIAL_SIZE;
+        while(ht0.used > size * LOAD_FACTOR) size <<= 1;
+        if(size >= ht0.size) return false;
+
+        ht1 = new DictHashTable<>(size);
+        rehashIndex = 0;
+        return true;
+    }
+
+    // 反向二进制游标迭代，每次调用访问一个桶（rehash期间为小表的一个桶及其在大表中的扩展桶），
+    // 返回下一次调用的游标，返回0表示迭代结束。
+    // 游标按高位递增，两次调用之间表扩容、缩容或处于rehash时，
+    // 整个迭代期间一直存在的key至少返回一次，可能重复返回
+    public long scan(long cursor, Consumer<K> consumer){
+        if(liveCount == 0) return 0;
+
+        long v = cursor;
+        if(ht1 == null){
+            long m0 = ht0.sizemask;
+            scanBucket(ht0.table[(int) (v & m0)], consumer);
+            v = nextCursor(v, m0);
+        } else {
+            DictHashTable<K,V> small = ht0;
+            DictHashTable<K,V> large = ht1;
+            if(small.size > large.size){
+                small = ht1;
+                large = ht0;
+            }
+            long m0 = small.sizemask;
+            long m1 = large.sizemask;
+            scanBucket(small.table[(int) (v & m0)], consumer);
+            // 访问小表桶在大表中对应的所有桶，它们的低位与小表桶相同
+            do {
+                scanBucket(large.table[(int) (v & m1)], consumer);
+                v = nextCursor(v, m1);
+            } while((v & (m0 ^ m1)) != 0);
+        }
+        return v;
+    }
+
+    // 在掩码范围内对游标做反向二进制加一
+    private static long nextCursor(long v, long mask){
+        v |= ~mask;
+        v = Long.reverse(v);
+        v++;
+        return Long.reverse(v);
+    }
+
+    private void scanBucket(DictEntry<K,V> entry, Consumer<K> consumer){
+        while(entry != null){
+            Object value = entry.value;
+            if(value instanceof ForwardNode) {
+                value = ((ForwardNode) value).getCurrentValue(false);
+            }
+            if(value != null) {
+                consumer.accept(entry.key);
+            }
+            entry = entry.next;
+        }
+    }
+
+    // 随机返回一个当前可见的key，为空时返回null。
+    // 在两张表的全部桶中随机选择非空桶，再在桶内可见的key中随机选择一个；
+    // 负载因子不超过0.75时链很短，各key被选中的概率近似相等，期望探测次数为桶数与key数之比
+    public K randomKey(){
+        if(liveCount == 0) return null;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while(true){
+            // rehash期间ht0中rehashIndex之前的桶已经迁移为空，不参与选择
+            DictHashTable<K,V> table = ht0;
+            int idx;
+            if(ht1 == null){
+                idx = random.nextInt(ht0.size);
+            } else {
+                int start = Math.max(rehashIndex, 0);
+                idx = start + random.nextInt(ht0.size - start + ht1.size);
+                if(idx >= ht0.size){
+                    table = ht1;
+                    idx -= ht0.size;
+                }
+            }
+            int visible = countVisible(table.table[idx]);
+            if(visible == 0) continue;
+
+            int target = random.nextInt(visible);
+            for(DictEntry<K,V> entry = table.table[idx]; entry != null; entry = entry.next){
+                if(isVisible(entry) && target-- == 0) return entry.key;
+            }
+        }
+    }
+
+    // 从随机桶开始连续访问相邻的桶，采样最多count个当前可见的key，返回采样到的数量。
+    // 最多访问count*10个桶，也不超过一整轮，因此同一个key不会返回两次；不保证均匀分布
+    public int sampleKeys(int count, Consumer<K> consumer){
+        if(count <= 0 || liveCount == 0) return 0;
+        if(count > liveCount) count = liveCount;
+
+        DictHashTable<K,V> large = ht1 != null && ht1.size > ht0.size ? ht1 : ht0;
+        int maxSteps = (int) Math.min((long) count * 10, large.size);
+        int idx = ThreadLocalRandom.current().nextInt(large.size);
+        int sampled = 0;
+        for(int steps = 0; steps < maxSteps && sampled < count; steps++){
+            sampled += sampleBucket(ht0, idx, count - sampled, consumer);
+            if(ht1 != null && sampled < count){
+                sampled += sampleBucket(ht1, idx, count - sampled, consumer);
+            }
+            idx = (idx + 1) & large.sizemask;
+        }
+        return sampled;
+    }
+
+    private int sampleBucket(DictHashTable<K,V> table, int idx, int limit, Consumer<K> consumer){
+        if(idx >= table.size) return 0;
+        int sampled = 0;
+        for(DictEntry<K,V> entry = table.table[idx]; entry != null && sampled < limit; entry = entry.next){
+            if(isVisible(entry)){
+                consumer.accept(entry.key);
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+
+    private int countVisible(DictEntry<K,V> entry){
+        int count = 0;
+        for(; entry != null; entry = entry.next){
+            if(isVisible(entry)) count++;
+        }
+        return count;
+    }
+
+    // entry在当前视图中是否存在
+    private static boolean isVisible(DictEntry<?,?> entry){
+        Object value = entry.value;
+        if(value instanceof ForwardNode) {
+            value = ((ForwardNode) value).getCurrentValue(false);
+        }
+        return value != null;
+    }
+
+    // 惰性遍历当前视图的键值对，不复制数据，遍历本身只占用O(1)额外内存。
+    // 遍历期间不能修改Dict，也不能调用会触发rehash的读方法
+    public Iterator<Map.Entry<K,V>> entryIterator(){
+        return new EntryIterator(false);
+    }
+
+    // 惰性遍历当前视图的键，约束同entryIterator
+    public Iterator<K> keyIterator(){
+        return new KeyIterator();
+    }
+
+    // 惰性遍历快照视图，只能在快照期间调用，可以与主线程的写入并发进行
+    public Iterator<Map.Entry<K,V>> snapshotIterator(){
+        if (!isSnapshotting.get()) {
+            throw new IllegalStateException("必须在快照状态下调用此方法");
+        }
+        return new EntryIterator(true);
+    }
+
+    // 按桶顺序遍历ht0和ht1，跳过当前视图（或快照视图）中不存在的entry
+    private abstract class TableIterator<T> implements Iterator<T> {
+        private final boolean snapshotView;
+        private DictHashTable<K,V> table;
+        private DictHashTable<K,V> nextTable;
+        private int bucket = -1;
+        private DictEntry<K,V> entry;
+        DictEntry<K,V> nextEntry;
+        Object nextValue;
+
+        TableIterator(boolean snapshotView){
+            this.snapshotView = snapshotView;
+            this.table = ht0;
+            this.nextTable = ht1;
+            advance();
+        }
+
+        private void advance(){
+            while(true){
+                entry = entry != null ? entry.next : null;
+                while(entry == null){
+                    if(++bucket >= table.size){
+                        if(nextTable == null){
+                            nextEntry = null;
+                            return;
+                        }
+                        table = nextTable;
+                        nextTable = null;
+                        bucket = 0;
+                    }
+                    entry = table.table[bucket];
+                }
+                Object value = entry.value;
+                if(value instanceof ForwardNode) {
+                    value = ((ForwardNode) value).getCurrentValue(snapshotView);
+                }
+                if(value != null) {
+                    nextEntry = entry;
+                    nextValue = value;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext(){
+            return nextEntry != null;
+        }
+
+        @Override
+        public T next(){
+            if(nextEntry == null) throw new NoSuchElementException();
+            T result = current();
+            advance();
+            return result;
+        }
+
+        abstract T current();
+    }
+
+    private final class EntryIterator extends TableIterator<Map.Entry<K,V>> {
+        EntryIterator(boolean snapshotView){
+            super(snapshotView);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map.Entry<K,V> current(){
+            return new AbstractMap.SimpleImmutableEntry<>(nextEntry.key, (V) nextValue);
+        }
+    }
+
+    private final class KeyIterator extends TableIterator<K> {
+        KeyIterator(){
+            super(false);
+        }
+
+        K current(){
+            return nextEntry.key;
+        }
+    }
+
     public Set<K> keySet(){
         Set<K> keys = new HashSet<>();
         if(rehashIndex != -1) rehashStep();
@@ -484,57 +764,35 @@ public class Dict<K,V> {
         ht0 = new DictHashTable<>(INITIAL_SIZE);
         ht1 = null;
         rehashIndex = -1;
+        liveCount = 0;
+        snapshotCount = 0;
         modifiedKeys.clear();
         isSnapshotting.set(false);
     }
 
+    // 当前元素数量，O(1)
     public int size(){
-        {
-            int count = 0;
-            
-            // 遍历 ht0
-            for(int i = 0; i < ht0.size; i++) {
-                DictEntry<K,V> entry = ht0.table[i];
-                while(entry != null) {
-                    Object value = entry.value;
-                    if(value instanceof ForwardNode) {
-                        ForwardNode forwardNode = (ForwardNode) value;
-                        // 主线程看到的是新值
-                        value = forwardNode.getCurrentValue(false);
-                    }
-                    if(value != null) {
-                        count++;
-                    } else {
-                        System.out.println("size()中发现null值: key=" + entry.key);
-                    }
-                    entry = entry.next;
-                }
-            }
-            
-            // 遍历 ht1（如果存在）
-            if(ht1 != null) {
-                for(int i = 0; i < ht1.size; i++) {
-                    DictEntry<K,V> entry = ht1.table[i];
-                    while(entry != null) {
-                        Object value = entry.value;
-                        if(value instanceof ForwardNode) {
-                            ForwardNode forwardNode = (ForwardNode) value;
-                            // 主线程看到的是新值
-                            value = forwardNode.getCurrentValue(false);
-                        }
+        return liveCount;
+    }
 
-                        entry = entry.next;
-                    }
-                }
-            }
+    // 快照视图的元素数量，不在快照期间时等于size()
+    public int snapshotSize(){
+        return isSnapshotting.get() ? snapshotCount : liveCount;
+    }
 
-            return count;
+    // 根据可见值的变化维护计数，null表示不存在
+    private void adjustLiveCount(Object oldValue, Object newValue){
+        if(oldValue == null && newValue != null){
+            liveCount++;
+        } else if(oldValue != null && newValue == null){
+            liveCount--;
         }
     }
 
     // 开始创建快照
     public void startSnapshot() {
         synchronized (this) {
+            snapshotCount = liveCount;
             isSnapshotting.set(true);
         }
     }
@@ -548,34 +806,22 @@ public class Dict<K,V> {
     // 应用所有ForwardNode中的新值
     private  void applyForwardNodes() {
         synchronized (this){
-            System.out.println("=== applyForwardNodes开始 ===");
-            System.out.println("modifiedKeys数量: " + modifiedKeys.size());
-            
             // 只处理被修改的key，避免遍历整个哈希表
             for(K key : modifiedKeys) {
                 DictEntry<K,V> entry = find(key);
                 if(entry != null && entry.value instanceof ForwardNode) {
                     ForwardNode forwardNode = (ForwardNode) entry.value;
-                    System.out.println("处理ForwardNode: key=" + key + ", operation=" + forwardNode.operation.get());
-
                     if(forwardNode.newValue.get() == ForwardNode.REMOVED_SIGNAL) {
-                        // 删除该entry
-                        System.out.println("删除key: " + key);
+                        // 删除该entry，计数已在remove时扣减
                         removeEntryFromTable(key);
                     } else {
                         // 应用新值
-                        Object newValue = forwardNode.newValue.get();
-//                        System.out.println("应用新值: key=" + key + ", value=" + newValue);
-                        entry.value = newValue;
-//                        System.out.println("应用后entry.value=" + entry.value + ", 类型=" + entry.value.getClass().getSimpleName());
+                        entry.value = forwardNode.newValue.get();
                     }
-                } else {
-//                    System.out.println("key=" + key + ", entry=" + entry + ", value=" + (entry != null ? entry.value : "null"));
                 }
             }
             // 清空修改记录
             modifiedKeys.clear();
-            System.out.println("=== applyForwardNodes结束 ===");
         }
 
     }
@@ -643,7 +889,6 @@ public class Dict<K,V> {
             
             try {
                 // 在后台线程中创建快照，主线程可以继续写入
-                System.out.println("Creating RDB snapshot in background...");
                 return new DictSnapshot<>(this);
             } catch (Exception e) {
                 // 如果快照创建失败，确保清理快照状态
@@ -770,7 +1015,6 @@ public class Dict<K,V> {
             while(entry != null) {
                 Object value = entry.value;
                 if(value instanceof ForwardNode) {
-                    System.out.println("遇到转发节点，使用旧值");
                     ForwardNode forwardNode = (ForwardNode) value;
                     Object snapshotValue = forwardNode.getCurrentValue(true);
                     if(snapshotValue != null) {
@@ -0,0 +1,42 @@
+package site.hnfy258.internal;
+
+/**
+ * 键空间哈希表引擎
+ *
+ * <p>可选的引擎：
+ * <ul>
+ *     <li>{@link #CHAINED} - 链地址法的{@link Dict}，默认引擎</li>
+ *     <li>{@link #OPEN_ADDRESSING} - 开放寻址的{@link OpenDict}，并行数组存储，
+ *     查找时不追逐链表指针，缓存友好</li>
+ * </ul>
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public enum DictEngine {
+
+    /** 链地址法 */
+    CHAINED {
+        @Override
+        public <K, V> SnapshotDict<K, V> create() {
+            return new Dict<>();
+        }
+    },
+
+    /** 开放寻址 */
+    OPEN_ADDRESSING {
+        @Override
+        public <K, V> SnapshotDict<K, V> create() {
+            return new OpenDict<>();
+        }
+    };
+
+    /**
+     * 创建该引擎的空哈希表
+     *
+     * @param <K> 键类型
+     * @param <V> 值类型
+     * @return 新的哈希表
+     */
+    public abstract <K, V> SnapshotDict<K, V> create();
+}
@@ -0,0 +1,390 @@
+package site.hnfy258.internal;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 有序整数集合
+ *
+ * <p>所有元素升序存放在一个基本类型数组中，数组宽度按需升级：
+ * <ul>
+ *     <li>short[] - 所有元素都在short范围内</li>
+ *     <li>int[] - 出现超出short范围的元素时升级</li>
+ *     <li>long[] - 出现超出int范围的元素时升级</li>
+ * </ul>
+ * 升级后不会降级。数组长度始终等于元素个数，没有空闲空间。
+ *
+ * <p>查找使用二分查找，O(log N)；插入和删除需要复制数组，O(N)，
+ * 因此只适合元素数量受上层限制的小集合。
+ *
+ * <p>线程模型：单线程访问，不做任何同步。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class IntSet {
+
+    /** 共享的空数组 */
+    private static final short[] EMPTY = new short[0];
+
+    /** 宽度为2时的存储 */
+    private short[] shorts;
+
+    /** 宽度为4时的存储 */
+    private int[] ints;
+
+    /** 宽度为8时的存储 */
+    private long[] longs;
+
+    public IntSet() {
+        this.shorts = EMPTY;
+    }
+
+    // ========== 整数解析 ==========
+
+    /**
+     * 判断字节串是否是规范形式的64位整数
+     *
+     * <p>规范形式：可选的负号加十进制数字，没有前导零，不是"-0"，不溢出。
+     * 只有规范形式的整数才能以整数存储，保证转换回字节串时与原值完全相同。
+     *
+     * @param bytes 字节串
+     * @return 是否可以用{@link #toLong(byte[])}转换
+     */
+    public static boolean isLong(final byte[] bytes) {
+        final int len = bytes.length;
+        if (len == 0 || len > 20) {
+            return false;
+        }
+        int i = 0;
+        final boolean negative = bytes[0] == '-';
+        if (negative) {
+            if (len == 1) {
+                return false;
+            }
+            i = 1;
+        }
+        if (bytes[i] == '0') {
+            return len == 1;
+        }
+        // 按负数累加，可以表示Long.MIN_VALUE
+        long result = 0;
+        for (; i < len; i++) {
+            final int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || result < Long.MIN_VALUE / 10) {
+                return false;
+            }
+            result *= 10;
+            if (result < Long.MIN_VALUE + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        return negative || result != Long.MIN_VALUE;
+    }
+
+    /**
+     * 把规范形式的整数字节串转换为long
+     *
+     * @param bytes 通过{@link #isLong(byte[])}检查的字节串
+     * @return 整数值
+     */
+    public static long toLong(final byte[] bytes) {
+        final boolean negative = bytes[0] == '-';
+        long result = 0;
+        for (int i = negative ? 1 : 0; i < bytes.length; i++) {
+            result = result * 10 - (bytes[i] - '0');
+        }
+        return negative ? result : -result;
+    }
+
+    // ========== 查询 ==========
+
+    public int size() {
+        if (longs != null) {
+            return longs.length;
+        }
+        return ints != null ? ints.length : shorts.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 当前元素宽度
+     *
+     * @return 2、4或8字节
+     */
+    public int width() {
+        if (longs != null) {
+            return 8;
+        }
+        return ints != null ? 4 : 2;
+    }
+
+    /**
+     * 按下标读取元素，下标按元素升序
+     *
+     * @param index 下标
+     * @return 元素值
+     */
+    public long get(final int index) {
+        if (longs != null) {
+            return longs[index];
+        }
+        return ints != null ? ints[index] : shorts[index];
+    }
+
+    /**
+     * 二分查找元素
+     *
+     * @param value 元素值
+     * @return 是否存在
+     */
+    public boolean contains(final long value) {
+        return widthFor(value) <= width() && search(value) >= 0;
+    }
+
+    /**
+     * 随机返回一个元素
+     *
+     * @return 随机元素
+     * @throws IllegalStateException 如果集合为空
+     */
+    public long random() {
+        final int size = size();
+        if (size == 0) {
+            throw new IllegalStateException("整数集合为空");
+        }
+        return get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    // ========== 修改 ==========
+
+    /**
+     * 添加元素，需要时先升级宽度
+     *
+     * @param value 元素值
+     * @return 是否是新元素
+     */
+    public boolean add(final long value) {
+        final int required = widthFor(value);
+        if (required > width()) {
+            // 升级时新元素一定比所有元素都大或都小
+            upgrade(required);
+            insertAt(value < 0 ? 0 : size(), value);
+            return true;
+        }
+        final int pos = search(value);
+        if (pos >= 0) {
+            return false;
+        }
+        insertAt(-pos - 1, value);
+        return true;
+    }
+
+    /**
+     * 删除元素，不降级宽度
+     *
+     * @param value 元素值
+     * @return 是否删除了元素
+     */
+    public boolean remove(final long value) {
+        if (widthFor(value) > width()) {
+            return false;
+        }
+        final int pos = search(value);
+        if (pos < 0) {
+            return false;
+        }
+        removeAt(pos);
+        return true;
+    }
+
+    /**
+     * 按下标删除元素
+     *
+     * @param index 下标
+     * @return 被删除的元素值
+     */
+    public long removeAt(final int index) {
+        final long value = get(index);
+        final int size = size();
+        if (longs != null) {
+            final long[] next = new long[size - 1];
+            System.arraycopy(longs, 0, next, 0, index);
+            System.arraycopy(longs, index + 1, next, index, size - index - 1);
+            longs = next;
+        } else if (ints != null) {
+            final int[] next = new int[size - 1];
+            System.arraycopy(ints, 0, next, 0, index);
+            System.arraycopy(ints, index + 1, next, index, size - index - 1);
+            ints = next;
+        } else {
+            final short[] next = size == 1 ? EMPTY : new short[size - 1];
+            System.arraycopy(shorts, 0, next, 0, index);
+            System.arraycopy(shorts, index + 1, next, index, size - index - 1);
+            shorts = next;
+        }
+        return value;
+    }
+
+    public void clear() {
+        shorts = EMPTY;
+        ints = null;
+        longs = null;
+    }
+
+    /**
+     * 复制出独立的整数集合
+     *
+     * @return 副本
+     */
+    public IntSet copy() {
+        final IntSet copy = new IntSet();
+        if (longs != null) {
+            copy.longs = longs.clone();
+        } else if (ints != null) {
+            copy.ints = ints.clone();
+        } else if (shorts.length > 0) {
+            copy.shorts = shorts.clone();
+        }
+        return copy;
+    }
+
+    // ========== 序列化 ==========
+
+    /**
+     * 序列化为字节数组：1字节宽度，随后按小端序依次存放所有元素
+     *
+     * @return 序列化字节
+     */
+    public byte[] toByteArray() {
+        final int width = width();
+        final int size = size();
+        final byte[] bytes = new byte[1 + size * width];
+        bytes[0] = (byte) width;
+        int offset = 1;
+        for (int i = 0; i < size; i++) {
+            long v = get(i);
+            for (int b = 0; b < width; b++) {
+                bytes[offset++] = (byte) v;
+                v >>= 8;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 从序列化字节恢复整数集合，用于持久化加载
+     *
+     * @param bytes {@link #toByteArray()}的结果
+     * @return 整数集合
+     * @throws IllegalArgumentException 如果格式不合法或元素不是严格升序
+     */
+    public static IntSet fromBytes(final byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("整数集合格式错误");
+        }
+        final int width = bytes[0];
+        if ((width != 2 && width != 4 && width != 8) || (bytes.length - 1) % width != 0) {
+            throw new IllegalArgumentException("整数集合格式错误");
+        }
+        final int size = (bytes.length - 1) / width;
+        final long[] values = new long[size];
+        int offset = 1;
+        for (int i = 0; i < size; i++) {
+            long v = 0;
+            for (int b = 0; b < width; b++) {
+                v |= (bytes[offset++] & 0xFFL) << (8 * b);
+            }
+            // 符号扩展
+            final int unused = 64 - 8 * width;
+            values[i] = (v << unused) >> unused;
+            if (i > 0 && values[i] <= values[i - 1]) {
+                throw new IllegalArgumentException("整数集合元素必须严格升序");
+            }
+        }
+
+        final IntSet intSet = new IntSet();
+        if (width == 8) {
+            intSet.longs = values;
+        } else if (width == 4) {
+            intSet.ints = new int[size];
+            for (int i = 0; i < size; i++) {
+                intSet.ints[i] = (int) values[i];
+            }
+        } else if (size > 0) {
+            intSet.shorts = new short[size];
+            for (int i = 0; i < size; i++) {
+                intSet.shorts[i] = (short) values[i];
+            }
+        }
+        return intSet;
+    }
+
+    // ========== 内部实现 ==========
+
+    private static int widthFor(final long value) {
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            return 2;
+        }
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? 4 : 8;
+    }
+
+    /**
+     * 在当前宽度的数组中二分查找，调用方保证value在当前宽度范围内
+     */
+    private int search(final long value) {
+        if (longs != null) {
+            return Arrays.binarySearch(longs, value);
+        }
+        if (ints != null) {
+            return Arrays.binarySearch(ints, (int) value);
+        }
+        return Arrays.binarySearch(shorts, (short) value);
+    }
+
+    private void upgrade(final int width) {
+        final int size = size();
+        if (width == 8) {
+            final long[] next = new long[size];
+            for (int i = 0; i < size; i++) {
+                next[i] = get(i);
+            }
+            longs = next;
+            ints = null;
+        } else {
+            final int[] next = new int[size];
+            for (int i = 0; i < size; i++) {
+                next[i] = shorts[i];
+            }
+            ints = next;
+        }
+        shorts = EMPTY;
+    }
+
+    private void insertAt(final int index, final long value) {
+        final int size = size();
+        if (longs != null) {
+            final long[] next = new long[size + 1];
+            System.arraycopy(longs, 0, next, 0, index);
+            System.arraycopy(longs, index, next, index + 1, size - index);
+            next[index] = value;
+            longs = next;
+        } else if (ints != null) {
+            final int[] next = new int[size + 1];
+            System.arraycopy(ints, 0, next, 0, index);
+            System.arraycopy(ints, index, next, index + 1, size - index);
+            next[index] = (int) value;
+            ints = next;
+        } else {
+            final short[] next = new short[size + 1];
+            System.arraycopy(shorts, 0, next, 0, index);
+            System.arraycopy(shorts, index, next, index + 1, size - index);
+            next[index] = (short) value;
+            shorts = next;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package site.hnfy258.internal;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 集合内部使用的轻量哈希表
+ *
+ * <p>Hash、Set、Zset等值对象内部的哈希表只由命令线程访问，不需要{@link Dict}的快照机制。
+ * 与{@link Dict}相比去掉了快照标记、修改记录和ForwardNode，只保留：
+ * <ul>
+ *     <li>链地址法 - 节点直接实现{@link Map.Entry}，遍历时不创建新对象</li>
+ *     <li>渐进式rehash - 扩容和缩容的迁移分摊到后续的写操作上</li>
+ *     <li>自动缩容 - 删除后元素数量远小于桶数时缩小，清空后释放桶数组</li>
+ * </ul>
+ *
+ * <p>只有写操作推进rehash，读操作和遍历没有副作用。
+ * 空表不分配桶数组，小集合只占用一个对象头和少量节点。
+ *
+ * <p>线程模型：单线程访问，不做任何同步。快照期间需要读取的值对象由数据库层整体复制，
+ * 参见{@code RedisData#detach(long)}。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型，不能为null
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class LeanDict<K, V> {
+
+    /** 第一次写入时的桶数，必须是2的幂 */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** 元素数量低于桶数的该百分比时缩容 */
+    private static final int MIN_FILL_PERCENT = 10;
+
+    /** 每次rehash最多跳过的空桶数 */
+    private static final int REHASH_EMPTY_VISITS = 10;
+
+    /** 共享的空桶数组 */
+    private static final Entry<?, ?>[] EMPTY_TABLE = new Entry<?, ?>[0];
+
+    /**
+     * 哈希表节点
+     */
+    static final class Entry<K, V> implements Map.Entry<K, V> {
+        final K key;
+        final int hash;
+        V value;
+        Entry<K, V> next;
+
+        Entry(final K key, final int hash, final V value, final Entry<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            throw new UnsupportedOperationException("请通过put修改值");
+        }
+    }
+
+    private Entry<K, V>[] table0;
+    private Entry<K, V>[] table1;
+    private int used0;
+    private int used1;
+
+    /** table0中下一个待迁移的桶，-1表示不在rehash */
+    private int rehashIndex = -1;
+
+    @SuppressWarnings("unchecked")
+    public LeanDict() {
+        this.table0 = (Entry<K, V>[]) EMPTY_TABLE;
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // ========== 键值操作 ==========
+
+    public int size() {
+        return used0 + used1;
+    }
+
+    public boolean isEmpty() {
+        return used0 + used1 == 0;
+    }
+
+    public boolean containsKey(final K key) {
+        return key != null && find(key, hash(key)) != null;
+    }
+
+    /**
+     * 获取键对应的值，不推进rehash
+     *
+     * @param key 键
+     * @return 值，不存在时返回null
+     */
+    public V get(final K key) {
+        if (key == null) {
+            return null;
+        }
+        final Entry<K, V> entry = find(key, hash(key));
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 写入键值对
+     *
+     * @param key 键，不能为null
+     * @param value 值，不能为null
+     * @return 旧值，不存在时返回null
+     * @throws IllegalArgumentException 如果键或值为null
+     */
+    public V put(final K key, final V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("键和值不能为null");
+        }
+        rehashStep();
+        final int h = hash(key);
+        final Entry<K, V> existing = find(key, h);
+        if (existing != null) {
+            final V oldValue = existing.value;
+            existing.value = value;
+            return oldValue;
+        }
+
+        expandIfNeeded();
+        // rehash期间新键直接写入新表
+        if (rehashIndex != -1) {
+            final int idx = h & (table1.length - 1);
+            table1[idx] = new Entry<>(key, h, value, table1[idx]);
+            used1++;
+        } else {
+            final int idx = h & (table0.length - 1);
+            table0[idx] = new Entry<>(key, h, value, table0[idx]);
+            used0++;
+        }
+        return null;
+    }
+
+    /**
+     * 删除键
+     *
+     * @param key 键
+     * @return 被删除的值，不存在时返回null
+     */
+    public V remove(final K key) {
+        if (key == null || size() == 0) {
+            return null;
+        }
+        rehashStep();
+        final int h = hash(key);
+        Entry<K, V> removed = unlink(table0, key, h);
+        if (removed != null) {
+            used0--;
+        } else if (rehashIndex != -1) {
+            removed = unlink(table1, key, h);
+            if (removed != null) {
+                used1--;
+            }
+        }
+        if (removed == null) {
+            return null;
+        }
+        shrinkIfNeeded();
+        return removed.value;
+    }
+
+    /**
+     * 清空所有数据并释放桶数组
+     */
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        table0 = (Entry<K, V>[]) EMPTY_TABLE;
+        table1 = null;
+        used0 = 0;
+        used1 = 0;
+        rehashIndex = -1;
+    }
+
+    private Entry<K, V> find(final Object key, final int h) {
+        if (table0.length > 0) {
+            for (Entry<K, V> e = table0[h & (table0.length - 1)]; e != null; e = e.next) {
+                if (e.hash == h && (e.key == key || e.key.equals(key))) {
+                    return e;
+                }
+            }
+        }
+        if (rehashIndex != -1) {
+            for (Entry<K, V> e = table1[h & (table1.length - 1)]; e != null; e = e.next) {
+                if (e.hash == h && (e.key == key || e.key.equals(key))) {
+                    return e;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <K, V> Entry<K, V> unlink(final Entry<K, V>[] table, final Object key, final int h) {
+        if (table.length == 0) {
+            return null;
+        }
+        final int idx = h & (table.length - 1);
+        Entry<K, V> prev = null;
+        for (Entry<K, V> e = table[idx]; e != null; prev = e, e = e.next) {
+            if (e.hash == h && (e.key == key || e.key.equals(key))) {
+                if (prev == null) {
+                    table[idx] = e.next;
+                } else {
+                    prev.next = e.next;
+                }
+                return e;
+            }
+        }
+        return null;
+    }
+
+    // ========== 渐进式rehash ==========
+
+    private static int capacityFor(final int count) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < count) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * 插入新键前检查负载，元素数量达到桶数时扩容一倍
+     */
+    @SuppressWarnings("unchecked")
+    private void expandIfNeeded() {
+        if (rehashIndex != -1) {
+            return;
+        }
+        if (table0.length == 0) {
+            table0 = (Entry<K, V>[]) new Entry<?, ?>[INITIAL_CAPACITY];
+            return;
+        }
+        if (used0 >= table0.length) {
+            startResize(table0.length << 1);
+        }
+    }
+
+    /**
+     * 删除后检查负载，清空时释放桶数组，过于稀疏时缩容
+     */
+    private void shrinkIfNeeded() {
+        if (size() == 0) {
+            clear();
+            return;
+        }
+        if (rehashIndex != -1 || table0.length <= INITIAL_CAPACITY) {
+            return;
+        }
+        if ((long) used0 * 100 < (long) table0.length * MIN_FILL_PERCENT) {
+            startResize(capacityFor(used0));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void startResize(final int capacity) {
+        table1 = (Entry<K, V>[]) new Entry<?, ?>[capacity];
+        rehashIndex = 0;
+    }
+
+    /**
+     * 迁移旧表的一个非空桶，最多跳过{@link #REHASH_EMPTY_VISITS}个空桶
+     */
+    private void rehashStep() {
+        if (rehashIndex == -1) {
+            return;
+        }
+        final int mask = table1.length - 1;
+        int emptyVisits = REHASH_EMPTY_VISITS;
+        while (rehashIndex < table0.length && table0[rehashIndex] == null) {
+            rehashIndex++;
+            if (--emptyVisits == 0) {
+                return;
+            }
+        }
+        if (rehashIndex < table0.length) {
+            Entry<K, V> e = table0[rehashIndex];
+            while (e != null) {
+                final Entry<K, V> next = e.next;
+                final int idx = e.hash & mask;
+                e.next = table1[idx];
+                table1[idx] = e;
+                used0--;
+                used1++;
+                e = next;
+            }
+            table0[rehashIndex++] = null;
+        }
+        if (rehashIndex >= table0.length) {
+            table0 = table1;
+            used0 = used1;
+            table1 = null;
+            used1 = 0;
+            rehashIndex = -1;
+        }
+    }
+
+    // ========== 遍历与采样 ==========
+
+    /**
+     * 遍历所有键值对，返回的就是内部节点，不创建新对象
+     *
+     * <p>遍历期间不能修改哈希表。
+     *
+     * @return 键值对迭代器
+     */
+    public Iterator<Map.Entry<K, V>> entryIterator() {
+        return new TableIterator<Map.Entry<K, V>>() {
+            @Override
+            Map.Entry<K, V> current(final Entry<K, V> entry) {
+                return entry;
+            }
+        };
+    }
+
+    /**
+     * 遍历所有键，约束同{@link #entryIterator()}
+     *
+     * @return 键迭代器
+     */
+    public Iterator<K> keyIterator() {
+        return new TableIterator<K>() {
+            @Override
+            K current(final Entry<K, V> entry) {
+                return entry.key;
+            }
+        };
+    }
+
+    /**
+     * 随机返回一个键
+     *
+     * <p>在两张表的全部桶中随机选择非空桶，再在链中随机选择，
+     * 负载不超过1时链很短，各键被选中的概率近似相等。
+     *
+     * @return 随机键，为空时返回null
+     */
+    public K randomKey() {
+        if (size() == 0) {
+            return null;
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Entry<K, V>[] table = table0;
+            int idx;
+            if (rehashIndex == -1) {
+                idx = random.nextInt(table0.length);
+            } else {
+                // table0中rehashIndex之前的桶已经迁移为空
+                idx = rehashIndex + random.nextInt(table0.length - rehashIndex + table1.length);
+                if (idx >= table0.length) {
+                    table = table1;
+                    idx -= table0.length;
+                }
+            }
+            int length = 0;
+            for (Entry<K, V> e = table[idx]; e != null; e = e.next) {
+                length++;
+            }
+            if (length == 0) {
+                continue;
+            }
+            Entry<K, V> e = table[idx];
+            for (int i = random.nextInt(length); i > 0; i--) {
+                e = e.next;
+            }
+            return e.key;
+        }
+    }
+
+    /**
+     * 复制出结构独立的哈希表，键和值对象本身共享
+     *
+     * <p>副本按元素数量一次性分配桶数组，不处于rehash状态。
+     *
+     * @return 副本
+     */
+    @SuppressWarnings("unchecked")
+    public LeanDict<K, V> copy() {
+        final LeanDict<K, V> copy = new LeanDict<>();
+        final int count = size();
+        if (count == 0) {
+            return copy;
+        }
+        final Entry<K, V>[] table = (Entry<K, V>[]) new Entry<?, ?>[capacityFor(count)];
+        final int mask = table.length - 1;
+        copyInto(table0, table, mask);
+        if (rehashIndex != -1) {
+            copyInto(table1, table, mask);
+        }
+        copy.table0 = table;
+        copy.used0 = count;
+        return copy;
+    }
+
+    private static <K, V> void copyInto(final Entry<K, V>[] from, final Entry<K, V>[] to, final int mask) {
+        for (Entry<K, V> head : from) {
+            for (Entry<K, V> e = head; e != null; e = e.next) {
+                final int idx = e.hash & mask;
+                to[idx] = new Entry<>(e.key, e.hash, e.value, to[idx]);
+            }
+        }
+    }
+
+    /**
+     * 桶数组长度，用于观察扩容和缩容
+     *
+     * @return 当前主表的桶数
+     */
+    public int capacity() {
+        return rehashIndex != -1 ? table1.length : table0.length;
+    }
+
+    /**
+     * 按桶顺序遍历table0和table1
+     */
+    private abstract class TableIterator<T> implements Iterator<T> {
+        private Entry<K, V>[] table = table0;
+        private Entry<K, V>[] nextTable = rehashIndex != -1 ? table1 : null;
+        private int bucket = -1;
+        private Entry<K, V> next;
+
+        TableIterator() {
+            advance(null);
+        }
+
+        private void advance(final Entry<K, V> from) {
+            Entry<K, V> e = from != null ? from.next : null;
+            while (e == null) {
+                if (++bucket >= table.length) {
+                    if (nextTable == null) {
+                        next = null;
+                        return;
+                    }
+                    table = nextTable;
+                    nextTable = null;
+                    bucket = 0;
+                    if (table.length == 0) {
+                        next = null;
+                        return;
+                    }
+                }
+                e = table[bucket];
+            }
+            next = e;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            final Entry<K, V> entry = next;
+            if (entry == null) {
+                throw new NoSuchElementException();
+            }
+            advance(entry);
+            return current(entry);
+        }
+
+        abstract T current(Entry<K, V> entry);
+    }
+}
@@ -0,0 +1,374 @@
+package site.hnfy258.internal;
+
+import java.util.Arrays;
+
+/**
+ * 紧凑列表，所有元素连续存放在一个字节数组中
+ *
+ * <p>每个元素编码为：
+ * <ul>
+ *     <li>长度 - 无符号变长整数，每字节7位，最高位表示后面还有字节</li>
+ *     <li>内容 - 元素的原始字节</li>
+ * </ul>
+ *
+ * <p>没有指针和对象头，适合元素少且短的小集合：查找是线性扫描，
+ * 但数据全部在一块连续内存中，元素数量受上层限制时比哈希表更快也更省内存。
+ *
+ * <p>元素通过偏移量定位：{@link #first()}返回第一个元素的偏移量，
+ * {@link #next(int)}返回下一个元素的偏移量，没有更多元素时返回-1。
+ * 任何修改都会使之前得到的偏移量失效（修改位置之前的偏移量除外）。
+ *
+ * <p>线程模型：单线程访问，不做任何同步。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class ListPack {
+
+    /** 共享的空数组 */
+    private static final byte[] EMPTY = new byte[0];
+
+    /** 数据缓冲区，有效数据为[0, used) */
+    private byte[] buf;
+
+    /** 已使用的字节数 */
+    private int used;
+
+    /** 元素数量 */
+    private int count;
+
+    public ListPack() {
+        this.buf = EMPTY;
+    }
+
+    private ListPack(final byte[] buf, final int used, final int count) {
+        this.buf = buf;
+        this.used = used;
+        this.count = count;
+    }
+
+    /**
+     * 直接包装可信的字节数组，不做格式校验也不复制
+     *
+     * @param bytes 由紧凑列表产生的完整数据
+     * @param count 元素数量
+     * @return 紧凑列表
+     */
+    static ListPack wrap(final byte[] bytes, final int count) {
+        return new ListPack(bytes, bytes.length, count);
+    }
+
+    /**
+     * 从序列化字节恢复紧凑列表，用于持久化加载
+     *
+     * @param bytes {@link #toByteArray()}的结果
+     * @return 紧凑列表
+     * @throws IllegalArgumentException 如果字节格式不合法
+     */
+    public static ListPack fromBytes(final byte[] bytes) {
+        int offset = 0;
+        int count = 0;
+        while (offset < bytes.length) {
+            long length = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (offset >= bytes.length || shift > 28) {
+                    throw new IllegalArgumentException("紧凑列表格式错误");
+                }
+                b = bytes[offset++];
+                length |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (length > bytes.length - offset) {
+                throw new IllegalArgumentException("紧凑列表格式错误");
+            }
+            offset += (int) length;
+            count++;
+        }
+        return new ListPack(bytes.clone(), bytes.length, count);
+    }
+
+    // ========== 状态 ==========
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * 已使用的字节数，即序列化后的长度
+     *
+     * @return 字节数
+     */
+    public int bytes() {
+        return used;
+    }
+
+    /**
+     * 复制有效数据，用于持久化
+     *
+     * @return 序列化字节
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, used);
+    }
+
+    /**
+     * 复制出独立的紧凑列表，缓冲区按实际大小分配
+     *
+     * @return 副本
+     */
+    public ListPack copy() {
+        return new ListPack(used == 0 ? EMPTY : Arrays.copyOf(buf, used), used, count);
+    }
+
+    public void clear() {
+        buf = EMPTY;
+        used = 0;
+        count = 0;
+    }
+
+    // ========== 定位 ==========
+
+    /**
+     * 第一个元素的偏移量
+     *
+     * @return 偏移量，为空时返回-1
+     */
+    public int first() {
+        return count == 0 ? -1 : 0;
+    }
+
+    /**
+     * 下一个元素的偏移量
+     *
+     * @param offset 当前元素的偏移量
+     * @return 下一个元素的偏移量，当前元素是最后一个时返回-1
+     */
+    public int next(final int offset) {
+        final int end = offset + entrySize(offset);
+        return end < used ? end : -1;
+    }
+
+    /**
+     * 按下标定位元素，线性扫描
+     *
+     * @param index 下标，负数表示从末尾开始
+     * @return 偏移量，下标越界时返回-1
+     */
+    public int offsetOf(final int index) {
+        final int actual = index < 0 ? count + index : index;
+        if (actual < 0 || actual >= count) {
+            return -1;
+        }
+        int offset = 0;
+        for (int i = 0; i < actual; i++) {
+            offset += entrySize(offset);
+        }
+        return offset;
+    }
+
+    /**
+     * 查找内容相等的元素
+     *
+     * <p>从第一个元素开始比较，每比较一个元素后跳过skip个元素。
+     * 键值对交替存放时传1，只比较键。
+     *
+     * @param value 要查找的内容
+     * @param skip 每次比较后跳过的元素个数
+     * @return 偏移量，找不到时返回-1
+     */
+    public int find(final byte[] value, final int skip) {
+        int offset = 0;
+        while (offset < used) {
+            if (equalsAt(offset, value)) {
+                return offset;
+            }
+            offset += entrySize(offset);
+            for (int i = 0; i < skip && offset < used; i++) {
+                offset += entrySize(offset);
+            }
+        }
+        return -1;
+    }
+
+    // ========== 读取 ==========
+
+    /**
+     * 读取元素内容
+     *
+     * @param offset 元素偏移量
+     * @return 内容的副本
+     */
+    public byte[] get(final int offset) {
+        final int length = readLength(offset);
+        final int start = offset + lengthSize(length);
+        return Arrays.copyOfRange(buf, start, start + length);
+    }
+
+    /**
+     * 比较元素内容，不复制数据
+     *
+     * @param offset 元素偏移量
+     * @param value 要比较的内容
+     * @return 内容是否相等
+     */
+    public boolean equalsAt(final int offset, final byte[] value) {
+        final int length = readLength(offset);
+        if (length != value.length) {
+            return false;
+        }
+        final int start = offset + lengthSize(length);
+        return Arrays.equals(buf, start, start + length, value, 0, length);
+    }
+
+    /**
+     * 按无符号字节字典序比较元素内容，不复制数据
+     *
+     * @param offset 元素偏移量
+     * @param value 要比较的内容
+     * @return 负数表示元素较小，0表示相等，正数表示元素较大
+     */
+    public int compareAt(final int offset, final byte[] value) {
+        final int length = readLength(offset);
+        final int start = offset + lengthSize(length);
+        return Arrays.compareUnsigned(buf, start, start + length, value, 0, value.length);
+    }
+
+    // ========== 修改 ==========
+
+    /**
+     * 在末尾追加元素
+     *
+     * @param value 元素内容
+     */
+    public void append(final byte[] value) {
+        insert(used, value);
+    }
+
+    /**
+     * 在指定元素之前插入元素
+     *
+     * @param offset 插入位置的元素偏移量，等于{@link #bytes()}时追加到末尾
+     * @param value 元素内容
+     */
+    public void insert(final int offset, final byte[] value) {
+        final int size = lengthSize(value.length) + value.length;
+        ensureCapacity(used + size);
+        System.arraycopy(buf, offset, buf, offset + size, used - offset);
+        writeEntry(offset, value);
+        used += size;
+        count++;
+    }
+
+    /**
+     * 替换元素内容
+     *
+     * @param offset 元素偏移量
+     * @param value 新内容
+     */
+    public void replace(final int offset, final byte[] value) {
+        final int oldSize = entrySize(offset);
+        final int newSize = lengthSize(value.length) + value.length;
+        if (newSize != oldSize) {
+            ensureCapacity(used - oldSize + newSize);
+            System.arraycopy(buf, offset + oldSize, buf, offset + newSize, used - offset - oldSize);
+            used += newSize - oldSize;
+        }
+        writeEntry(offset, value);
+    }
+
+    /**
+     * 从指定元素开始删除连续的num个元素
+     *
+     * @param offset 第一个要删除的元素偏移量
+     * @param num 删除数量，超出末尾时删除到末尾
+     * @return 实际删除的数量
+     */
+    public int delete(final int offset, final int num) {
+        int end = offset;
+        int deleted = 0;
+        while (deleted < num && end < used) {
+            end += entrySize(end);
+            deleted++;
+        }
+        System.arraycopy(buf, end, buf, offset, used - end);
+        used -= end - offset;
+        count -= deleted;
+        if (count == 0) {
+            buf = EMPTY;
+        }
+        return deleted;
+    }
+
+    /**
+     * 从指定元素处拆分，该元素及之后的元素移入新的紧凑列表
+     *
+     * <p>拆分后两部分的缓冲区都按实际大小分配。
+     *
+     * @param offset 拆分位置的元素偏移量，等于{@link #bytes()}时返回空列表
+     * @return 包含后半部分元素的紧凑列表
+     */
+    public ListPack splitAt(final int offset) {
+        int tailCount = 0;
+        for (int o = offset; o < used; o += entrySize(o)) {
+            tailCount++;
+        }
+        final ListPack tail = tailCount == 0 ? new ListPack()
+                : new ListPack(Arrays.copyOfRange(buf, offset, used), used - offset, tailCount);
+        used = offset;
+        count -= tailCount;
+        buf = count == 0 ? EMPTY : Arrays.copyOf(buf, used);
+        return tail;
+    }
+
+    // ========== 编码 ==========
+
+    private static int lengthSize(final int length) {
+        int size = 1;
+        for (int v = length >>> 7; v != 0; v >>>= 7) {
+            size++;
+        }
+        return size;
+    }
+
+    private int readLength(int offset) {
+        int length = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buf[offset++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return length;
+    }
+
+    private int entrySize(final int offset) {
+        final int length = readLength(offset);
+        return lengthSize(length) + length;
+    }
+
+    private void writeEntry(int offset, final byte[] value) {
+        int v = value.length;
+        while (v >= 0x80) {
+            buf[offset++] = (byte) (v | 0x80);
+            v >>>= 7;
+        }
+        buf[offset++] = (byte) v;
+        System.arraycopy(value, 0, buf, offset, value.length);
+    }
+
+    /**
+     * 扩容时多分配一半，避免连续追加时反复复制
+     */
+    private void ensureCapacity(final int needed) {
+        if (needed > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(needed, buf.length + (buf.length >> 1)));
+        }
+    }
+}
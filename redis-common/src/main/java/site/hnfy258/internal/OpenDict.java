@@ -0,0 +1,852 @@
+package site.hnfy258.internal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * 开放寻址的键空间哈希表
+ *
+ * <p>与链地址法的{@link Dict}满足相同的{@link SnapshotDict}契约，但存储布局不同：
+ * 键、值和哈希指纹分别存放在三个并行数组中，没有独立的节点对象。
+ * 查找时先在int数组上比较指纹，只有指纹相同时才读取键并调用equals，
+ * 探测过程是连续的内存访问，不需要追逐链表指针。
+ *
+ * <p>实现要点：
+ * <ul>
+ *     <li>线性探测 - 槽位下标为指纹与掩码的与运算，冲突时顺序向后探测</li>
+ *     <li>墓碑删除 - 删除的槽位标记为墓碑，保证后续键的探测链不断开</li>
+ *     <li>渐进式rehash - 扩容时创建新表，每次读写迁移旧表的若干槽位</li>
+ *     <li>快照 - 快照期间暂停迁移，修改过的槽位用{@link SnapshotSlot}同时保存旧值和新值</li>
+ * </ul>
+ *
+ * <p>快照期间如果表需要扩容，会复制出新的数组而不改动旧数组，
+ * 快照线程始终读取进入快照时的数组，因此看到的仍是一致的数据。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class OpenDict<K, V> implements SnapshotDict<K, V> {
+
+    /** 初始容量，必须是2的幂 */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** 占用槽位（含墓碑）超过该百分比时扩容 */
+    private static final int MAX_LOAD_PERCENT = 75;
+
+    /** 扩容后的目标负载百分比 */
+    private static final int TARGET_LOAD_PERCENT = 50;
+
+    /** 每次渐进式rehash迁移的槽位数 */
+    private static final int REHASH_STEP_SLOTS = 16;
+
+    /** 存活键低于槽位数的该百分比时允许缩容 */
+    private static final int MIN_FILL_PERCENT = 10;
+
+    /** 主动rehash每执行这么多步检查一次时间 */
+    private static final int ACTIVE_REHASH_BATCH = 100;
+
+    /** 指纹：空槽位 */
+    private static final int FP_EMPTY = 0;
+
+    /** 指纹：墓碑 */
+    private static final int FP_TOMBSTONE = 1;
+
+    /** 快照期间新增的键在快照中的旧值 */
+    private static final Object ABSENT = new Object();
+
+    /** 快照期间删除的键等待应用的新值 */
+    private static final Object REMOVED = new Object();
+
+    /** 值数组的元素访问句柄，保证快照线程读到完整写入的槽位 */
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /**
+     * 哈希表，键、值和指纹按槽位下标并行存放
+     */
+    static final class Table {
+        final int[] fingerprints;
+        final Object[] keys;
+        final Object[] values;
+        final int mask;
+        /** 存放键的槽位数 */
+        int used;
+        /** 墓碑槽位数 */
+        int tombstones;
+
+        Table(final int capacity) {
+            this.fingerprints = new int[capacity];
+            this.keys = new Object[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+    }
+
+    /**
+     * 快照期间被修改的槽位值
+     */
+    static final class SnapshotSlot {
+        /** 快照看到的值，快照期间新增的键为{@link #ABSENT} */
+        final Object oldValue;
+        /** 当前值，被删除时为{@link #REMOVED} */
+        Object newValue;
+
+        SnapshotSlot(final Object oldValue, final Object newValue) {
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+    }
+
+    private Table t0;
+    private Table t1;
+
+    /** 旧表下一个待迁移的槽位，-1表示不在rehash */
+    private int rehashIndex = -1;
+
+    /** 当前可见的键数量 */
+    private int size;
+
+    /** 快照视图的键数量，进入快照时固定 */
+    private int snapshotCount;
+
+    private volatile boolean snapshotting;
+
+    /** 进入快照时的表，快照线程只读取它们 */
+    private Table snapshotT0;
+    private Table snapshotT1;
+
+    /** 快照期间被修改的键 */
+    private final List<K> modifiedKeys = new ArrayList<>();
+
+    public OpenDict() {
+        this.t0 = new Table(INITIAL_CAPACITY);
+    }
+
+    // ========== 槽位操作 ==========
+
+    /**
+     * 计算键的指纹，0和1保留给空槽位和墓碑
+     */
+    private static int fingerprint(final Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return h == FP_EMPTY || h == FP_TOMBSTONE ? h + 2 : h;
+    }
+
+    private static boolean isLive(final int fp) {
+        return fp != FP_EMPTY && fp != FP_TOMBSTONE;
+    }
+
+    /**
+     * 在表中查找键所在的槽位
+     *
+     * @return 槽位下标，不存在时返回-1
+     */
+    private static int findSlot(final Table table, final Object key, final int fp) {
+        final int[] fingerprints = table.fingerprints;
+        final int mask = table.mask;
+        int i = fp & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            final int f = fingerprints[i];
+            if (f == FP_EMPTY) {
+                return -1;
+            }
+            if (f == fp) {
+                final Object k = table.keys[i];
+                if (k == key || key.equals(k)) {
+                    return i;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 把已知不存在的键写入表中第一个可用槽位，可复用墓碑
+     */
+    private static void insertSlot(final Table table, final Object key, final int fp, final Object value) {
+        final int[] fingerprints = table.fingerprints;
+        final int mask = table.mask;
+        int i = fp & mask;
+        while (isLive(fingerprints[i])) {
+            i = (i + 1) & mask;
+        }
+        if (fingerprints[i] == FP_TOMBSTONE) {
+            table.tombstones--;
+        }
+        fingerprints[i] = fp;
+        table.keys[i] = key;
+        // 值最后发布，快照线程读到值时键一定可见
+        VALUES.setRelease(table.values, i, value);
+        table.used++;
+    }
+
+    /**
+     * 清空槽位，后继为空槽位时无需留下墓碑
+     */
+    private static void clearSlot(final Table table, final int slot) {
+        VALUES.setRelease(table.values, slot, (Object) null);
+        table.keys[slot] = null;
+        if (table.fingerprints[(slot + 1) & table.mask] == FP_EMPTY) {
+            table.fingerprints[slot] = FP_EMPTY;
+        } else {
+            table.fingerprints[slot] = FP_TOMBSTONE;
+            table.tombstones++;
+        }
+        table.used--;
+    }
+
+    /**
+     * 把槽位值还原为当前可见的值
+     */
+    private static Object visible(final Object raw) {
+        if (raw instanceof SnapshotSlot) {
+            final Object value = ((SnapshotSlot) raw).newValue;
+            return value == REMOVED ? null : value;
+        }
+        return raw;
+    }
+
+    // ========== 渐进式rehash ==========
+
+    private static int capacityFor(final int count) {
+        int capacity = INITIAL_CAPACITY;
+        while ((long) count * 100 > (long) capacity * TARGET_LOAD_PERCENT) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * 插入新键前检查负载，必要时开始rehash
+     */
+    private void ensureCapacity() {
+        Table target = t1 != null ? t1 : t0;
+        if ((target.used + target.tombstones + 1) * 100 <= target.capacity() * MAX_LOAD_PERCENT) {
+            return;
+        }
+        // 1. 快照期间不能移动槽位，复制出新数组
+        if (snapshotting) {
+            rebuild();
+            return;
+        }
+        // 2. 上一轮rehash还没完成，先同步完成
+        if (t1 != null) {
+            while (rehashIndex != -1) {
+                rehashStep();
+            }
+            target = t0;
+            if ((target.used + target.tombstones + 1) * 100 <= target.capacity() * MAX_LOAD_PERCENT) {
+                return;
+            }
+        }
+        // 3. 按存活键数量确定新容量，墓碑较多时新容量可能与旧容量相同
+        t1 = new Table(capacityFor(t0.used + 1));
+        rehashIndex = 0;
+    }
+
+    /**
+     * 从旧表迁移若干槽位到新表，快照期间不迁移
+     */
+    private void rehashStep() {
+        if (rehashIndex == -1 || snapshotting) {
+            return;
+        }
+        final Table from = t0;
+        final int end = Math.min(rehashIndex + REHASH_STEP_SLOTS, from.capacity());
+        for (int i = rehashIndex; i < end; i++) {
+            final int fp = from.fingerprints[i];
+            if (isLive(fp)) {
+                insertSlot(t1, from.keys[i], fp, from.values[i]);
+                // 旧表仍可能被查找，迁移走的槽位留下墓碑
+                from.keys[i] = null;
+                from.values[i] = null;
+                from.fingerprints[i] = FP_TOMBSTONE;
+                from.used--;
+                from.tombstones++;
+            }
+        }
+        rehashIndex = end;
+        if (rehashIndex >= from.capacity() || from.used == 0) {
+            t0 = t1;
+            t1 = null;
+            rehashIndex = -1;
+        }
+    }
+
+    /**
+     * 在时间预算内主动推进渐进式rehash，快照期间不迁移
+     */
+    @Override
+    public boolean rehashFor(final long budgetNanos) {
+        if (rehashIndex == -1 || snapshotting) {
+            return rehashIndex != -1;
+        }
+        final long deadline = System.nanoTime() + budgetNanos;
+        do {
+            for (int i = 0; i < ACTIVE_REHASH_BATCH && rehashIndex != -1; i++) {
+                rehashStep();
+            }
+        } while (rehashIndex != -1 && System.nanoTime() - deadline < 0);
+        return rehashIndex != -1;
+    }
+
+    /**
+     * 存活键远少于槽位数时开始缩容，新表容量按目标负载计算，迁移同时清除所有墓碑
+     */
+    @Override
+    public boolean tryShrink() {
+        if (t1 != null || snapshotting || t0.capacity() <= INITIAL_CAPACITY) {
+            return false;
+        }
+        if ((long) size * 100 >= (long) t0.capacity() * MIN_FILL_PERCENT) {
+            return false;
+        }
+        final int capacity = capacityFor(size);
+        if (capacity >= t0.capacity()) {
+            return false;
+        }
+        t1 = new Table(capacity);
+        rehashIndex = 0;
+        return true;
+    }
+
+    /**
+     * 快照期间扩容：把两张表的槽位复制到新数组，旧数组保持不变
+     */
+    private void rebuild() {
+        final int count = t0.used + (t1 != null ? t1.used : 0);
+        final Table table = new Table(capacityFor(count + 1));
+        copyLive(t0, table);
+        if (t1 != null) {
+            copyLive(t1, table);
+        }
+        t0 = table;
+        t1 = null;
+        rehashIndex = -1;
+    }
+
+    private static void copyLive(final Table from, final Table to) {
+        for (int i = 0; i < from.capacity(); i++) {
+            final int fp = from.fingerprints[i];
+            if (isLive(fp)) {
+                insertSlot(to, from.keys[i], fp, from.values[i]);
+            }
+        }
+    }
+
+    // ========== 键值操作 ==========
+
+    @Override
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Object put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key can not be null");
+        }
+        if (value == null) {
+            return remove(key);
+        }
+        rehashStep();
+        final int fp = fingerprint(key);
+
+        // 1. 键已存在，原地更新
+        Table table = t0;
+        int slot = findSlot(t0, key, fp);
+        if (slot < 0 && t1 != null) {
+            table = t1;
+            slot = findSlot(t1, key, fp);
+        }
+        if (slot >= 0) {
+            final Object raw = table.values[slot];
+            if (raw instanceof SnapshotSlot) {
+                final SnapshotSlot snapshotSlot = (SnapshotSlot) raw;
+                final Object oldValue = visible(raw);
+                snapshotSlot.newValue = value;
+                if (oldValue == null) {
+                    size++;
+                }
+                return oldValue;
+            }
+            if (snapshotting) {
+                VALUES.setRelease(table.values, slot, new SnapshotSlot(raw, value));
+                modifiedKeys.add(key);
+            } else {
+                VALUES.setRelease(table.values, slot, value);
+            }
+            return raw;
+        }
+
+        // 2. 新键，rehash期间写入新表
+        ensureCapacity();
+        if (snapshotting) {
+            insertSlot(t1 != null ? t1 : t0, key, fp, new SnapshotSlot(ABSENT, value));
+            modifiedKeys.add(key);
+        } else {
+            insertSlot(t1 != null ? t1 : t0, key, fp, value);
+        }
+        size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        rehashStep();
+        final int fp = fingerprint(key);
+        int slot = findSlot(t0, key, fp);
+        if (slot >= 0) {
+            return (V) visible(t0.values[slot]);
+        }
+        if (t1 != null) {
+            slot = findSlot(t1, key, fp);
+            if (slot >= 0) {
+                return (V) visible(t1.values[slot]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        rehashStep();
+        final int fp = fingerprint(key);
+        Table table = t0;
+        int slot = findSlot(t0, key, fp);
+        if (slot < 0 && t1 != null) {
+            table = t1;
+            slot = findSlot(t1, key, fp);
+        }
+        if (slot < 0) {
+            return null;
+        }
+
+        final Object raw = table.values[slot];
+        final Object oldValue = visible(raw);
+        if (oldValue == null) {
+            return null;
+        }
+        if (raw instanceof SnapshotSlot) {
+            ((SnapshotSlot) raw).newValue = REMOVED;
+        } else if (snapshotting) {
+            // 快照期间保留槽位，快照线程仍需读取旧值
+            VALUES.setRelease(table.values, slot, new SnapshotSlot(raw, REMOVED));
+            modifiedKeys.add(key);
+        } else {
+            clearSlot(table, slot);
+        }
+        size--;
+        return (V) oldValue;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> entryIterator() {
+        return new SlotIterator<Map.Entry<K, V>>(t0, t1, false) {
+            @Override
+            @SuppressWarnings("unchecked")
+            Map.Entry<K, V> current() {
+                return new AbstractMap.SimpleImmutableEntry<>((K) nextKey, (V) nextValue);
+            }
+        };
+    }
+
+    @Override
+    public Iterator<K> keyIterator() {
+        return new SlotIterator<K>(t0, t1, false) {
+            @Override
+            @SuppressWarnings("unchecked")
+            K current() {
+                return (K) nextKey;
+            }
+        };
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> snapshotIterator() {
+        if (!snapshotting) {
+            throw new IllegalStateException("必须在快照状态下调用此方法");
+        }
+        return new SlotIterator<Map.Entry<K, V>>(snapshotT0, snapshotT1, true) {
+            @Override
+            @SuppressWarnings("unchecked")
+            Map.Entry<K, V> current() {
+                return new AbstractMap.SimpleImmutableEntry<>((K) nextKey, (V) nextValue);
+            }
+        };
+    }
+
+    /**
+     * 按槽位顺序遍历一张或两张表，跳过当前视图（或快照视图）中不存在的键
+     */
+    private abstract static class SlotIterator<T> implements Iterator<T> {
+        private final boolean snapshotView;
+        private Table table;
+        private Table nextTable;
+        private int slot = -1;
+        Object nextKey;
+        Object nextValue;
+
+        SlotIterator(final Table first, final Table second, final boolean snapshotView) {
+            this.table = first;
+            this.nextTable = second;
+            this.snapshotView = snapshotView;
+            advance();
+        }
+
+        private void advance() {
+            while (true) {
+                if (++slot >= table.capacity()) {
+                    if (nextTable == null) {
+                        nextKey = null;
+                        return;
+                    }
+                    table = nextTable;
+                    nextTable = null;
+                    slot = 0;
+                }
+                // 先获取值再读取键，与写入顺序配对
+                Object value = VALUES.getAcquire(table.values, slot);
+                if (value == null) {
+                    continue;
+                }
+                if (snapshotView) {
+                    if (value instanceof SnapshotSlot) {
+                        value = ((SnapshotSlot) value).oldValue;
+                        if (value == ABSENT) {
+                            continue;
+                        }
+                    }
+                } else {
+                    value = visible(value);
+                }
+                final Object key = table.keys[slot];
+                if (value != null && key != null) {
+                    nextKey = key;
+                    nextValue = value;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextKey != null;
+        }
+
+        @Override
+        public T next() {
+            if (nextKey == null) {
+                throw new NoSuchElementException();
+            }
+            final T result = current();
+            advance();
+            return result;
+        }
+
+        abstract T current();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        final Set<K> keys = new HashSet<>();
+        collect(t0, keys, null);
+        if (t1 != null) {
+            collect(t1, keys, null);
+        }
+        return keys;
+    }
+
+    @Override
+    public Map<K, V> getAll() {
+        final Map<K, V> all = new HashMap<>();
+        collect(t0, null, all);
+        if (t1 != null) {
+            collect(t1, null, all);
+        }
+        return all;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void collect(final Table table, final Set<K> keys, final Map<K, V> entries) {
+        for (int i = 0; i < table.capacity(); i++) {
+            if (!isLive(table.fingerprints[i])) {
+                continue;
+            }
+            final Object value = visible(table.values[i]);
+            if (value == null) {
+                continue;
+            }
+            if (keys != null) {
+                keys.add((K) table.keys[i]);
+            } else {
+                entries.put((K) table.keys[i], (V) value);
+            }
+        }
+    }
+
+    /**
+     * 反向二进制游标迭代
+     *
+     * <p>按键的起始槽位（指纹与掩码）划分逻辑桶：访问桶b时从槽位b开始探测到空槽位为止，
+     * 只返回起始槽位为b的键。键在同一张表中不会移动，因此与链地址法的桶语义相同，
+     * 满足{@link SnapshotDict#scan(long, Consumer)}的保证。
+     */
+    @Override
+    public long scan(long cursor, Consumer<K> consumer) {
+        if (size == 0) {
+            return 0;
+        }
+        long v = cursor;
+        if (t1 == null) {
+            scanBucket(t0, (int) (v & t0.mask), consumer);
+            return nextCursor(v, t0.mask);
+        }
+        Table small = t0;
+        Table large = t1;
+        if (small.mask > large.mask) {
+            small = t1;
+            large = t0;
+        }
+        final long m0 = small.mask;
+        final long m1 = large.mask;
+        scanBucket(small, (int) (v & m0), consumer);
+        do {
+            scanBucket(large, (int) (v & m1), consumer);
+            v = nextCursor(v, m1);
+        } while ((v & (m0 ^ m1)) != 0);
+        return v;
+    }
+
+    private static long nextCursor(long v, final long mask) {
+        v |= ~mask;
+        v = Long.reverse(v);
+        v++;
+        return Long.reverse(v);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> void scanBucket(final Table table, final int bucket, final Consumer<K> consumer) {
+        final int mask = table.mask;
+        int i = bucket;
+        for (int probes = 0; probes <= mask; probes++) {
+            final int fp = table.fingerprints[i];
+            if (fp == FP_EMPTY) {
+                return;
+            }
+            if (isLive(fp) && (fp & mask) == bucket && visible(table.values[i]) != null) {
+                consumer.accept((K) table.keys[i]);
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 随机返回一个当前可见的键
+     *
+     * <p>每个键恰好占用一个槽位，因此在两张表的全部槽位中均匀随机选择、
+     * 拒绝空槽位和墓碑，得到的键是严格均匀的。期望探测次数为槽位数与键数之比。
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public K randomKey() {
+        if (size == 0) {
+            return null;
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int c0 = t0.capacity();
+        final int total = c0 + (t1 != null ? t1.capacity() : 0);
+        while (true) {
+            int i = random.nextInt(total);
+            Table table = t0;
+            if (i >= c0) {
+                table = t1;
+                i -= c0;
+            }
+            if (isLive(table.fingerprints[i]) && visible(table.values[i]) != null) {
+                return (K) table.keys[i];
+            }
+        }
+    }
+
+    /**
+     * 从随机槽位开始连续访问最多count*10个槽位，采样当前可见的键
+     *
+     * <p>两张表的槽位按下标首尾相接，访问不超过一整轮，同一个键不会返回两次。
+     */
+    @Override
+    public int sampleKeys(int count, Consumer<K> consumer) {
+        if (count <= 0 || size == 0) {
+            return 0;
+        }
+        count = Math.min(count, size);
+        final int c0 = t0.capacity();
+        final int total = c0 + (t1 != null ? t1.capacity() : 0);
+        final int maxSteps = (int) Math.min((long) count * 10, total);
+        int i = ThreadLocalRandom.current().nextInt(total);
+        int sampled = 0;
+        for (int steps = 0; steps < maxSteps && sampled < count; steps++) {
+            if (sampleSlot(i < c0 ? t0 : t1, i < c0 ? i : i - c0, consumer)) {
+                sampled++;
+            }
+            i = i + 1 == total ? 0 : i + 1;
+        }
+        return sampled;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> boolean sampleSlot(final Table table, final int slot, final Consumer<K> consumer) {
+        if (!isLive(table.fingerprints[slot]) || visible(table.values[slot]) == null) {
+            return false;
+        }
+        consumer.accept((K) table.keys[slot]);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int snapshotSize() {
+        return snapshotting ? snapshotCount : size;
+    }
+
+    @Override
+    public void clear() {
+        t0 = new Table(INITIAL_CAPACITY);
+        t1 = null;
+        rehashIndex = -1;
+        size = 0;
+        snapshotCount = 0;
+        modifiedKeys.clear();
+        snapshotT0 = null;
+        snapshotT1 = null;
+        snapshotting = false;
+    }
+
+    /**
+     * 获取当前的槽位容量，rehash期间为两张表之和
+     *
+     * @return 槽位容量
+     */
+    public int capacity() {
+        return t0.capacity() + (t1 != null ? t1.capacity() : 0);
+    }
+
+    @Override
+    public boolean isRehashing() {
+        return rehashIndex != -1;
+    }
+
+    // ========== 快照 ==========
+
+    @Override
+    public synchronized void startSnapshot() {
+        snapshotT0 = t0;
+        snapshotT1 = t1;
+        snapshotCount = size;
+        snapshotting = true;
+    }
+
+    @Override
+    public synchronized void finishSnapshot() {
+        if (!snapshotting) {
+            return;
+        }
+        snapshotting = false;
+        // 只处理被修改的键，不遍历整张表
+        for (K key : modifiedKeys) {
+            final int fp = fingerprint(key);
+            Table table = t0;
+            int slot = findSlot(t0, key, fp);
+            if (slot < 0 && t1 != null) {
+                table = t1;
+                slot = findSlot(t1, key, fp);
+            }
+            if (slot < 0 || !(table.values[slot] instanceof SnapshotSlot)) {
+                continue;
+            }
+            final Object newValue = ((SnapshotSlot) table.values[slot]).newValue;
+            if (newValue == REMOVED) {
+                clearSlot(table, slot);
+            } else {
+                VALUES.setRelease(table.values, slot, newValue);
+            }
+        }
+        modifiedKeys.clear();
+        snapshotT0 = null;
+        snapshotT1 = null;
+    }
+
+    @Override
+    public Map<K, V> createSnapshot() {
+        startSnapshot();
+        try {
+            return createSnapshotWithoutFinish();
+        } finally {
+            finishSnapshot();
+        }
+    }
+
+    @Override
+    public Map<K, V> createSnapshotWithoutFinish() {
+        if (!snapshotting) {
+            throw new IllegalStateException("必须在快照状态下调用此方法");
+        }
+        final Map<K, V> snapshot = new HashMap<>();
+        readSnapshot(snapshotT0, snapshot);
+        if (snapshotT1 != null) {
+            readSnapshot(snapshotT1, snapshot);
+        }
+        return snapshot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void readSnapshot(final Table table, final Map<K, V> snapshot) {
+        for (int i = 0; i < table.capacity(); i++) {
+            // 先获取值再读取键，与写入顺序配对
+            Object value = VALUES.getAcquire(table.values, i);
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof SnapshotSlot) {
+                value = ((SnapshotSlot) value).oldValue;
+                if (value == ABSENT || value == null) {
+                    continue;
+                }
+            }
+            final Object key = table.keys[i];
+            if (key != null) {
+                snapshot.put((K) key, (V) value);
+            }
+        }
+    }
+}
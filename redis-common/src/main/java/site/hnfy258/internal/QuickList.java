@@ -0,0 +1,747 @@
+package site.hnfy258.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 快速列表，由{@link ListPack}节点组成的双向链表
+ *
+ * <p>每个节点是一个大小受限的紧凑列表，节点大小由fill决定：
+ * <ul>
+ *     <li>正数 - 每个节点最多存放的元素个数</li>
+ *     <li>-1到-5 - 每个节点最多占用4KB、8KB、16KB、32KB、64KB</li>
+ * </ul>
+ * 超过节点上限的单个元素独占一个节点。
+ *
+ * <p>compressDepth大于0时，两端各compressDepth个节点保持原始形式，
+ * 中间的节点使用Deflate压缩：队列只在两端读写，中间的数据很少被访问，
+ * 读取压缩节点时临时解压，修改时解压后重新压缩。
+ *
+ * <p>复杂度：两端推入弹出O(节点大小)；按下标访问先跳过整个节点再在节点内扫描，
+ * O(节点数 + 节点大小)；范围读取和遍历是线性的。
+ *
+ * <p>线程模型：单线程访问，不做任何同步。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class QuickList {
+
+    /** fill为负数时每个节点的字节上限，下标为-fill-1 */
+    private static final int[] SIZE_LIMITS = {4096, 8192, 16384, 32768, 65536};
+
+    /** 小于该字节数的节点不值得压缩 */
+    private static final int MIN_COMPRESS_BYTES = 48;
+
+    /** 元素长度前缀的最大字节数，用于估算插入后的节点大小 */
+    private static final int MAX_LENGTH_SIZE = 5;
+
+    private static final class Node {
+        Node prev;
+        Node next;
+        /** 原始形式的数据，压缩时为null */
+        ListPack pack;
+        /** 压缩后的数据，原始形式时为null；创建后不再修改，副本之间可以共享 */
+        byte[] compressed;
+        /** 原始形式的字节数 */
+        int rawBytes;
+        /** 元素个数 */
+        int count;
+    }
+
+    private final int fill;
+
+    private final int compressDepth;
+
+    private Node head;
+
+    private Node tail;
+
+    private int size;
+
+    private int nodeCount;
+
+    /** {@link #locate(int)}的输出：元素在节点内的下标 */
+    private int seekIndex;
+
+    /**
+     * 创建快速列表
+     *
+     * @param fill 节点大小，正数为元素个数，-1到-5为字节上限
+     * @param compressDepth 两端不压缩的节点数，0表示不压缩
+     * @throws IllegalArgumentException 如果参数不合法
+     */
+    public QuickList(final int fill, final int compressDepth) {
+        if (fill == 0 || fill < -SIZE_LIMITS.length) {
+            throw new IllegalArgumentException("节点大小必须是正数或-1到-5");
+        }
+        if (compressDepth < 0) {
+            throw new IllegalArgumentException("压缩深度不能为负数");
+        }
+        this.fill = fill;
+        this.compressDepth = compressDepth;
+    }
+
+    // ========== 状态 ==========
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 所有节点实际占用的数据字节数，压缩节点按压缩后的大小计算
+     *
+     * @return 字节数
+     */
+    public long storedBytes() {
+        long bytes = 0;
+        for (Node node = head; node != null; node = node.next) {
+            bytes += node.compressed != null ? node.compressed.length : node.rawBytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * 复制出独立的快速列表
+     *
+     * <p>压缩节点的数据创建后不再修改，副本直接共享，不需要解压。
+     *
+     * @return 副本
+     */
+    public QuickList copy() {
+        final QuickList copy = new QuickList(fill, compressDepth);
+        for (Node node = head; node != null; node = node.next) {
+            final Node cloned = new Node();
+            cloned.count = node.count;
+            cloned.rawBytes = node.rawBytes;
+            if (node.compressed != null) {
+                cloned.compressed = node.compressed;
+            } else {
+                cloned.pack = node.pack.copy();
+            }
+            copy.linkAfter(copy.tail, cloned);
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+        nodeCount = 0;
+    }
+
+    // ========== 两端操作 ==========
+
+    public void pushHead(final byte[] value) {
+        if (head != null && allowInsert(head, value)) {
+            open(head).insert(0, value);
+            settle(head);
+        } else {
+            linkBefore(head, newNode(value));
+            updateCompression();
+        }
+        size++;
+    }
+
+    public void pushTail(final byte[] value) {
+        if (tail != null && allowInsert(tail, value)) {
+            open(tail).append(value);
+            settle(tail);
+        } else {
+            linkAfter(tail, newNode(value));
+            updateCompression();
+        }
+        size++;
+    }
+
+    /**
+     * 弹出第一个元素
+     *
+     * @return 元素内容，列表为空时返回null
+     */
+    public byte[] popHead() {
+        if (head == null) {
+            return null;
+        }
+        return removeFrom(head, 0);
+    }
+
+    /**
+     * 弹出最后一个元素
+     *
+     * @return 元素内容，列表为空时返回null
+     */
+    public byte[] popTail() {
+        if (tail == null) {
+            return null;
+        }
+        return removeFrom(tail, tail.count - 1);
+    }
+
+    // ========== 按下标操作 ==========
+
+    /**
+     * 按下标读取元素
+     *
+     * @param index 下标，负数表示从末尾开始
+     * @return 元素内容，下标越界时返回null
+     */
+    public byte[] get(final long index) {
+        final int actual = normalize(index);
+        if (actual < 0) {
+            return null;
+        }
+        final Node node = locate(actual);
+        final ListPack pack = view(node);
+        return pack.get(pack.offsetOf(seekIndex));
+    }
+
+    /**
+     * 替换指定下标的元素
+     *
+     * <p>替换后节点超过字节上限时把该元素拆分到单独的节点。
+     *
+     * @param index 下标，负数表示从末尾开始
+     * @param value 新内容
+     * @return 下标是否有效
+     */
+    public boolean set(final long index, final byte[] value) {
+        final int actual = normalize(index);
+        if (actual < 0) {
+            return false;
+        }
+        Node node = locate(actual);
+        final ListPack pack = open(node);
+        pack.replace(pack.offsetOf(seekIndex), value);
+        node.rawBytes = pack.bytes();
+        if (fill < 0 && node.rawBytes > SIZE_LIMITS[-fill - 1] && node.count > 1) {
+            // 1. 把元素之前的部分留在原节点
+            Node left = null;
+            if (seekIndex > 0) {
+                left = node;
+                node = splitNode(node, seekIndex);
+            }
+            // 2. 把元素之后的部分移到新节点
+            if (node.count > 1) {
+                settle(splitNode(node, 1));
+            }
+            if (left != null) {
+                settle(left);
+            }
+            updateCompression();
+        }
+        settle(node);
+        return true;
+    }
+
+    /**
+     * 在指定下标处插入元素，原来的元素及之后的元素后移
+     *
+     * @param index 插入位置，取值[0, size]
+     * @param value 元素内容
+     * @throws IndexOutOfBoundsException 如果下标越界
+     */
+    public void insert(final int index, final byte[] value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("下标越界: " + index);
+        }
+        if (index == 0) {
+            pushHead(value);
+            return;
+        }
+        if (index == size) {
+            pushTail(value);
+            return;
+        }
+
+        final Node node = locate(index);
+        final int local = seekIndex;
+        // 1. 节点还有空间时直接插入
+        if (allowInsert(node, value)) {
+            final ListPack pack = open(node);
+            pack.insert(pack.offsetOf(local), value);
+            settle(node);
+            size++;
+            return;
+        }
+
+        // 2. 插入位置在节点开头时尝试追加到前一个节点
+        if (local == 0 && node.prev != null && allowInsert(node.prev, value)) {
+            open(node.prev).append(value);
+            settle(node.prev);
+            size++;
+            return;
+        }
+
+        // 3. 从插入位置拆分节点，插入到前半部分的末尾或两部分之间的新节点
+        final Node left = local == 0 ? node.prev : node;
+        if (local > 0) {
+            settle(splitNode(node, local));
+        }
+        if (left != null && allowInsert(left, value)) {
+            open(left).append(value);
+            settle(left);
+        } else {
+            final Node created = newNode(value);
+            linkAfter(left, created);
+            settle(created);
+            if (local > 0) {
+                settle(left);
+            }
+        }
+        updateCompression();
+        size++;
+    }
+
+    /**
+     * 删除从start开始的连续count个元素
+     *
+     * <p>完全落在范围内的节点直接摘除，不逐个删除元素。
+     *
+     * @param start 起始下标
+     * @param count 删除数量，超出末尾时删除到末尾
+     */
+    public void delete(final int start, final int count) {
+        if (start < 0 || start >= size || count <= 0) {
+            return;
+        }
+        Node node = locate(start);
+        int local = seekIndex;
+        int remaining = Math.min(count, size - start);
+        size -= remaining;
+        boolean unlinked = false;
+        while (remaining > 0) {
+            final Node next = node.next;
+            if (local == 0 && remaining >= node.count) {
+                remaining -= node.count;
+                unlink(node);
+                unlinked = true;
+            } else {
+                final int n = Math.min(remaining, node.count - local);
+                final ListPack pack = open(node);
+                pack.delete(pack.offsetOf(local), n);
+                remaining -= n;
+                settle(node);
+            }
+            local = 0;
+            node = next;
+        }
+        if (unlinked) {
+            updateCompression();
+        }
+    }
+
+    // ========== 按内容操作 ==========
+
+    /**
+     * 查找第一个内容相等的元素
+     *
+     * @param value 要查找的内容
+     * @return 下标，找不到时返回-1
+     */
+    public int indexOf(final byte[] value) {
+        int base = 0;
+        for (Node node = head; node != null; node = node.next) {
+            final ListPack pack = view(node);
+            int i = 0;
+            for (int offset = pack.first(); offset != -1; offset = pack.next(offset)) {
+                if (pack.equalsAt(offset, value)) {
+                    return base + i;
+                }
+                i++;
+            }
+            base += node.count;
+        }
+        return -1;
+    }
+
+    /**
+     * 删除内容相等的元素
+     *
+     * @param value 要删除的内容
+     * @param count 大于0时从头部开始最多删除count个，小于0时从尾部开始最多删除-count个，0表示全部删除
+     * @return 删除的数量
+     */
+    public int remove(final byte[] value, final long count) {
+        // 1. 从尾部删除时先统计总数，跳过前面不需要删除的匹配
+        long skip = 0;
+        if (count < 0) {
+            long matches = 0;
+            for (Node node = head; node != null; node = node.next) {
+                final ListPack pack = view(node);
+                for (int offset = pack.first(); offset != -1; offset = pack.next(offset)) {
+                    if (pack.equalsAt(offset, value)) {
+                        matches++;
+                    }
+                }
+            }
+            skip = Math.max(0, matches + count);
+        }
+        final long limit = count == 0 ? Long.MAX_VALUE : Math.abs(count);
+
+        // 2. 只有真正删除元素的节点才会被解压修改
+        int removed = 0;
+        boolean unlinked = false;
+        Node node = head;
+        while (node != null && removed < limit) {
+            final Node next = node.next;
+            ListPack pack = view(node);
+            boolean modified = false;
+            int offset = 0;
+            while (offset < pack.bytes() && removed < limit) {
+                if (!pack.equalsAt(offset, value)) {
+                    offset = advance(pack, offset);
+                } else if (skip > 0) {
+                    skip--;
+                    offset = advance(pack, offset);
+                } else {
+                    if (!modified) {
+                        pack = open(node);
+                        modified = true;
+                    }
+                    pack.delete(offset, 1);
+                    removed++;
+                }
+            }
+            if (modified) {
+                if (pack.isEmpty()) {
+                    unlink(node);
+                    unlinked = true;
+                } else {
+                    settle(node);
+                }
+            }
+            node = next;
+        }
+        size -= removed;
+        if (unlinked) {
+            updateCompression();
+        }
+        return removed;
+    }
+
+    // ========== 遍历 ==========
+
+    public Iterator<byte[]> iterator() {
+        return iterator(0);
+    }
+
+    /**
+     * 从指定下标开始正向遍历
+     *
+     * <p>每个压缩节点只解压一次。遍历期间不能修改列表。
+     *
+     * @param start 起始下标
+     * @return 元素迭代器，每个元素都是副本
+     */
+    public Iterator<byte[]> iterator(final int start) {
+        return new Iterator<byte[]>() {
+            private Node node;
+            private ListPack pack;
+            private int offset = -1;
+
+            {
+                if (start >= 0 && start < size) {
+                    node = locate(start);
+                    pack = view(node);
+                    offset = pack.offsetOf(seekIndex);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return offset != -1;
+            }
+
+            @Override
+            public byte[] next() {
+                if (offset == -1) {
+                    throw new NoSuchElementException();
+                }
+                final byte[] value = pack.get(offset);
+                offset = pack.next(offset);
+                if (offset == -1 && node.next != null) {
+                    node = node.next;
+                    pack = view(node);
+                    offset = pack.first();
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * 读取从start开始的连续count个元素
+     *
+     * @param start 起始下标
+     * @param count 数量，超出末尾时读取到末尾
+     * @return 元素列表
+     */
+    public List<byte[]> range(final int start, final int count) {
+        if (start < 0 || start >= size || count <= 0) {
+            return new ArrayList<>(0);
+        }
+        final int n = Math.min(count, size - start);
+        final List<byte[]> result = new ArrayList<>(n);
+        final Iterator<byte[]> iterator = iterator(start);
+        for (int i = 0; i < n; i++) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    // ========== 内部实现 ==========
+
+    private int normalize(final long index) {
+        final long actual = index < 0 ? size + index : index;
+        return actual < 0 || actual >= size ? -1 : (int) actual;
+    }
+
+    /**
+     * 定位下标所在的节点，从较近的一端开始按节点跳过
+     *
+     * @param index 有效下标
+     * @return 节点，节点内下标写入{@link #seekIndex}
+     */
+    private Node locate(final int index) {
+        if (index < size / 2) {
+            int remaining = index;
+            Node node = head;
+            while (remaining >= node.count) {
+                remaining -= node.count;
+                node = node.next;
+            }
+            seekIndex = remaining;
+            return node;
+        }
+        int remaining = size - 1 - index;
+        Node node = tail;
+        while (remaining >= node.count) {
+            remaining -= node.count;
+            node = node.prev;
+        }
+        seekIndex = node.count - 1 - remaining;
+        return node;
+    }
+
+    private byte[] removeFrom(final Node node, final int local) {
+        final ListPack pack = open(node);
+        final int offset = pack.offsetOf(local);
+        final byte[] value = pack.get(offset);
+        pack.delete(offset, 1);
+        size--;
+        if (pack.isEmpty()) {
+            unlink(node);
+            updateCompression();
+        } else {
+            settle(node);
+        }
+        return value;
+    }
+
+    private static int advance(final ListPack pack, final int offset) {
+        final int next = pack.next(offset);
+        return next == -1 ? pack.bytes() : next;
+    }
+
+    private boolean allowInsert(final Node node, final byte[] value) {
+        if (fill > 0) {
+            return node.count < fill;
+        }
+        return node.rawBytes + MAX_LENGTH_SIZE + value.length <= SIZE_LIMITS[-fill - 1];
+    }
+
+    private static Node newNode(final byte[] value) {
+        final Node node = new Node();
+        node.pack = new ListPack();
+        node.pack.append(value);
+        node.rawBytes = node.pack.bytes();
+        node.count = 1;
+        return node;
+    }
+
+    /**
+     * 从节点内下标处拆分，后半部分移入新节点并链接在原节点之后
+     */
+    private Node splitNode(final Node node, final int local) {
+        final ListPack pack = open(node);
+        final Node right = new Node();
+        right.pack = pack.splitAt(pack.offsetOf(local));
+        right.rawBytes = right.pack.bytes();
+        right.count = right.pack.size();
+        node.rawBytes = pack.bytes();
+        node.count = pack.size();
+        linkAfter(node, right);
+        return right;
+    }
+
+    private void linkBefore(final Node next, final Node node) {
+        linkAfter(next == null ? tail : next.prev, node);
+    }
+
+    /**
+     * 把节点链接在prev之后，prev为null时链接到头部
+     */
+    private void linkAfter(final Node prev, final Node node) {
+        final Node next = prev == null ? head : prev.next;
+        node.prev = prev;
+        node.next = next;
+        if (prev == null) {
+            head = node;
+        } else {
+            prev.next = node;
+        }
+        if (next == null) {
+            tail = node;
+        } else {
+            next.prev = node;
+        }
+        nodeCount++;
+    }
+
+    private void unlink(final Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        nodeCount--;
+    }
+
+    // ========== 压缩 ==========
+
+    /**
+     * 读取节点数据，压缩节点临时解压，不改变节点状态
+     */
+    private static ListPack view(final Node node) {
+        return node.pack != null ? node.pack : inflate(node);
+    }
+
+    /**
+     * 取得节点数据用于修改，压缩节点解压为原始形式，修改后必须调用{@link #settle(Node)}
+     */
+    private static ListPack open(final Node node) {
+        if (node.pack == null) {
+            node.pack = inflate(node);
+            node.compressed = null;
+        }
+        return node.pack;
+    }
+
+    /**
+     * 节点修改完成，更新统计并按位置重新压缩
+     */
+    private void settle(final Node node) {
+        node.rawBytes = node.pack.bytes();
+        node.count = node.pack.size();
+        if (compressDepth > 0 && !nearEnd(node)) {
+            compress(node);
+        }
+    }
+
+    /**
+     * 节点增减后调整两端的压缩边界：两端compressDepth个节点解压，紧邻边界的节点压缩
+     */
+    private void updateCompression() {
+        if (compressDepth == 0) {
+            return;
+        }
+        Node forward = head;
+        Node backward = tail;
+        for (int i = 0; i < compressDepth && forward != null; i++) {
+            open(forward);
+            open(backward);
+            forward = forward.next;
+            backward = backward.prev;
+        }
+        if (forward != null && !nearEnd(forward)) {
+            compress(forward);
+        }
+        if (backward != null && !nearEnd(backward)) {
+            compress(backward);
+        }
+    }
+
+    private boolean nearEnd(final Node node) {
+        Node forward = head;
+        Node backward = tail;
+        for (int i = 0; i < compressDepth && forward != null; i++) {
+            if (forward == node || backward == node) {
+                return true;
+            }
+            forward = forward.next;
+            backward = backward.prev;
+        }
+        return false;
+    }
+
+    /**
+     * 压缩节点，压缩后没有明显变小时保持原始形式
+     */
+    private static void compress(final Node node) {
+        if (node.pack == null || node.rawBytes < MIN_COMPRESS_BYTES) {
+            return;
+        }
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(node.pack.toByteArray());
+            deflater.finish();
+            final byte[] out = new byte[node.rawBytes - 8];
+            final int length = deflater.deflate(out);
+            if (!deflater.finished()) {
+                return;
+            }
+            node.compressed = Arrays.copyOf(out, length);
+            node.pack = null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static ListPack inflate(final Node node) {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(node.compressed);
+            final byte[] raw = new byte[node.rawBytes];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                final int n = inflater.inflate(raw, length, raw.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("压缩节点数据不完整");
+            }
+            return ListPack.wrap(raw, node.count);
+        } catch (final DataFormatException e) {
+            throw new IllegalStateException("压缩节点数据损坏", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
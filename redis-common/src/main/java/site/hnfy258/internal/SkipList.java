@@ -4,8 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 /**
  * 改进版跳表(SkipList) - Redis风格的有序集合核心数据结构实现
@@ -31,6 +33,14 @@ import java.util.Random;
  *   <li>线程安全：设计为在Redis的单线程命令执行模型下使用，不需要同步</li>
  * </ul>
  *
+ * <p>分配：</p>
+ * <ul>
+ *   <li>每个节点的各层前向指针和跨度分别存放在两个数组中，不再为每层单独分配对象</li>
+ *   <li>插入和删除使用实例内复用的前驱和排名数组，除新节点外不分配对象</li>
+ *   <li>随机层数由线程本地随机数的末尾零位计算，没有共享的随机数生成器</li>
+ *   <li>范围遍历以回调方式逐个访问节点，不生成中间列表</li>
+ * </ul>
+ *
  * @author hnfy258
  * @since 1.0
  */
@@ -38,100 +48,105 @@ import java.util.Random;
 public class SkipList<T extends Comparable<T>> implements Serializable {
     /** 最大层数，Redis默认值 */
     private static final int MAX_LEVEL = 32;
-    
-    /** 层数增长概率，Redis默认值 */
-    private static final double P = 0.25;
-    
+
     /** 头节点，哨兵节点，分数为负无穷 */
     private final SkipListNode<T> head;
-    
+
+    /** 尾节点，跳表为空时为null */
+    private SkipListNode<T> tail;
+
     /** 当前最大层数 */
     private int level;
-    
+
     /** 节点数量 */
     private int size;
-    
-    /** 用于生成随机层数 */
-    private final Random random;
+
+    /** 插入和删除时复用的各层前驱节点，只在单次操作内有效 */
+    private transient SkipListNode<T>[] update;
+
+    /** 插入时复用的各层前驱节点排名 */
+    private transient int[] rank;
 
     /**
      * 跳表节点实现
-     * 
+     *
      * <p>每个节点包含：</p>
      * <ul>
      *   <li>分数：用于主要排序</li>
      *   <li>成员：当分数相同时用于次要排序</li>
      *   <li>后向指针：支持反向遍历</li>
-     *   <li>层：包含前向指针和跨度</li>
+     *   <li>层：各层的前向指针和跨度，按层下标存放在两个数组中</li>
      * </ul>
      */
     public static class SkipListNode<T> {
         /** 节点分数，主排序键 */
         public final double score;
-        
+
         /** 节点成员，次排序键 */
         public final T member;
-        
+
         /** 后向指针，用于反向遍历 */
         SkipListNode<T> backward;
-        
-        /** 层数组，包含前向指针和跨度 */
-        final SkipListLevel[] level;
+
+        /** 各层的前向指针 */
+        final SkipListNode<T>[] forward;
+
+        /** 各层的跨度，到下一个节点跨越的节点数量 */
+        final int[] span;
 
         /**
          * 创建指定层数的跳表节点
-         * 
+         *
          * @param level 节点层数
          * @param score 节点分数
          * @param member 节点成员
          */
+        @SuppressWarnings("unchecked")
         public SkipListNode(int level, double score, T member) {
-            this.level = new SkipListLevel[level];
-            for (int i = 0; i < level; i++) {
-                this.level[i] = new SkipListLevel();
-            }
+            this.forward = new SkipListNode[level];
+            this.span = new int[level];
             this.score = score;
             this.member = member;
             this.backward = null;
         }
 
         /**
-         * 跳表层实现，包含前向指针和跨度
+         * 获取第0层的后继节点，用于按顺序遍历
+         *
+         * @return 后继节点，当前节点是最后一个时返回null
          */
-        static class SkipListLevel {
-            /** 前向指针 */
-            SkipListNode forward;
-            
-            /** 跨度，到下一个节点跨越的节点数量 */
-            long span;
-
-            public SkipListLevel() {
-                this.forward = null;
-                this.span = 0;
-            }
+        public SkipListNode<T> next() {
+            return forward[0];
+        }
+
+        /**
+         * 获取前驱节点，用于反向遍历
+         *
+         * @return 前驱节点，当前节点是第一个时返回null
+         */
+        public SkipListNode<T> previous() {
+            return backward;
         }
     }
 
     /**
      * 创建一个空的跳表
-     * 
+     *
      * <p>初始化：</p>
      * <ul>
      *   <li>创建头节点，分数为负无穷</li>
      *   <li>初始层数为1</li>
-     *   <li>初始化随机数生成器</li>
      * </ul>
      */
     public SkipList() {
         head = new SkipListNode<>(MAX_LEVEL, Double.NEGATIVE_INFINITY, null);
         level = 1;
         size = 0;
-        random = new Random();
     }
 
     /**
      * 获取跳表中的节点数量
-     * 
+     *
      * @return 节点数量
      */
     public int size() {
@@ -140,7 +155,7 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
 
     /**
      * 检查跳表是否为空
-     * 
+     *
      * @return true如果跳表为空
      */
     public boolean isEmpty() {
@@ -149,53 +164,41 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
 
     /**
      * 获取跳表中分数最小的节点
-     * 
+     *
      * @return 第一个节点，如果跳表为空则返回null
      */
     public SkipListNode<T> getFirst() {
-        return head.level[0].forward;
+        return head.forward[0];
     }
 
     /**
      * 获取跳表中分数最大的节点
-     * 
-     * <p>从最高层开始，沿着前向指针遍历到每层的最后一个节点。
-     * 
+     *
      * @return 最后一个节点，如果跳表为空则返回null
      */
     public SkipListNode<T> getLast() {
-        SkipListNode<T> node = head;
-        for (int i = level - 1; i >= 0; i--) {
-            while (node.level[i].forward != null) {
-                node = node.level[i].forward;
-            }
-        }
-        return node != head ? node : null;
+        return tail;
     }
 
     /**
      * 插入新节点到跳表
      */
-    @SuppressWarnings("unchecked")
     public SkipListNode<T> insert(double score, T member) {
-        SkipListNode<T>[] update = new SkipListNode[MAX_LEVEL];
-        long[] rank = new long[MAX_LEVEL];
-        
+        final SkipListNode<T>[] update = updateScratch();
+        final int[] rank = this.rank;
+
         // 从最高层开始查找插入位置
         SkipListNode<T> x = head;
         for (int i = level - 1; i >= 0; i--) {
             // 初始化当前层的排名
             rank[i] = i == level - 1 ? 0 : rank[i + 1];
-            
+
             // 找到当前层的插入位置：
             // 1. 分数更小 或
             // 2. 分数相同但成员字典序更小
-            while (x.level[i].forward != null &&
-                   (x.level[i].forward.score < score ||
-                    (x.level[i].forward.score == score &&
-                     ((Comparable<T>)x.level[i].forward.member).compareTo(member) < 0))) {
-                rank[i] += x.level[i].span;  // 累加跨度，用于计算新节点的排名
-                x = x.level[i].forward;
+            while (x.forward[i] != null && precedes(x.forward[i], score, member)) {
+                rank[i] += x.span[i];  // 累加跨度，用于计算新节点的排名
+                x = x.forward[i];
             }
             update[i] = x;  // 记录每层的前驱节点
         }
@@ -206,7 +209,7 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
             for (int i = level; i < newLevel; i++) {
                 rank[i] = 0;
                 update[i] = head;
-                update[i].level[i].span = size;  // 新层的跨度为整个跳表大小
+                update[i].span[i] = size;  // 新层的跨度为整个跳表大小
             }
             level = newLevel;
         }
@@ -216,59 +219,60 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
 
         // 逐层更新前向指针和跨度
         for (int i = 0; i < newLevel; i++) {
-            x.level[i].forward = update[i].level[i].forward;  // 连接后继节点
-            update[i].level[i].forward = x;  // 连接前驱节点
-            
+            x.forward[i] = update[i].forward[i];  // 连接后继节点
+            update[i].forward[i] = x;  // 连接前驱节点
+
             // 计算新节点的跨度：前驱节点原跨度 - 新节点到前驱的距离
-            x.level[i].span = update[i].level[i].span - (rank[0] - rank[i]);
+            x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
             // 更新前驱节点的跨度：新节点到前驱的距离 + 1
-            update[i].level[i].span = rank[0] - rank[i] + 1;
+            update[i].span[i] = rank[0] - rank[i] + 1;
         }
 
         // 未接入新节点的更高层需要增加跨度
         for (int i = newLevel; i < level; i++) {
-            update[i].level[i].span++;
+            update[i].span[i]++;
         }
 
         // 设置后向指针，支持反向遍历
         x.backward = update[0] == head ? null : update[0];
-        if (x.level[0].forward != null) {
-            x.level[0].forward.backward = x;
+        if (x.forward[0] != null) {
+            x.forward[0].backward = x;
+        } else {
+            tail = x;
         }
 
         size++;
+        releaseScratch();
         return x;
     }
 
     /**
      * 从跳表中删除指定节点
      */
-    @SuppressWarnings("unchecked")
     public boolean delete(double score, T member) {
-        SkipListNode<T>[] update = new SkipListNode[MAX_LEVEL];
+        final SkipListNode<T>[] update = updateScratch();
         SkipListNode<T> x = head;
 
         // 从最高层开始查找要删除的节点
         for (int i = level - 1; i >= 0; i--) {
             // 找到每层中小于目标节点的最大节点
-            while (x.level[i].forward != null &&
-                   (x.level[i].forward.score < score ||
-                    (x.level[i].forward.score == score &&
-                     ((Comparable<T>)x.level[i].forward.member).compareTo(member) < 0))) {
-                x = x.level[i].forward;
+            while (x.forward[i] != null && precedes(x.forward[i], score, member)) {
+                x = x.forward[i];
             }
             update[i] = x;  // 记录每层的前驱节点
         }
 
         // 获取可能要删除的节点
-        x = x.level[0].forward;
-        
+        x = x.forward[0];
+
         // 检查是否找到了匹配的节点
+        boolean deleted = false;
         if (x != null && x.score == score && x.member.equals(member)) {
             deleteNode(x, update);  // 执行实际的删除操作
-            return true;
+            deleted = true;
         }
-        return false;
+        releaseScratch();
+        return deleted;
     }
 
     /**
@@ -277,44 +281,69 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
     private void deleteNode(SkipListNode<T> x, SkipListNode<T>[] update) {
         // 逐层更新前向指针和跨度
         for (int i = 0; i < level; i++) {
-            if (update[i].level[i].forward == x) {
+            if (update[i].forward[i] == x) {
                 // 如果当前层指向要删除的节点，则跨度需要合并
-                update[i].level[i].span += x.level[i].span - 1;
-                update[i].level[i].forward = x.level[i].forward;
+                update[i].span[i] += x.span[i] - 1;
+                update[i].forward[i] = x.forward[i];
             } else {
                 // 否则仅减少跨度
-                update[i].level[i].span--;
+                update[i].span[i]--;
             }
         }
 
         // 更新后向指针
-        if (x.level[0].forward != null) {
-            x.level[0].forward.backward = x.backward;
+        if (x.forward[0] != null) {
+            x.forward[0].backward = x.backward;
+        } else {
+            tail = x.backward;
         }
 
         // 如果删除的是最高层的唯一节点，则降低跳表的层数
-        while (level > 1 && head.level[level - 1].forward == null) {
+        while (level > 1 && head.forward[level - 1] == null) {
             level--;
         }
 
         size--;
     }
 
+    /**
+     * 获取复用的前驱节点数组，反序列化后首次使用时重新分配
+     */
+    @SuppressWarnings("unchecked")
+    private SkipListNode<T>[] updateScratch() {
+        if (update == null) {
+            update = new SkipListNode[MAX_LEVEL];
+            rank = new int[MAX_LEVEL];
+        }
+        return update;
+    }
+
+    /**
+     * 清除复用数组中的节点引用，避免已删除的节点无法回收
+     */
+    private void releaseScratch() {
+        Arrays.fill(update, null);
+    }
+
+    /**
+     * 节点是否排在(score, member)之前
+     */
+    private static <T extends Comparable<T>> boolean precedes(SkipListNode<T> node, double score, T member) {
+        return node.score < score || (node.score == score && node.member.compareTo(member) < 0);
+    }
+
     /**
      * 生成随机层数
-     * 
-     * <p>使用几何分布：每层以概率P继续向上。
-     * 这确保了节点的期望层数为1/(1-P)，
-     * 当P=0.25时，期望层数为1.33。</p>
-     * 
+     *
+     * <p>每层以1/4的概率继续向上，期望层数为1.33，与Redis一致。
+     * 随机long的每两个二进制位同时为0的概率是1/4，末尾连续0的位数除以2就是额外的层数，
+     * 一次取随机数即可得到结果，不需要循环。</p>
+     *
      * @return 随机生成的层数，范围[1, MAX_LEVEL]
      */
-    private int randomLevel() {
-        int level = 1;
-        while (random.nextDouble() < P && level < MAX_LEVEL) {
-            level++;
-        }
-        return level;
+    private static int randomLevel() {
+        final int level = 1 + (Long.numberOfTrailingZeros(ThreadLocalRandom.current().nextLong()) >>> 1);
+        return Math.min(level, MAX_LEVEL);
     }
 
     /**
@@ -322,68 +351,91 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
      */
     public List<SkipListNode<T>> getElementByRankRange(long start, long end) {
         List<SkipListNode<T>> result = new ArrayList<>();
-        
+        forEachByRank(start, end, false, result::add);
+        return result;
+    }
+
+    /**
+     * 按分数范围获取节点
+     */
+    public List<SkipListNode<T>> getElementByScoreRange(double min, double max) {
+        List<SkipListNode<T>> result = new ArrayList<>();
+        forEachByScore(min, false, max, false, false, 0, -1, result::add);
+        return result;
+    }
+
+    /**
+     * 按排名范围依次访问节点
+     *
+     * <p>利用跨度定位到起始节点，正向沿第0层前向指针、反向沿后向指针移动，不生成中间列表。
+     *
+     * @param start 开始排名，从0开始，负数表示从末尾开始
+     * @param end 结束排名（包含），负数表示从末尾开始
+     * @param reverse true表示按从大到小排名和访问
+     * @param visitor 接收每个节点
+     * @return 访问的节点数
+     */
+    public long forEachByRank(long start, long end, boolean reverse, Consumer<SkipListNode<T>> visitor) {
         // 处理负数索引，转换为正数索引
         if (start < 0) start = size + start;
         if (end < 0) end = size + end;
-        
+
         // 边界检查和调整
         if (start < 0) start = 0;
         if (end >= size) end = size - 1;
-        if (start > end || start >= size) return result;
-
-        // 快速定位到起始位置
-        long traversed = 0;  // 记录已遍历的节点数
-        SkipListNode<T> x = head;
-        
-        // 从最高层开始查找，利用跨度快速跳过不需要的节点
-        for (int i = level - 1; i >= 0; i--) {
-            while (x.level[i].forward != null && traversed + x.level[i].span <= start) {
-                traversed += x.level[i].span;
-                x = x.level[i].forward;
-            }
-        }
-
-        // 收集范围内的节点
-        x = x.level[0].forward;  // 移动到第一个要收集的节点
-        if (x != null) {
-            traversed++;  // 计入当前节点
-            while (x != null && traversed <= end + 1) {
-                result.add(x);
-                if (x.level[0].forward != null) {
-                    x = x.level[0].forward;
-                    traversed++;
-                } else {
-                    break;
-                }
-            }
+        if (start > end || start >= size) return 0;
+
+        // 快速定位到起始节点，反向时第r名对应正向第size-r名
+        SkipListNode<T> x = getElementByRank(reverse ? size - start : start + 1);
+        final long count = end - start + 1;
+        for (long i = 0; i < count; i++) {
+            visitor.accept(x);
+            x = reverse ? x.backward : x.forward[0];
         }
-
-        return result;
+        return count;
     }
 
     /**
-     * 按分数范围获取节点
+     * 按分数范围依次访问节点
+     *
+     * <p>先定位范围端点，偏移量通过排名直接跳过，不逐个遍历被跳过的节点。
+     *
+     * @param min 分数下界
+     * @param minExclusive 是否排除等于下界的分数
+     * @param max 分数上界
+     * @param maxExclusive 是否排除等于上界的分数
+     * @param reverse true表示从大到小访问
+     * @param offset 跳过的节点数
+     * @param limit 最多访问的节点数，负数表示不限制
+     * @param visitor 接收每个节点
+     * @return 访问的节点数
      */
-    public List<SkipListNode<T>> getElementByScoreRange(double min, double max) {
-        List<SkipListNode<T>> result = new ArrayList<>();
-        SkipListNode<T> x = head;
-
-        // 快速定位到最小分数位置
-        for (int i = level - 1; i >= 0; i--) {
-            while (x.level[i].forward != null && x.level[i].forward.score < min) {
-                x = x.level[i].forward;
-            }
+    public long forEachByScore(double min, boolean minExclusive, double max, boolean maxExclusive,
+                               boolean reverse, long offset, long limit, Consumer<SkipListNode<T>> visitor) {
+        if (offset < 0 || limit == 0) {
+            return 0;
         }
 
-        // 收集范围内的所有节点
-        x = x.level[0].forward;
-        while (x != null && x.score <= max) {
-            result.add(x);
-            x = x.level[0].forward;
+        // 定位端点，再按排名跳过偏移量
+        SkipListNode<T> x = reverse
+                ? lastInRange(min, minExclusive, max, maxExclusive)
+                : firstInRange(min, minExclusive, max, maxExclusive);
+        if (x != null && offset > 0) {
+            final long first = getRank(x.score, x.member);
+            final long target = reverse ? first - offset : first + offset;
+            x = target >= 1 && target <= size ? getElementByRank(target) : null;
         }
 
-        return result;
+        // 逐个访问直到离开范围或达到数量限制
+        final long maxCount = limit < 0 ? Long.MAX_VALUE : limit;
+        long count = 0;
+        while (x != null && count < maxCount
+                && (reverse ? aboveMin(x.score, min, minExclusive) : belowMax(x.score, max, maxExclusive))) {
+            visitor.accept(x);
+            count++;
+            x = reverse ? x.backward : x.forward[0];
+        }
+        return count;
     }
 
     /**
@@ -399,9 +451,9 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
 
         // 利用跨度快速定位到指定排名的节点
         for (int i = level - 1; i >= 0; i--) {
-            while (x.level[i].forward != null && traversed + x.level[i].span <= rank) {
-                traversed += x.level[i].span;
-                x = x.level[i].forward;
+            while (x.forward[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.forward[i];
             }
             if (traversed == rank) {
                 return x;
@@ -420,12 +472,12 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
 
         // 从最高层开始查找，累加路径上的跨度
         for (int i = level - 1; i >= 0; i--) {
-            while (x.level[i].forward != null &&
-                   (x.level[i].forward.score < score ||
-                    (x.level[i].forward.score == score &&
-                     ((Comparable<T>)x.level[i].forward.member).compareTo(member) <= 0))) {
-                rank += x.level[i].span;  // 累加跨度
-                x = x.level[i].forward;
+            while (x.forward[i] != null &&
+                   (x.forward[i].score < score ||
+                    (x.forward[i].score == score &&
+                     x.forward[i].member.compareTo(member) <= 0))) {
+                rank += x.span[i];  // 累加跨度
+                x = x.forward[i];
             }
             if (x.member != null && x.member.equals(member)) {
                 return rank;  // 找到目标节点，返回累计排名
@@ -434,4 +486,162 @@ public class SkipList<T extends Comparable<T>> implements Serializable {
 
         return 0;  // 节点不存在
     }
+
+    /**
+     * 获取第一个分数在范围内的节点
+     *
+     * <p>沿各层前向指针跳过分数低于下界的节点，O(log N)。
+     *
+     * @param min 分数下界
+     * @param minExclusive 是否排除等于下界的分数
+     * @param max 分数上界
+     * @param maxExclusive 是否排除等于上界的分数
+     * @return 节点，范围内没有节点时返回null
+     */
+    public SkipListNode<T> firstInRange(double min, boolean minExclusive, double max, boolean maxExclusive) {
+        if (isEmptyRange(min, minExclusive, max, maxExclusive)) {
+            return null;
+        }
+        SkipListNode<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && !aboveMin(x.forward[i].score, min, minExclusive)) {
+                x = x.forward[i];
+            }
+        }
+        x = x.forward[0];
+        return x != null && belowMax(x.score, max, maxExclusive) ? x : null;
+    }
+
+    /**
+     * 获取最后一个分数在范围内的节点
+     *
+     * <p>沿各层前向指针跳到不超过上界的最后一个节点，O(log N)。
+     *
+     * @param min 分数下界
+     * @param minExclusive 是否排除等于下界的分数
+     * @param max 分数上界
+     * @param maxExclusive 是否排除等于上界的分数
+     * @return 节点，范围内没有节点时返回null
+     */
+    public SkipListNode<T> lastInRange(double min, boolean minExclusive, double max, boolean maxExclusive) {
+        if (isEmptyRange(min, minExclusive, max, maxExclusive)) {
+            return null;
+        }
+        SkipListNode<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && belowMax(x.forward[i].score, max, maxExclusive)) {
+                x = x.forward[i];
+            }
+        }
+        return x != head && aboveMin(x.score, min, minExclusive) ? x : null;
+    }
+
+    /**
+     * 统计分数在范围内的节点数
+     *
+     * <p>用首尾两个节点的排名相减，不遍历范围内的节点。
+     *
+     * @param min 分数下界
+     * @param minExclusive 是否排除等于下界的分数
+     * @param max 分数上界
+     * @param maxExclusive 是否排除等于上界的分数
+     * @return 节点数
+     */
+    public long countInRange(double min, boolean minExclusive, double max, boolean maxExclusive) {
+        final SkipListNode<T> first = firstInRange(min, minExclusive, max, maxExclusive);
+        if (first == null) {
+            return 0;
+        }
+        final SkipListNode<T> last = lastInRange(min, minExclusive, max, maxExclusive);
+        return getRank(last.score, last.member) - getRank(first.score, first.member) + 1;
+    }
+
+    /**
+     * 删除排名在[start, end]内的节点
+     *
+     * @param start 起始排名，从1开始
+     * @param end 结束排名（包含）
+     * @param removed 接收每个被删除节点的成员，用于同步删除外部索引
+     * @return 删除的节点数
+     */
+    public long deleteRangeByRank(long start, long end, Consumer<T> removed) {
+        final SkipListNode<T>[] update = updateScratch();
+        long traversed = 0;
+        SkipListNode<T> x = head;
+
+        // 利用跨度定位到起始排名的前驱节点
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && traversed + x.span[i] < start) {
+                traversed += x.span[i];
+                x = x.forward[i];
+            }
+            update[i] = x;
+        }
+
+        // 删除连续的节点，前驱节点数组对后续节点仍然有效
+        traversed++;
+        x = x.forward[0];
+        long count = 0;
+        while (x != null && traversed <= end) {
+            final SkipListNode<T> next = x.forward[0];
+            deleteNode(x, update);
+            removed.accept(x.member);
+            count++;
+            traversed++;
+            x = next;
+        }
+        releaseScratch();
+        return count;
+    }
+
+    /**
+     * 删除分数在范围内的节点
+     *
+     * @param min 分数下界
+     * @param minExclusive 是否排除等于下界的分数
+     * @param max 分数上界
+     * @param maxExclusive 是否排除等于上界的分数
+     * @param removed 接收每个被删除节点的成员，用于同步删除外部索引
+     * @return 删除的节点数
+     */
+    public long deleteRangeByScore(double min, boolean minExclusive, double max, boolean maxExclusive,
+                                   Consumer<T> removed) {
+        if (isEmptyRange(min, minExclusive, max, maxExclusive)) {
+            return 0;
+        }
+        final SkipListNode<T>[] update = updateScratch();
+        SkipListNode<T> x = head;
+
+        // 定位到第一个范围内节点的前驱节点
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.forward[i] != null && !aboveMin(x.forward[i].score, min, minExclusive)) {
+                x = x.forward[i];
+            }
+            update[i] = x;
+        }
+
+        x = x.forward[0];
+        long count = 0;
+        while (x != null && belowMax(x.score, max, maxExclusive)) {
+            final SkipListNode<T> next = x.forward[0];
+            deleteNode(x, update);
+            removed.accept(x.member);
+            count++;
+            x = next;
+        }
+        releaseScratch();
+        return count;
+    }
+
+    private static boolean isEmptyRange(double min, boolean minExclusive, double max, boolean maxExclusive) {
+        return min > max || (min == max && (minExclusive || maxExclusive));
+    }
+
+    private static boolean aboveMin(double score, double min, boolean exclusive) {
+        return exclusive ? score > min : score >= min;
+    }
+
+    private static boolean belowMax(double score, double max, boolean exclusive) {
+        return exclusive ? score < max : score <= max;
+    }
 }
@@ -0,0 +1,216 @@
+package site.hnfy258.internal;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 键空间哈希表的公共契约
+ *
+ * <p>数据库的键空间可以由不同的哈希表引擎实现，所有实现都必须满足：
+ * <ul>
+ *     <li>渐进式rehash - 扩容时把迁移工作分摊到后续的读写操作上，不出现长时间停顿</li>
+ *     <li>快照语义 - {@link #startSnapshot()}之后的修改对快照不可见，
+ *     {@link #finishSnapshot()}时再统一生效</li>
+ *     <li>null值等价于键不存在</li>
+ * </ul>
+ *
+ * <p>线程模型：写操作只由一个线程执行；快照期间允许另一个线程调用
+ * {@link #createSnapshotWithoutFinish()}读取快照数据。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author hnfy258
+ * @since 1.0.0
+ * @see Dict
+ * @see OpenDict
+ */
+public interface SnapshotDict<K, V> {
+
+    /**
+     * 检查键是否存在
+     *
+     * @param key 键
+     * @return 是否存在
+     */
+    boolean containsKey(K key);
+
+    /**
+     * 写入键值对
+     *
+     * @param key 键，不能为null
+     * @param value 值
+     * @return 旧值，不存在时返回null
+     * @throws IllegalArgumentException 如果键为null
+     */
+    Object put(K key, V value);
+
+    /**
+     * 获取键对应的当前值
+     *
+     * @param key 键
+     * @return 当前值，不存在时返回null
+     */
+    V get(K key);
+
+    /**
+     * 删除键
+     *
+     * @param key 键
+     * @return 被删除的值，不存在时返回null
+     */
+    V remove(K key);
+
+    /**
+     * 获取所有键的副本
+     *
+     * <p>会复制全部键，遍历请优先使用{@link #keyIterator()}。
+     *
+     * @return 键集合
+     */
+    Set<K> keySet();
+
+    /**
+     * 惰性遍历当前视图的键值对，不复制数据
+     *
+     * <p>遍历期间不能修改哈希表，也不能调用会推进rehash的读方法。
+     *
+     * @return 键值对迭代器
+     */
+    Iterator<Map.Entry<K, V>> entryIterator();
+
+    /**
+     * 惰性遍历当前视图的键，约束同{@link #entryIterator()}
+     *
+     * @return 键迭代器
+     */
+    Iterator<K> keyIterator();
+
+    /**
+     * 惰性遍历快照视图，只能在快照期间调用
+     *
+     * <p>快照期间rehash暂停，遍历可以与写线程的修改并发进行，
+     * 看到的始终是进入快照时的数据。
+     *
+     * @return 快照键值对迭代器
+     * @throws IllegalStateException 如果不在快照状态
+     */
+    Iterator<Map.Entry<K, V>> snapshotIterator();
+
+    /**
+     * 获取所有键值对的副本
+     *
+     * <p>会复制全部数据，遍历请优先使用{@link #entryIterator()}。
+     *
+     * @return 键值对映射
+     */
+    Map<K, V> getAll();
+
+    /**
+     * 反向二进制游标迭代
+     *
+     * <p>每次调用访问一个桶（rehash期间为小表的一个桶及其在大表中的扩展桶），
+     * 工作量与桶内键数成正比。整个迭代期间一直存在的键至少返回一次，
+     * 即使期间发生扩容、缩容或渐进式rehash；键可能被重复返回。
+     *
+     * @param cursor 游标，首次调用传0
+     * @param consumer 接收本次访问到的键
+     * @return 下一次调用的游标，返回0表示迭代结束
+     */
+    long scan(long cursor, Consumer<K> consumer);
+
+    /**
+     * 随机返回一个当前可见的键，不复制数据
+     *
+     * <p>每个键被选中的概率近似相等，期望时间复杂度O(1)。
+     * 适合SPOP、SRANDMEMBER、RANDOMKEY等需要单个随机键的场景。
+     *
+     * @return 随机键，哈希表为空时返回null
+     */
+    K randomKey();
+
+    /**
+     * 从随机位置开始连续采样最多count个当前可见的键
+     *
+     * <p>只访问有限个相邻的桶，代价与count成正比，比多次调用{@link #randomKey()}更快，
+     * 但不保证均匀分布，也不保证凑满count个。同一次调用中每个键最多返回一次。
+     * 适合淘汰等只需要近似随机样本的场景。
+     *
+     * @param count 期望的样本数量
+     * @param consumer 接收采样到的键
+     * @return 实际采样到的键数量
+     */
+    int sampleKeys(int count, Consumer<K> consumer);
+
+    /**
+     * 获取键的数量，O(1)
+     *
+     * @return 当前可见的键数量
+     */
+    int size();
+
+    /**
+     * 获取快照视图中键的数量，O(1)
+     *
+     * @return 快照期间返回进入快照时的键数量，否则等于{@link #size()}
+     */
+    int snapshotSize();
+
+    /**
+     * 是否正在渐进式rehash
+     *
+     * @return 扩容或缩容的迁移尚未完成时返回true
+     */
+    boolean isRehashing();
+
+    /**
+     * 在时间预算内主动推进渐进式rehash
+     *
+     * <p>渐进式rehash只在读写时推进，没有访问的表会一直停留在迁移中途。
+     * 后台定时任务调用此方法完成迁移；快照期间不迁移。
+     *
+     * @param budgetNanos 时间预算，纳秒
+     * @return 返回时是否仍在rehash
+     */
+    boolean rehashFor(long budgetNanos);
+
+    /**
+     * 键数量远小于表容量时开始缩容
+     *
+     * <p>缩容通过渐进式rehash完成，正在rehash或快照期间不缩容。
+     *
+     * @return 是否开始了缩容
+     */
+    boolean tryShrink();
+
+    /**
+     * 清空所有数据
+     */
+    void clear();
+
+    /**
+     * 进入快照状态，之后的修改对快照不可见
+     */
+    void startSnapshot();
+
+    /**
+     * 退出快照状态，应用快照期间的所有修改
+     */
+    void finishSnapshot();
+
+    /**
+     * 创建快照并立即退出快照状态
+     *
+     * @return 快照数据
+     */
+    Map<K, V> createSnapshot();
+
+    /**
+     * 在快照状态下读取快照数据，不退出快照状态
+     *
+     * @return 快照数据
+     * @throws IllegalStateException 如果不在快照状态
+     */
+    Map<K, V> createSnapshotWithoutFinish();
+}
@@ -0,0 +1,237 @@
+package site.hnfy258.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 紧凑有序集合，按(分数, 成员)升序存放
+ *
+ * <p>存储分为两部分：
+ * <ul>
+ *     <li>成员 - 连续存放在一个{@link ListPack}中</li>
+ *     <li>分数 - 存放在与成员一一对应的double数组中，长度始终等于元素个数</li>
+ * </ul>
+ * 分数相同时按成员的无符号字节字典序排序，与跳表编码的顺序一致。
+ *
+ * <p>排名就是下标；按分数定位使用二分查找，按成员查找和插入删除是线性的，
+ * 只适合元素数量受上层限制的小集合。
+ *
+ * <p>线程模型：单线程访问，不做任何同步。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class SortedPack {
+
+    /** 共享的空分数数组 */
+    private static final double[] EMPTY_SCORES = new double[0];
+
+    private final ListPack members;
+
+    private double[] scores;
+
+    public SortedPack() {
+        this.members = new ListPack();
+        this.scores = EMPTY_SCORES;
+    }
+
+    private SortedPack(final ListPack members, final double[] scores) {
+        this.members = members;
+        this.scores = scores;
+    }
+
+    // ========== 查询 ==========
+
+    public int size() {
+        return scores.length;
+    }
+
+    public boolean isEmpty() {
+        return scores.length == 0;
+    }
+
+    /**
+     * 数据占用的字节数
+     *
+     * @return 成员字节数加分数字节数
+     */
+    public int bytes() {
+        return members.bytes() + scores.length * Double.BYTES;
+    }
+
+    /**
+     * 按排名读取分数
+     *
+     * @param index 排名，从0开始
+     * @return 分数
+     */
+    public double score(final int index) {
+        return scores[index];
+    }
+
+    /**
+     * 按排名读取成员
+     *
+     * @param index 排名，从0开始
+     * @return 成员内容的副本
+     */
+    public byte[] member(final int index) {
+        return members.get(members.offsetOf(index));
+    }
+
+    /**
+     * 顺序读取排名在[start, end)内的成员
+     *
+     * @param start 起始排名
+     * @param end 结束排名（不包含）
+     * @return 成员列表
+     */
+    public List<byte[]> members(final int start, final int end) {
+        final List<byte[]> result = new ArrayList<>(Math.max(0, end - start));
+        if (start >= end) {
+            return result;
+        }
+        int offset = members.offsetOf(start);
+        for (int i = start; i < end; i++) {
+            result.add(members.get(offset));
+            offset = members.next(offset);
+        }
+        return result;
+    }
+
+    /**
+     * 查找成员的排名
+     *
+     * @param member 成员
+     * @return 排名，不存在时返回-1
+     */
+    public int indexOf(final byte[] member) {
+        int index = 0;
+        for (int offset = members.first(); offset != -1; offset = members.next(offset)) {
+            if (members.equalsAt(offset, member)) {
+                return index;
+            }
+            index++;
+        }
+        return -1;
+    }
+
+    /**
+     * 第一个分数大于（或等于）min的排名
+     *
+     * @param min 分数下界
+     * @param exclusive 是否排除等于min的分数
+     * @return 排名，都不满足时返回size
+     */
+    public int lowerBound(final double min, final boolean exclusive) {
+        int low = 0;
+        int high = scores.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (scores[mid] < min || (exclusive && scores[mid] == min)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第一个分数大于（或等于）max的排名，即分数不超过max的元素个数
+     *
+     * @param max 分数上界
+     * @param exclusive 是否排除等于max的分数
+     * @return 排名，都不满足时返回size
+     */
+    public int upperBound(final double max, final boolean exclusive) {
+        int low = 0;
+        int high = scores.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (scores[mid] < max || (!exclusive && scores[mid] == max)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // ========== 修改 ==========
+
+    /**
+     * 按顺序插入成员，调用方保证成员不存在
+     *
+     * @param score 分数
+     * @param member 成员
+     * @return 插入后的排名
+     */
+    public int insert(final double score, final byte[] member) {
+        // 1. 二分定位同分数区间的起点，再在区间内按成员比较
+        int index = lowerBound(score, false);
+        int offset = index == scores.length ? members.bytes() : members.offsetOf(index);
+        while (index < scores.length && scores[index] == score && members.compareAt(offset, member) < 0) {
+            index++;
+            final int next = members.next(offset);
+            offset = next == -1 ? members.bytes() : next;
+        }
+
+        // 2. 成员和分数插入到相同位置
+        members.insert(offset, member);
+        final double[] next = new double[scores.length + 1];
+        System.arraycopy(scores, 0, next, 0, index);
+        System.arraycopy(scores, index, next, index + 1, scores.length - index);
+        next[index] = score;
+        scores = next;
+        return index;
+    }
+
+    /**
+     * 按排名删除成员
+     *
+     * @param index 排名
+     */
+    public void removeAt(final int index) {
+        members.delete(members.offsetOf(index), 1);
+        if (scores.length == 1) {
+            scores = EMPTY_SCORES;
+            return;
+        }
+        final double[] next = new double[scores.length - 1];
+        System.arraycopy(scores, 0, next, 0, index);
+        System.arraycopy(scores, index + 1, next, index, scores.length - index - 1);
+        scores = next;
+    }
+
+    /**
+     * 删除排名在[start, end)内的成员
+     *
+     * @param start 起始排名
+     * @param end 结束排名（不包含）
+     */
+    public void removeRange(final int start, final int end) {
+        if (start >= end) {
+            return;
+        }
+        members.delete(members.offsetOf(start), end - start);
+        if (end - start == scores.length) {
+            scores = EMPTY_SCORES;
+            return;
+        }
+        final double[] next = new double[scores.length - (end - start)];
+        System.arraycopy(scores, 0, next, 0, start);
+        System.arraycopy(scores, end, next, start, scores.length - end);
+        scores = next;
+    }
+
+    /**
+     * 复制出独立的紧凑有序集合
+     *
+     * @return 副本
+     */
+    public SortedPack copy() {
+        return new SortedPack(members.copy(), scores.length == 0 ? EMPTY_SCORES : Arrays.copyOf(scores, scores.length));
+    }
+}
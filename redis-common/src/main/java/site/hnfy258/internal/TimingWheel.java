@@ -0,0 +1,312 @@
+package site.hnfy258.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，按到期时间组织键
+ *
+ * <p>结构与Linux早期的内核定时器相同：
+ * <ul>
+ *     <li>共{@value #LEVELS}层，每层{@value #SLOTS}个槽，第L层一个槽覆盖64^L个tick</li>
+ *     <li>键按距离当前tick的远近放入能容纳它的最低层，同一个槽内的键用双向链表串起来</li>
+ *     <li>游标每走完一圈低层，就把高层对应的槽拆开重新放入低层（级联）</li>
+ *     <li>超出最高层范围的键先放在最高层的最远处，级联时按真实到期时间重新放置</li>
+ * </ul>
+ * 每个键最多级联{@value #LEVELS}次，插入、删除、到期都是均摊O(1)。
+ * 每层用一个64位位图记录非空的槽，推进时直接跳到下一个非空槽或需要级联的边界，
+ * 空闲时间再长也不需要逐个tick空转。
+ *
+ * <p>到期时间向上取整到tick，只有整个tick都已经过去才会触发，
+ * 因此键不会早于到期时间触发，最多晚一个tick。
+ *
+ * <p>同一个键只保留一个条目，重复调度时移动到新的槽。
+ *
+ * <p>线程模型：单线程访问，不做任何同步。
+ *
+ * @param <K> 键类型
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class TimingWheel<K> {
+
+    /** 每层槽数的位数 */
+    private static final int SLOT_BITS = 6;
+
+    /** 每层的槽数 */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /** 层数，1毫秒的tick下可以直接表示约795天 */
+    private static final int LEVELS = 6;
+
+    /** 能直接表示的最大tick跨度 */
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private static final class Node<K> {
+        final K key;
+        long deadline;
+        int slot;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(final K key) {
+            this.key = key;
+        }
+    }
+
+    /** tick长度，毫秒 */
+    private final long tickMillis;
+
+    /** 各层各槽的链表头，下标为 层 * SLOTS + 槽 */
+    private final Node<K>[] heads;
+
+    /** 每层非空槽的位图，第i位对应第i个槽 */
+    private final long[] occupied = new long[LEVELS];
+
+    /** 键到条目的映射，用于重新调度和取消 */
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+
+    /** 当前tick，小于它的tick都已经处理完 */
+    private long currentTick;
+
+    /**
+     * 创建时间轮
+     *
+     * @param tickMillis tick长度，毫秒
+     * @param nowMillis 当前时间戳，毫秒
+     * @throws IllegalArgumentException 如果tick长度不合法
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(final long tickMillis, final long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("时间轮tick长度必须大于0");
+        }
+        this.tickMillis = tickMillis;
+        this.heads = new Node[LEVELS * SLOTS];
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    // ========== 查询 ==========
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * 获取键的到期时间
+     *
+     * @param key 键
+     * @return 到期时间戳（毫秒），不在时间轮中时返回-1
+     */
+    public long deadline(final K key) {
+        final Node<K> node = nodes.get(key);
+        return node == null ? -1 : node.deadline;
+    }
+
+    // ========== 修改 ==========
+
+    /**
+     * 调度键在指定时间到期，键已经存在时移动到新的到期时间
+     *
+     * @param key 键
+     * @param deadline 到期时间戳，毫秒
+     */
+    public void schedule(final K key, final long deadline) {
+        Node<K> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            nodes.put(key, node);
+        } else if (node.deadline == deadline) {
+            return;
+        } else {
+            unlink(node);
+        }
+        node.deadline = deadline;
+        place(node);
+    }
+
+    /**
+     * 取消键的调度
+     *
+     * @param key 键
+     * @return 键在时间轮中时返回true
+     */
+    public boolean cancel(final K key) {
+        final Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * 推进时间轮，依次交出已经到期的键
+     *
+     * <p>一次最多交出maxKeys个键，没处理完的tick留到下次继续，
+     * 保证每次调用的工作量有上限。键交出前已经从时间轮中移除，
+     * 回调中可以重新调度或取消任意键。
+     *
+     * @param nowMillis 当前时间戳，毫秒
+     * @param maxKeys 本次最多交出的键数量
+     * @param consumer 接收到期的键
+     * @return 实际交出的键数量
+     */
+    public int advance(final long nowMillis, final int maxKeys, final Consumer<K> consumer) {
+        final long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        // 1. 时间轮为空时所有槽都是空的，游标可以直接跳到当前tick
+        if (nodes.isEmpty()) {
+            currentTick = Math.max(currentTick, nowTick);
+            return 0;
+        }
+        int fired = 0;
+        while (currentTick <= nowTick) {
+            // 2. 当前tick的槽里都是这个tick到期的键
+            final int slot = (int) (currentTick & SLOT_MASK);
+            while (heads[slot] != null) {
+                if (fired >= maxKeys) {
+                    return fired;
+                }
+                final Node<K> node = heads[slot];
+                unlink(node);
+                nodes.remove(node.key);
+                consumer.accept(node.key);
+                fired++;
+            }
+            // 3. 跳到下一个有键到期或需要级联的tick，中间跳过的槽都是空的
+            moveTo(Math.min(nextEventTick(), nowTick + 1));
+        }
+        return fired;
+    }
+
+    /**
+     * 清空时间轮
+     */
+    public void clear() {
+        nodes.clear();
+        for (int level = 0; level < LEVELS; level++) {
+            occupied[level] = 0;
+        }
+        for (int i = 0; i < heads.length; i++) {
+            heads[i] = null;
+        }
+    }
+
+    // ========== 内部实现 ==========
+
+    /**
+     * 计算当前tick之后下一个需要处理的tick
+     *
+     * <p>每层取本圈内当前槽之后的第一个非空槽的边界；
+     * 本圈内没有但当前槽之前还有非空槽时，它们属于下一圈，取上一层的下一个边界。
+     * 结果可能早于实际需要处理的tick，但不会晚于它。
+     */
+    private long nextEventTick() {
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            final long bits = occupied[level];
+            if (bits == 0) {
+                continue;
+            }
+            final int shift = SLOT_BITS * level;
+            final long round = (currentTick >>> shift) & ~(long) SLOT_MASK;
+            final int index = (int) ((currentTick >>> shift) & SLOT_MASK);
+            final long after = index == SLOT_MASK ? 0 : bits & (-2L << index);
+            final long candidate = after != 0
+                    ? (round | Long.numberOfTrailingZeros(after)) << shift
+                    : (round + SLOTS) << shift;
+            next = Math.min(next, candidate);
+        }
+        return next;
+    }
+
+    /**
+     * 移动游标，落在边界上时级联对应的高层槽
+     */
+    private void moveTo(final long tick) {
+        currentTick = tick;
+        if ((tick & SLOT_MASK) != 0) {
+            return;
+        }
+        int level = 1;
+        while (level < LEVELS && cascade(level) == 0) {
+            level++;
+        }
+    }
+
+    /**
+     * 把高层中当前游标对应的槽重新放入低层
+     *
+     * @return 该层的槽下标，为0时说明这一层也走完了一圈
+     */
+    private int cascade(final int level) {
+        final int index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        final int slot = level * SLOTS + index;
+        Node<K> node = heads[slot];
+        heads[slot] = null;
+        occupied[level] &= ~(1L << index);
+        while (node != null) {
+            final Node<K> next = node.next;
+            place(node);
+            node = next;
+        }
+        return index;
+    }
+
+    private void place(final Node<K> node) {
+        // 1. 向上取整到tick，已经过期的放入当前tick，太远的先放在最远处
+        long tick = Math.floorDiv(node.deadline, tickMillis);
+        if (tick * tickMillis != node.deadline) {
+            tick++;
+        }
+        long delta = tick - currentTick;
+        if (delta < 0) {
+            tick = currentTick;
+            delta = 0;
+        } else if (delta >= MAX_SPAN) {
+            tick = currentTick + MAX_SPAN - 1;
+            delta = MAX_SPAN - 1;
+        }
+
+        // 2. 选出能容纳该距离的最低层
+        final int level = delta < SLOTS ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+        final int slot = level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        // 3. 插入槽链表头部
+        node.slot = slot;
+        node.prev = null;
+        node.next = heads[slot];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        heads[slot] = node;
+        occupied[level] |= 1L << (slot & SLOT_MASK);
+    }
+
+    private void unlink(final Node<K> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            heads[node.slot] = node.next;
+            if (node.next == null) {
+                occupied[node.slot / SLOTS] &= ~(1L << (node.slot & SLOT_MASK));
+            }
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+}
@@ -0,0 +1,231 @@
+package site.hnfy258.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 流式Top-K频率统计
+ *
+ * <p>由两部分组成，内存与流中不同元素的数量无关：
+ * <ul>
+ *     <li>Count-Min草图：{@value #DEPTH}行计数器，每个元素在每行映射到一个计数器，
+ *     频率估计取各行的最小值，只会高估不会低估。更新采用保守更新，
+ *     只把小于新估计值的计数器抬高到估计值，显著减少碰撞带来的高估</li>
+ *     <li>容量为k的最小堆：保存估计频率最高的k个元素，新元素的估计值超过堆顶时替换堆顶</li>
+ * </ul>
+ * 每次更新O(DEPTH + log k)。
+ *
+ * <p>{@link #decay()}把所有计数减半，定期调用可以让统计反映最近的访问分布，
+ * 过去的热点逐渐让位于新的热点。
+ *
+ * <p>线程模型：单线程访问，不做任何同步。
+ *
+ * @param <K> 元素类型，按equals和hashCode区分
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class TopKSketch<K> {
+
+    /** 草图行数 */
+    private static final int DEPTH = 4;
+
+    /** 最多保留的元素数量 */
+    private final int capacity;
+
+    /** 每行计数器数量，2的幂 */
+    private final int width;
+
+    private final int widthMask;
+
+    /** 草图计数器，下标为 行 * width + 列 */
+    private final int[] counters;
+
+    /** 最小堆中的元素 */
+    private final Object[] heapKeys;
+
+    /** 最小堆中元素的估计频率，与heapKeys一一对应 */
+    private final int[] heapCounts;
+
+    /** 元素到堆下标的映射 */
+    private final Map<K, Integer> positions;
+
+    /** 堆中的元素数量 */
+    private int size;
+
+    /**
+     * 创建Top-K统计
+     *
+     * @param capacity 保留的元素数量k
+     * @param width 草图每行的计数器数量，向上取整到2的幂，越大高估越少
+     * @throws IllegalArgumentException 如果参数不合法
+     */
+    public TopKSketch(final int capacity, final int width) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Top-K容量必须大于0");
+        }
+        if (width <= 0 || width > (1 << 24)) {
+            throw new IllegalArgumentException("草图宽度必须在1-16777216范围内");
+        }
+        this.capacity = capacity;
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.widthMask = this.width - 1;
+        this.counters = new int[DEPTH * this.width];
+        this.heapKeys = new Object[capacity];
+        this.heapCounts = new int[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 记录一次出现
+     *
+     * @param key 元素
+     * @return 更新后的估计频率
+     */
+    public int offer(final K key) {
+        // 1. 保守更新草图
+        final int h1 = spread(key.hashCode());
+        final int h2 = spread(h1 * 0x9E3779B9) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters[index(i, h1, h2)]);
+        }
+        final int estimate = min == Integer.MAX_VALUE ? min : min + 1;
+        for (int i = 0; i < DEPTH; i++) {
+            final int idx = index(i, h1, h2);
+            if (counters[idx] < estimate) {
+                counters[idx] = estimate;
+            }
+        }
+
+        // 2. 已在堆中时更新计数，计数只增不减，向下调整
+        final Integer pos = positions.get(key);
+        if (pos != null) {
+            heapCounts[pos] = estimate;
+            siftDown(pos);
+            return estimate;
+        }
+
+        // 3. 堆未满时直接加入，已满时替换估计频率更低的堆顶
+        if (size < capacity) {
+            place(size, key, estimate);
+            siftUp(size++);
+        } else if (estimate > heapCounts[0]) {
+            positions.remove(heapKeys[0]);
+            place(0, key, estimate);
+            siftDown(0);
+        }
+        return estimate;
+    }
+
+    /**
+     * 估计元素的频率，不修改统计
+     *
+     * @param key 元素
+     * @return 估计频率，不小于真实频率
+     */
+    public int estimate(final K key) {
+        final int h1 = spread(key.hashCode());
+        final int h2 = spread(h1 * 0x9E3779B9) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters[index(i, h1, h2)]);
+        }
+        return min;
+    }
+
+    /**
+     * 所有计数减半，堆的顺序保持不变
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+        for (int i = 0; i < size; i++) {
+            heapCounts[i] >>>= 1;
+        }
+    }
+
+    /**
+     * 清空统计
+     */
+    public void clear() {
+        Arrays.fill(counters, 0);
+        Arrays.fill(heapKeys, 0, size, null);
+        positions.clear();
+        size = 0;
+    }
+
+    /**
+     * 遍历当前的Top-K元素，顺序不确定
+     *
+     * @param consumer 接收元素和估计频率
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(final ObjIntConsumer<K> consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept((K) heapKeys[i], heapCounts[i]);
+        }
+    }
+
+    /**
+     * @return 当前保留的元素数量
+     */
+    public int size() {
+        return size;
+    }
+
+    // ========== 内部实现 ==========
+
+    /**
+     * 双重哈希计算第row行的计数器下标
+     */
+    private int index(final int row, final int h1, final int h2) {
+        return row * width + ((h1 + row * h2) & widthMask);
+    }
+
+    private static int spread(final int h) {
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void place(final int pos, final Object key, final int count) {
+        heapKeys[pos] = key;
+        heapCounts[pos] = count;
+        positions.put((K) key, pos);
+    }
+
+    private void siftUp(int pos) {
+        final Object key = heapKeys[pos];
+        final int count = heapCounts[pos];
+        while (pos > 0) {
+            final int parent = (pos - 1) >>> 1;
+            if (heapCounts[parent] <= count) {
+                break;
+            }
+            place(pos, heapKeys[parent], heapCounts[parent]);
+            pos = parent;
+        }
+        place(pos, key, count);
+    }
+
+    private void siftDown(int pos) {
+        final Object key = heapKeys[pos];
+        final int count = heapCounts[pos];
+        final int half = size >>> 1;
+        while (pos < half) {
+            int child = (pos << 1) + 1;
+            final int right = child + 1;
+            if (right < size && heapCounts[right] < heapCounts[child]) {
+                child = right;
+            }
+            if (count <= heapCounts[child]) {
+                break;
+            }
+            place(pos, heapKeys[child], heapCounts[child]);
+            pos = child;
+        }
+        place(pos, key, count);
+    }
+}
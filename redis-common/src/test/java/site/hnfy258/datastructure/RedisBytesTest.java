@@ -153,6 +153,32 @@ class RedisBytesTest {
         }
     }
 
+    @Nested
+    @DisplayName("fromLong 工厂方法测试")
+    class FromLongTests {
+
+        @Test
+        @DisplayName("整数渲染测试")
+        void testFromLongRendering() {
+            final long[] values = {0, 7, -1, 9999, 10000, -10000, 123456789012L, Long.MAX_VALUE, Long.MIN_VALUE};
+            for (final long value : values) {
+                assertEquals(Long.toString(value), RedisBytes.fromLong(value).getString());
+            }
+        }
+
+        @Test
+        @DisplayName("共享小整数测试")
+        void testSharedIntegers() {
+            assertSame(RedisBytes.fromLong(0), RedisBytes.fromLong(0));
+            assertSame(RedisBytes.fromLong(RedisBytes.SHARED_INTEGERS - 1),
+                    RedisBytes.fromLong(RedisBytes.SHARED_INTEGERS - 1));
+            assertNotSame(RedisBytes.fromLong(RedisBytes.SHARED_INTEGERS),
+                    RedisBytes.fromLong(RedisBytes.SHARED_INTEGERS));
+            assertNotSame(RedisBytes.fromLong(-1), RedisBytes.fromLong(-1));
+            assertEquals(RedisBytes.fromString("42"), RedisBytes.fromLong(42));
+        }
+    }
+
     @Nested
     @DisplayName("字节数组操作测试")
     class ByteArrayOperationTests {
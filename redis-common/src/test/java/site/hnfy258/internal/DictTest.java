@@ -0,0 +1,239 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictTest {
+    private Dict<String, String> dict;
+
+    @BeforeEach
+    void setUp() {
+        dict = new Dict<>();
+    }
+
+    @Test
+    void testSizeTracksInsertUpdateRemove() {
+        assertEquals(0, dict.size());
+        dict.put("a", "1");
+        dict.put("b", "2");
+        dict.put("a", "3");
+        assertEquals(2, dict.size());
+
+        dict.remove("a");
+        dict.remove("missing");
+        assertEquals(1, dict.size());
+
+        // null值视为不存在
+        dict.put("b", null);
+        assertEquals(0, dict.size());
+        dict.put("b", "4");
+        assertEquals(1, dict.size());
+    }
+
+    @Test
+    void testSizeAcrossRehash() {
+        for (int i = 0; i < 10_000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        assertEquals(10_000, dict.size());
+        for (int i = 0; i < 10_000; i += 2) {
+            dict.remove("key" + i);
+        }
+        assertEquals(5_000, dict.size());
+        assertEquals(5_000, dict.keySet().size());
+    }
+
+    @Test
+    void testSnapshotSize() {
+        dict.put("a", "1");
+        dict.put("b", "2");
+
+        dict.startSnapshot();
+        dict.put("c", "3");
+        dict.remove("a");
+        dict.remove("a");
+        dict.put("b", "20");
+        assertEquals(2, dict.size());
+        assertEquals(2, dict.snapshotSize());
+        assertEquals(2, dict.createSnapshotWithoutFinish().size());
+
+        dict.put("a", "10");
+        assertEquals(3, dict.size());
+        dict.finishSnapshot();
+
+        assertEquals(3, dict.size());
+        assertEquals(3, dict.snapshotSize());
+        assertEquals(3, dict.getAll().size());
+    }
+
+    @Test
+    void testScanReturnsEveryKeyAcrossRehash() {
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            dict.put("key" + i, "value" + i);
+            expected.add("key" + i);
+        }
+
+        Set<String> seen = new HashSet<>();
+        long cursor = 0;
+        int extra = 0;
+        do {
+            cursor = dict.scan(cursor, seen::add);
+            // 每次调用之间写入新键，迭代会跨越多次扩容
+            dict.put("extra" + extra++, "x");
+        } while (cursor != 0);
+        assertTrue(seen.containsAll(expected));
+
+        assertEquals(0, new Dict<String, String>().scan(0, seen::add));
+    }
+
+    @Test
+    void testIteratorsDuringRehash() {
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            dict.put("key" + i, "value" + i);
+            expected.put("key" + i, "value" + i);
+        }
+
+        Map<String, String> seen = new HashMap<>();
+        Iterator<Map.Entry<String, String>> it = dict.entryIterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            assertNull(seen.put(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(expected, seen);
+        assertThrows(NoSuchElementException.class, it::next);
+
+        Set<String> keys = new HashSet<>();
+        dict.keyIterator().forEachRemaining(keys::add);
+        assertEquals(expected.keySet(), keys);
+    }
+
+    @Test
+    void testSnapshotIteratorIgnoresConcurrentWrites() {
+        for (int i = 0; i < 100; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        assertThrows(IllegalStateException.class, () -> dict.snapshotIterator());
+
+        dict.startSnapshot();
+        Iterator<Map.Entry<String, String>> it = dict.snapshotIterator();
+        // 遍历期间修改、删除、插入都不影响快照视图
+        dict.put("key0", "changed");
+        dict.remove("key1");
+        for (int i = 100; i < 1000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+
+        Map<String, String> seen = new HashMap<>();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            assertNull(seen.put(entry.getKey(), entry.getValue()));
+        }
+        dict.finishSnapshot();
+
+        assertEquals(100, seen.size());
+        assertEquals("value0", seen.get("key0"));
+        assertEquals("value1", seen.get("key1"));
+        assertEquals("changed", dict.get("key0"));
+        assertEquals(999, dict.size());
+    }
+
+    @Test
+    void testRandomKeyAndSampleKeys() {
+        assertNull(dict.randomKey());
+        assertEquals(0, dict.sampleKeys(5, k -> fail()));
+
+        for (int i = 0; i < 200; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        for (int i = 0; i < 200; i += 2) {
+            dict.remove("key" + i);
+        }
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            String key = dict.randomKey();
+            assertNotNull(dict.get(key));
+            seen.add(key);
+        }
+        assertEquals(100, seen.size());
+
+        List<String> samples = new ArrayList<>();
+        int sampled = dict.sampleKeys(10, samples::add);
+        assertEquals(sampled, samples.size());
+        assertEquals(samples.size(), new HashSet<>(samples).size());
+        assertTrue(sampled <= 10);
+
+        // 快照期间删除的key对当前视图不可见
+        dict.startSnapshot();
+        for (int i = 1; i < 199; i += 2) {
+            dict.remove("key" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("key199", dict.randomKey());
+        }
+        dict.finishSnapshot();
+    }
+
+    @Test
+    void testActiveRehashAndShrink() {
+        for (int i = 0; i < 10_000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        // 没有读写时只靠rehashFor完成迁移
+        while (dict.rehashFor(1_000_000)) {
+        }
+        assertFalse(dict.isRehashing());
+        assertFalse(dict.tryShrink());
+
+        for (int i = 100; i < 10_000; i++) {
+            dict.remove("key" + i);
+        }
+        assertTrue(dict.tryShrink());
+        assertTrue(dict.isRehashing());
+        assertFalse(dict.tryShrink());
+        while (dict.rehashFor(1_000_000)) {
+        }
+        assertFalse(dict.tryShrink());
+
+        assertEquals(100, dict.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, dict.get("key" + i));
+        }
+    }
+
+    @Test
+    void testNoShrinkDuringSnapshot() {
+        for (int i = 0; i < 1_000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        while (dict.rehashFor(1_000_000)) {
+        }
+        dict.startSnapshot();
+        for (int i = 0; i < 1_000; i++) {
+            dict.remove("key" + i);
+        }
+        assertFalse(dict.tryShrink());
+        dict.finishSnapshot();
+        assertTrue(dict.tryShrink());
+    }
+
+    @Test
+    void testClearResetsSize() {
+        dict.put("a", "1");
+        dict.clear();
+        assertEquals(0, dict.size());
+        assertEquals(0, dict.snapshotSize());
+    }
+}
@@ -0,0 +1,118 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+    private IntSet set;
+
+    @BeforeEach
+    void setUp() {
+        set = new IntSet();
+    }
+
+    private static byte[] b(String s) {
+        return s.getBytes();
+    }
+
+    @Test
+    void testIsLong() {
+        assertTrue(IntSet.isLong(b("0")));
+        assertTrue(IntSet.isLong(b("-1")));
+        assertTrue(IntSet.isLong(b("9223372036854775807")));
+        assertTrue(IntSet.isLong(b("-9223372036854775808")));
+        assertEquals(Long.MIN_VALUE, IntSet.toLong(b("-9223372036854775808")));
+        assertEquals(Long.MAX_VALUE, IntSet.toLong(b("9223372036854775807")));
+        assertEquals(-42, IntSet.toLong(b("-42")));
+
+        // 非规范形式不能以整数存储，否则转换回字节串时与原值不同
+        assertFalse(IntSet.isLong(b("")));
+        assertFalse(IntSet.isLong(b("-")));
+        assertFalse(IntSet.isLong(b("-0")));
+        assertFalse(IntSet.isLong(b("007")));
+        assertFalse(IntSet.isLong(b("+1")));
+        assertFalse(IntSet.isLong(b("1a")));
+        assertFalse(IntSet.isLong(b(" 1")));
+        assertFalse(IntSet.isLong(b("9223372036854775808")));
+        assertFalse(IntSet.isLong(b("-9223372036854775809")));
+        assertFalse(IntSet.isLong(b("99999999999999999999")));
+    }
+
+    @Test
+    void testAddKeepsOrderAndUpgrades() {
+        assertTrue(set.add(5));
+        assertTrue(set.add(-3));
+        assertTrue(set.add(100));
+        assertFalse(set.add(5));
+        assertEquals(2, set.width());
+        assertEquals(3, set.size());
+
+        assertTrue(set.add(70_000));
+        assertEquals(4, set.width());
+        assertTrue(set.add(-5_000_000_000L));
+        assertEquals(8, set.width());
+
+        long[] expected = {-5_000_000_000L, -3, 5, 100, 70_000};
+        assertEquals(expected.length, set.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], set.get(i));
+            assertTrue(set.contains(expected[i]));
+        }
+        assertFalse(set.contains(6));
+    }
+
+    @Test
+    void testRemoveDoesNotDowngrade() {
+        set.add(1);
+        set.add(Integer.MAX_VALUE + 1L);
+        assertFalse(set.remove(2));
+        assertFalse(new IntSet().remove(Long.MAX_VALUE));
+        assertTrue(set.remove(Integer.MAX_VALUE + 1L));
+        assertEquals(8, set.width());
+        assertEquals(1, set.size());
+        assertEquals(1, set.removeAt(0));
+        assertTrue(set.isEmpty());
+        assertThrows(IllegalStateException.class, () -> set.random());
+    }
+
+    @Test
+    void testRandom() {
+        for (int i = 0; i < 20; i++) {
+            set.add(i * 1000);
+        }
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 2_000; i++) {
+            seen.add(set.random());
+        }
+        assertEquals(20, seen.size());
+    }
+
+    @Test
+    void testSerializationAndCopy() {
+        set.add(-70_000);
+        set.add(3);
+        set.add(1);
+        byte[] bytes = set.toByteArray();
+        assertEquals(1 + 3 * 4, bytes.length);
+        IntSet restored = IntSet.fromBytes(bytes);
+        assertEquals(4, restored.width());
+        assertEquals(-70_000, restored.get(0));
+        assertEquals(3, restored.get(2));
+
+        IntSet copy = set.copy();
+        set.clear();
+        assertEquals(3, copy.size());
+        assertTrue(IntSet.fromBytes(new IntSet().toByteArray()).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> IntSet.fromBytes(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> IntSet.fromBytes(new byte[]{3, 0, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> IntSet.fromBytes(new byte[]{2, 0}));
+        // 元素必须严格升序
+        assertThrows(IllegalArgumentException.class, () -> IntSet.fromBytes(new byte[]{2, 2, 0, 1, 0}));
+    }
+}
@@ -0,0 +1,131 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeanDictTest {
+    private LeanDict<String, String> dict;
+
+    @BeforeEach
+    void setUp() {
+        dict = new LeanDict<>();
+    }
+
+    @Test
+    void testPutGetRemove() {
+        assertEquals(0, dict.capacity());
+        assertNull(dict.put("a", "1"));
+        assertEquals("1", dict.put("a", "2"));
+        assertEquals("2", dict.get("a"));
+        assertTrue(dict.containsKey("a"));
+        assertEquals(1, dict.size());
+
+        assertEquals("2", dict.remove("a"));
+        assertNull(dict.get("a"));
+        assertNull(dict.remove("a"));
+        assertTrue(dict.isEmpty());
+        // 清空后释放桶数组
+        assertEquals(0, dict.capacity());
+        assertThrows(IllegalArgumentException.class, () -> dict.put(null, "x"));
+        assertThrows(IllegalArgumentException.class, () -> dict.put("a", null));
+    }
+
+    @Test
+    void testGrowAndShrink() {
+        for (int i = 0; i < 10_000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        assertEquals(10_000, dict.size());
+        int grownCapacity = dict.capacity();
+        assertTrue(grownCapacity >= 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("value" + i, dict.get("key" + i));
+        }
+
+        // 大量删除后随后续写操作渐进缩容
+        for (int i = 100; i < 10_000; i++) {
+            assertEquals("value" + i, dict.remove("key" + i));
+        }
+        assertTrue(dict.capacity() < grownCapacity);
+        assertEquals(100, dict.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, dict.get("key" + i));
+        }
+    }
+
+    @Test
+    void testIterators() {
+        for (int i = 0; i < 1000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            dict.remove("key" + i);
+        }
+
+        Map<String, String> seen = new HashMap<>();
+        Iterator<Map.Entry<String, String>> it = dict.entryIterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            assertNull(seen.put(entry.getKey(), entry.getValue()));
+            assertEquals(entry.getValue(), dict.get(entry.getKey()));
+        }
+        assertEquals(dict.size(), seen.size());
+
+        Set<String> keys = new HashSet<>();
+        dict.keyIterator().forEachRemaining(keys::add);
+        assertEquals(seen.keySet(), keys);
+        assertFalse(new LeanDict<String, String>().entryIterator().hasNext());
+    }
+
+    @Test
+    void testRandomKey() {
+        assertNull(dict.randomKey());
+        for (int i = 0; i < 50; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            seen.add(dict.randomKey());
+        }
+        assertEquals(50, seen.size());
+    }
+
+    @Test
+    void testCopyIsIndependent() {
+        for (int i = 0; i < 100; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        LeanDict<String, String> copy = dict.copy();
+        dict.put("key0", "changed");
+        dict.remove("key1");
+        copy.put("extra", "x");
+
+        assertEquals(99, dict.size());
+        assertEquals(101, copy.size());
+        assertEquals("value0", copy.get("key0"));
+        assertEquals("value1", copy.get("key1"));
+        assertNull(dict.get("extra"));
+        assertTrue(new LeanDict<String, String>().copy().isEmpty());
+    }
+
+    @Test
+    void testClear() {
+        for (int i = 0; i < 100; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        dict.clear();
+        assertEquals(0, dict.size());
+        assertNull(dict.get("key1"));
+        assertFalse(dict.keyIterator().hasNext());
+        dict.put("key1", "again");
+        assertEquals("again", dict.get("key1"));
+    }
+}
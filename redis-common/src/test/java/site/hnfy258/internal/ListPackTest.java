@@ -0,0 +1,104 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListPackTest {
+    private ListPack pack;
+
+    @BeforeEach
+    void setUp() {
+        pack = new ListPack();
+    }
+
+    private static byte[] b(String s) {
+        return s.getBytes();
+    }
+
+    private List<String> elements() {
+        List<String> result = new ArrayList<>();
+        for (int offset = pack.first(); offset != -1; offset = pack.next(offset)) {
+            result.add(new String(pack.get(offset)));
+        }
+        return result;
+    }
+
+    @Test
+    void testAppendAndTraverse() {
+        assertEquals(-1, pack.first());
+        assertTrue(pack.isEmpty());
+        pack.append(b("a"));
+        pack.append(b(""));
+        pack.append(b("ccc"));
+        assertEquals(3, pack.size());
+        assertEquals(List.of("a", "", "ccc"), elements());
+        // 长度前缀1字节
+        assertEquals(2 + 1 + 4, pack.bytes());
+    }
+
+    @Test
+    void testLongElementsUseMultiByteLength() {
+        String big = "x".repeat(300);
+        pack.append(b(big));
+        pack.append(b("tail"));
+        assertEquals(2 + 300 + 1 + 4, pack.bytes());
+        assertEquals(List.of(big, "tail"), elements());
+    }
+
+    @Test
+    void testFindWithSkip() {
+        pack.append(b("f1"));
+        pack.append(b("f2"));
+        pack.append(b("f2"));
+        pack.append(b("v2"));
+        // 键值对交替存放时只比较键
+        int offset = pack.find(b("f2"), 1);
+        assertEquals("v2", new String(pack.get(pack.next(offset))));
+        assertEquals(-1, pack.find(b("v2"), 1));
+        assertEquals(pack.offsetOf(3), pack.find(b("v2"), 0));
+        assertEquals(pack.offsetOf(3), pack.offsetOf(-1));
+        assertEquals(-1, pack.offsetOf(4));
+    }
+
+    @Test
+    void testInsertReplaceDelete() {
+        pack.append(b("a"));
+        pack.append(b("c"));
+        pack.insert(pack.offsetOf(1), b("b"));
+        assertEquals(List.of("a", "b", "c"), elements());
+
+        pack.replace(pack.offsetOf(1), b("x".repeat(200)));
+        pack.replace(pack.offsetOf(0), b(""));
+        assertEquals(List.of("", "x".repeat(200), "c"), elements());
+        assertTrue(pack.equalsAt(pack.offsetOf(2), b("c")));
+
+        assertEquals(2, pack.delete(pack.offsetOf(0), 2));
+        assertEquals(List.of("c"), elements());
+        assertEquals(1, pack.delete(pack.first(), 5));
+        assertTrue(pack.isEmpty());
+        assertEquals(0, pack.bytes());
+    }
+
+    @Test
+    void testSerializationAndCopy() {
+        pack.append(b("k"));
+        pack.append(b("v".repeat(130)));
+        ListPack restored = ListPack.fromBytes(pack.toByteArray());
+        assertEquals(2, restored.size());
+        assertEquals(elements(), List.of(new String(restored.get(restored.first())),
+                new String(restored.get(restored.next(restored.first())))));
+
+        ListPack copy = pack.copy();
+        pack.replace(pack.first(), b("changed"));
+        assertEquals("k", new String(copy.get(copy.first())));
+
+        assertThrows(IllegalArgumentException.class, () -> ListPack.fromBytes(new byte[]{5, 'a'}));
+        assertThrows(IllegalArgumentException.class, () -> ListPack.fromBytes(new byte[]{(byte) 0x80}));
+        assertTrue(ListPack.fromBytes(new byte[0]).isEmpty());
+    }
+}
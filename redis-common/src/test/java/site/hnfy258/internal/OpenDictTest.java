@@ -0,0 +1,262 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenDictTest {
+    private OpenDict<String, String> dict;
+
+    @BeforeEach
+    void setUp() {
+        dict = new OpenDict<>();
+    }
+
+    @Test
+    void testPutGetRemove() {
+        assertNull(dict.put("a", "1"));
+        assertEquals("1", dict.put("a", "2"));
+        assertEquals("2", dict.get("a"));
+        assertTrue(dict.containsKey("a"));
+        assertEquals(1, dict.size());
+
+        assertEquals("2", dict.remove("a"));
+        assertNull(dict.get("a"));
+        assertNull(dict.remove("a"));
+        assertEquals(0, dict.size());
+        assertThrows(IllegalArgumentException.class, () -> dict.put(null, "x"));
+    }
+
+    @Test
+    void testPutNullValueRemovesKey() {
+        dict.put("a", "1");
+        dict.put("a", null);
+        assertFalse(dict.containsKey("a"));
+        assertEquals(0, dict.size());
+        assertTrue(dict.keySet().isEmpty());
+    }
+
+    @Test
+    void testGrowWithIncrementalRehash() {
+        for (int i = 0; i < 10_000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        assertEquals(10_000, dict.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("value" + i, dict.get("key" + i));
+        }
+        // 删除一半后剩余的键仍能通过墓碑找到
+        for (int i = 0; i < 10_000; i += 2) {
+            assertEquals("value" + i, dict.remove("key" + i));
+        }
+        assertEquals(5_000, dict.size());
+        assertEquals(5_000, dict.keySet().size());
+        for (int i = 1; i < 10_000; i += 2) {
+            assertEquals("value" + i, dict.get("key" + i));
+        }
+    }
+
+    @Test
+    void testCollidingKeys() {
+        OpenDict<CollidingKey, Integer> colliding = new OpenDict<>();
+        for (int i = 0; i < 100; i++) {
+            colliding.put(new CollidingKey(i), i);
+        }
+        colliding.remove(new CollidingKey(50));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i == 50 ? null : Integer.valueOf(i), colliding.get(new CollidingKey(i)));
+        }
+        colliding.put(new CollidingKey(50), 500);
+        assertEquals(500, colliding.get(new CollidingKey(50)));
+        assertEquals(100, colliding.size());
+    }
+
+    @Test
+    void testSnapshotSeesStateAtStart() {
+        dict.put("keep", "v1");
+        dict.put("update", "old");
+        dict.put("delete", "gone");
+
+        dict.startSnapshot();
+        dict.put("update", "new");
+        dict.remove("delete");
+        dict.put("insert", "fresh");
+
+        // 当前视图看到修改，快照看到开始时的数据
+        assertEquals("new", dict.get("update"));
+        assertNull(dict.get("delete"));
+        assertEquals("fresh", dict.get("insert"));
+        assertEquals(3, dict.size());
+        assertEquals(3, dict.snapshotSize());
+
+        Map<String, String> snapshot = dict.createSnapshotWithoutFinish();
+        assertEquals(3, snapshot.size());
+        assertEquals("old", snapshot.get("update"));
+        assertEquals("gone", snapshot.get("delete"));
+        assertFalse(snapshot.containsKey("insert"));
+
+        dict.finishSnapshot();
+        assertEquals("new", dict.get("update"));
+        assertNull(dict.get("delete"));
+        assertEquals("fresh", dict.get("insert"));
+        assertEquals(3, dict.size());
+        assertThrows(IllegalStateException.class, () -> dict.createSnapshotWithoutFinish());
+    }
+
+    @Test
+    void testSnapshotSurvivesGrowth() {
+        for (int i = 0; i < 100; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        dict.startSnapshot();
+        // 快照期间大量写入触发扩容
+        for (int i = 100; i < 5_000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        dict.put("key0", "changed");
+
+        Map<String, String> snapshot = dict.createSnapshotWithoutFinish();
+        assertEquals(100, snapshot.size());
+        assertEquals("value0", snapshot.get("key0"));
+
+        dict.finishSnapshot();
+        assertEquals(5_000, dict.size());
+        assertEquals("changed", dict.get("key0"));
+        assertEquals("value4999", dict.get("key4999"));
+    }
+
+    @Test
+    void testIteratorsSkipTombstones() {
+        for (int i = 0; i < 1000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            dict.remove("key" + i);
+        }
+
+        Map<String, String> seen = new HashMap<>();
+        Iterator<Map.Entry<String, String>> it = dict.entryIterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            assertNull(seen.put(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(dict.getAll(), seen);
+
+        Set<String> keys = new HashSet<>();
+        dict.keyIterator().forEachRemaining(keys::add);
+        assertEquals(seen.keySet(), keys);
+    }
+
+    @Test
+    void testSnapshotIteratorSurvivesGrowth() {
+        for (int i = 0; i < 100; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        assertThrows(IllegalStateException.class, () -> dict.snapshotIterator());
+
+        dict.startSnapshot();
+        Iterator<Map.Entry<String, String>> it = dict.snapshotIterator();
+        // 遍历期间写入触发扩容，快照视图保持不变
+        dict.remove("key0");
+        for (int i = 100; i < 2_000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+
+        Map<String, String> seen = new HashMap<>();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            assertNull(seen.put(entry.getKey(), entry.getValue()));
+        }
+        dict.finishSnapshot();
+
+        assertEquals(100, seen.size());
+        assertEquals("value0", seen.get("key0"));
+        assertEquals(1_999, dict.size());
+    }
+
+    @Test
+    void testRandomKeyIsUniform() {
+        assertNull(dict.randomKey());
+        for (int i = 0; i < 100; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        Map<String, Integer> hits = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            hits.merge(dict.randomKey(), 1, Integer::sum);
+        }
+        assertEquals(100, hits.size());
+        // 期望每个键1000次，严格均匀时偏离超过50%的概率可以忽略
+        for (int count : hits.values()) {
+            assertTrue(count > 500 && count < 1500);
+        }
+
+        Set<String> samples = new HashSet<>();
+        int sampled = dict.sampleKeys(10, key -> assertTrue(samples.add(key)));
+        assertEquals(sampled, samples.size());
+        assertTrue(sampled <= 10);
+    }
+
+    @Test
+    void testActiveRehashAndShrink() {
+        for (int i = 0; i < 10_000; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        while (dict.rehashFor(1_000_000)) {
+        }
+        assertFalse(dict.isRehashing());
+        int grownCapacity = dict.capacity();
+
+        for (int i = 100; i < 10_000; i++) {
+            dict.remove("key" + i);
+        }
+        dict.startSnapshot();
+        assertFalse(dict.tryShrink());
+        dict.finishSnapshot();
+
+        assertTrue(dict.tryShrink());
+        while (dict.rehashFor(1_000_000)) {
+        }
+        assertTrue(dict.capacity() < grownCapacity);
+        assertFalse(dict.tryShrink());
+        assertEquals(100, dict.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, dict.get("key" + i));
+        }
+    }
+
+    @Test
+    void testClear() {
+        for (int i = 0; i < 100; i++) {
+            dict.put("key" + i, "value" + i);
+        }
+        dict.clear();
+        assertEquals(0, dict.size());
+        assertNull(dict.get("key1"));
+        assertTrue(dict.getAll().isEmpty());
+    }
+
+    private static final class CollidingKey {
+        private final int id;
+
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuickListTest {
+
+    private static byte[] b(String s) {
+        return s.getBytes();
+    }
+
+    private static List<String> elements(QuickList list) {
+        List<String> result = new ArrayList<>();
+        Iterator<byte[]> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            result.add(new String(iterator.next()));
+        }
+        return result;
+    }
+
+    @Test
+    void testPushPopBothEnds() {
+        QuickList list = new QuickList(4, 0);
+        assertNull(list.popHead());
+        assertNull(list.popTail());
+        for (int i = 0; i < 10; i++) {
+            list.pushTail(b("t" + i));
+            list.pushHead(b("h" + i));
+        }
+        assertEquals(20, list.size());
+        // 每个节点最多4个元素
+        assertTrue(list.nodeCount() >= 5);
+        assertEquals("h9", new String(list.popHead()));
+        assertEquals("t9", new String(list.popTail()));
+        assertEquals("h8", new String(list.get(0)));
+        assertEquals("t8", new String(list.get(-1)));
+        assertEquals("t0", new String(list.get(9)));
+        assertNull(list.get(18));
+        assertNull(list.get(-19));
+
+        while (list.popTail() != null) {
+            // 弹出全部元素后节点全部释放
+        }
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.nodeCount());
+    }
+
+    @Test
+    void testIndexOperationsMatchLinkedList() {
+        QuickList list = new QuickList(-1, 2);
+        LinkedList<String> expected = new LinkedList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 3000; i++) {
+            String value = "value-" + i + "-" + "x".repeat(random.nextInt(40));
+            int op = random.nextInt(6);
+            if (op == 0 || expected.isEmpty()) {
+                list.pushTail(b(value));
+                expected.addLast(value);
+            } else if (op == 1) {
+                list.pushHead(b(value));
+                expected.addFirst(value);
+            } else if (op == 2) {
+                int index = random.nextInt(expected.size() + 1);
+                list.insert(index, b(value));
+                expected.add(index, value);
+            } else if (op == 3) {
+                int index = random.nextInt(expected.size());
+                assertTrue(list.set(index, b(value)));
+                expected.set(index, value);
+            } else if (op == 4) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), new String(list.get(index)));
+            } else {
+                int start = random.nextInt(expected.size());
+                int count = random.nextInt(3);
+                list.delete(start, count);
+                for (int j = 0; j < count && start < expected.size(); j++) {
+                    expected.remove(start);
+                }
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected, elements(list));
+        assertTrue(list.nodeCount() > 1);
+    }
+
+    @Test
+    void testOversizedElementsGetOwnNode() {
+        QuickList list = new QuickList(-1, 0);
+        list.pushTail(b("a"));
+        list.pushTail(b("b"));
+        list.pushTail(b("c"));
+        assertEquals(1, list.nodeCount());
+
+        String big = "x".repeat(5000);
+        assertTrue(list.set(1, b(big)));
+        assertEquals(3, list.nodeCount());
+        assertEquals(List.of("a", big, "c"), elements(list));
+
+        list.insert(1, b(big));
+        assertEquals(List.of("a", big, big, "c"), elements(list));
+        assertFalse(list.set(4, b("z")));
+    }
+
+    @Test
+    void testRangeAndDelete() {
+        QuickList list = new QuickList(3, 0);
+        for (int i = 0; i < 20; i++) {
+            list.pushTail(b(String.valueOf(i)));
+        }
+        List<String> range = new ArrayList<>();
+        for (byte[] value : list.range(5, 4)) {
+            range.add(new String(value));
+        }
+        assertEquals(List.of("5", "6", "7", "8"), range);
+        assertEquals(2, list.range(18, 100).size());
+        assertTrue(list.range(20, 1).isEmpty());
+
+        // 跨越多个节点的删除直接摘除整个节点
+        list.delete(2, 10);
+        assertEquals(10, list.size());
+        assertEquals(List.of("0", "1", "12", "13", "14", "15", "16", "17", "18", "19"), elements(list));
+        list.delete(8, 100);
+        assertEquals(List.of("0", "1", "12", "13", "14", "15", "16", "17"), elements(list));
+    }
+
+    @Test
+    void testRemoveByValue() {
+        QuickList list = new QuickList(2, 0);
+        for (String s : new String[]{"a", "x", "b", "x", "c", "x", "d"}) {
+            list.pushTail(b(s));
+        }
+        assertEquals(1, list.indexOf(b("x")));
+        assertEquals(-1, list.indexOf(b("missing")));
+
+        QuickList fromTail = list.copy();
+        assertEquals(1, fromTail.remove(b("x"), -1));
+        assertEquals(List.of("a", "x", "b", "x", "c", "d"), elements(fromTail));
+
+        assertEquals(2, list.remove(b("x"), 2));
+        assertEquals(List.of("a", "b", "c", "x", "d"), elements(list));
+        assertEquals(1, list.remove(b("x"), 0));
+        assertEquals(0, list.remove(b("x"), 0));
+        assertEquals(4, list.size());
+    }
+
+    @Test
+    void testCompressionOfInteriorNodes() {
+        QuickList plain = new QuickList(16, 0);
+        QuickList compressed = new QuickList(16, 1);
+        for (int i = 0; i < 2000; i++) {
+            byte[] value = b("queue-item-payload-" + (i % 10));
+            plain.pushTail(value);
+            compressed.pushTail(value);
+        }
+        assertTrue(compressed.storedBytes() < plain.storedBytes() / 2);
+        assertEquals(elements(plain), elements(compressed));
+
+        // 访问和修改压缩节点
+        assertEquals("queue-item-payload-3", new String(compressed.get(1003)));
+        assertTrue(compressed.set(1003, b("changed")));
+        assertEquals("changed", new String(compressed.get(1003)));
+        compressed.insert(500, b("inserted"));
+        assertEquals("inserted", new String(compressed.get(500)));
+
+        // 副本共享压缩数据但互不影响
+        QuickList copy = compressed.copy();
+        compressed.delete(0, 1500);
+        assertEquals(2001, copy.size());
+        assertEquals("changed", new String(copy.get(1004)));
+
+        while (compressed.popHead() != null) {
+            // 两端弹出时边界节点逐步解压
+        }
+        assertEquals(0, compressed.size());
+        assertEquals(2001, elements(copy).size());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new QuickList(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new QuickList(-6, 0));
+        assertThrows(IllegalArgumentException.class, () -> new QuickList(-2, -1));
+        QuickList list = new QuickList(-2, 0);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.insert(1, b("a")));
+    }
+}
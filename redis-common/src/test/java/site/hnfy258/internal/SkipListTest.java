@@ -3,7 +3,10 @@ package site.hnfy258.internal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -156,4 +159,121 @@ class SkipListTest {
 
         assertNull(first.backward); // 第一个节点的backward应该是null
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testRangeEndpointsAndCount() {
+        for (int i = 0; i < 100; i++) {
+            skipList.insert(i / 2, "m" + (char) ('a' + i % 2) + i);
+        }
+        // 分数依次为0,0,1,1,...,49,49
+        assertEquals(2.0, skipList.firstInRange(2.0, false, 10.0, false).score);
+        assertEquals(3.0, skipList.firstInRange(2.0, true, 10.0, false).score);
+        assertEquals(10.0, skipList.lastInRange(2.0, false, 10.0, false).score);
+        assertEquals(9.0, skipList.lastInRange(2.0, false, 10.0, true).score);
+        assertNull(skipList.firstInRange(49.5, false, 100.0, false));
+        assertNull(skipList.lastInRange(-10.0, false, -0.5, false));
+        assertNull(skipList.firstInRange(5.0, true, 5.0, false));
+
+        assertEquals(18, skipList.countInRange(2.0, false, 10.0, false));
+        assertEquals(14, skipList.countInRange(2.0, true, 10.0, true));
+        assertEquals(100, skipList.countInRange(Double.NEGATIVE_INFINITY, false, Double.POSITIVE_INFINITY, false));
+        assertEquals(0, skipList.countInRange(3.0, false, 2.0, false));
+
+        // 通过后向指针反向遍历范围
+        SkipList.SkipListNode<String> node = skipList.lastInRange(0.0, false, 1.0, false);
+        int visited = 0;
+        while (node != null) {
+            visited++;
+            node = node.previous();
+        }
+        assertEquals(4, visited);
+    }
+
+    @Test
+    void testDeleteRanges() {
+        for (int i = 0; i < 50; i++) {
+            skipList.insert(i, "m" + i);
+        }
+        List<String> removed = new ArrayList<>();
+        assertEquals(5, skipList.deleteRangeByRank(11, 15, removed::add));
+        assertEquals(List.of("m10", "m11", "m12", "m13", "m14"), removed);
+        assertEquals(45, skipList.size());
+        assertEquals("m15", skipList.getElementByRank(11).member);
+        assertEquals(11, skipList.getRank(15.0, "m15"));
+
+        removed.clear();
+        assertEquals(3, skipList.deleteRangeByScore(20.0, true, 24.0, true, removed::add));
+        assertEquals(List.of("m21", "m22", "m23"), removed);
+        assertEquals(0, skipList.deleteRangeByScore(21.0, false, 23.0, false, removed::add));
+        assertEquals(42, skipList.size());
+        assertEquals("m24", skipList.getElementByRank(17).member);
+        assertEquals("m20", skipList.getElementByRank(16).member);
+        assertEquals("m20", skipList.getElementByRank(17).previous().member);
+
+        // 删除到末尾后尾节点和排名仍然正确
+        assertEquals(42, skipList.deleteRangeByRank(1, 1000, member -> { }));
+        assertTrue(skipList.isEmpty());
+        assertNull(skipList.getLast());
+        skipList.insert(1.0, "again");
+        assertEquals(1, skipList.getRank(1.0, "again"));
+    }
+
+    @Test
+    void testVisitorIteration() {
+        for (int i = 0; i < 20; i++) {
+            skipList.insert(i, "m" + i);
+        }
+        List<String> visited = new ArrayList<>();
+        assertEquals(3, skipList.forEachByRank(0, 2, true, node -> visited.add(node.member)));
+        assertEquals(List.of("m19", "m18", "m17"), visited);
+
+        visited.clear();
+        assertEquals(2, skipList.forEachByRank(-2, 100, false, node -> visited.add(node.member)));
+        assertEquals(List.of("m18", "m19"), visited);
+
+        visited.clear();
+        assertEquals(3, skipList.forEachByScore(5.0, true, 15.0, false, false, 2, 3, node -> visited.add(node.member)));
+        assertEquals(List.of("m8", "m9", "m10"), visited);
+
+        visited.clear();
+        assertEquals(2, skipList.forEachByScore(5.0, false, 15.0, true, true, 8, -1, node -> visited.add(node.member)));
+        assertEquals(List.of("m6", "m5"), visited);
+        assertEquals(0, skipList.forEachByScore(5.0, false, 15.0, true, true, 10, -1, node -> visited.add(node.member)));
+    }
+
+    @Test
+    void testRandomOperationsMatchTreeSet() {
+        Random random = new Random(19);
+        TreeSet<Integer> expected = new TreeSet<>();
+        SkipList<String> list = new SkipList<>();
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(500);
+            String member = String.format("%04d", value);
+            if (expected.contains(value)) {
+                assertTrue(list.delete(value, member));
+                expected.remove(value);
+            } else {
+                list.insert(value, member);
+                expected.add(value);
+            }
+        }
+        assertEquals(expected.size(), list.size());
+
+        // 排名、首尾节点和正反向遍历都与参照集合一致
+        int rank = 1;
+        for (int value : expected) {
+            assertEquals(rank++, list.getRank(value, String.format("%04d", value)));
+        }
+        assertEquals((double) expected.first(), list.getFirst().score);
+        assertEquals((double) expected.last(), list.getLast().score);
+        List<Double> backward = new ArrayList<>();
+        for (SkipList.SkipListNode<String> node = list.getLast(); node != null; node = node.previous()) {
+            backward.add(node.score);
+        }
+        List<Double> reversed = new ArrayList<>();
+        for (int value : expected.descendingSet()) {
+            reversed.add((double) value);
+        }
+        assertEquals(reversed, backward);
+    }
+}
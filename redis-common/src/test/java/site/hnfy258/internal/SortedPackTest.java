@@ -0,0 +1,105 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedPackTest {
+
+    private static byte[] b(String s) {
+        return s.getBytes();
+    }
+
+    private static List<String> members(SortedPack pack) {
+        List<String> result = new ArrayList<>();
+        for (byte[] member : pack.members(0, pack.size())) {
+            result.add(new String(member));
+        }
+        return result;
+    }
+
+    @Test
+    void testInsertKeepsScoreThenMemberOrder() {
+        SortedPack pack = new SortedPack();
+        assertTrue(pack.isEmpty());
+        assertEquals(0, pack.insert(2.0, b("b")));
+        assertEquals(0, pack.insert(1.0, b("z")));
+        assertEquals(1, pack.insert(2.0, b("a")));
+        assertEquals(3, pack.insert(2.0, b("c")));
+        assertEquals(4, pack.insert(3.0, b("a")));
+
+        assertEquals(List.of("z", "a", "b", "c", "a"), members(pack));
+        assertEquals(1.0, pack.score(0));
+        assertEquals(2.0, pack.score(3));
+        assertEquals("c", new String(pack.member(3)));
+        assertEquals(2, pack.indexOf(b("b")));
+        assertEquals(-1, pack.indexOf(b("missing")));
+    }
+
+    @Test
+    void testScoreBounds() {
+        SortedPack pack = new SortedPack();
+        for (int i = 0; i < 10; i++) {
+            pack.insert(i / 2, b("m" + i));
+        }
+        // 分数依次为0,0,1,1,2,2,3,3,4,4
+        assertEquals(2, pack.lowerBound(1.0, false));
+        assertEquals(4, pack.lowerBound(1.0, true));
+        assertEquals(4, pack.upperBound(1.0, false));
+        assertEquals(2, pack.upperBound(1.0, true));
+        assertEquals(0, pack.lowerBound(Double.NEGATIVE_INFINITY, false));
+        assertEquals(10, pack.upperBound(Double.POSITIVE_INFINITY, false));
+        assertEquals(10, pack.lowerBound(4.5, false));
+        assertEquals(0, pack.upperBound(-1.0, false));
+    }
+
+    @Test
+    void testRemoveAndCopy() {
+        SortedPack pack = new SortedPack();
+        pack.insert(1.0, b("a"));
+        pack.insert(2.0, b("b"));
+        pack.insert(3.0, b("c"));
+
+        SortedPack copy = pack.copy();
+        pack.removeAt(1);
+        assertEquals(List.of("a", "c"), members(pack));
+        assertEquals(3.0, pack.score(1));
+        pack.removeAt(0);
+        pack.removeAt(0);
+        assertTrue(pack.isEmpty());
+        assertEquals(0, pack.bytes());
+
+        assertEquals(List.of("a", "b", "c"), members(copy));
+        assertEquals(2.0, copy.score(1));
+    }
+
+    @Test
+    void testRandomOperationsKeepOrder() {
+        SortedPack pack = new SortedPack();
+        Set<String> expected = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            String member = "k" + random.nextInt(60);
+            int index = pack.indexOf(b(member));
+            if (index >= 0) {
+                pack.removeAt(index);
+                expected.remove(member);
+            } else {
+                pack.insert(random.nextInt(5), b(member));
+                expected.add(member);
+            }
+            assertEquals(expected.size(), pack.size());
+        }
+        for (int i = 1; i < pack.size(); i++) {
+            int scoreOrder = Double.compare(pack.score(i - 1), pack.score(i));
+            assertTrue(scoreOrder < 0
+                    || (scoreOrder == 0 && new String(pack.member(i - 1)).compareTo(new String(pack.member(i))) < 0));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void testFiresOnlyAfterDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1_000);
+        wheel.schedule("a", 1_005);
+        wheel.schedule("b", 1_010);
+        wheel.schedule("c", 1_500);
+        assertEquals(3, wheel.size());
+
+        List<String> fired = new ArrayList<>();
+        // 到期时间向上取整到tick，1005要等到1010才触发
+        assertEquals(0, wheel.advance(1_009, 100, fired::add));
+        assertEquals(2, wheel.advance(1_010, 100, fired::add));
+        assertEquals(List.of("a", "b"), sorted(fired));
+        assertEquals(0, wheel.advance(1_499, 100, fired::add));
+        assertEquals(1, wheel.advance(1_500, 100, fired::add));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void testRescheduleAndCancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("a", 100);
+        wheel.schedule("a", 5_000);
+        wheel.schedule("b", 200);
+        assertEquals(2, wheel.size());
+        assertEquals(5_000, wheel.deadline("a"));
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+        assertEquals(-1, wheel.deadline("b"));
+
+        List<String> fired = new ArrayList<>();
+        assertEquals(0, wheel.advance(4_999, 100, fired::add));
+        assertEquals(1, wheel.advance(5_000, 100, fired::add));
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    void testBoundedWorkPerAdvance() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(i, 50);
+        }
+        wheel.schedule(1_000, 60);
+        List<Integer> fired = new ArrayList<>();
+        assertEquals(30, wheel.advance(100, 30, fired::add));
+        assertEquals(30, wheel.advance(100, 30, fired::add));
+        assertEquals(41, wheel.advance(100, 1_000, fired::add));
+        assertEquals(Integer.valueOf(1_000), fired.get(fired.size() - 1));
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void testPastAndFarDeadlines() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 1_000);
+        wheel.schedule("past", 10);
+        wheel.schedule("far", Long.MAX_VALUE);
+        List<String> fired = new ArrayList<>();
+        assertEquals(1, wheel.advance(1_000, 10, fired::add));
+        assertEquals(List.of("past"), fired);
+        assertEquals(0, wheel.advance(1_000 + (1L << 37), 10, fired::add));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void testRandomDeadlinesAcrossLevels() {
+        Random random = new Random(17);
+        long now = 1_000_000;
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, now);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            // 覆盖前四层的跨度
+            long deadline = now + random.nextInt(1 << (6 * (1 + random.nextInt(4))));
+            wheel.schedule(i, deadline);
+            deadlines.put(i, deadline);
+        }
+        long end = now + (1 << 24);
+        while (now < end) {
+            now += 1 + random.nextInt(5_000);
+            final long current = now;
+            wheel.advance(current, Integer.MAX_VALUE, key -> {
+                long deadline = deadlines.remove(key);
+                assertTrue(deadline <= current, "提前触发");
+                assertTrue(current - deadline <= 5_000, "延迟触发");
+            });
+            // 没有触发的键都还没到期
+            for (long deadline : deadlines.values()) {
+                assertTrue(deadline > current);
+            }
+        }
+        assertTrue(deadlines.isEmpty());
+        assertTrue(wheel.isEmpty());
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> result = new ArrayList<>(values);
+        result.sort(null);
+        return result;
+    }
+}
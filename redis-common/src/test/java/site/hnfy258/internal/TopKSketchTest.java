@@ -0,0 +1,73 @@
+package site.hnfy258.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKSketchTest {
+
+    @Test
+    void testFindsHeavyHitters() {
+        TopKSketch<String> sketch = new TopKSketch<>(10, 256);
+        Map<String, Integer> truth = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // 5个热点键占一半访问，其余访问分散在一万个键上
+            String key = random.nextBoolean()
+                    ? "hot" + random.nextInt(5)
+                    : "cold" + random.nextInt(10_000);
+            truth.merge(key, 1, Integer::sum);
+            sketch.offer(key);
+        }
+
+        assertEquals(10, sketch.size());
+        Set<String> kept = new HashSet<>();
+        sketch.forEach((key, count) -> {
+            kept.add(key);
+            assertTrue(count >= truth.get(key), "估计值不应低于真实频率: " + key);
+        });
+        for (int i = 0; i < 5; i++) {
+            assertTrue(kept.contains("hot" + i), "热点键应被保留: hot" + i);
+            int estimate = sketch.estimate("hot" + i);
+            int actual = truth.get("hot" + i);
+            assertTrue(estimate - actual < actual / 10, "高估过多: " + estimate + " vs " + actual);
+        }
+    }
+
+    @Test
+    void testDecayAndClear() {
+        TopKSketch<String> sketch = new TopKSketch<>(2, 64);
+        for (int i = 0; i < 8; i++) {
+            sketch.offer("a");
+        }
+        sketch.offer("b");
+        sketch.offer("c");
+        assertEquals(2, sketch.size());
+        assertEquals(8, sketch.estimate("a"));
+
+        sketch.decay();
+        Map<String, Integer> counts = new HashMap<>();
+        sketch.forEach(counts::put);
+        assertEquals(4, counts.get("a"));
+        assertEquals(4, sketch.estimate("a"));
+
+        // 衰减后新的热点能挤掉旧的
+        for (int i = 0; i < 6; i++) {
+            sketch.offer("d");
+        }
+        counts.clear();
+        sketch.forEach(counts::put);
+        assertEquals(Set.of("a", "d"), counts.keySet());
+
+        sketch.clear();
+        assertEquals(0, sketch.size());
+        assertEquals(0, sketch.estimate("a"));
+        assertThrows(IllegalArgumentException.class, () -> new TopKSketch<String>(0, 64));
+    }
+}
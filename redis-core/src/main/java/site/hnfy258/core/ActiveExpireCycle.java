@@ -0,0 +1,222 @@
+package site.hnfy258.core;
+
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 主动过期周期
+ *
+ * <p>惰性删除只处理被访问的键，不再被访问的过期键会一直占用内存。该任务由定时器周期性调用，
+ * 在固定的时间预算内从各数据库的过期索引中采样并删除已过期的键：
+ * <ul>
+ *     <li>每轮采样一批键，其中过期的比例超过可接受比例时说明还有大量过期键，继续下一轮，
+ *     否则转到下一个数据库；过期键越多投入的工作越多</li>
+ *     <li>时间预算用完时停止，下次从没处理完的数据库继续</li>
+ *     <li>采样中过期键的比例按指数移动平均记录，平均值超过可接受比例说明过期键在堆积，
+ *     之后的周期按{@value #LONG_CYCLE_BUDGET_FACTOR}倍预算运行，直到平均值回落</li>
+ * </ul>
+ *
+ * <p>努力程度（1-10）与Redis的active-expire-effort相同：
+ * 越大每轮采样越多、可接受的过期比例越低。
+ *
+ * <p>数据库启用了时间轮（{@link RedisDB#hasTimingWheel()}）时不再采样，
+ * 每轮直接从时间轮中取出一批到期的键删除，直到没有到期的键或预算用完。
+ *
+ * <p>每个实例只处理一个分段，必须在该分段所属的执行线程上运行，
+ * 与该分段的命令串行执行，因此不需要加锁。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class ActiveExpireCycle implements Runnable {
+
+    /** 努力程度为1时每轮采样的键数量 */
+    private static final int KEYS_PER_LOOP = 20;
+
+    /** 努力程度为1时可接受的过期比例（百分比） */
+    private static final int ACCEPTABLE_STALE_PERCENT = 10;
+
+    /** 过期比例移动平均中本次结果的权重 */
+    private static final double STALE_PERCENT_WEIGHT = 0.05;
+
+    /** 过期键堆积时的预算倍数 */
+    static final int LONG_CYCLE_BUDGET_FACTOR = 2;
+
+    /** Redis核心 */
+    private final RedisCore redisCore;
+
+    /** 负责的分段下标 */
+    private final int segment;
+
+    /** 每次执行的时间预算，纳秒 */
+    private final long budgetNanos;
+
+    /** 每轮采样的键数量 */
+    private final int keysPerLoop;
+
+    /** 可接受的过期比例（百分比） */
+    private final int acceptableStalePercent;
+
+    /** 复用的样本缓冲区，采样期间不能删除键，先收集再检查 */
+    private final List<RedisBytes> samples;
+
+    private final Consumer<RedisBytes> collector;
+
+    /** 下一次优先处理的数据库 */
+    private int nextDb;
+
+    /** 累计删除的过期键数量 */
+    private long expiredKeys;
+
+    /** 采样中过期键比例的移动平均（百分比） */
+    private double stalePercent;
+
+    /**
+     * 创建主动过期任务
+     *
+     * @param redisCore Redis核心
+     * @param segment 负责的分段下标
+     * @param budgetNanos 每次执行的时间预算，纳秒
+     * @param effort 努力程度，1-10
+     * @throws IllegalArgumentException 如果参数不合法
+     */
+    public ActiveExpireCycle(final RedisCore redisCore, final int segment,
+                             final long budgetNanos, final int effort) {
+        if (redisCore == null) {
+            throw new IllegalArgumentException("RedisCore不能为null");
+        }
+        if (segment < 0 || segment >= redisCore.getSegmentCount()) {
+            throw new IllegalArgumentException("分段下标超出范围: " + segment);
+        }
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("主动过期时间预算必须大于0");
+        }
+        if (effort < 1 || effort > 10) {
+            throw new IllegalArgumentException("主动过期努力程度必须在1-10范围内");
+        }
+        this.redisCore = redisCore;
+        this.segment = segment;
+        this.budgetNanos = budgetNanos;
+        this.keysPerLoop = KEYS_PER_LOOP + KEYS_PER_LOOP / 4 * (effort - 1);
+        this.acceptableStalePercent = ACCEPTABLE_STALE_PERCENT - (effort - 1);
+        this.samples = new ArrayList<>(keysPerLoop);
+        this.collector = samples::add;
+    }
+
+    @Override
+    public void run() {
+        final RedisDB[] databases = redisCore.getDataBases();
+        if (databases.length == 0) {
+            return;
+        }
+        final long start = System.nanoTime();
+        final long now = System.currentTimeMillis();
+        final long budget = currentBudgetNanos();
+        final int first = nextDb % databases.length;
+        long sampledTotal = 0;
+        long expiredTotal = 0;
+        try {
+            for (int i = 0; i < databases.length; i++) {
+                final RedisDB db = databases[(first + i) % databases.length];
+                if (db.hasTimingWheel()) {
+                    if (!expireFromWheel(db, now, start, budget)) {
+                        nextDb = (first + i) % databases.length;
+                        return;
+                    }
+                    continue;
+                }
+                int sampled;
+                int expired;
+                do {
+                    if (db.expiresSize(segment) == 0) {
+                        break;
+                    }
+                    // 1. 先收集样本，再逐个检查和删除
+                    samples.clear();
+                    sampled = db.sampleExpires(segment, keysPerLoop, collector);
+                    expired = 0;
+                    for (RedisBytes key : samples) {
+                        if (db.expireIfNeeded(segment, key, now)) {
+                            expired++;
+                        }
+                    }
+                    sampledTotal += sampled;
+                    expiredTotal += expired;
+
+                    // 2. 时间预算用完时下次从这个数据库继续
+                    if (System.nanoTime() - start >= budget) {
+                        nextDb = (first + i) % databases.length;
+                        return;
+                    }
+                    // 3. 过期比例较高时继续采样同一个数据库
+                } while (sampled > 0 && expired * 100L > (long) sampled * acceptableStalePercent);
+            }
+            nextDb = first + 1;
+        } finally {
+            samples.clear();
+            record(sampledTotal, expiredTotal);
+        }
+    }
+
+    /**
+     * 从时间轮中取出到期的键并删除
+     *
+     * @return 到期的键全部处理完时返回true，预算用完时返回false
+     */
+    private boolean expireFromWheel(final RedisDB db, final long now, final long start, final long budget) {
+        int polled;
+        do {
+            samples.clear();
+            polled = db.pollExpired(segment, now, keysPerLoop, collector);
+            for (RedisBytes key : samples) {
+                if (db.expireIfNeeded(segment, key, now)) {
+                    expiredKeys++;
+                }
+            }
+            if (polled == keysPerLoop && System.nanoTime() - start >= budget) {
+                return false;
+            }
+        } while (polled == keysPerLoop);
+        return true;
+    }
+
+    /**
+     * 本周期的时间预算，过期比例的移动平均超过可接受比例时延长
+     *
+     * @return 纳秒
+     */
+    long currentBudgetNanos() {
+        return stalePercent > acceptableStalePercent ? budgetNanos * LONG_CYCLE_BUDGET_FACTOR : budgetNanos;
+    }
+
+    private void record(final long sampled, final long expired) {
+        if (sampled == 0) {
+            return;
+        }
+        expiredKeys += expired;
+        final double current = expired * 100.0 / sampled;
+        stalePercent = current * STALE_PERCENT_WEIGHT + stalePercent * (1 - STALE_PERCENT_WEIGHT);
+    }
+
+    /**
+     * 获取累计删除的过期键数量
+     *
+     * @return 过期键数量
+     */
+    public long getExpiredKeys() {
+        return expiredKeys;
+    }
+
+    /**
+     * 获取采样中过期键比例的移动平均
+     *
+     * @return 百分比
+     */
+    public double getStalePercent() {
+        return stalePercent;
+    }
+}
@@ -0,0 +1,83 @@
+package site.hnfy258.core;
+
+import site.hnfy258.database.RedisDB;
+
+/**
+ * 键空间后台维护任务
+ *
+ * <p>渐进式rehash只在读写时推进，没有访问的表会一直停留在迁移中途，
+ * 大量删除后表也不会自动变小。该任务由定时器周期性调用，每次：
+ * <ul>
+ *     <li>检查每个数据库的负载，键数量远小于表容量时开始缩容</li>
+ *     <li>在固定的时间预算内推进各数据库未完成的rehash，预算由所有数据库共享</li>
+ * </ul>
+ *
+ * <p>每个实例只处理一个分段，必须在该分段所属的执行线程上运行，
+ * 与该分段的命令串行执行，因此不需要加锁。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class DatabaseCron implements Runnable {
+
+    /** Redis核心 */
+    private final RedisCore redisCore;
+
+    /** 负责的分段下标 */
+    private final int segment;
+
+    /** 每次执行rehash的时间预算，纳秒 */
+    private final long rehashBudgetNanos;
+
+    /** 下一次优先rehash的数据库，轮转保证预算不总被前面的数据库用完 */
+    private int nextDb;
+
+    /**
+     * 创建后台维护任务
+     *
+     * @param redisCore Redis核心
+     * @param segment 负责的分段下标
+     * @param rehashBudgetNanos 每次执行rehash的时间预算，纳秒
+     * @throws IllegalArgumentException 如果参数不合法
+     */
+    public DatabaseCron(final RedisCore redisCore, final int segment, final long rehashBudgetNanos) {
+        if (redisCore == null) {
+            throw new IllegalArgumentException("RedisCore不能为null");
+        }
+        if (segment < 0 || segment >= redisCore.getSegmentCount()) {
+            throw new IllegalArgumentException("分段下标超出范围: " + segment);
+        }
+        if (rehashBudgetNanos <= 0) {
+            throw new IllegalArgumentException("rehash时间预算必须大于0");
+        }
+        this.redisCore = redisCore;
+        this.segment = segment;
+        this.rehashBudgetNanos = rehashBudgetNanos;
+    }
+
+    @Override
+    public void run() {
+        final RedisDB[] databases = redisCore.getDataBases();
+        if (databases.length == 0) {
+            return;
+        }
+
+        // 1. 缩容检查只比较计数，代价很小，每次覆盖所有数据库
+        for (RedisDB db : databases) {
+            db.tryShrinkSegment(segment);
+        }
+
+        // 2. 从上次轮到的数据库开始，在共享预算内推进rehash
+        final long deadline = System.nanoTime() + rehashBudgetNanos;
+        final int start = nextDb % databases.length;
+        for (int i = 0; i < databases.length; i++) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                nextDb = (start + i) % databases.length;
+                return;
+            }
+            databases[(start + i) % databases.length].rehashSegment(segment, remaining);
+        }
+        nextDb = start + 1;
+    }
+}
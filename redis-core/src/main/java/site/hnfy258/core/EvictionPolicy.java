@@ -0,0 +1,77 @@
+package site.hnfy258.core;
+
+import java.util.Locale;
+
+/**
+ * 超过maxmemory时的淘汰策略，名称与Redis的maxmemory-policy相同
+ *
+ * <p>策略分为两类：
+ * <ul>
+ *     <li>allkeys-* 从全部键中选择淘汰对象</li>
+ *     <li>volatile-* 只从设置了过期时间的键中选择，没有这样的键时无法淘汰</li>
+ * </ul>
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public enum EvictionPolicy {
+
+    /** 不淘汰，内存不足时拒绝写命令 */
+    NOEVICTION("noeviction", false),
+
+    /** 从全部键中淘汰最久未访问的键 */
+    ALLKEYS_LRU("allkeys-lru", false),
+
+    /** 从全部键中淘汰访问最不频繁的键 */
+    ALLKEYS_LFU("allkeys-lfu", false),
+
+    /** 从全部键中随机淘汰 */
+    ALLKEYS_RANDOM("allkeys-random", false),
+
+    /** 从设置了过期时间的键中淘汰最久未访问的键 */
+    VOLATILE_LRU("volatile-lru", true),
+
+    /** 从设置了过期时间的键中淘汰访问最不频繁的键 */
+    VOLATILE_LFU("volatile-lfu", true),
+
+    /** 从设置了过期时间的键中淘汰最早过期的键 */
+    VOLATILE_TTL("volatile-ttl", true);
+
+    /** 配置中使用的名称 */
+    private final String configName;
+
+    /** 是否只淘汰设置了过期时间的键 */
+    private final boolean volatileOnly;
+
+    EvictionPolicy(final String configName, final boolean volatileOnly) {
+        this.configName = configName;
+        this.volatileOnly = volatileOnly;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public boolean isVolatileOnly() {
+        return volatileOnly;
+    }
+
+    /**
+     * 按配置名称查找策略，不区分大小写
+     *
+     * @param name 配置名称，如allkeys-lru
+     * @return 淘汰策略
+     * @throws IllegalArgumentException 如果名称不合法
+     */
+    public static EvictionPolicy fromConfigName(final String name) {
+        if (name != null) {
+            final String normalized = name.trim().toLowerCase(Locale.ROOT);
+            for (EvictionPolicy policy : values()) {
+                if (policy.configName.equals(normalized)) {
+                    return policy;
+                }
+            }
+        }
+        throw new IllegalArgumentException("不支持的淘汰策略: " + name);
+    }
+}
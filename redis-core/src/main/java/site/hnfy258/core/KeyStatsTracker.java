@@ -0,0 +1,398 @@
+package site.hnfy258.core;
+
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisHash;
+import site.hnfy258.datastructure.RedisList;
+import site.hnfy258.datastructure.RedisSet;
+import site.hnfy258.datastructure.RedisString;
+import site.hnfy258.datastructure.RedisZset;
+import site.hnfy258.internal.TopKSketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 热键和大键统计
+ *
+ * <p>在命令路径上按比例采样命令涉及的键，不扫描键空间：
+ * <ul>
+ *     <li>热键：采样到的键放入{@link TopKSketch}，估计访问次数最多的k个键，
+ *     每采样{@value #DECAY_INTERVAL}次计数减半，统计反映最近的访问分布</li>
+ *     <li>大键：采样到的键读取当前的元素数量（字符串为字节长度），
+ *     按类型各保留最大的k个，集合增长过程中的写入会被持续采样到</li>
+ * </ul>
+ * 只有被采样的命令才有额外开销，每1/N条命令一次草图更新和一次不记录访问的查找。
+ *
+ * <p>统计按分段保存，{@link #record(int, RedisBytes)}必须在键所属分段的执行线程上调用，
+ * 与该分段的命令串行执行，因此不需要加锁；读取统计的方法必须在所有分片暂停时调用。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class KeyStatsTracker {
+
+    /** 类型名称，下标与{@link #typeOf(RedisData)}对应 */
+    static final String[] TYPE_NAMES = {"string", "list", "set", "hash", "zset"};
+
+    /** 每采样多少次热键计数减半 */
+    static final int DECAY_INTERVAL = 1 << 16;
+
+    /** 热键草图每行的计数器数量 */
+    private static final int SKETCH_WIDTH = 1024;
+
+    /** 所有数据库，数据库数量在启动后不变 */
+    private final RedisDB[] databases;
+
+    private final int segmentCount;
+
+    /** 采样比例，每sampleRate条命令采样一条 */
+    private final int sampleRate;
+
+    /** 热键和每种类型的大键各保留的数量 */
+    private final int topK;
+
+    /** 每个分段一份统计，只被分段所属线程访问 */
+    private final SegmentStats[] segments;
+
+    /**
+     * 创建统计器
+     *
+     * @param redisCore Redis核心
+     * @param sampleRate 采样比例，每sampleRate条命令采样一条
+     * @param topK 热键和每种类型的大键各保留的数量
+     * @throws IllegalArgumentException 如果参数不合法
+     */
+    public KeyStatsTracker(final RedisCore redisCore, final int sampleRate, final int topK) {
+        if (redisCore == null) {
+            throw new IllegalArgumentException("RedisCore不能为null");
+        }
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("采样比例必须大于0");
+        }
+        if (topK <= 0) {
+            throw new IllegalArgumentException("统计的键数量必须大于0");
+        }
+        this.databases = redisCore.getDataBases();
+        this.segmentCount = redisCore.getSegmentCount();
+        this.sampleRate = sampleRate;
+        this.topK = topK;
+        this.segments = new SegmentStats[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new SegmentStats(topK);
+        }
+    }
+
+    /**
+     * 决定当前命令是否被采样
+     *
+     * @return 采样时返回true
+     */
+    public boolean shouldSample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * 记录被采样命令涉及的一个键，在命令执行之后调用
+     *
+     * @param dbIndex 数据库索引
+     * @param key 键
+     */
+    public void record(final int dbIndex, final RedisBytes key) {
+        final int segment = RedisDB.segmentIndex(key.hashCode(), segmentCount);
+        final SegmentStats stats = segments[segment];
+        final TrackedKey tracked = new TrackedKey(dbIndex, key);
+
+        // 1. 更新热键草图，定期衰减
+        stats.hotKeys.offer(tracked);
+        if (++stats.sampled % DECAY_INTERVAL == 0) {
+            stats.hotKeys.decay();
+        }
+
+        // 2. 按值的当前大小更新大键表，键已删除时移出
+        final RedisData value = databases[dbIndex].peek(segment, key);
+        if (value == null) {
+            stats.removeBigKey(tracked);
+            return;
+        }
+        final int type = typeOf(value);
+        if (type >= 0) {
+            stats.offerBigKey(type, tracked, sizeOf(value));
+        }
+    }
+
+    /**
+     * 获取数据库中估计访问次数最多的键，必须在所有分片暂停时调用
+     *
+     * @param dbIndex 数据库索引
+     * @param count 最多返回的数量
+     * @return 按访问次数降序排列，访问次数已按采样比例放大
+     */
+    public List<KeyStat> hotKeys(final int dbIndex, final int count) {
+        final List<KeyStat> result = new ArrayList<>();
+        for (SegmentStats stats : segments) {
+            stats.hotKeys.forEach((tracked, hits) -> {
+                if (tracked.dbIndex == dbIndex && hits > 0) {
+                    result.add(new KeyStat(tracked.key, null, (long) hits * sampleRate));
+                }
+            });
+        }
+        result.sort(Comparator.comparingLong(KeyStat::getValue).reversed());
+        return result.size() > count ? new ArrayList<>(result.subList(0, count)) : result;
+    }
+
+    /**
+     * 获取数据库中记录到的大键，必须在所有分片暂停时调用
+     *
+     * <p>返回前重新读取每个键的当前大小，已删除、已过期或类型改变的键从表中移除。
+     *
+     * @param dbIndex 数据库索引
+     * @return 按大小降序排列
+     */
+    public List<KeyStat> bigKeys(final int dbIndex) {
+        final long now = System.currentTimeMillis();
+        final List<KeyStat> result = new ArrayList<>();
+        for (int segment = 0; segment < segmentCount; segment++) {
+            final SegmentStats stats = segments[segment];
+            for (int type = 0; type < TYPE_NAMES.length; type++) {
+                for (int i = stats.bigCounts[type] - 1; i >= 0; i--) {
+                    final TrackedKey tracked = stats.bigKeys[type][i];
+                    if (tracked.dbIndex != dbIndex) {
+                        continue;
+                    }
+                    final RedisData value = databases[dbIndex].peek(segment, tracked.key);
+                    if (value == null || typeOf(value) != type
+                            || (value.timeout() != -1 && value.timeout() <= now)) {
+                        stats.removeAt(type, i);
+                        continue;
+                    }
+                    final long size = sizeOf(value);
+                    stats.bigSizes[type][i] = size;
+                    result.add(new KeyStat(tracked.key, TYPE_NAMES[type], size));
+                }
+            }
+        }
+        // 每个分段各保留topK个，合并后每种类型同样只保留最大的topK个
+        result.sort(Comparator.comparingLong(KeyStat::getValue).reversed());
+        final int[] kept = new int[TYPE_NAMES.length];
+        result.removeIf(stat -> ++kept[typeIndex(stat.getType())] > topK);
+        return result;
+    }
+
+    private static int typeIndex(final String typeName) {
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            if (TYPE_NAMES[i].equals(typeName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("未知类型: " + typeName);
+    }
+
+    /**
+     * 清空所有统计，必须在所有分片暂停时调用
+     */
+    public void reset() {
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new SegmentStats(topK);
+        }
+    }
+
+    /**
+     * 获取累计采样的键数量，其他线程读取时是近似值
+     *
+     * @return 键数量
+     */
+    public long getSampledKeys() {
+        long sampled = 0;
+        for (SegmentStats stats : segments) {
+            sampled += stats.sampled;
+        }
+        return sampled;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * 值对象的类型下标
+     *
+     * @return {@link #TYPE_NAMES}中的下标，未知类型返回-1
+     */
+    static int typeOf(final RedisData value) {
+        if (value instanceof RedisString) {
+            return 0;
+        } else if (value instanceof RedisList) {
+            return 1;
+        } else if (value instanceof RedisSet) {
+            return 2;
+        } else if (value instanceof RedisHash) {
+            return 3;
+        } else if (value instanceof RedisZset) {
+            return 4;
+        }
+        return -1;
+    }
+
+    /**
+     * 值的大小：字符串为字节长度，集合类型为元素数量，都是O(1)
+     */
+    static long sizeOf(final RedisData value) {
+        if (value instanceof RedisString) {
+            return ((RedisString) value).length();
+        } else if (value instanceof RedisList) {
+            return ((RedisList) value).size();
+        } else if (value instanceof RedisSet) {
+            return ((RedisSet) value).size();
+        } else if (value instanceof RedisHash) {
+            return ((RedisHash) value).size();
+        } else if (value instanceof RedisZset) {
+            return ((RedisZset) value).size();
+        }
+        return 0;
+    }
+
+    /**
+     * 统计结果
+     */
+    public static final class KeyStat {
+        private final RedisBytes key;
+        private final String type;
+        private final long value;
+
+        KeyStat(final RedisBytes key, final String type, final long value) {
+            this.key = key;
+            this.type = type;
+            this.value = value;
+        }
+
+        public RedisBytes getKey() {
+            return key;
+        }
+
+        /**
+         * @return 大键的类型名称，热键为null
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return 热键的估计访问次数，或大键的大小
+         */
+        public long getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * 数据库索引和键的组合，不同数据库的同名键分别统计
+     */
+    private static final class TrackedKey {
+        final int dbIndex;
+        final RedisBytes key;
+
+        TrackedKey(final int dbIndex, final RedisBytes key) {
+            this.dbIndex = dbIndex;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TrackedKey)) {
+                return false;
+            }
+            final TrackedKey other = (TrackedKey) o;
+            return dbIndex == other.dbIndex && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() * 31 + dbIndex;
+        }
+    }
+
+    /**
+     * 一个分段的统计
+     */
+    private static final class SegmentStats {
+        final TopKSketch<TrackedKey> hotKeys;
+
+        /** 每种类型的大键，无序，最多topK个 */
+        final TrackedKey[][] bigKeys;
+
+        /** 大键记录时的大小，与bigKeys一一对应 */
+        final long[][] bigSizes;
+
+        final int[] bigCounts = new int[TYPE_NAMES.length];
+
+        long sampled;
+
+        SegmentStats(final int topK) {
+            this.hotKeys = new TopKSketch<>(topK, SKETCH_WIDTH);
+            this.bigKeys = new TrackedKey[TYPE_NAMES.length][topK];
+            this.bigSizes = new long[TYPE_NAMES.length][topK];
+        }
+
+        /**
+         * 更新键的大小，表已满时替换最小的键
+         */
+        void offerBigKey(final int type, final TrackedKey tracked, final long size) {
+            final TrackedKey[] keys = bigKeys[type];
+            final long[] sizes = bigSizes[type];
+            final int count = bigCounts[type];
+            int min = -1;
+            for (int i = 0; i < count; i++) {
+                if (keys[i].equals(tracked)) {
+                    sizes[i] = size;
+                    return;
+                }
+                if (min < 0 || sizes[i] < sizes[min]) {
+                    min = i;
+                }
+            }
+            if (count < keys.length) {
+                keys[count] = tracked;
+                sizes[count] = size;
+                bigCounts[type]++;
+            } else if (size > sizes[min]) {
+                keys[min] = tracked;
+                sizes[min] = size;
+            }
+        }
+
+        /**
+         * 从所有类型的表中移除键
+         */
+        void removeBigKey(final TrackedKey tracked) {
+            for (int type = 0; type < TYPE_NAMES.length; type++) {
+                for (int i = 0; i < bigCounts[type]; i++) {
+                    if (bigKeys[type][i].equals(tracked)) {
+                        removeAt(type, i);
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 用最后一个条目填补被移除的位置
+         */
+        void removeAt(final int type, final int index) {
+            final int last = --bigCounts[type];
+            bigKeys[type][index] = bigKeys[type][last];
+            bigSizes[type][index] = bigSizes[type][last];
+            bigKeys[type][last] = null;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package site.hnfy258.core;
+
+import site.hnfy258.database.AccessMeta;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * maxmemory淘汰
+ *
+ * <p>与Redis相同使用近似算法，不维护全局的LRU链表或按过期时间排序的结构：
+ * <ul>
+ *     <li>每次淘汰从各数据库的键空间（volatile策略为过期索引）中采样若干个键，
+ *     按策略计算分数，分数越高越应该被淘汰</li>
+ *     <li>样本放入固定大小的淘汰池，池中按分数有序保留历次采样中最好的候选，
+ *     采样数不大也能逼近真实的LRU顺序</li>
+ *     <li>从池中分数最高的候选开始，跳过已经被删除的键，淘汰第一个仍然存在的键</li>
+ * </ul>
+ *
+ * <p>内存上限按分段平均分配，每个分段只淘汰自己的键。
+ * {@link #freeMemoryIfNeeded(int)}必须在分段所属的执行线程上、写命令执行前调用，
+ * 与该分段的命令串行执行，因此不需要加锁。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class MemoryEvictor {
+
+    /** 淘汰池大小 */
+    static final int POOL_SIZE = 16;
+
+    /** 所有数据库，数据库数量在启动后不变 */
+    private final RedisDB[] databases;
+
+    /** 内存上限，字节 */
+    private final long maxMemory;
+
+    /** 每个分段的内存上限，字节 */
+    private final long segmentLimit;
+
+    /** 淘汰策略 */
+    private final EvictionPolicy policy;
+
+    /** 每个数据库每次采样的键数量 */
+    private final int samples;
+
+    /** 每个分段一个淘汰池，只被分段所属线程访问 */
+    private final EvictionPool[] pools;
+
+    /** 每个分段累计淘汰的键数量 */
+    private final long[] evictedKeys;
+
+    /**
+     * 创建淘汰器
+     *
+     * @param redisCore Redis核心
+     * @param maxMemory 内存上限，字节，0表示不限制
+     * @param policy 淘汰策略
+     * @param samples 每个数据库每次采样的键数量
+     * @throws IllegalArgumentException 如果参数不合法
+     */
+    public MemoryEvictor(final RedisCore redisCore, final long maxMemory,
+                         final EvictionPolicy policy, final int samples) {
+        if (redisCore == null) {
+            throw new IllegalArgumentException("RedisCore不能为null");
+        }
+        if (maxMemory < 0) {
+            throw new IllegalArgumentException("内存上限不能为负数");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("淘汰策略不能为null");
+        }
+        if (samples <= 0) {
+            throw new IllegalArgumentException("淘汰采样数必须大于0");
+        }
+        final int segmentCount = redisCore.getSegmentCount();
+        this.databases = redisCore.getDataBases();
+        this.maxMemory = maxMemory;
+        this.segmentLimit = maxMemory / segmentCount;
+        this.policy = policy;
+        this.samples = samples;
+        this.pools = new EvictionPool[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            pools[i] = new EvictionPool(samples);
+        }
+        this.evictedKeys = new long[segmentCount];
+    }
+
+    /**
+     * 写命令执行前检查分段的内存，超过上限时淘汰键
+     *
+     * @param segment 分段下标
+     * @return 内存不超过上限时返回true；超过上限且无法淘汰时返回false，调用方应拒绝写命令
+     */
+    public boolean freeMemoryIfNeeded(final int segment) {
+        if (maxMemory == 0 || usedMemory(segment) <= segmentLimit) {
+            return true;
+        }
+        if (policy == EvictionPolicy.NOEVICTION) {
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        while (usedMemory(segment) > segmentLimit) {
+            if (!evictOne(segment, now)) {
+                return false;
+            }
+            evictedKeys[segment]++;
+        }
+        return true;
+    }
+
+    /**
+     * 淘汰一个键
+     *
+     * @return 没有可淘汰的键时返回false
+     */
+    private boolean evictOne(final int segment, final long now) {
+        final EvictionPool pool = pools[segment];
+        if (policy == EvictionPolicy.ALLKEYS_RANDOM) {
+            // 1. 随机策略不需要淘汰池，轮流从各数据库中随机选一个键
+            for (int i = 0; i < databases.length; i++) {
+                final RedisDB db = databases[(pool.nextDb + i) % databases.length];
+                final RedisBytes key = db.randomKey(segment);
+                if (key != null) {
+                    pool.nextDb = (pool.nextDb + i + 1) % databases.length;
+                    db.evict(segment, key);
+                    return true;
+                }
+            }
+            return false;
+        }
+        while (true) {
+            // 2. 采样各数据库，把样本放入淘汰池
+            boolean sampled = false;
+            for (int i = 0; i < databases.length; i++) {
+                if (populate(databases[i], i, segment, pool, now)) {
+                    sampled = true;
+                }
+            }
+            if (!sampled && pool.size == 0) {
+                return false;
+            }
+            // 3. 从分数最高的候选开始，淘汰第一个仍然存在的键
+            while (pool.size > 0) {
+                final int last = pool.size - 1;
+                final RedisDB db = databases[pool.dbs[last]];
+                final RedisBytes key = pool.keys[last];
+                pool.removeLast();
+                final RedisData value = db.peek(segment, key);
+                if (value != null && (!policy.isVolatileOnly() || value.timeout() != -1)) {
+                    db.evict(segment, key);
+                    return true;
+                }
+            }
+            if (!sampled) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 从数据库中采样并放入淘汰池
+     *
+     * @return 采样到键时返回true
+     */
+    private boolean populate(final RedisDB db, final int dbIndex, final int segment,
+                             final EvictionPool pool, final long now) {
+        final List<RedisBytes> buffer = pool.buffer;
+        buffer.clear();
+        final int count = policy.isVolatileOnly()
+                ? db.sampleExpires(segment, samples, pool.collector)
+                : db.sampleKeys(segment, samples, pool.collector);
+        for (RedisBytes key : buffer) {
+            // 过期索引中的旧条目在这里移除，已经过期的键直接删除，否则旧条目会被反复采样
+            if (policy.isVolatileOnly() && db.expireIfNeeded(segment, key, now)) {
+                continue;
+            }
+            final RedisData value = db.peek(segment, key);
+            if (value == null || (policy.isVolatileOnly() && value.timeout() == -1)) {
+                continue;
+            }
+            pool.insert(dbIndex, key, score(value, now));
+        }
+        buffer.clear();
+        return count > 0;
+    }
+
+    /**
+     * 计算淘汰分数，越大越应该被淘汰
+     *
+     * <p>LRU按空闲时间，LFU按衰减后的访问频率取反，TTL按过期时间取反。
+     */
+    private long score(final RedisData value, final long now) {
+        switch (policy) {
+            case VOLATILE_TTL:
+                return Long.MAX_VALUE - value.timeout();
+            case ALLKEYS_LFU:
+            case VOLATILE_LFU:
+                return AccessMeta.LFU_COUNTER_MAX - AccessMeta.frequency(value.getAccess(), now);
+            default:
+                return AccessMeta.idleMillis(value.getAccess(), now);
+        }
+    }
+
+    /**
+     * 获取所有数据库在指定分段上的已用内存
+     *
+     * @param segment 分段下标
+     * @return 字节数
+     */
+    public long usedMemory(final int segment) {
+        long used = 0;
+        for (RedisDB db : databases) {
+            used += db.usedMemory(segment);
+        }
+        return used;
+    }
+
+    /**
+     * 获取所有数据库的已用内存，其他线程读取时是近似值
+     *
+     * @return 字节数
+     */
+    public long usedMemory() {
+        long used = 0;
+        for (RedisDB db : databases) {
+            used += db.usedMemory();
+        }
+        return used;
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public EvictionPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 获取累计淘汰的键数量，其他线程读取时是近似值
+     *
+     * @return 键数量
+     */
+    public long getEvictedKeys() {
+        long evicted = 0;
+        for (long segmentEvicted : evictedKeys) {
+            evicted += segmentEvicted;
+        }
+        return evicted;
+    }
+
+    /**
+     * 淘汰池，按分数升序保存候选键，分数最高的在末尾
+     */
+    private static final class EvictionPool {
+
+        final long[] scores = new long[POOL_SIZE];
+
+        final RedisBytes[] keys = new RedisBytes[POOL_SIZE];
+
+        final int[] dbs = new int[POOL_SIZE];
+
+        int size;
+
+        /** 复用的样本缓冲区，采样期间不能读取数据库，先收集再评估 */
+        final List<RedisBytes> buffer;
+
+        final Consumer<RedisBytes> collector;
+
+        /** 随机策略下一次优先选择的数据库 */
+        int nextDb;
+
+        EvictionPool(final int samples) {
+            this.buffer = new ArrayList<>(samples);
+            this.collector = buffer::add;
+        }
+
+        /**
+         * 放入候选键，池满时只接受比最低分更高的候选，并挤掉最低分
+         */
+        void insert(final int db, final RedisBytes key, final long score) {
+            // 1. 已经在池中的键只更新分数
+            for (int i = 0; i < size; i++) {
+                if (dbs[i] == db && keys[i].equals(key)) {
+                    removeAt(i);
+                    break;
+                }
+            }
+            if (size == POOL_SIZE && score <= scores[0]) {
+                return;
+            }
+            // 2. 池满时挤掉分数最低的候选
+            if (size == POOL_SIZE) {
+                removeAt(0);
+            }
+            // 3. 插入排序
+            int position = size;
+            while (position > 0 && scores[position - 1] > score) {
+                scores[position] = scores[position - 1];
+                keys[position] = keys[position - 1];
+                dbs[position] = dbs[position - 1];
+                position--;
+            }
+            scores[position] = score;
+            keys[position] = key;
+            dbs[position] = db;
+            size++;
+        }
+
+        void removeLast() {
+            size--;
+            keys[size] = null;
+        }
+
+        private void removeAt(final int index) {
+            final int moved = size - index - 1;
+            System.arraycopy(scores, index + 1, scores, index, moved);
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(dbs, index + 1, dbs, index, moved);
+            removeLast();
+        }
+    }
+}
@@ -98,7 +98,7 @@ public final class RedisBatchOptimizer {
      * 批量递增数值
      * 
      * <p>对指定的键列表执行数值递增操作，支持自定义递增值。
-     * 如果键不存在或值无效，则从0开始计算。
+     * 如果键不存在或值为空，则从0开始计算；结果使用整数编码保存。
      * 
      * @param redisCore Redis核心实例
      * @param keys 需要递增的键数组
@@ -113,10 +113,7 @@ public final class RedisBatchOptimizer {
             final long currentValue = extractNumericValue(currentData);
             final long newValue = currentValue + increment;
             
-            final RedisString newRedisString = new RedisString(
-                Sds.create(String.valueOf(newValue).getBytes())
-            );
-            redisCore.put(key, newRedisString);
+            redisCore.put(key, RedisString.fromLong(newValue));
         }
     }
 
@@ -145,6 +142,9 @@ public final class RedisBatchOptimizer {
         }
 
         final RedisString redisString = (RedisString) redisData;
+        if (RedisString.ENCODING_INT.equals(redisString.getEncoding())) {
+            return redisString.toLong();
+        }
         final String valueStr = redisString.getSds().toString();
 
         if (valueStr.isEmpty()) {
@@ -49,6 +49,15 @@ public interface RedisCore {
      */
     RedisData get(RedisBytes key);
 
+    /**
+     * 从当前数据库获取指定键的值，返回的值对象可以原地修改
+     * 
+     * @param key 要获取的键
+     * @return 对应的值，如果键不存在则返回null
+     * @see RedisDB#getForWrite(RedisBytes)
+     */
+    RedisData getForWrite(RedisBytes key);
+
     /**
      * 选择数据库
      * 
@@ -63,6 +72,15 @@ public interface RedisCore {
      */
     int getDBNum();
 
+    /**
+     * 获取每个数据库的分段数量
+     * 
+     * <p>大于1时表示启用了分片执行，键按哈希分配到固定分段。
+     * 
+     * @return 分段数量
+     */
+    int getSegmentCount();
+
     /**
      * 获取当前选中的数据库索引
      * 
@@ -1,9 +1,11 @@
 package site.hnfy258.core;
 
 import site.hnfy258.core.command.CommandExecutor;
+import site.hnfy258.database.ExpireListener;
 import site.hnfy258.database.RedisDB;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.internal.DictEngine;
 
 import java.util.List;
 import java.util.Set;
@@ -40,8 +42,14 @@ public class RedisCoreImpl implements RedisCore {
     
     /** 数据库总数量 */
     private final int dbNum;
+
+    /** 每个数据库的分段数量，与分片执行线程数一致 */
+    private final int segmentCount;
     
-    /** 当前选中的数据库索引，使用AtomicInteger保证线程安全 */
+    /**
+     * 当前选中的数据库索引，使用AtomicInteger保证线程安全。
+     * 只用于AOF加载、复制等服务器内部的命令重放，客户端的选择保存在各自的会话中
+     */
     private final AtomicInteger currentDBIndex = new AtomicInteger(0);
     
     /** 命令执行器，由上层模块注入，用于命令重放等场景 */
@@ -56,10 +64,35 @@ public class RedisCoreImpl implements RedisCore {
      * @param dbNum 数据库数量，必须为正数
      */
     public RedisCoreImpl(final int dbNum) {
+        this(dbNum, 1);
+    }
+
+    /**
+     * 构造函数：初始化指定数量的分段数据库
+     * 
+     * <p>分片执行模式下每个数据库按键哈希划分为segmentCount个分段，
+     * 第i个分段只由第i个分片线程访问。
+     * 
+     * @param dbNum 数据库数量，必须为正数
+     * @param segmentCount 每个数据库的分段数量，必须为正数
+     */
+    public RedisCoreImpl(final int dbNum, final int segmentCount) {
+        this(dbNum, segmentCount, DictEngine.CHAINED);
+    }
+
+    /**
+     * 构造函数：初始化使用指定哈希表引擎的分段数据库
+     * 
+     * @param dbNum 数据库数量，必须为正数
+     * @param segmentCount 每个数据库的分段数量，必须为正数
+     * @param dictEngine 键空间哈希表引擎
+     */
+    public RedisCoreImpl(final int dbNum, final int segmentCount, final DictEngine dictEngine) {
         this.dbNum = dbNum;
+        this.segmentCount = segmentCount;
         this.databases = new java.util.ArrayList<>(dbNum);
         for (int i = 0; i < dbNum; i++) {
-            databases.add(new RedisDB(i));
+            databases.add(new RedisDB(i, segmentCount, dictEngine));
         }
     }
 
@@ -102,6 +135,17 @@ public class RedisCoreImpl implements RedisCore {
         return null;
     }
 
+    /**
+     * 从当前数据库获取指定键的值，返回的值对象可以原地修改
+     * 
+     * @param key 要获取的键
+     * @return 对应的值，如果键不存在则返回null
+     */
+    @Override
+    public RedisData getForWrite(RedisBytes key) {
+        return databases.get(getCurrentDBIndex()).getForWrite(key);
+    }
+
     /**
      * 线程安全的数据库选择方法
      * 
@@ -127,6 +171,16 @@ public class RedisCoreImpl implements RedisCore {
         return dbNum;
     }
 
+    /**
+     * 获取每个数据库的分段数量
+     * 
+     * @return 分段数量
+     */
+    @Override
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
     /**
      * 线程安全的获取当前数据库索引方法
      * 
@@ -207,6 +261,32 @@ public class RedisCoreImpl implements RedisCore {
     public void setCommandExecutor(CommandExecutor commandExecutor) {
         this.commandExecutor = commandExecutor;
     }
+
+    /**
+     * 设置键过期删除的监听器
+     *
+     * <p>监听器会安装到所有数据库上，由redis-server层注入，
+     * 用于把过期删除以DEL的形式写入AOF并传播到从节点。
+     *
+     * @param listener 过期监听器，为null时取消监听
+     */
+    public void setExpireListener(final ExpireListener listener) {
+        for (RedisDB db : databases) {
+            db.setExpireListener(listener);
+        }
+    }
+
+    /**
+     * 在所有数据库上启用分层时间轮
+     *
+     * @param tickMillis tick长度，毫秒
+     * @see RedisDB#enableTimingWheel(long)
+     */
+    public void enableTimingWheel(final long tickMillis) {
+        for (RedisDB db : databases) {
+            db.enableTimingWheel(tickMillis);
+        }
+    }
     
     /**
      * 尝试获取快照锁
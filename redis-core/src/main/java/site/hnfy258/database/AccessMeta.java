@@ -0,0 +1,182 @@
+package site.hnfy258.database;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 值对象的访问元数据
+ *
+ * <p>与Redis的robj.lru相同，LRU和LFU信息打包在值对象的一个int字段中，不为每个键额外分配对象：
+ * <ul>
+ *     <li>高24位：最近一次访问的LRU时钟，单位秒，约194天回绕一次</li>
+ *     <li>低8位：Morris对数计数器，访问次数越多递增概率越低，
+ *     255大约对应百万次访问（对数因子为10时）</li>
+ * </ul>
+ *
+ * <p>计数器随时间衰减：每经过lfu-decay-time分钟没有访问减1，衰减在下次访问或读取频率时
+ * 按LRU时钟计算，不需要后台任务。新键的计数器从{@value #LFU_INIT_VAL}开始，
+ * 避免刚写入的键立即被LFU淘汰。
+ *
+ * <p>对数因子和衰减时间对整个进程生效，服务启动时从服务器配置设置。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class AccessMeta {
+
+    /** LRU时钟位数 */
+    public static final int LRU_BITS = 24;
+
+    /** LRU时钟最大值 */
+    public static final int LRU_CLOCK_MAX = (1 << LRU_BITS) - 1;
+
+    /** LRU时钟精度，毫秒 */
+    public static final int LRU_CLOCK_RESOLUTION = 1000;
+
+    /** 计数器位数 */
+    private static final int COUNTER_BITS = 8;
+
+    /** 计数器最大值 */
+    public static final int LFU_COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+
+    /** 新键的计数器初值 */
+    public static final int LFU_INIT_VAL = 5;
+
+    private static volatile int lfuLogFactor = 10;
+
+    private static volatile int lfuDecayTime = 1;
+
+    private AccessMeta() {
+        throw new UnsupportedOperationException("工具类不允许实例化");
+    }
+
+    public static int getLfuLogFactor() {
+        return lfuLogFactor;
+    }
+
+    /**
+     * 设置对数因子（lfu-log-factor），越大计数器增长越慢
+     *
+     * @param factor 对数因子
+     * @throws IllegalArgumentException 如果为负数
+     */
+    public static void setLfuLogFactor(final int factor) {
+        if (factor < 0) {
+            throw new IllegalArgumentException("lfu-log-factor不能为负数");
+        }
+        lfuLogFactor = factor;
+    }
+
+    public static int getLfuDecayTime() {
+        return lfuDecayTime;
+    }
+
+    /**
+     * 设置衰减时间（lfu-decay-time），单位分钟
+     *
+     * @param minutes 每衰减1所需的空闲分钟数，0表示不衰减
+     * @throws IllegalArgumentException 如果为负数
+     */
+    public static void setLfuDecayTime(final int minutes) {
+        if (minutes < 0) {
+            throw new IllegalArgumentException("lfu-decay-time不能为负数");
+        }
+        lfuDecayTime = minutes;
+    }
+
+    // ========== 编码 ==========
+
+    /**
+     * 新键的访问元数据
+     *
+     * @param nowMillis 当前时间戳，毫秒
+     * @return 访问元数据
+     */
+    public static int create(final long nowMillis) {
+        return pack(clockOf(nowMillis), LFU_INIT_VAL);
+    }
+
+    /**
+     * 记录一次访问：先按空闲时间衰减计数器，再按概率递增，并更新LRU时钟
+     *
+     * @param meta 原访问元数据
+     * @param nowMillis 当前时间戳，毫秒
+     * @return 新的访问元数据
+     */
+    public static int touch(final int meta, final long nowMillis) {
+        return pack(clockOf(nowMillis), increment(frequency(meta, nowMillis)));
+    }
+
+    /**
+     * 读取最近一次访问的LRU时钟
+     *
+     * @param meta 访问元数据
+     * @return 24位时钟
+     */
+    public static int clock(final int meta) {
+        return meta >>> COUNTER_BITS;
+    }
+
+    /**
+     * 计算空闲时间
+     *
+     * @param meta 访问元数据
+     * @param nowMillis 当前时间戳，毫秒
+     * @return 空闲时间，毫秒
+     */
+    public static long idleMillis(final int meta, final long nowMillis) {
+        final int lru = clock(meta);
+        final int clock = clockOf(nowMillis);
+        final long idle = clock >= lru ? clock - lru : clock + (LRU_CLOCK_MAX - lru);
+        return idle * LRU_CLOCK_RESOLUTION;
+    }
+
+    /**
+     * 读取按空闲时间衰减后的访问频率计数器，不修改元数据
+     *
+     * @param meta 访问元数据
+     * @param nowMillis 当前时间戳，毫秒
+     * @return 0-255的对数计数器
+     */
+    public static int frequency(final int meta, final long nowMillis) {
+        final int counter = meta & LFU_COUNTER_MAX;
+        final int decayTime = lfuDecayTime;
+        if (decayTime == 0 || counter == 0) {
+            return counter;
+        }
+        final long periods = idleMillis(meta, nowMillis) / 60_000 / decayTime;
+        return periods >= counter ? 0 : counter - (int) periods;
+    }
+
+    /**
+     * 获取LRU时钟
+     *
+     * @param nowMillis 时间戳，毫秒
+     * @return 24位时钟
+     */
+    public static int clockOf(final long nowMillis) {
+        return (int) ((nowMillis / LRU_CLOCK_RESOLUTION) & LRU_CLOCK_MAX);
+    }
+
+    /**
+     * 打包访问元数据
+     *
+     * @param clock 24位LRU时钟
+     * @param counter 0-255的对数计数器
+     * @return 访问元数据
+     */
+    public static int pack(final int clock, final int counter) {
+        return (clock & LRU_CLOCK_MAX) << COUNTER_BITS | (counter & LFU_COUNTER_MAX);
+    }
+
+    /**
+     * Morris计数器递增：超过初值的部分越大，递增概率越低
+     */
+    private static int increment(final int counter) {
+        if (counter == LFU_COUNTER_MAX) {
+            return counter;
+        }
+        final int base = Math.max(counter - LFU_INIT_VAL, 0);
+        final double probability = 1.0 / (base * lfuLogFactor + 1);
+        return ThreadLocalRandom.current().nextDouble() < probability ? counter + 1 : counter;
+    }
+}
@@ -0,0 +1,36 @@
+package site.hnfy258.database;
+
+import site.hnfy258.datastructure.RedisBytes;
+
+/**
+ * 键过期删除的回调
+ *
+ * <p>键在访问时被惰性删除、被主动过期周期删除或因内存不足被淘汰后调用，由服务器层注入，
+ * 用于向AOF和从节点传播DEL，保证重放和复制得到相同的键空间。
+ *
+ * <p>回调在删除键的执行线程上同步调用，实现不能再访问触发回调的数据库。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface ExpireListener {
+
+    /**
+     * 键因过期被删除
+     *
+     * @param dbIndex 数据库标识ID
+     * @param key 被删除的键
+     */
+    void onExpired(int dbIndex, RedisBytes key);
+
+    /**
+     * 键因超过maxmemory被淘汰，默认与过期删除相同地传播DEL
+     *
+     * @param dbIndex 数据库标识ID
+     * @param key 被淘汰的键
+     */
+    default void onEvicted(final int dbIndex, final RedisBytes key) {
+        onExpired(dbIndex, key);
+    }
+}
@@ -1,18 +1,33 @@
 package site.hnfy258.database;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.MemoryUsage;
 import site.hnfy258.datastructure.RedisData;
-import site.hnfy258.internal.Dict;
+import site.hnfy258.internal.DictEngine;
+import site.hnfy258.internal.SnapshotDict;
+import site.hnfy258.internal.TimingWheel;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Redis数据库实现类
  * 
  * <p>实现了单个Redis数据库的核心功能，每个Redis实例可以包含多个数据库。
- * 使用线程安全的Dict作为底层存储结构，支持高效的键值对操作。
+ * 使用{@link SnapshotDict}作为底层存储结构，哈希表引擎可通过{@link DictEngine}选择。
  * 
  * <p>主要功能包括：
  * <ul>
@@ -21,7 +36,23 @@ import java.util.Set;
  *     <li>数据库的清空操作</li>
  *     <li>数据库大小统计</li>
  *     <li>线程安全的并发访问</li>
+ *     <li>按键哈希分段存储，支持分片执行模式</li>
+ *     <li>键过期：访问时惰性删除，后台按分段采样主动删除</li>
  * </ul>
+ *
+ * <p>过期时间只保存在值对象的{@link RedisData#timeout()}中。每个分段另有一个过期索引，
+ * 记录设置过过期时间的键，供主动过期采样；索引只是候选集合，
+ * 过期时间被清除或值被替换后留下的旧条目在采样时发现并移除。
+ *
+ * <p>可以额外启用{@link TimingWheel}，按到期时间组织过期索引中的键，
+ * 主动过期直接取出到期的键而不是采样，适合大量短过期时间的键。
+ * 时间轮和过期索引同步维护，旧条目的处理方式相同。
+ *
+ * <p>每个分段按{@link RedisData#memoryUsage()}记录已用内存，供maxmemory淘汰使用。
+ * 写入、替换、删除时按值对象上记账的大小增量更新；命令原地修改值对象后，
+ * 由调用方通过{@link #refreshMemory(RedisBytes)}重新记账。
+ * 读写键时在值对象上更新访问元数据（{@link AccessMeta}），供淘汰和热点键分析使用；
+ * {@link #peek(RedisBytes)}读取时不更新，用于OBJECT等观察类命令。
  * 
  * @author hnfy258
  * @since 1.0.0
@@ -30,20 +61,152 @@ import java.util.Set;
 @Setter
 public class RedisDB {
 
-    /** 底层数据存储结构，使用线程安全的Dict */
-    private final Dict<RedisBytes, RedisData> data;
+    /** 分段存储，每个分段是一个独立的哈希表；单线程模式下只有一个分段 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final SnapshotDict<RedisBytes, RedisData>[] segments;
+
+    /** 过期索引，与分段一一对应，值固定为{@link Boolean#TRUE} */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final SnapshotDict<RedisBytes, Boolean>[] expires;
+
+    /** 可选的分层时间轮，与分段一一对应，为null时主动过期只能采样 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile TimingWheel<RedisBytes>[] wheels;
+
+    /** 各分段已用内存的估算，字节，由分段所属线程更新 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final long[] usedMemory;
 
     /** 数据库标识ID */
     private final int id;
 
+    /** 键过期删除时的回调，为null时不通知 */
+    private volatile ExpireListener expireListener;
+
+    /** 是否处于快照状态，快照期间读取值对象时先分离副本 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean snapshotting;
+
+    /** 快照纪元，每次启动快照时递增，参见{@link RedisData#detach(long)} */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile long snapshotEpoch;
+
     /**
      * 构造函数
      * 
      * @param id 数据库标识ID
      */
     public RedisDB(int id) {
+        this(id, 1);
+    }
+
+    /**
+     * 创建分段数据库
+     * 
+     * <p>键按{@link #segmentIndex(int, int)}分配到固定分段。分片执行模式下，
+     * 每个分段只被一个命令执行线程访问，分段之间互不干扰。
+     * 
+     * @param id 数据库标识ID
+     * @param segmentCount 分段数量，必须大于0
+     * @throws IllegalArgumentException 如果分段数量不合法
+     */
+    public RedisDB(int id, int segmentCount) {
+        this(id, segmentCount, DictEngine.CHAINED);
+    }
+
+    /**
+     * 创建使用指定哈希表引擎的分段数据库
+     * 
+     * @param id 数据库标识ID
+     * @param segmentCount 分段数量，必须大于0
+     * @param engine 哈希表引擎
+     * @throws IllegalArgumentException 如果分段数量不合法或引擎为null
+     */
+    @SuppressWarnings("unchecked")
+    public RedisDB(int id, int segmentCount, DictEngine engine) {
+        if (segmentCount <= 0) {
+            throw new IllegalArgumentException("分段数量必须大于0");
+        }
+        if (engine == null) {
+            throw new IllegalArgumentException("哈希表引擎不能为null");
+        }
         this.id = id;
-        this.data = new Dict<>();
+        this.segments = new SnapshotDict[segmentCount];
+        this.expires = new SnapshotDict[segmentCount];
+        this.usedMemory = new long[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = engine.create();
+            this.expires[i] = engine.create();
+        }
+    }
+
+    /**
+     * 根据键的哈希值计算所属分段
+     * 
+     * <p>命令路由和数据存储必须使用同一个函数，保证同一个键总是由同一个线程处理。
+     * 
+     * @param keyHash 键的哈希值（{@link RedisBytes#hashCode()}）
+     * @param segmentCount 分段数量
+     * @return 分段下标
+     */
+    public static int segmentIndex(final int keyHash, final int segmentCount) {
+        if (segmentCount == 1) {
+            return 0;
+        }
+        // 1. 扰动高位，避免短键的哈希集中在低位
+        final int h = keyHash ^ (keyHash >>> 16);
+        // 2. 取非负余数
+        return (h & 0x7fffffff) % segmentCount;
+    }
+
+    /**
+     * 获取键所在的分段下标
+     */
+    private int segmentOf(final RedisBytes key) {
+        if (segments.length == 1) {
+            return 0;
+        }
+        return segmentIndex(key.hashCode(), segments.length);
+    }
+
+    /**
+     * 获取底层数据存储结构
+     * 
+     * <p>仅适用于单分段数据库；分段数据库请使用{@link #getSegments()}，
+     * 或使用{@link #startSnapshot()}等数据库级别的方法。
+     * 
+     * @return 底层哈希表
+     * @throws IllegalStateException 如果数据库有多个分段
+     */
+    public SnapshotDict<RedisBytes, RedisData> getData() {
+        if (segments.length != 1) {
+            throw new IllegalStateException("分段数据库不能作为单个哈希表访问，请使用getSegments()");
+        }
+        return segments[0];
+    }
+
+    /**
+     * 获取所有分段
+     * 
+     * @return 分段数组（不可修改）
+     */
+    public SnapshotDict<RedisBytes, RedisData>[] getSegments() {
+        return segments.clone();
+    }
+
+    /**
+     * 获取分段数量
+     * 
+     * @return 分段数量
+     */
+    public int getSegmentCount() {
+        return segments.length;
     }
 
     /**
@@ -52,7 +215,72 @@ public class RedisDB {
      * @return 包含所有键的集合
      */
     public Set<RedisBytes> keys() {
-        return data.keySet();
+        if (segments.length == 1) {
+            return segments[0].keySet();
+        }
+        final Set<RedisBytes> keys = new HashSet<>();
+        for (SnapshotDict<RedisBytes, RedisData> segment : segments) {
+            keys.addAll(segment.keySet());
+        }
+        return keys;
+    }
+
+    /**
+     * 游标方式迭代键，每次调用只做与count成正比的工作
+     * 
+     * <p>分段数据库的游标同时编码分段下标和分段内游标：
+     * {@code cursor = 分段内游标 * 分段数 + 分段下标}，按分段顺序依次迭代。
+     * 整个迭代期间一直存在的键至少返回一次，可能重复返回。
+     * 
+     * @param cursor 游标，首次调用传0
+     * @param count 期望返回的键数量提示
+     * @param keys 接收本次返回的键
+     * @return 下一次调用的游标，返回0表示迭代结束
+     */
+    public long scan(final long cursor, final int count, final List<RedisBytes> keys) {
+        final int segmentCount = segments.length;
+        int segment = (int) Long.remainderUnsigned(cursor, segmentCount);
+        long local = Long.divideUnsigned(cursor, segmentCount);
+        final int target = keys.size() + count;
+        // 与Redis相同，空桶较多时限制单次调用访问的桶数
+        long maxIterations = count * 10L;
+        do {
+            local = segments[segment].scan(local, keys::add);
+            if (local == 0) {
+                segment++;
+                if (segment == segmentCount) {
+                    return 0;
+                }
+            }
+        } while (--maxIterations > 0 && keys.size() < target);
+        return local * segmentCount + segment;
+    }
+
+    /**
+     * 随机返回一个键，不复制数据
+     * 
+     * <p>先按各分段的键数量加权选择分段，再在分段内随机选择，
+     * 因此每个键被选中的概率与只有一个分段时相同。
+     * 
+     * @return 随机键，数据库为空时返回null
+     */
+    public RedisBytes randomKey() {
+        if (segments.length == 1) {
+            return segments[0].randomKey();
+        }
+        final long total = size();
+        if (total == 0) {
+            return null;
+        }
+        long target = ThreadLocalRandom.current().nextLong(total);
+        for (SnapshotDict<RedisBytes, RedisData> segment : segments) {
+            final int segmentSize = segment.size();
+            if (target < segmentSize) {
+                return segment.randomKey();
+            }
+            target -= segmentSize;
+        }
+        return null;
     }
 
     /**
@@ -62,27 +290,109 @@ public class RedisDB {
      * @return 如果键存在返回true，否则返回false
      */
     public boolean exist(RedisBytes key) {
-        return data.containsKey(key);
+        final int segment = segmentOf(key);
+        final RedisData value = segments[segment].get(key);
+        if (value == null) {
+            return false;
+        }
+        if (value.timeout() != -1 && isExpired(value, System.currentTimeMillis())) {
+            deleteExpired(segment, key);
+            return false;
+        }
+        return true;
     }
 
     /**
      * 存储键值对
      * 
+     * <p>值带有过期时间时记录到过期索引；值为null等价于{@link #delete(RedisBytes)}，
+     * 条目从分段中移除，不会作为值为null的条目留在表中占用负载因子。
+     * 
+     * <p>覆盖已有的键算作一次访问，新值继承旧值的访问频率；
+     * 把读出的值对象原样写回时访问已经在读取时记录过，不再重复记录。
+     * 
      * @param key 键
      * @param value 值
      */
     public void put(RedisBytes key, RedisData value) {
-        data.put(key, value);
+        if (value == null) {
+            delete(key);
+            return;
+        }
+        final int segment = segmentOf(key);
+        final RedisData old = (RedisData) segments[segment].put(key, value);
+        if (old != null) {
+            usedMemory[segment] -= old.getAccountedMemory();
+        }
+        value.setAccountedMemory(0);
+        account(segment, key, value);
+        if (old == null) {
+            value.setAccess(AccessMeta.create(System.currentTimeMillis()));
+        } else if (old != value) {
+            value.setAccess(AccessMeta.touch(old.getAccess(), System.currentTimeMillis()));
+        }
+        if (value.timeout() != -1) {
+            indexExpire(segment, key, value.timeout());
+        }
     }
 
     /**
-     * 获取指定键的值
+     * 获取指定键的值，供只读命令使用
+     * 
+     * <p>记录一次访问。快照期间不分离副本，返回的值对象可能正被快照线程读取，不能修改；
+     * 需要原地修改值对象的命令使用{@link #getForWrite(RedisBytes)}。
+     * 
+     * <p>已过期的键在这里被惰性删除，返回null。
      * 
      * @param key 要获取的键
-     * @return 对应的值，如果键不存在则返回null
+     * @return 对应的值，如果键不存在或已过期则返回null
      */
     public RedisData get(RedisBytes key) {
-        return data.get(key);
+        final RedisData value = peek(key);
+        if (value != null) {
+            value.setAccess(AccessMeta.touch(value.getAccess(), System.currentTimeMillis()));
+        }
+        return value;
+    }
+
+    /**
+     * 获取指定键的值，供会原地修改值对象的写命令使用
+     * 
+     * <p>快照期间每个键第一次被写入时用{@link RedisData#detach(long)}的副本替换键空间中的值，
+     * 快照视图保留原对象，因此集合内部不需要自己的快照机制。只读访问不分离，
+     * 快照期间的读流量不会复制值对象。
+     * 
+     * @param key 要获取的键
+     * @return 对应的值，如果键不存在或已过期则返回null
+     */
+    public RedisData getForWrite(RedisBytes key) {
+        final RedisData value = get(key);
+        if (value == null || !snapshotting) {
+            return value;
+        }
+        final RedisData detached = value.detach(snapshotEpoch);
+        if (detached != value) {
+            segments[segmentOf(key)].put(key, detached);
+        }
+        return detached;
+    }
+
+    /**
+     * 读取键的值，不记录访问
+     * 
+     * <p>已过期的键同样被惰性删除。返回的值对象不能修改：快照期间不会分离副本。
+     * 
+     * @param key 键
+     * @return 对应的值，如果键不存在或已过期则返回null
+     */
+    public RedisData peek(final RedisBytes key) {
+        final int segment = segmentOf(key);
+        final RedisData value = segments[segment].get(key);
+        if (value != null && isExpired(value, System.currentTimeMillis())) {
+            deleteExpired(segment, key);
+            return null;
+        }
+        return value;
     }
 
     /**
@@ -92,7 +402,13 @@ public class RedisDB {
      * @return 删除的值，如果键不存在则返回null
      */
     public RedisData delete(RedisBytes key) {
-        return data.remove(key);
+        final int segment = segmentOf(key);
+        unindexExpire(segment, key);
+        final RedisData removed = segments[segment].remove(key);
+        if (removed != null) {
+            usedMemory[segment] -= removed.getAccountedMemory();
+        }
+        return removed;
     }
 
     /**
@@ -101,13 +417,500 @@ public class RedisDB {
      * @return 键值对数量
      */
     public long size() {
-        return data.size();
+        long size = 0;
+        for (SnapshotDict<RedisBytes, RedisData> segment : segments) {
+            size += segment.size();
+        }
+        return size;
     }
 
     /**
      * 清空数据库中的所有数据
      */
     public void clear() {
-        data.clear();
+        for (SnapshotDict<RedisBytes, RedisData> segment : segments) {
+            segment.clear();
+        }
+        for (SnapshotDict<RedisBytes, Boolean> index : expires) {
+            index.clear();
+        }
+        Arrays.fill(usedMemory, 0);
+        final TimingWheel<RedisBytes>[] current = wheels;
+        if (current != null) {
+            for (TimingWheel<RedisBytes> wheel : current) {
+                wheel.clear();
+            }
+        }
+    }
+
+    // ========== 键过期 ==========
+
+    /**
+     * 设置键的过期时间
+     * 
+     * <p>通过{@link #getForWrite(RedisBytes)}读取值对象，快照期间修改的是分离出的副本。
+     * 过期时间已经过去的键在下一次访问或主动过期时删除。
+     * 
+     * @param key 键
+     * @param expireAt 过期时间戳（毫秒）
+     * @return 键存在时返回true
+     */
+    public boolean expire(final RedisBytes key, final long expireAt) {
+        final RedisData value = getForWrite(key);
+        if (value == null) {
+            return false;
+        }
+        value.setTimeout(expireAt);
+        indexExpire(segmentOf(key), key, expireAt);
+        return true;
+    }
+
+    /**
+     * 清除键的过期时间
+     * 
+     * <p>与{@link #expire(RedisBytes, long)}一样，快照期间修改的是分离出的副本。
+     * 
+     * @param key 键
+     * @return 键存在且原来带有过期时间时返回true
+     */
+    public boolean persist(final RedisBytes key) {
+        final RedisData value = getForWrite(key);
+        if (value == null || value.timeout() == -1) {
+            return false;
+        }
+        value.setTimeout(-1);
+        unindexExpire(segmentOf(key), key);
+        return true;
+    }
+
+    /**
+     * 获取过期索引中的键数量，包含尚未清理的旧条目
+     * 
+     * @return 所有分段的过期索引大小之和
+     */
+    public long expiresSize() {
+        long size = 0;
+        for (SnapshotDict<RedisBytes, Boolean> index : expires) {
+            size += index.size();
+        }
+        return size;
+    }
+
+    /**
+     * 获取指定分段的过期索引大小
+     * 
+     * @param segment 分段下标
+     * @return 过期索引中的键数量
+     */
+    public int expiresSize(final int segment) {
+        return expires[segment].size();
+    }
+
+    /**
+     * 从指定分段的过期索引中采样键
+     * 
+     * @param segment 分段下标
+     * @param count 期望的样本数量
+     * @param consumer 接收采样到的键，采样期间不能修改数据库
+     * @return 实际采样到的键数量
+     * @see SnapshotDict#sampleKeys(int, java.util.function.Consumer)
+     */
+    public int sampleExpires(final int segment, final int count, final Consumer<RedisBytes> consumer) {
+        return expires[segment].sampleKeys(count, consumer);
+    }
+
+    /**
+     * 检查过期索引中的键，已过期时删除
+     * 
+     * <p>键已不存在或不再带有过期时间时，顺便从过期索引中移除旧条目。
+     * 
+     * @param segment 键所在的分段下标
+     * @param key 键
+     * @param now 当前时间戳（毫秒）
+     * @return 键因过期被删除时返回true
+     */
+    public boolean expireIfNeeded(final int segment, final RedisBytes key, final long now) {
+        final RedisData value = segments[segment].get(key);
+        if (value == null || value.timeout() == -1) {
+            unindexExpire(segment, key);
+            return false;
+        }
+        if (!isExpired(value, now)) {
+            // 时间轮交出的键可能已经被延长了过期时间，重新调度
+            final TimingWheel<RedisBytes>[] current = wheels;
+            if (current != null) {
+                current[segment].schedule(key, value.timeout());
+            }
+            return false;
+        }
+        deleteExpired(segment, key);
+        return true;
+    }
+
+    private static boolean isExpired(final RedisData value, final long now) {
+        final long timeout = value.timeout();
+        return timeout != -1 && timeout <= now;
+    }
+
+    /**
+     * 启用分层时间轮，并按过期索引重建
+     * 
+     * <p>在加载RDB/AOF之前或之后调用都可以：之前启用时加载过程中的写入会同步维护时间轮，
+     * 之后启用时从过期索引重建。必须在没有命令并发执行时调用。
+     * 
+     * @param tickMillis tick长度，毫秒
+     * @throws IllegalArgumentException 如果tick长度不合法
+     */
+    @SuppressWarnings("unchecked")
+    public void enableTimingWheel(final long tickMillis) {
+        final long now = System.currentTimeMillis();
+        final TimingWheel<RedisBytes>[] created = new TimingWheel[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            created[i] = new TimingWheel<>(tickMillis, now);
+            final Iterator<RedisBytes> keys = expires[i].keyIterator();
+            while (keys.hasNext()) {
+                final RedisBytes key = keys.next();
+                final RedisData value = segments[i].get(key);
+                if (value != null && value.timeout() != -1) {
+                    created[i].schedule(key, value.timeout());
+                }
+            }
+        }
+        this.wheels = created;
+    }
+
+    /**
+     * 是否启用了分层时间轮
+     * 
+     * @return 启用时返回true
+     */
+    public boolean hasTimingWheel() {
+        return wheels != null;
+    }
+
+    /**
+     * 从指定分段的时间轮中取出已经到期的键
+     * 
+     * <p>取出的键已经不在时间轮中，调用方用{@link #expireIfNeeded(int, RedisBytes, long)}
+     * 确认并删除；过期时间被延长的键会在确认时重新调度。
+     * 
+     * @param segment 分段下标
+     * @param now 当前时间戳（毫秒）
+     * @param maxKeys 最多取出的键数量
+     * @param consumer 接收到期的键，期间不能修改数据库
+     * @return 实际取出的键数量，未启用时间轮时返回0
+     */
+    public int pollExpired(final int segment, final long now, final int maxKeys,
+                           final Consumer<RedisBytes> consumer) {
+        final TimingWheel<RedisBytes>[] current = wheels;
+        if (current == null) {
+            return 0;
+        }
+        return current[segment].advance(now, maxKeys, consumer);
+    }
+
+    private void indexExpire(final int segment, final RedisBytes key, final long expireAt) {
+        expires[segment].put(key, Boolean.TRUE);
+        final TimingWheel<RedisBytes>[] current = wheels;
+        if (current != null) {
+            current[segment].schedule(key, expireAt);
+        }
+    }
+
+    private void unindexExpire(final int segment, final RedisBytes key) {
+        expires[segment].remove(key);
+        final TimingWheel<RedisBytes>[] current = wheels;
+        if (current != null) {
+            current[segment].cancel(key);
+        }
+    }
+
+    /**
+     * 删除过期键并通知监听器
+     */
+    private void deleteExpired(final int segment, final RedisBytes key) {
+        final RedisData removed = segments[segment].remove(key);
+        if (removed != null) {
+            usedMemory[segment] -= removed.getAccountedMemory();
+        }
+        unindexExpire(segment, key);
+        final ExpireListener listener = expireListener;
+        if (listener != null) {
+            listener.onExpired(id, key);
+        }
+    }
+
+    // ========== 内存记账与淘汰（按分段，由分段所属线程调用） ==========
+
+    /**
+     * 按值对象的当前大小重新记账
+     *
+     * <p>命令原地修改值对象后调用，不改变LRU时钟，键不存在时什么也不做。
+     *
+     * @param key 键
+     */
+    public void refreshMemory(final RedisBytes key) {
+        final int segment = segmentOf(key);
+        final RedisData value = segments[segment].get(key);
+        if (value != null) {
+            account(segment, key, value);
+        }
+    }
+
+    /**
+     * 获取所有分段已用内存的估算
+     *
+     * @return 字节数
+     */
+    public long usedMemory() {
+        long used = 0;
+        for (long segmentUsed : usedMemory) {
+            used += segmentUsed;
+        }
+        return used;
+    }
+
+    /**
+     * 获取指定分段已用内存的估算
+     *
+     * @param segment 分段下标
+     * @return 字节数
+     */
+    public long usedMemory(final int segment) {
+        return usedMemory[segment];
+    }
+
+    /**
+     * 获取指定分段的键数量
+     *
+     * @param segment 分段下标
+     * @return 键数量
+     */
+    public int size(final int segment) {
+        return segments[segment].size();
+    }
+
+    /**
+     * 读取值对象，不检查过期、不分离快照副本、不更新LRU时钟
+     *
+     * <p>供淘汰采样评估候选键，返回的值对象不能修改。
+     *
+     * @param segment 键所在的分段下标
+     * @param key 键
+     * @return 值对象，不存在时返回null
+     */
+    public RedisData peek(final int segment, final RedisBytes key) {
+        return segments[segment].get(key);
+    }
+
+    /**
+     * 从指定分段的键空间中采样键
+     *
+     * @param segment 分段下标
+     * @param count 期望的样本数量
+     * @param consumer 接收采样到的键，采样期间不能修改数据库
+     * @return 实际采样到的键数量
+     * @see SnapshotDict#sampleKeys(int, java.util.function.Consumer)
+     */
+    public int sampleKeys(final int segment, final int count, final Consumer<RedisBytes> consumer) {
+        return segments[segment].sampleKeys(count, consumer);
+    }
+
+    /**
+     * 从指定分段中随机返回一个键
+     *
+     * @param segment 分段下标
+     * @return 随机键，分段为空时返回null
+     */
+    public RedisBytes randomKey(final int segment) {
+        return segments[segment].randomKey();
+    }
+
+    /**
+     * 淘汰键并通知监听器
+     *
+     * @param segment 键所在的分段下标
+     * @param key 键
+     * @return 释放的内存估算，键不存在时返回0
+     */
+    public long evict(final int segment, final RedisBytes key) {
+        final RedisData removed = segments[segment].remove(key);
+        if (removed == null) {
+            return 0;
+        }
+        usedMemory[segment] -= removed.getAccountedMemory();
+        unindexExpire(segment, key);
+        final ExpireListener listener = expireListener;
+        if (listener != null) {
+            listener.onEvicted(id, key);
+        }
+        return removed.getAccountedMemory();
+    }
+
+    /**
+     * 按值对象的当前大小更新记账，差值计入分段的已用内存
+     */
+    private void account(final int segment, final RedisBytes key, final RedisData value) {
+        final long size = MemoryUsage.DICT_ENTRY + MemoryUsage.of(key) + value.memoryUsage();
+        usedMemory[segment] += size - value.getAccountedMemory();
+        value.setAccountedMemory(size);
+    }
+
+    // ========== 主动rehash（按分段，由分段所属线程调用） ==========
+
+    /**
+     * 指定分段的键数量远小于表容量时开始渐进式缩容
+     * 
+     * @param segment 分段下标
+     * @return 是否开始了缩容
+     */
+    public boolean tryShrinkSegment(final int segment) {
+        final boolean shrinking = segments[segment].tryShrink();
+        return expires[segment].tryShrink() || shrinking;
+    }
+
+    /**
+     * 在时间预算内推进指定分段的渐进式rehash
+     * 
+     * @param segment 分段下标
+     * @param budgetNanos 时间预算，纳秒
+     * @return 返回时分段是否仍在rehash
+     */
+    public boolean rehashSegment(final int segment, final long budgetNanos) {
+        final long deadline = System.nanoTime() + budgetNanos;
+        final boolean rehashing = segments[segment].rehashFor(budgetNanos);
+        final SnapshotDict<RedisBytes, Boolean> index = expires[segment];
+        if (!index.isRehashing()) {
+            return rehashing;
+        }
+        final long remaining = deadline - System.nanoTime();
+        return (remaining <= 0 || index.rehashFor(remaining)) || rehashing;
+    }
+
+    // ========== 快照操作（覆盖所有分段） ==========
+
+    /**
+     * 在所有分段上启动快照状态
+     */
+    public void startSnapshot() {
+        // 1. 先进入新纪元，保证分段进入快照后的每次访问都会分离副本
+        snapshotEpoch++;
+        snapshotting = true;
+        // 2. 各分段进入快照状态
+        for (SnapshotDict<RedisBytes, RedisData> segment : segments) {
+            segment.startSnapshot();
+        }
+    }
+
+    /**
+     * 结束所有分段的快照状态，应用快照期间的写入
+     */
+    public void finishSnapshot() {
+        for (SnapshotDict<RedisBytes, RedisData> segment : segments) {
+            segment.finishSnapshot();
+        }
+        snapshotting = false;
+    }
+
+    /**
+     * 创建所有分段的一致性快照（同步方式，包含开始和结束快照）
+     * 
+     * @return 快照数据
+     */
+    public Map<RedisBytes, RedisData> createSnapshot() {
+        if (segments.length == 1) {
+            return segments[0].createSnapshot();
+        }
+        final Map<RedisBytes, RedisData> snapshot = new HashMap<>();
+        for (SnapshotDict<RedisBytes, RedisData> segment : segments) {
+            snapshot.putAll(segment.createSnapshot());
+        }
+        return snapshot;
+    }
+
+    /**
+     * 在已启动的快照状态下读取所有分段的快照数据，不结束快照
+     * 
+     * @return 快照数据
+     */
+    public Map<RedisBytes, RedisData> createSnapshotWithoutFinish() {
+        if (segments.length == 1) {
+            return segments[0].createSnapshotWithoutFinish();
+        }
+        final Map<RedisBytes, RedisData> snapshot = new HashMap<>();
+        for (SnapshotDict<RedisBytes, RedisData> segment : segments) {
+            snapshot.putAll(segment.createSnapshotWithoutFinish());
+        }
+        return snapshot;
+    }
+
+    // ========== 惰性遍历（不复制数据） ==========
+
+    /**
+     * 惰性遍历所有分段的键，不复制数据
+     * 
+     * <p>遍历期间不能修改数据库，也不能读取会推进rehash的键。
+     * 
+     * @return 键迭代器
+     */
+    public Iterator<RedisBytes> keyIterator() {
+        if (segments.length == 1) {
+            return segments[0].keyIterator();
+        }
+        return new SegmentIterator<>(segments, SnapshotDict::keyIterator);
+    }
+
+    /**
+     * 在已启动的快照状态下惰性遍历所有分段的快照数据
+     * 
+     * <p>用于RDB/AOF重写：后台线程边遍历边写文件，不在内存中复制整个键空间。
+     * 
+     * @return 快照键值对迭代器
+     * @throws IllegalStateException 如果快照未启动
+     */
+    public Iterator<Map.Entry<RedisBytes, RedisData>> snapshotIterator() {
+        if (segments.length == 1) {
+            return segments[0].snapshotIterator();
+        }
+        return new SegmentIterator<>(segments, SnapshotDict::snapshotIterator);
+    }
+
+    /**
+     * 依次遍历每个分段，分段迭代器在用到时才创建
+     */
+    private static final class SegmentIterator<T> implements Iterator<T> {
+
+        private final SnapshotDict<RedisBytes, RedisData>[] segments;
+
+        private final Function<SnapshotDict<RedisBytes, RedisData>, Iterator<T>> opener;
+
+        private int nextSegment;
+
+        private Iterator<T> current = Collections.emptyIterator();
+
+        SegmentIterator(final SnapshotDict<RedisBytes, RedisData>[] segments,
+                        final Function<SnapshotDict<RedisBytes, RedisData>, Iterator<T>> opener) {
+            this.segments = segments;
+            this.opener = opener;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (nextSegment >= segments.length) {
+                    return false;
+                }
+                current = opener.apply(segments[nextSegment++]);
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
     }
 }
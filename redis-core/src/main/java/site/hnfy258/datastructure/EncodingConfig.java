@@ -0,0 +1,161 @@
+package site.hnfy258.datastructure;
+
+/**
+ * 值对象紧凑编码的阈值配置
+ *
+ * <p>小集合使用紧凑编码，超过阈值时自动转换为普通编码，转换是单向的。
+ * 阈值对整个进程生效，服务启动时从服务器配置设置，之后只影响新的写入。
+ *
+ * <p>阈值：
+ * <ul>
+ *     <li>hash-max-listpack-entries - Hash使用紧凑编码的最大字段数，默认128</li>
+ *     <li>hash-max-listpack-value - Hash使用紧凑编码时字段名和值的最大字节数，默认64</li>
+ *     <li>set-max-intset-entries - 整数Set使用整数集合编码的最大成员数，默认512</li>
+ *     <li>list-max-listpack-size - List每个快速列表节点的大小，正数为元素个数，-1到-5为4KB到64KB，默认-2</li>
+ *     <li>list-compress-depth - List两端不压缩的节点数，0表示不压缩，默认0</li>
+ *     <li>zset-max-listpack-entries - 有序集合使用紧凑编码的最大成员数，默认128</li>
+ *     <li>zset-max-listpack-value - 有序集合使用紧凑编码时成员的最大字节数，默认64</li>
+ * </ul>
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class EncodingConfig {
+
+    private static volatile int hashMaxListpackEntries = 128;
+
+    private static volatile int hashMaxListpackValue = 64;
+
+    private static volatile int setMaxIntsetEntries = 512;
+
+    private static volatile int listMaxListpackSize = -2;
+
+    private static volatile int listCompressDepth = 0;
+
+    private static volatile int zsetMaxListpackEntries = 128;
+
+    private static volatile int zsetMaxListpackValue = 64;
+
+    private EncodingConfig() {
+        throw new UnsupportedOperationException("配置类不允许实例化");
+    }
+
+    public static int getHashMaxListpackEntries() {
+        return hashMaxListpackEntries;
+    }
+
+    /**
+     * 设置Hash使用紧凑编码的最大字段数
+     *
+     * @param entries 最大字段数，0表示总是使用哈希表编码
+     * @throws IllegalArgumentException 如果为负数
+     */
+    public static void setHashMaxListpackEntries(final int entries) {
+        if (entries < 0) {
+            throw new IllegalArgumentException("hash-max-listpack-entries不能为负数");
+        }
+        hashMaxListpackEntries = entries;
+    }
+
+    public static int getHashMaxListpackValue() {
+        return hashMaxListpackValue;
+    }
+
+    /**
+     * 设置Hash使用紧凑编码时字段名和值的最大字节数
+     *
+     * @param bytes 最大字节数
+     * @throws IllegalArgumentException 如果为负数
+     */
+    public static void setHashMaxListpackValue(final int bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("hash-max-listpack-value不能为负数");
+        }
+        hashMaxListpackValue = bytes;
+    }
+
+    public static int getSetMaxIntsetEntries() {
+        return setMaxIntsetEntries;
+    }
+
+    /**
+     * 设置整数Set使用整数集合编码的最大成员数
+     *
+     * @param entries 最大成员数，0表示总是使用哈希表编码
+     * @throws IllegalArgumentException 如果为负数
+     */
+    public static void setSetMaxIntsetEntries(final int entries) {
+        if (entries < 0) {
+            throw new IllegalArgumentException("set-max-intset-entries不能为负数");
+        }
+        setMaxIntsetEntries = entries;
+    }
+
+    public static int getListMaxListpackSize() {
+        return listMaxListpackSize;
+    }
+
+    /**
+     * 设置List每个快速列表节点的大小
+     *
+     * @param size 正数为每个节点的元素个数，-1到-5为每个节点4KB到64KB
+     * @throws IllegalArgumentException 如果为0或小于-5
+     */
+    public static void setListMaxListpackSize(final int size) {
+        if (size == 0 || size < -5) {
+            throw new IllegalArgumentException("list-max-listpack-size必须是正数或-1到-5");
+        }
+        listMaxListpackSize = size;
+    }
+
+    public static int getListCompressDepth() {
+        return listCompressDepth;
+    }
+
+    /**
+     * 设置List两端不压缩的节点数
+     *
+     * @param depth 节点数，0表示不压缩
+     * @throws IllegalArgumentException 如果为负数
+     */
+    public static void setListCompressDepth(final int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("list-compress-depth不能为负数");
+        }
+        listCompressDepth = depth;
+    }
+
+    public static int getZsetMaxListpackEntries() {
+        return zsetMaxListpackEntries;
+    }
+
+    /**
+     * 设置有序集合使用紧凑编码的最大成员数
+     *
+     * @param entries 最大成员数，0表示总是使用跳表编码
+     * @throws IllegalArgumentException 如果为负数
+     */
+    public static void setZsetMaxListpackEntries(final int entries) {
+        if (entries < 0) {
+            throw new IllegalArgumentException("zset-max-listpack-entries不能为负数");
+        }
+        zsetMaxListpackEntries = entries;
+    }
+
+    public static int getZsetMaxListpackValue() {
+        return zsetMaxListpackValue;
+    }
+
+    /**
+     * 设置有序集合使用紧凑编码时成员的最大字节数
+     *
+     * @param bytes 最大字节数
+     * @throws IllegalArgumentException 如果为负数
+     */
+    public static void setZsetMaxListpackValue(final int bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("zset-max-listpack-value不能为负数");
+        }
+        zsetMaxListpackValue = bytes;
+    }
+}
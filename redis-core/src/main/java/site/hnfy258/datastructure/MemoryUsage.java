@@ -0,0 +1,78 @@
+package site.hnfy258.datastructure;
+
+import java.util.Iterator;
+import java.util.function.ToLongFunction;
+
+/**
+ * 值对象占用内存的估算
+ *
+ * <p>估算按64位JVM、开启压缩指针的布局粗略计算，不追求精确，只要求：
+ * <ul>
+ *     <li>与数据量成正比，足以判断是否超过maxmemory、该淘汰多少键</li>
+ *     <li>代价与集合大小无关：紧凑编码直接取字节数，
+ *     哈希表编码只看前{@value #SAMPLES}个元素的平均大小再乘以元素数</li>
+ * </ul>
+ * 与Redis的MEMORY USAGE相同，采样估算对大小悬殊的集合会有偏差。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class MemoryUsage {
+
+    /** 对象头 */
+    public static final int OBJECT_HEADER = 16;
+
+    /** 数组头 */
+    public static final int ARRAY_HEADER = 16;
+
+    /** 引用 */
+    public static final int REFERENCE = 4;
+
+    /** 哈希表条目：对象头、键、值、next引用和缓存的哈希值 */
+    public static final int DICT_ENTRY = OBJECT_HEADER + 3 * REFERENCE + 4;
+
+    /** 值对象自身的字段：过期时间、键、快照纪元等 */
+    public static final int VALUE_OBJECT = OBJECT_HEADER + 40;
+
+    /** 估算哈希表编码时采样的元素数 */
+    public static final int SAMPLES = 5;
+
+    private MemoryUsage() {
+        throw new UnsupportedOperationException("工具类不允许实例化");
+    }
+
+    /**
+     * 估算一个{@link RedisBytes}的大小：对象本身加上字节数组
+     *
+     * @param bytes 字节串
+     * @return 估算的字节数
+     */
+    public static long of(final RedisBytes bytes) {
+        return OBJECT_HEADER + 8 + ARRAY_HEADER + bytes.length();
+    }
+
+    /**
+     * 估算哈希表编码集合的大小
+     *
+     * <p>桶数组按容量计算，元素按前{@value #SAMPLES}个的平均大小乘以元素数。
+     *
+     * @param size 元素数
+     * @param capacity 桶数组长度
+     * @param elements 元素迭代器，最多读取{@value #SAMPLES}个
+     * @param elementBytes 单个元素除哈希表条目外的大小
+     * @param <T> 元素类型
+     * @return 估算的字节数
+     */
+    public static <T> long ofDict(final int size, final int capacity, final Iterator<T> elements,
+                                  final ToLongFunction<T> elementBytes) {
+        long sampledBytes = 0;
+        int sampled = 0;
+        while (sampled < SAMPLES && elements.hasNext()) {
+            sampledBytes += elementBytes.applyAsLong(elements.next());
+            sampled++;
+        }
+        final long average = sampled == 0 ? 0 : sampledBytes / sampled;
+        return OBJECT_HEADER + ARRAY_HEADER + (long) capacity * REFERENCE
+                + (long) size * (DICT_ENTRY + average);
+    }
+}
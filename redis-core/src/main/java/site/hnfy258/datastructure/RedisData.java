@@ -21,7 +21,8 @@ import java.util.List;
  * <p>线程安全性：
  * <ul>
  *     <li>所有客户端命令在单个线程中串行执行</li>
- *     <li>后台持久化线程通过底层数据结构(Dict)的线程安全机制获取数据</li>
+ *     <li>后台持久化线程读取进入快照时的值对象，快照期间命令线程通过
+ *     {@link #detach(long)}改写副本，值对象内部不需要快照机制</li>
  * </ul>
  * 
  * @author hnfy258
@@ -52,4 +53,58 @@ public interface RedisData {
      * @return Redis协议格式的命令列表，如果数据为空则返回空列表
      */
     List<Resp> convertToResp();
+
+    /**
+     * 快照期间在修改前分离出独立副本
+     *
+     * <p>数据库进入快照时递增快照纪元。快照期间写命令第一次取出某个值准备修改时调用此方法：
+     * 值对象还不属于当前纪元时返回一个属于该纪元的副本，由数据库替换键空间中的值，
+     * 原对象留给快照线程读取；已经属于当前纪元时返回自身，之后的修改直接作用于副本。
+     *
+     * @param epoch 当前快照纪元
+     * @return 属于该纪元的值对象，已属于该纪元时返回this
+     */
+    RedisData detach(long epoch);
+
+    /**
+     * 估算值对象占用的内存
+     *
+     * <p>代价与集合大小无关，参见{@link MemoryUsage}。
+     *
+     * @return 估算的字节数，不包含键
+     */
+    long memoryUsage();
+
+    /**
+     * 获取数据库上次为该值记账的内存大小
+     *
+     * <p>由数据库维护，用于值被修改、替换或删除时按差值更新已用内存。
+     *
+     * @return 记账的字节数，包含键
+     */
+    long getAccountedMemory();
+
+    /**
+     * 设置数据库为该值记账的内存大小
+     *
+     * @param accountedMemory 记账的字节数，包含键
+     */
+    void setAccountedMemory(long accountedMemory);
+
+    /**
+     * 获取打包的访问元数据
+     *
+     * <p>高24位是最近一次访问的LRU时钟（秒），低8位是对数访问频率计数器，
+     * 由数据库在读写时维护，编码方式参见{@code AccessMeta}。
+     *
+     * @return 访问元数据
+     */
+    int getAccess();
+
+    /**
+     * 设置打包的访问元数据
+     *
+     * @param access 访问元数据
+     */
+    void setAccess(int access);
 }
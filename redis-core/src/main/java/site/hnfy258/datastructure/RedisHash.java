@@ -1,23 +1,35 @@
 package site.hnfy258.datastructure;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import site.hnfy258.internal.Dict;
+import site.hnfy258.internal.LeanDict;
+import site.hnfy258.internal.ListPack;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 /**
  * Redis哈希表数据结构实现类
  * 
  * <p>实现了Redis的Hash数据类型，提供高效的键值对存储功能。
- * 使用线程安全的Dict作为底层存储结构，支持字段的增删改查操作。
+ * 根据大小在两种编码之间自动选择：
+ * <ul>
+ *     <li>listpack - 字段和值交替存放在一个{@link ListPack}中，没有指针和对象头，
+ *     新建的Hash默认使用此编码</li>
+ *     <li>hashtable - 使用轻量的{@link LeanDict}，字段数超过hash-max-listpack-entries
+ *     或字段名、值超过hash-max-listpack-value字节时从listpack转换而来，不会转换回去</li>
+ * </ul>
+ * 阈值见{@link EncodingConfig}。
  * 
  * <p>主要功能包括：
  * <ul>
@@ -25,7 +37,7 @@ import java.util.Map;
  *     <li>字段的批量删除（HDEL）</li>
  *     <li>哈希表大小查询</li>
  *     <li>支持Redis协议的序列化转换</li>
- *     <li>线程安全的并发访问</li>
+ *     <li>快照期间通过{@link #detach(long)}写时复制</li>
  * </ul>
  * 
  * @author hnfy258
@@ -38,19 +50,102 @@ public class RedisHash implements RedisData, Serializable {
     /** 数据过期时间，-1表示永不过期 */
     private volatile long timeout = -1;
     
-    /** 底层哈希表存储结构，使用线程安全的Dict */
-    private Dict<RedisBytes, RedisBytes> hash;
+    /** 编码名称：紧凑编码 */
+    public static final String ENCODING_LISTPACK = "listpack";
+
+    /** 编码名称：哈希表编码 */
+    public static final String ENCODING_HASHTABLE = "hashtable";
+
+    /** 紧凑编码的存储，字段和值交替存放；为null时使用哈希表编码 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ListPack listPack;
+
+    /** 哈希表编码的存储，只由命令线程访问；紧凑编码时为null */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private LeanDict<RedisBytes, RedisBytes> hash;
     
     /** 关联的Redis键名 */
     private RedisBytes key;
 
+    /** 所属的快照纪元，参见{@link #detach(long)} */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long snapshotEpoch;
+
+    /** 数据库记账的内存大小，参见{@link RedisData#getAccountedMemory()} */
+    private long accountedMemory;
+
+    /** 打包的访问元数据：LRU时钟和LFU计数器，参见{@link RedisData#getAccess()} */
+    private int access;
+
     /**
      * 默认构造函数
      * 
-     * <p>初始化一个空的Redis哈希表实例。
+     * <p>初始化一个空的Redis哈希表实例，使用紧凑编码。
      */
     public RedisHash() {
-        this.hash = new Dict<>();
+        this.listPack = new ListPack();
+    }
+
+    /**
+     * 从持久化的紧凑编码恢复
+     *
+     * <p>加载时的阈值可能比保存时小，超过当前阈值时立即转换为哈希表编码。
+     *
+     * @param listPack 字段和值交替存放的紧凑列表
+     * @return 哈希表实例
+     * @throws IllegalArgumentException 如果元素个数不是偶数
+     */
+    public static RedisHash fromListPack(final ListPack listPack) {
+        if (listPack.size() % 2 != 0) {
+            throw new IllegalArgumentException("紧凑编码的字段和值必须成对出现");
+        }
+        final RedisHash redisHash = new RedisHash();
+        redisHash.listPack = listPack;
+        if (listPack.size() / 2 > EncodingConfig.getHashMaxListpackEntries()) {
+            redisHash.convertToHashtable();
+        } else {
+            final int maxValue = EncodingConfig.getHashMaxListpackValue();
+            for (int offset = listPack.first(); offset != -1; offset = listPack.next(offset)) {
+                if (listPack.get(offset).length > maxValue) {
+                    redisHash.convertToHashtable();
+                    break;
+                }
+            }
+        }
+        return redisHash;
+    }
+
+    @Override
+    public RedisData detach(final long epoch) {
+        if (snapshotEpoch == epoch) {
+            return this;
+        }
+        final RedisHash copy = new RedisHash();
+        if (listPack != null) {
+            copy.listPack = listPack.copy();
+        } else {
+            copy.listPack = null;
+            copy.hash = hash.copy();
+        }
+        copy.key = key;
+        copy.timeout = timeout;
+        copy.snapshotEpoch = epoch;
+        copy.accountedMemory = accountedMemory;
+        copy.access = access;
+        return copy;
+    }
+
+    @Override
+    public long memoryUsage() {
+        if (listPack != null) {
+            return MemoryUsage.VALUE_OBJECT + MemoryUsage.OBJECT_HEADER + MemoryUsage.ARRAY_HEADER
+                    + listPack.bytes();
+        }
+        return MemoryUsage.VALUE_OBJECT + MemoryUsage.ofDict(hash.size(), hash.capacity(),
+                hash.entryIterator(), e -> MemoryUsage.of(e.getKey()) + MemoryUsage.of(e.getValue()));
     }
 
     /**
@@ -81,14 +176,16 @@ public class RedisHash implements RedisData, Serializable {
      */
     @Override
     public List<Resp> convertToResp() {
-        if (hash == null || hash.size() == 0) {
+        if (size() == 0) {
             return Collections.emptyList();
         }
         
         List<Resp> result = new ArrayList<>();
         
-        // 1. 遍历所有字段，为每个字段生成HSET命令
-        for (Map.Entry<Object, Object> entry : hash.entrySet()) {
+        // 1. 惰性遍历所有字段，为每个字段生成HSET命令
+        final Iterator<Map.Entry<RedisBytes, RedisBytes>> iterator = entryIterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<RedisBytes, RedisBytes> entry = iterator.next();
             Object field = entry.getKey();
             Object value = entry.getValue();
             
@@ -118,23 +215,140 @@ public class RedisHash implements RedisData, Serializable {
     /**
      * 设置哈希表字段值
      * 
+     * <p>紧凑编码下写入超过阈值时先转换为哈希表编码。
+     * 
      * @param field 字段名
      * @param value 字段值
      * @return 如果是新字段返回1，如果是更新已存在字段返回0
      */
     public int put(RedisBytes field, RedisBytes value) {
+        if (listPack != null) {
+            final int maxValue = EncodingConfig.getHashMaxListpackValue();
+            final byte[] fieldBytes = field.getBytesUnsafe();
+            final byte[] valueBytes = value.getBytesUnsafe();
+            if (fieldBytes.length <= maxValue && valueBytes.length <= maxValue) {
+                // 1. 已有字段：原地替换值
+                final int offset = listPack.find(fieldBytes, 1);
+                if (offset != -1) {
+                    listPack.replace(listPack.next(offset), valueBytes);
+                    return 0;
+                }
+                // 2. 新字段：未超过字段数阈值时追加到末尾
+                if (listPack.size() / 2 < EncodingConfig.getHashMaxListpackEntries()) {
+                    listPack.append(fieldBytes);
+                    listPack.append(valueBytes);
+                    return 1;
+                }
+            }
+            // 3. 超过阈值，转换后写入哈希表
+            convertToHashtable();
+        }
         return hash.put(field, value) == null ? 1 : 0;
     }
 
+    /**
+     * 获取字段值
+     * 
+     * @param field 字段名
+     * @return 字段值，不存在时返回null
+     */
+    public RedisBytes get(RedisBytes field) {
+        if (listPack == null) {
+            return hash.get(field);
+        }
+        final int offset = listPack.find(field.getBytesUnsafe(), 1);
+        return offset == -1 ? null : RedisBytes.wrapTrusted(listPack.get(listPack.next(offset)));
+    }
+
+    /**
+     * 检查字段是否存在
+     * 
+     * @param field 字段名
+     * @return 是否存在
+     */
+    public boolean containsKey(RedisBytes field) {
+        if (listPack == null) {
+            return hash.containsKey(field);
+        }
+        return listPack.find(field.getBytesUnsafe(), 1) != -1;
+    }
+
+    /**
+     * 获取字段数量
+     * 
+     * @return 字段数量
+     */
+    public int size() {
+        return listPack != null ? listPack.size() / 2 : hash.size();
+    }
+
+    /**
+     * 获取当前编码名称
+     * 
+     * @return {@link #ENCODING_LISTPACK}或{@link #ENCODING_HASHTABLE}
+     */
+    public String getEncoding() {
+        return listPack != null ? ENCODING_LISTPACK : ENCODING_HASHTABLE;
+    }
+
+    /**
+     * 获取紧凑编码的存储，用于持久化
+     * 
+     * @return 紧凑列表，哈希表编码时返回null
+     */
+    public ListPack getListPack() {
+        return listPack;
+    }
+
     /**
      * 获取底层哈希表
      * 
-     * @return 底层Dict实例
+     * <p>紧凑编码时会先转换为哈希表编码。读取字段请使用{@link #get(RedisBytes)}
+     * 和{@link #entryIterator()}，它们不会改变编码。
+     * 
+     * @return 底层哈希表实例
      */
-    public Dict<RedisBytes, RedisBytes> getHash() {
+    public LeanDict<RedisBytes, RedisBytes> getHash() {
+        if (listPack != null) {
+            convertToHashtable();
+        }
         return hash;
     }
 
+    /**
+     * 惰性遍历所有字段和值
+     * 
+     * <p>遍历期间不能修改哈希表。紧凑编码下每个字段和值都会复制出新的字节数组。
+     * 
+     * @return 字段到值的键值对迭代器
+     */
+    public Iterator<Map.Entry<RedisBytes, RedisBytes>> entryIterator() {
+        if (listPack == null) {
+            return hash.entryIterator();
+        }
+        final ListPack pack = listPack;
+        return new Iterator<Map.Entry<RedisBytes, RedisBytes>>() {
+            private int offset = pack.first();
+
+            @Override
+            public boolean hasNext() {
+                return offset != -1;
+            }
+
+            @Override
+            public Map.Entry<RedisBytes, RedisBytes> next() {
+                if (offset == -1) {
+                    throw new NoSuchElementException();
+                }
+                final int valueOffset = pack.next(offset);
+                final RedisBytes field = RedisBytes.wrapTrusted(pack.get(offset));
+                final RedisBytes value = RedisBytes.wrapTrusted(pack.get(valueOffset));
+                offset = pack.next(valueOffset);
+                return new AbstractMap.SimpleImmutableEntry<>(field, value);
+            }
+        };
+    }
+
     /**
      * 删除哈希表中的指定字段
      * 
@@ -142,8 +356,33 @@ public class RedisHash implements RedisData, Serializable {
      * @return 成功删除的字段数量
      */
     public int del(List<RedisBytes> fields) {
-        return (int) fields.stream()
-                .filter(field -> hash.remove(field) != null)
-                .count();
+        if (listPack == null) {
+            return (int) fields.stream()
+                    .filter(field -> hash.remove(field) != null)
+                    .count();
+        }
+        int deleted = 0;
+        for (RedisBytes field : fields) {
+            final int offset = listPack.find(field.getBytesUnsafe(), 1);
+            if (offset != -1) {
+                listPack.delete(offset, 2);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 把紧凑编码转换为哈希表编码，转换后不再转换回去
+     */
+    private void convertToHashtable() {
+        final LeanDict<RedisBytes, RedisBytes> converted = new LeanDict<>();
+        final Iterator<Map.Entry<RedisBytes, RedisBytes>> iterator = entryIterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<RedisBytes, RedisBytes> entry = iterator.next();
+            converted.put(entry.getKey(), entry.getValue());
+        }
+        hash = converted;
+        listPack = null;
     }
 }
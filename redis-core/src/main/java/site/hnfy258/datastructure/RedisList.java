@@ -1,33 +1,38 @@
 package site.hnfy258.datastructure;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import site.hnfy258.internal.QuickList;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
  * Redis列表数据结构实现
- * 
+ *
  * <p>实现了Redis的List数据类型，提供双端队列操作功能。
- * 使用LinkedList作为底层存储结构，针对单线程写入场景优化。
- * 支持从列表两端进行高效的插入和删除操作。
- * 
+ * 使用{@link QuickList}作为底层存储结构：元素按原始字节连续存放在大小受限的紧凑节点中，
+ * 节点组成双向链表，不再为每个元素分配链表节点和{@link RedisBytes}对象。
+ * 节点大小和中间节点的压缩深度见{@link EncodingConfig}。
+ *
  * <p>主要功能包括：
  * <ul>
  *     <li>左端(头部)和右端(尾部)的元素推入和弹出</li>
- *     <li>指定范围的元素获取</li>
+ *     <li>按下标读取、替换、插入，先按节点跳过再在节点内扫描</li>
+ *     <li>指定范围的元素获取和裁剪，线性时间</li>
  *     <li>元素移除和列表大小查询</li>
  *     <li>支持Redis协议的序列化转换</li>
  *     <li>支持创建安全快照用于持久化</li>
  * </ul>
- * 
+ *
  * @author hnfy258
  * @since 1.0.0
  */
@@ -37,25 +42,62 @@ public class RedisList implements RedisData, Serializable {
 
     /** 数据过期时间，-1表示永不过期 */
     private volatile long timeout = -1;
-    
-    /** 底层存储结构 */
-    private final LinkedList<RedisBytes> list;
-    
+
+    /** 底层存储结构，只由命令线程访问 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final QuickList quickList;
+
     /** 关联的Redis键名 */
     private RedisBytes key;
 
+    /** 所属的快照纪元，参见{@link #detach(long)} */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long snapshotEpoch;
+
+    /** 数据库记账的内存大小，参见{@link RedisData#getAccountedMemory()} */
+    private long accountedMemory;
+
+    /** 打包的访问元数据：LRU时钟和LFU计数器，参见{@link RedisData#getAccess()} */
+    private int access;
+
     /**
      * 默认构造函数
-     * 
-     * <p>初始化一个空的Redis列表实例。
+     *
+     * <p>初始化一个空的Redis列表实例，节点参数取自{@link EncodingConfig}。
      */
     public RedisList() {
-        this.list = new LinkedList<>();
+        this.quickList = new QuickList(EncodingConfig.getListMaxListpackSize(),
+                EncodingConfig.getListCompressDepth());
+    }
+
+    private RedisList(final RedisList source, final long epoch) {
+        this.quickList = source.quickList.copy();
+        this.key = source.key;
+        this.timeout = source.timeout;
+        this.snapshotEpoch = epoch;
+        this.accountedMemory = source.accountedMemory;
+        this.access = source.access;
+    }
+
+    @Override
+    public RedisData detach(final long epoch) {
+        return snapshotEpoch == epoch ? this : new RedisList(this, epoch);
+    }
+
+    /**
+     * 按节点实际存储的字节数计算，代价与节点数成正比，与元素数无关
+     */
+    @Override
+    public long memoryUsage() {
+        return MemoryUsage.VALUE_OBJECT + quickList.storedBytes()
+                + (long) quickList.nodeCount() * (MemoryUsage.OBJECT_HEADER + 40);
     }
 
     /**
      * 获取数据过期时间
-     * 
+     *
      * @return 过期时间戳，-1表示永不过期
      */
     @Override
@@ -65,7 +107,7 @@ public class RedisList implements RedisData, Serializable {
 
     /**
      * 设置数据过期时间
-     * 
+     *
      * @param timeout 过期时间戳，-1表示永不过期
      */
     @Override
@@ -76,133 +118,296 @@ public class RedisList implements RedisData, Serializable {
 
     /**
      * 将列表转换为Redis协议格式
-     * 
+     *
      * <p>将当前列表转换为LPUSH命令格式的RESP数组，
      * 用于持久化或网络传输。
-     * 
+     *
      * @return Redis协议格式的命令列表，如果列表为空则返回空列表
      */
     @Override
     public List<Resp> convertToResp() {
-        if (list == null || list.size() == 0) {
+        final int size = quickList.size();
+        if (size == 0) {
             return Collections.emptyList();
         }
-        
-        List<Resp> lpushCommand = new ArrayList<>();
-        lpushCommand.add(new BulkString(RedisBytes.fromString("LPUSH")));
-        lpushCommand.add(new BulkString(key.getBytesUnsafe()));
-        
-        // 反向遍历列表以保持与lpush操作相同的顺序
-        for (int i = list.size() - 1; i >= 0; i--) {
-            lpushCommand.add(new BulkString(list.get(i).getBytesUnsafe()));
+
+        final Resp[] lpushCommand = new Resp[size + 2];
+        lpushCommand[0] = new BulkString(RedisBytes.fromString("LPUSH"));
+        lpushCommand[1] = new BulkString(key.getBytesUnsafe());
+
+        // 正向遍历一次，反向填充以保持与lpush操作相同的顺序
+        final Iterator<byte[]> iterator = quickList.iterator();
+        for (int i = size + 1; i >= 2; i--) {
+            lpushCommand[i] = new BulkString(iterator.next());
         }
-        
-        return Collections.singletonList(new RespArray(lpushCommand.toArray(new Resp[0])));
+
+        return Collections.singletonList(new RespArray(lpushCommand));
     }
 
     /**
      * 获取列表大小
-     * 
+     *
      * @return 列表中元素的数量
      */
     public  int size() {
-        return list.size();
+        return quickList.size();
     }
 
     /**
      * 向列表左端(头部)推入一个或多个元素
-     * 
+     *
      * @param values 要推入的元素
      */
     public void lpush(final RedisBytes... values) {
         if (values == null || values.length == 0) {
             return;
         }
-        
+
         // 按原始顺序添加，每个新元素都会被添加到最前面
         for (RedisBytes value : values) {
-            list.addFirst(value);
+            quickList.pushHead(value.getBytesUnsafe());
         }
     }
 
     /**
      * 从列表左端(头部)弹出一个元素
-     * 
+     *
      * @return 弹出的元素，如果列表为空则返回null
      */
     public RedisBytes lpop() {
-        return list.pollFirst();
+        return toRedisBytes(quickList.popHead());
     }
 
     /**
      * 向列表右端(尾部)推入一个或多个元素
-     * 
+     *
      * @param values 要推入的元素
      */
     public void rpush(final RedisBytes... values) {
         if (values == null || values.length == 0) {
             return;
         }
-        
+
         for (RedisBytes value : values) {
-            list.addLast(value);
+            quickList.pushTail(value.getBytesUnsafe());
         }
     }
 
     /**
      * 从列表右端(尾部)弹出一个元素
-     * 
+     *
      * @return 弹出的元素，如果列表为空则返回null
      */
     public RedisBytes rpop() {
-        return list.pollLast();
+        return toRedisBytes(quickList.popTail());
+    }
+
+    /**
+     * 获取指定下标的元素
+     *
+     * @param index 下标，负数表示从末尾开始
+     * @return 元素，下标越界时返回null
+     */
+    public RedisBytes index(final long index) {
+        return toRedisBytes(quickList.get(index));
+    }
+
+    /**
+     * 替换指定下标的元素
+     *
+     * @param index 下标，负数表示从末尾开始
+     * @param value 新元素
+     * @return 下标是否有效
+     */
+    public boolean set(final long index, final RedisBytes value) {
+        return quickList.set(index, value.getBytesUnsafe());
+    }
+
+    /**
+     * 在第一个等于pivot的元素之前或之后插入元素
+     *
+     * @param before true表示插入到pivot之前
+     * @param pivot 参照元素
+     * @param value 要插入的元素
+     * @return 插入后的列表长度，找不到pivot时返回-1
+     */
+    public int insert(final boolean before, final RedisBytes pivot, final RedisBytes value) {
+        final int index = quickList.indexOf(pivot.getBytesUnsafe());
+        if (index < 0) {
+            return -1;
+        }
+        quickList.insert(before ? index : index + 1, value.getBytesUnsafe());
+        return quickList.size();
     }
 
     /**
      * 获取列表指定范围内的元素
-     * 
+     *
      * @param start 开始索引
      * @param stop 结束索引
      * @return 指定范围的元素列表
      */
     public List<RedisBytes> lrange(final int start, final int stop) {
-        final int size = list.size();
-        
+        final int size = quickList.size();
+
         // 1. 处理负数索引
         int actualStart = start < 0 ? size + start : start;
         int actualStop = stop < 0 ? size + stop : stop;
-        
+
         // 2. 边界检查
         actualStart = Math.max(0, actualStart);
         actualStop = Math.min(size - 1, actualStop);
 
-        // 3. 返回子列表
+        // 3. 定位起点后顺序读取
         if (actualStart <= actualStop && actualStart < size) {
-            return new ArrayList<>(list.subList(actualStart, actualStop + 1));
+            final int count = actualStop - actualStart + 1;
+            final List<RedisBytes> result = new ArrayList<>(count);
+            final Iterator<byte[]> iterator = quickList.iterator(actualStart);
+            for (int i = 0; i < count; i++) {
+                result.add(RedisBytes.wrapTrusted(iterator.next()));
+            }
+            return result;
         }
         return Collections.emptyList();
     }
 
+    /**
+     * 裁剪列表，只保留指定范围内的元素
+     *
+     * <p>范围两侧完整的节点直接摘除，不逐个删除元素。
+     *
+     * @param start 开始索引，负数表示从末尾开始
+     * @param stop 结束索引，负数表示从末尾开始
+     */
+    public void trim(final long start, final long stop) {
+        final int size = quickList.size();
+
+        // 1. 处理负数索引和边界
+        final long actualStart = Math.max(0, start < 0 ? size + start : start);
+        final long actualStop = Math.min(size - 1L, stop < 0 ? size + stop : stop);
+
+        // 2. 范围为空时清空列表
+        if (actualStart > actualStop || actualStart >= size) {
+            quickList.clear();
+            return;
+        }
+
+        // 3. 先删尾部再删头部，避免下标移动
+        quickList.delete((int) actualStop + 1, size);
+        quickList.delete(0, (int) actualStart);
+    }
+
     /**
      * 移除列表中所有等于指定值的元素
-     * 
+     *
      * @param key 要移除的元素
      * @return 移除的元素数量
      */
     public int remove(final RedisBytes key) {
-        int count = 0;
-        while (list.remove(key)) {
-            count++;
-        }
-        return count;
+        return remove(key, 0);
+    }
+
+    /**
+     * 移除列表中等于指定值的元素
+     *
+     * @param value 要移除的元素
+     * @param count 大于0时从头部开始最多移除count个，小于0时从尾部开始最多移除-count个，0表示全部移除
+     * @return 移除的元素数量
+     */
+    public int remove(final RedisBytes value, final long count) {
+        return quickList.remove(value.getBytesUnsafe(), count);
     }
 
     /**
      * 获取列表所有元素
-     * 
+     *
      * @return 所有元素的数组
      */
     public  RedisBytes[] getAll() {
-        return list.toArray(new RedisBytes[0]);
+        final RedisBytes[] all = new RedisBytes[quickList.size()];
+        final Iterator<byte[]> iterator = quickList.iterator();
+        for (int i = 0; i < all.length; i++) {
+            all[i] = RedisBytes.wrapTrusted(iterator.next());
+        }
+        return all;
+    }
+
+    /**
+     * 从头到尾惰性遍历所有元素
+     *
+     * <p>遍历期间不能修改列表。
+     *
+     * @return 元素迭代器
+     */
+    public Iterator<RedisBytes> iterator() {
+        final Iterator<byte[]> iterator = quickList.iterator();
+        return new Iterator<RedisBytes>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public RedisBytes next() {
+                return RedisBytes.wrapTrusted(iterator.next());
+            }
+        };
+    }
+
+    /**
+     * 获取可读写的{@link List}视图
+     *
+     * <p>视图直接操作底层快速列表。按下标访问每次都要定位节点，
+     * 批量读取应使用{@link #lrange(int, int)}或{@link #iterator()}。
+     *
+     * @return 列表视图
+     */
+    public List<RedisBytes> getList() {
+        return new AbstractList<RedisBytes>() {
+            @Override
+            public RedisBytes get(final int index) {
+                checkIndex(index);
+                return index(index);
+            }
+
+            @Override
+            public RedisBytes set(final int index, final RedisBytes element) {
+                final RedisBytes old = get(index);
+                quickList.set(index, element.getBytesUnsafe());
+                return old;
+            }
+
+            @Override
+            public void add(final int index, final RedisBytes element) {
+                quickList.insert(index, element.getBytesUnsafe());
+            }
+
+            @Override
+            public RedisBytes remove(final int index) {
+                final RedisBytes old = get(index);
+                quickList.delete(index, 1);
+                return old;
+            }
+
+            @Override
+            public int size() {
+                return quickList.size();
+            }
+
+            @Override
+            public Iterator<RedisBytes> iterator() {
+                return RedisList.this.iterator();
+            }
+
+            private void checkIndex(final int index) {
+                if (index < 0 || index >= quickList.size()) {
+                    throw new IndexOutOfBoundsException("下标越界: " + index);
+                }
+            }
+        };
+    }
+
+    private static RedisBytes toRedisBytes(final byte[] bytes) {
+        return bytes == null ? null : RedisBytes.wrapTrusted(bytes);
     }
 }
@@ -1,31 +1,44 @@
 package site.hnfy258.datastructure;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import site.hnfy258.internal.Dict;
+import site.hnfy258.internal.IntSet;
+import site.hnfy258.internal.LeanDict;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Redis集合数据结构实现类
  * 
  * <p>实现了Redis的Set数据类型，提供无序且不重复的元素集合功能。
- * 使用线程安全的Dict作为底层存储结构，支持高效的集合操作。
+ * 根据成员内容在两种编码之间自动选择：
+ * <ul>
+ *     <li>intset - 所有成员都是规范形式的64位整数时，升序存放在{@link IntSet}的基本类型数组中，
+ *     二分查找判断成员，新建的集合默认使用此编码</li>
+ *     <li>hashtable - 使用轻量的{@link LeanDict}，加入非整数成员或成员数超过
+ *     set-max-intset-entries时从intset转换而来，不会转换回去</li>
+ * </ul>
+ * 阈值见{@link EncodingConfig}。
  * 
  * <p>主要功能包括：
  * <ul>
  *     <li>元素的添加和删除（SADD/SREM）</li>
- *     <li>随机元素弹出（SPOP）</li>
+ *     <li>随机元素弹出和读取（SPOP/SRANDMEMBER）</li>
  *     <li>集合大小查询和成员检查</li>
  *     <li>支持Redis协议的序列化转换</li>
- *     <li>线程安全的并发访问</li>
+ *     <li>快照期间通过{@link #detach(long)}写时复制</li>
  * </ul>
  * 
  * @author hnfy258
@@ -38,19 +51,90 @@ public class RedisSet implements RedisData {
     /** 数据过期时间，-1表示永不过期 */
     private volatile long timeout = -1;
     
-    /** 底层集合存储结构，使用线程安全的Dict，值统一为null */
-    private Dict<RedisBytes, Object> setCore;
+    /** 编码名称：整数集合编码 */
+    public static final String ENCODING_INTSET = "intset";
+
+    /** 编码名称：哈希表编码 */
+    public static final String ENCODING_HASHTABLE = "hashtable";
+
+    /** 整数集合编码的存储；为null时使用哈希表编码 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private IntSet intSet;
+
+    /** 哈希表编码的存储，只由命令线程访问，值统一为{@link #PRESENT}；整数集合编码时为null */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private LeanDict<RedisBytes, Object> setCore;
     
     /** 关联的Redis键名 */
     private RedisBytes key;
 
+    /** 所属的快照纪元，参见{@link #detach(long)} */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long snapshotEpoch;
+
+    /** 数据库记账的内存大小，参见{@link RedisData#getAccountedMemory()} */
+    private long accountedMemory;
+
+    /** 打包的访问元数据：LRU时钟和LFU计数器，参见{@link RedisData#getAccess()} */
+    private int access;
+
     /**
      * 默认构造函数
      * 
-     * <p>初始化一个空的Redis集合实例。
+     * <p>初始化一个空的Redis集合实例，使用整数集合编码。
      */
     public RedisSet() {
-        this.setCore = new Dict<>();
+        this.intSet = new IntSet();
+    }
+
+    /**
+     * 从持久化的整数集合恢复
+     *
+     * <p>加载时的阈值可能比保存时小，超过当前阈值时立即转换为哈希表编码。
+     *
+     * @param intSet 整数集合
+     * @return 集合实例
+     */
+    public static RedisSet fromIntSet(final IntSet intSet) {
+        final RedisSet redisSet = new RedisSet();
+        redisSet.intSet = intSet;
+        if (intSet.size() > EncodingConfig.getSetMaxIntsetEntries()) {
+            redisSet.convertToHashtable();
+        }
+        return redisSet;
+    }
+
+    @Override
+    public RedisData detach(final long epoch) {
+        if (snapshotEpoch == epoch) {
+            return this;
+        }
+        final RedisSet copy = new RedisSet();
+        if (intSet != null) {
+            copy.intSet = intSet.copy();
+        } else {
+            copy.intSet = null;
+            copy.setCore = setCore.copy();
+        }
+        copy.key = key;
+        copy.timeout = timeout;
+        copy.snapshotEpoch = epoch;
+        copy.accountedMemory = accountedMemory;
+        copy.access = access;
+        return copy;
+    }
+
+    @Override
+    public long memoryUsage() {
+        if (intSet != null) {
+            return MemoryUsage.VALUE_OBJECT + MemoryUsage.OBJECT_HEADER + MemoryUsage.ARRAY_HEADER
+                    + (long) intSet.size() * intSet.width();
+        }
+        return MemoryUsage.VALUE_OBJECT + MemoryUsage.ofDict(setCore.size(), setCore.capacity(),
+                setCore.keyIterator(), MemoryUsage::of);
     }
 
     /**
@@ -84,7 +168,7 @@ public class RedisSet implements RedisData {
     @Override
     public List<Resp> convertToResp() {
         List<Resp> result = new ArrayList<>();
-        if (setCore.size() == 0) {
+        if (size() == 0) {
             return Collections.emptyList();
         }
         
@@ -94,8 +178,9 @@ public class RedisSet implements RedisData {
         saddCommand.add(new BulkString(key.getBytesUnsafe()));
         
         // 将所有成员添加到单个SADD命令中
-        for (RedisBytes member : setCore.keySet()) {
-            saddCommand.add(new BulkString(member.getBytesUnsafe()));
+        final Iterator<RedisBytes> iterator = memberIterator();
+        while (iterator.hasNext()) {
+            saddCommand.add(new BulkString(iterator.next().getBytesUnsafe()));
         }
         
         result.add(new RespArray(saddCommand.toArray(new Resp[0])));
@@ -105,6 +190,9 @@ public class RedisSet implements RedisData {
     /** 用于标记集合中元素存在的常量值 */
     private static final Object PRESENT = new Object();
 
+    /** 允许重复的随机读取时结果列表的初始容量上限 */
+    private static final int RANDOM_MEMBERS_INITIAL_CAPACITY = 64;
+
     /**
      * 向集合添加一个或多个成员
      * 
@@ -114,7 +202,21 @@ public class RedisSet implements RedisData {
     public int add(List<RedisBytes> members) {
         int count = 0;
         for (RedisBytes member : members) {
-            // 先检查是否存在，再决定是否添加
+            // 1. 整数集合编码：整数成员直接插入，超过阈值或遇到非整数成员时转换
+            if (intSet != null) {
+                final byte[] bytes = member.getBytesUnsafe();
+                if (IntSet.isLong(bytes)) {
+                    if (intSet.add(IntSet.toLong(bytes))) {
+                        count++;
+                        if (intSet.size() > EncodingConfig.getSetMaxIntsetEntries()) {
+                            convertToHashtable();
+                        }
+                    }
+                    continue;
+                }
+                convertToHashtable();
+            }
+            // 2. 哈希表编码：先检查是否存在，再决定是否添加
             if (!setCore.containsKey(member)) {
                 setCore.put(member, PRESENT);
                 count++;
@@ -128,6 +230,10 @@ public class RedisSet implements RedisData {
      * @return 如果成员存在并被移除返回1，否则返回0
      */
     public int remove(RedisBytes member) {
+        if (intSet != null) {
+            final byte[] bytes = member.getBytesUnsafe();
+            return IntSet.isLong(bytes) && intSet.remove(IntSet.toLong(bytes)) ? 1 : 0;
+        }
         // 使用remove的返回值判断元素是否存在
         // 返回非null表示元素存在并被移除
         Object removedValue = setCore.remove(member);
@@ -137,73 +243,225 @@ public class RedisSet implements RedisData {
      * 
      * <p>从集合中随机选择并移除指定数量的成员。
      * 如果请求的数量超过集合大小，则弹出所有成员。
+     * 哈希表编码下每个成员通过{@link LeanDict#randomKey()}随机选取，不复制集合，期望耗时O(count)；
+     * 整数集合编码下随机选取下标删除。
      * 
      * @param count 要弹出的成员数量
      * @return 被弹出的成员列表，如果集合为空则返回空列表
      */
     public List<RedisBytes> pop(int count) {
-        if (count <= 0) {
+        final int size = (int) size();
+        if (count <= 0 || size == 0) {
             return Collections.emptyList();
         }
 
-        // 1. 获取当前所有键的快照，避免并发修改异常
-        Set<RedisBytes> keySet = setCore.keySet();
-        RedisBytes[] keys = keySet.toArray(new RedisBytes[0]);
-        
-        if (keys.length == 0) {
-            return Collections.emptyList();
+        // 1. 弹出全部成员时直接遍历后清空，无需逐个随机
+        if (count >= size) {
+            List<RedisBytes> all = new ArrayList<>(size);
+            Iterator<RedisBytes> iterator = memberIterator();
+            while (iterator.hasNext()) {
+                all.add(iterator.next());
+            }
+            if (intSet != null) {
+                intSet.clear();
+            } else {
+                setCore.clear();
+            }
+            return all;
         }
 
-        // 2. 限制弹出数量不超过实际元素数量
-        count = Math.min(count, keys.length);
+        // 2. 逐个随机选取并移除
         List<RedisBytes> poppedElements = new ArrayList<>(count);
-
-        Random random = new Random();
-        
-        // 3. 随机弹出元素
-        for (int i = 0; i < count && keys.length > 0; i++) {
-            int randomIndex = random.nextInt(keys.length);
-            RedisBytes member = keys[randomIndex];
-            
-            // 4. 尝试移除元素（可能已被其他操作移除）
-            if (setCore.remove(member) != null) {
-                poppedElements.add(member);
+        if (intSet != null) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < count; i++) {
+                poppedElements.add(toMember(intSet.removeAt(random.nextInt(intSet.size()))));
             }
-            
-            // 5. 从数组中移除已选择的元素，避免重复选择
-            RedisBytes[] newKeys = new RedisBytes[keys.length - 1];
-            System.arraycopy(keys, 0, newKeys, 0, randomIndex);
-            System.arraycopy(keys, randomIndex + 1, newKeys, randomIndex, 
-                           keys.length - randomIndex - 1);
-            keys = newKeys;
+            return poppedElements;
+        }
+        for (int i = 0; i < count; i++) {
+            RedisBytes member = setCore.randomKey();
+            setCore.remove(member);
+            poppedElements.add(member);
         }
-        
         return poppedElements;
     }
 
+    /**
+     * 随机返回集合成员，不修改集合
+     * 
+     * <p>语义与SRANDMEMBER一致：
+     * <ul>
+     *     <li>count为正数时返回最多count个互不相同的成员</li>
+     *     <li>count为负数时返回|count|个成员，允许重复</li>
+     * </ul>
+     * 
+     * @param count 成员数量
+     * @return 随机成员列表，集合为空或count为0时返回空列表
+     */
+    public List<RedisBytes> randomMembers(long count) {
+        int size = (int) size();
+        if (count == 0 || size == 0) {
+            return Collections.emptyList();
+        }
+
+        // 1. 允许重复：每次独立随机
+        if (count < 0) {
+            int total = (int) Math.min(-count, Integer.MAX_VALUE - 8);
+            // count由客户端指定，不按它预分配，列表随结果增长
+            List<RedisBytes> result = new ArrayList<>(Math.min(total, RANDOM_MEMBERS_INITIAL_CAPACITY));
+            for (int i = 0; i < total; i++) {
+                result.add(randomMember());
+            }
+            return result;
+        }
+
+        // 2. 数量不小于集合大小：返回全部成员
+        if (count >= size) {
+            return new ArrayList<>(Arrays.asList(getAll()));
+        }
+
+        int n = (int) count;
+        List<RedisBytes> result = new ArrayList<>(n);
+        // 3. 数量接近集合大小时随机选取重复率高，改用蓄水池抽样遍历一次
+        if ((long) n * 3 > size) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Iterator<RedisBytes> iterator = memberIterator();
+            int seen = 0;
+            while (iterator.hasNext()) {
+                RedisBytes member = iterator.next();
+                if (seen < n) {
+                    result.add(member);
+                } else {
+                    int slot = random.nextInt(seen + 1);
+                    if (slot < n) {
+                        result.set(slot, member);
+                    }
+                }
+                seen++;
+            }
+            return result;
+        }
+
+        // 4. 数量远小于集合大小：随机选取并去重
+        Set<RedisBytes> picked = new HashSet<>(n * 2);
+        while (result.size() < n) {
+            RedisBytes member = randomMember();
+            if (picked.add(member)) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
     /**
      * 获取集合大小
      * 
      * @return 集合中成员的数量
      */
     public long size() {
-        return setCore.size();
+        return intSet != null ? intSet.size() : setCore.size();
+    }
+
+    /**
+     * 检查成员是否存在
+     * 
+     * <p>整数集合编码下使用二分查找。
+     * 
+     * @param member 成员
+     * @return 是否存在
+     */
+    public boolean contains(RedisBytes member) {
+        if (intSet != null) {
+            final byte[] bytes = member.getBytesUnsafe();
+            return IntSet.isLong(bytes) && intSet.contains(IntSet.toLong(bytes));
+        }
+        return setCore.containsKey(member);
+    }
+
+    /**
+     * 获取当前编码名称
+     * 
+     * @return {@link #ENCODING_INTSET}或{@link #ENCODING_HASHTABLE}
+     */
+    public String getEncoding() {
+        return intSet != null ? ENCODING_INTSET : ENCODING_HASHTABLE;
+    }
+
+    /**
+     * 获取整数集合编码的存储，用于持久化
+     * 
+     * @return 整数集合，哈希表编码时返回null
+     */
+    public IntSet getIntSet() {
+        return intSet;
     }
 
     /**
      * 获取集合中的所有成员
      * 
-     * <p>使用动态数组来避免并发读写时的TOCTOU问题。
-     * 在持久化等场景下，可能会有后台线程读取数据的同时，
-     * 主线程在修改数据结构。
+     * <p>直接从底层存储惰性遍历填充结果，不再经过中间的HashSet。
+     * 只需要遍历时请使用{@link #memberIterator()}。
      * 
      * @return 包含所有成员的数组
      */
     public RedisBytes[] getAll() {
-        // 1. 使用动态列表收集所有键
-        Set<RedisBytes> keySet = setCore.keySet();
-        
-        // 2. 直接使用keySet的toArray方法，这是线程安全的快照
-        return keySet.toArray(new RedisBytes[0]);
+        // 1. 按当前大小预分配，遍历时大小可能变化，使用动态列表兜底
+        List<RedisBytes> members = new ArrayList<>((int) size());
+        Iterator<RedisBytes> iterator = memberIterator();
+        while (iterator.hasNext()) {
+            members.add(iterator.next());
+        }
+        return members.toArray(new RedisBytes[0]);
+    }
+
+    /**
+     * 惰性遍历集合成员，不复制数据
+     * 
+     * <p>遍历期间不能修改集合。整数集合编码下按升序返回，每个成员转换为新的字节串。
+     * 
+     * @return 成员迭代器
+     */
+    public Iterator<RedisBytes> memberIterator() {
+        if (intSet == null) {
+            return setCore.keyIterator();
+        }
+        final IntSet values = intSet;
+        return new Iterator<RedisBytes>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < values.size();
+            }
+
+            @Override
+            public RedisBytes next() {
+                if (index >= values.size()) {
+                    throw new NoSuchElementException();
+                }
+                return toMember(values.get(index++));
+            }
+        };
+    }
+
+    private RedisBytes randomMember() {
+        return intSet != null ? toMember(intSet.random()) : setCore.randomKey();
+    }
+
+    private static RedisBytes toMember(final long value) {
+        return RedisBytes.fromLong(value);
+    }
+
+    /**
+     * 把整数集合编码转换为哈希表编码，转换后不再转换回去
+     */
+    private void convertToHashtable() {
+        final LeanDict<RedisBytes, Object> converted = new LeanDict<>();
+        for (int i = 0; i < intSet.size(); i++) {
+            converted.put(toMember(intSet.get(i)), PRESENT);
+        }
+        setCore = converted;
+        intSet = null;
     }
 }
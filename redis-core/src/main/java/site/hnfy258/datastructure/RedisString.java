@@ -1,13 +1,16 @@
 package site.hnfy258.datastructure;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import site.hnfy258.internal.IntSet;
 import site.hnfy258.internal.Sds;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -22,11 +25,19 @@ import java.util.List;
  * <p>主要功能包括：
  * <ul>
  *     <li>字符串的存储和获取</li>
- *     <li>数值的递增操作（INCR）</li>
+ *     <li>数值的递增操作（INCR/INCRBY/INCRBYFLOAT）</li>
  *     <li>过期时间管理</li>
  *     <li>支持Redis协议的序列化转换</li>
  *     <li>内存优化的缓存机制</li>
  * </ul>
+ *
+ * <p>编码方式：
+ * <ul>
+ *     <li>int - 值是规范的十进制整数时只保存一个long，读取时才渲染为字节并缓存，
+ *     [0, {@link RedisBytes#SHARED_INTEGERS})内的值直接使用共享实例</li>
+ *     <li>raw - 其他值保存在SDS中；通过{@link #getSds()}取出SDS的调用方可能原地修改，
+ *     因此整数编码在此时转换为raw编码</li>
+ * </ul>
  * 
  * @author hnfy258
  * @since 1.0.0
@@ -35,18 +46,47 @@ import java.util.List;
 @Getter
 public class RedisString implements RedisData, Serializable {
 
+    /** 编码名称：整数编码 */
+    public static final String ENCODING_INT = "int";
+
+    /** 编码名称：SDS编码 */
+    public static final String ENCODING_RAW = "raw";
+
     /** 数据过期时间，-1表示永不过期 */
     private volatile long timeout;
     
-    /** 底层SDS字符串存储结构 */
+    /** 底层SDS字符串存储结构，整数编码时为null */
+    @Setter(AccessLevel.NONE)
     private Sds value;
+
+    /** 整数编码时的值 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long longValue;
+
+    /** 是否为整数编码 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean intEncoded;
     
     /** 关联的Redis键名 */
     private RedisBytes key;
     
     /** 缓存的RedisBytes值，避免重复转换 */
+    @Setter(AccessLevel.NONE)
     private RedisBytes cachedValue;
 
+    /** 所属的快照纪元，参见{@link #detach(long)} */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long snapshotEpoch;
+
+    /** 数据库记账的内存大小，参见{@link RedisData#getAccountedMemory()} */
+    private long accountedMemory;
+
+    /** 打包的访问元数据：LRU时钟和LFU计数器，参见{@link RedisData#getAccess()} */
+    private int access;
+
     /**
      * 构造函数
      * 
@@ -58,6 +98,61 @@ public class RedisString implements RedisData, Serializable {
         this.cachedValue = null;
     }
 
+    /**
+     * 创建整数编码的字符串
+     *
+     * @param value 整数值
+     * @return RedisString实例
+     */
+    public static RedisString fromLong(final long value) {
+        final RedisString redisString = new RedisString(null);
+        redisString.setLong(value);
+        return redisString;
+    }
+
+    /**
+     * 按内容选择编码创建字符串，规范的十进制整数使用整数编码
+     *
+     * @param bytes 字符串内容
+     * @return RedisString实例
+     */
+    public static RedisString fromBytes(final byte[] bytes) {
+        if (IntSet.isLong(bytes)) {
+            return fromLong(IntSet.toLong(bytes));
+        }
+        return new RedisString(Sds.create(bytes));
+    }
+
+    /**
+     * 快照期间分离副本，APPEND等命令会原地修改SDS，因此复制SDS
+     */
+    @Override
+    public RedisData detach(final long epoch) {
+        if (snapshotEpoch == epoch) {
+            return this;
+        }
+        final RedisString copy = new RedisString(value != null ? value.duplicate() : null);
+        copy.longValue = longValue;
+        copy.intEncoded = intEncoded;
+        copy.key = key;
+        copy.timeout = timeout;
+        copy.snapshotEpoch = epoch;
+        copy.accountedMemory = accountedMemory;
+        copy.access = access;
+        return copy;
+    }
+
+    /**
+     * 整数编码只有对象本身，SDS编码按已分配的容量计算
+     */
+    @Override
+    public long memoryUsage() {
+        if (intEncoded || value == null) {
+            return MemoryUsage.VALUE_OBJECT;
+        }
+        return MemoryUsage.VALUE_OBJECT + MemoryUsage.OBJECT_HEADER + 8
+                + MemoryUsage.ARRAY_HEADER + value.alloc();
+    }
 
     /**
      * 获取数据过期时间
@@ -89,27 +184,37 @@ public class RedisString implements RedisData, Serializable {
      */
     @Override
     public List<Resp> convertToResp() {
-        if (value == null) {
+        if (value == null && !intEncoded) {
             return Collections.emptyList();
         }        
         List<Resp> setCommand = new ArrayList<>();
         setCommand.add(BulkString.SET);  // 使用预分配的常量
         setCommand.add(BulkString.wrapTrusted(key.getBytesUnsafe()));
-        setCommand.add(BulkString.wrapTrusted(value.getBytes()));
+        setCommand.add(BulkString.wrapTrusted(getValue().getBytesUnsafe()));
         
         return Collections.singletonList(new RespArray(setCommand.toArray(new Resp[0])));
     }
 
+    /**
+     * 获取当前编码
+     *
+     * @return {@link #ENCODING_INT}或{@link #ENCODING_RAW}
+     */
+    public String getEncoding() {
+        return intEncoded ? ENCODING_INT : ENCODING_RAW;
+    }
+
     /**
      * 获取字符串值的RedisBytes表示
      * 
      * <p>使用缓存机制避免重复转换，提高性能。
+     * 整数编码的小整数直接返回共享实例。
      * 
      * @return 字符串的RedisBytes表示
      */
     public  RedisBytes getValue() {
         if (cachedValue == null) {
-            cachedValue = new RedisBytes(value.getBytes());
+            cachedValue = intEncoded ? RedisBytes.fromLong(longValue) : new RedisBytes(value.getBytes());
         }
         return cachedValue;
     }
@@ -118,10 +223,16 @@ public class RedisString implements RedisData, Serializable {
      * 获取内部SDS对象的直接引用
      * 
      * <p>用于高效的字符串操作如append、length等。
+     * 调用方可能原地修改SDS，整数编码会先转换为raw编码。
      * 
      * @return SDS对象引用
      */
     public  Sds getSds() {
+        if (intEncoded) {
+            value = Sds.create(getValue().getBytesUnsafe());
+            intEncoded = false;
+            cachedValue = null;
+        }
         return value;
     }
 
@@ -132,34 +243,136 @@ public class RedisString implements RedisData, Serializable {
      */
     public  void setSds(Sds sds) {
         this.value = sds;
+        this.intEncoded = false;
         this.cachedValue = null;
     }
 
+    /**
+     * 字符串的字节长度，整数编码时不会转换编码
+     *
+     * @return 字节长度
+     */
+    public int length() {
+        if (intEncoded) {
+            return getValue().length();
+        }
+        return value == null ? 0 : value.length();
+    }
+
     /**
      * 对字符串值执行递增操作
      * 
      * <p>将字符串解析为整数并加1，如果字符串不是有效的整数则抛出异常。
+     * 到达Long.MAX_VALUE后回绕，需要溢出检查时使用{@link #incrBy(long)}。
      * 
      * @return 递增后的新值
      * @throws IllegalStateException 如果字符串不是有效的数字
      */
     public  long incr() {
-        try {
-            // 1. 解析当前值为长整型
-            long cur = Long.parseLong(value.toString());
-            
-            // 2. 执行递增操作
-            long newValue = cur + 1;
-            
-            // 3. 更新内部值并清除缓存
-            value = Sds.create(String.valueOf(newValue).getBytes());
-            cachedValue = null;
-            
-            return newValue;
-        } catch (NumberFormatException e) {
+        final long newValue = toLong() + 1;
+        setLong(newValue);
+        return newValue;
+    }
+
+    /**
+     * 对字符串值执行带溢出检查的整数加法
+     *
+     * @param increment 增量，可以为负数
+     * @return 计算后的新值
+     * @throws IllegalStateException 如果字符串不是有效的整数
+     * @throws ArithmeticException 如果结果超出long范围
+     */
+    public long incrBy(final long increment) {
+        final long newValue = Math.addExact(toLong(), increment);
+        setLong(newValue);
+        return newValue;
+    }
+
+    /**
+     * 对字符串值执行浮点加法
+     *
+     * <p>结果按最短的十进制形式保存，去掉多余的0；结果恰好是整数时使用整数编码。
+     *
+     * @param increment 增量
+     * @return 计算后的值的字节表示
+     * @throws IllegalStateException 如果字符串不是有效的浮点数
+     * @throws ArithmeticException 如果结果是NaN或无穷大
+     */
+    public RedisBytes incrByFloat(final double increment) {
+        // 1. 解析当前值
+        final double current = intEncoded ? longValue : parseDouble(value);
+
+        // 2. 计算并检查结果
+        final double result = current + increment;
+        if (Double.isNaN(result) || Double.isInfinite(result)) {
+            throw new ArithmeticException("increment would produce NaN or Infinity");
+        }
+
+        // 3. 按规范形式保存
+        final byte[] bytes = BigDecimal.valueOf(result).stripTrailingZeros().toPlainString()
+                .getBytes(RedisBytes.CHARSET);
+        if (IntSet.isLong(bytes)) {
+            setLong(IntSet.toLong(bytes));
+        } else {
+            setSds(Sds.create(bytes));
+        }
+        return getValue();
+    }
+
+    /**
+     * 读取当前的整数值，整数编码时不做任何解析
+     *
+     * @return 整数值
+     * @throws IllegalStateException 如果字符串不是有效的整数
+     */
+    public long toLong() {
+        if (intEncoded) {
+            return longValue;
+        }
+        if (value == null) {
             throw new IllegalStateException("value is not a number");
         }
+        final byte[] bytes = value.getBytes();
+        if (!IntSet.isLong(bytes)) {
+            throw new IllegalStateException("value is not a number");
+        }
+        return IntSet.toLong(bytes);
     }
 
+    /**
+     * 设置为整数值，切换为整数编码
+     *
+     * @param newValue 新的整数值
+     */
+    public void setLong(final long newValue) {
+        this.longValue = newValue;
+        this.intEncoded = true;
+        this.value = null;
+        this.cachedValue = null;
+    }
 
+    /**
+     * 把SDS解析为浮点数，只接受数字、符号、小数点和指数
+     */
+    private static double parseDouble(final Sds sds) {
+        if (sds == null || sds.length() == 0) {
+            throw new IllegalStateException("value is not a valid float");
+        }
+        final String text = sds.toString();
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.' && c != 'e' && c != 'E') {
+                throw new IllegalStateException("value is not a valid float");
+            }
+        }
+        try {
+            final double result = Double.parseDouble(text);
+            if (Double.isNaN(result) || Double.isInfinite(result)) {
+                throw new IllegalStateException("value is not a valid float");
+            }
+            return result;
+        } catch (final NumberFormatException e) {
+            throw new IllegalStateException("value is not a valid float");
+        }
+    }
 }
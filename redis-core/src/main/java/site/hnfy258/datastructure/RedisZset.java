@@ -1,105 +1,239 @@
 package site.hnfy258.datastructure;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import site.hnfy258.internal.Dict;
+import site.hnfy258.internal.LeanDict;
 import site.hnfy258.internal.SkipList;
+import site.hnfy258.internal.SortedPack;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
 
 import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.ObjDoubleConsumer;
 
 /**
  * Redis有序集合数据结构实现类
- * 
+ *
  * <p>实现了Redis的Sorted Set数据类型，提供高效的有序集合操作功能。
- * 使用双重数据结构实现O(1)的成员查找和O(log N)的有序范围查询：
+ * 成员始终以字节串保存，分数以基本类型double保存，根据大小在两种编码之间自动选择：
  * <ul>
- *     <li>memberDict: 成员到分数的映射，支持O(1)查找</li>
- *     <li>skipList: 分数有序的跳表结构，支持范围查询</li>
+ *     <li>listpack - 成员数不超过zset-max-listpack-entries且每个成员不超过zset-max-listpack-value字节时，
+ *     使用{@link SortedPack}按顺序紧凑存放，新建的有序集合默认使用此编码</li>
+ *     <li>skiplist - 超过阈值后转换为跳表加成员表，不会转换回去：
+ *     <ul>
+ *         <li>skipList: 按(分数, 成员)有序的跳表，节点直接持有成员和分数，支持O(log N)的范围查询</li>
+ *         <li>memberDict: 成员到跳表节点的映射，O(1)查找分数，不再单独保存装箱的分数</li>
+ *     </ul>
+ *     </li>
  * </ul>
- * 
+ * 分数相同时按成员的无符号字节字典序排序。阈值见{@link EncodingConfig}。
+ *
  * <p>主要功能包括：
  * <ul>
  *     <li>按分数排序的成员管理（ZADD/ZREM）</li>
- *     <li>按排名和分数范围的查询（ZRANGE/ZRANGEBYSCORE）</li>
- *     <li>成员分数的获取和更新</li>
+ *     <li>按排名和分数范围的正反向查询和删除，跳表编码下利用跨度和后向指针定位，
+ *     逐个回调结果而不生成中间列表</li>
+ *     <li>成员排名、分数的获取和更新</li>
  *     <li>支持Redis协议的序列化转换</li>
  * </ul>
- * 
+ *
  * @author hnfy258
  * @since 1.0.0
  */
 @Setter
 @Getter
 public class RedisZset implements RedisData, Serializable {
-    
+
+    /** 编码名称：紧凑编码 */
+    public static final String ENCODING_LISTPACK = "listpack";
+
+    /** 编码名称：跳表编码 */
+    public static final String ENCODING_SKIPLIST = "skiplist";
+
     /**
-     * Zset节点，包含分数和成员信息，实现Comparable接口以支持跳表排序
+     * 查询结果中的成员和分数
      */
-    public static class ZsetNode implements Comparable<ZsetNode> {
+    public static class ZsetNode {
         private final double score;
-        private final String member;
-        
-        public ZsetNode(final double score, final String member) {
+        private final RedisBytes member;
+
+        public ZsetNode(final double score, final RedisBytes member) {
             this.score = score;
             this.member = member;
         }
-        
+
         public double getScore() {
             return score;
         }
-        
+
         public String getMember() {
+            return member.getString();
+        }
+
+        public RedisBytes getMemberBytes() {
             return member;
         }
-        
+
         @Override
         public boolean equals(final Object obj) {
             if (this == obj) return true;
             if (obj == null || getClass() != obj.getClass()) return false;
             ZsetNode zsetNode = (ZsetNode) obj;
-            return Double.compare(zsetNode.score, score) == 0 && 
+            return Double.compare(zsetNode.score, score) == 0 &&
                    Objects.equals(member, zsetNode.member);
         }
-        
+
         @Override
         public int hashCode() {
             return Objects.hash(score, member);
         }
+    }
 
-        @Override
-        public int compareTo(ZsetNode other) {
-            // 首先按分数排序
-            int scoreCompare = Double.compare(this.score, other.score);
-            if (scoreCompare != 0) {
-                return scoreCompare;
+    /**
+     * 分数范围，上下界可以分别设置为开区间
+     */
+    public static final class ScoreRange {
+        private final double min;
+        private final boolean minExclusive;
+        private final double max;
+        private final boolean maxExclusive;
+
+        public ScoreRange(final double min, final boolean minExclusive,
+                          final double max, final boolean maxExclusive) {
+            this.min = min;
+            this.minExclusive = minExclusive;
+            this.max = max;
+            this.maxExclusive = maxExclusive;
+        }
+
+        /**
+         * 解析命令中的分数范围
+         *
+         * <p>以"("开头表示开区间，支持"-inf"和"+inf"。
+         *
+         * @param min 下界参数
+         * @param max 上界参数
+         * @return 分数范围
+         * @throws IllegalArgumentException 如果任一参数不是有效的分数
+         */
+        public static ScoreRange parse(final String min, final String max) {
+            try {
+                final boolean minExclusive = min.startsWith("(");
+                final boolean maxExclusive = max.startsWith("(");
+                return new ScoreRange(parseScore(minExclusive ? min.substring(1) : min), minExclusive,
+                        parseScore(maxExclusive ? max.substring(1) : max), maxExclusive);
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException("min or max is not a float");
             }
-            // 分数相同时按成员字典序排序
-            return this.member.compareTo(other.member);
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public boolean isMinExclusive() {
+            return minExclusive;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public boolean isMaxExclusive() {
+            return maxExclusive;
+        }
+
+        public boolean isAboveMin(final double score) {
+            return minExclusive ? score > min : score >= min;
+        }
+
+        public boolean isBelowMax(final double score) {
+            return maxExclusive ? score < max : score <= max;
         }
     }
-    
+
+    /** 跳表节点的估算大小，包含前向指针数组 */
+    private static final int SKIPLIST_NODE = 64;
+
     /** 数据过期时间，-1表示永不过期 */
     private volatile long timeout = -1;
-    
-    /** 成员到分数的映射，支持O(1)查找成员是否存在及其分数 */
-    private Dict<String, Double> memberDict;
-    
-    /** 分数有序的跳表结构，支持范围查询和排序 */
-    private SkipList<ZsetNode> skipList;
-    
+
+    /** 紧凑编码的存储；为null时使用跳表编码 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private SortedPack pack;
+
+    /** 成员到跳表节点的映射，跳表编码时使用 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private LeanDict<RedisBytes, SkipList.SkipListNode<RedisBytes>> memberDict;
+
+    /** 按(分数, 成员)有序的跳表，跳表编码时使用 */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private SkipList<RedisBytes> skipList;
+
     /** 关联的Redis键名 */
     private RedisBytes key;
-    
+
+    /** 所属的快照纪元，参见{@link #detach(long)} */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long snapshotEpoch;
+
+    /** 数据库记账的内存大小，参见{@link RedisData#getAccountedMemory()} */
+    private long accountedMemory;
+
+    /** 打包的访问元数据：LRU时钟和LFU计数器，参见{@link RedisData#getAccess()} */
+    private int access;
+
     public RedisZset() {
-        memberDict = new Dict<>();
-        skipList = new SkipList<>();
+        pack = new SortedPack();
     }
-    
+
+    /**
+     * 快照期间分离副本，紧凑编码直接复制，跳表编码按顺序重新插入
+     */
+    @Override
+    public RedisData detach(final long epoch) {
+        if (snapshotEpoch == epoch) {
+            return this;
+        }
+        final RedisZset copy = new RedisZset();
+        if (pack != null) {
+            copy.pack = pack.copy();
+        } else {
+            copy.pack = null;
+            copy.memberDict = new LeanDict<>();
+            copy.skipList = new SkipList<>();
+            for (SkipList.SkipListNode<RedisBytes> node = skipList.getFirst(); node != null; node = node.next()) {
+                copy.memberDict.put(node.member, copy.skipList.insert(node.score, node.member));
+            }
+        }
+        copy.key = key;
+        copy.timeout = timeout;
+        copy.snapshotEpoch = epoch;
+        copy.accountedMemory = accountedMemory;
+        copy.access = access;
+        return copy;
+    }
+
+    /**
+     * 跳表编码在哈希表之外每个成员还有一个跳表节点，按平均层数估算为{@value #SKIPLIST_NODE}字节
+     */
+    @Override
+    public long memoryUsage() {
+        if (pack != null) {
+            return MemoryUsage.VALUE_OBJECT + MemoryUsage.OBJECT_HEADER + MemoryUsage.ARRAY_HEADER
+                    + pack.bytes();
+        }
+        return MemoryUsage.VALUE_OBJECT + MemoryUsage.ofDict(memberDict.size(), memberDict.capacity(),
+                memberDict.keyIterator(), member -> MemoryUsage.of(member) + SKIPLIST_NODE);
+    }
+
     @Override
     public long timeout() {
         return timeout;
@@ -112,158 +246,506 @@ public class RedisZset implements RedisData, Serializable {
 
     @Override
     public List<Resp> convertToResp() {
-        final List<Resp> result = new ArrayList<>();
-        if (memberDict.size() == 0) {
+        if (size() == 0) {
             return Collections.emptyList();
         }
-        
-        // 遍历所有成员，生成ZADD命令
-        for (final Map.Entry<Object, Object> entry : memberDict.entrySet()) {
-            if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof Double)) {
-                continue;
-            }
-            
-            final String member = (String) entry.getKey();
-            final Double score = (Double) entry.getValue();
-            
-            final List<Resp> zaddCommand = new ArrayList<>();
-            zaddCommand.add(new BulkString(RedisBytes.fromString("ZADD")));
-            zaddCommand.add(new BulkString(key.getBytesUnsafe()));
-            zaddCommand.add(new BulkString(RedisBytes.fromString(score.toString())));
-            zaddCommand.add(new BulkString(RedisBytes.fromString(member)));
-            
-            result.add(new RespArray(zaddCommand.toArray(new Resp[0])));
+        final List<Resp> result = new ArrayList<>((int) size());
+
+        // 按顺序惰性遍历所有成员，生成ZADD命令
+        final Iterator<ZsetNode> iterator = iterator();
+        while (iterator.hasNext()) {
+            final ZsetNode node = iterator.next();
+            final Resp[] zaddCommand = new Resp[4];
+            zaddCommand[0] = new BulkString(RedisBytes.fromString("ZADD"));
+            zaddCommand[1] = new BulkString(key.getBytesUnsafe());
+            zaddCommand[2] = new BulkString(RedisBytes.fromString(Double.toString(node.getScore())));
+            zaddCommand[3] = new BulkString(node.getMemberBytes());
+            result.add(new RespArray(zaddCommand));
         }
         return result;
     }
 
-    
+
     /**
      * 向有序集合添加成员
-     * 
+     *
      * @param score 分数
      * @param member 成员
      * @return 如果是新成员返回true，否则返回false
+     * @throws IllegalArgumentException 如果分数是NaN
      */
     public boolean add(final double score, final Object member) {
-        // 将成员转换为String
-        final String memberStr = convertMemberToString(member);
-        
-        // 检查成员是否已存在
-        final Double existingScore = (Double) memberDict.get(memberStr);
-        if (existingScore != null) {
-            // 如果分数相同，不需要更新
-            if (Double.compare(existingScore, score) == 0) {
+        if (Double.isNaN(score)) {
+            throw new IllegalArgumentException("分数不能是NaN");
+        }
+        final RedisBytes memberBytes = toRedisBytes(member);
+
+        // 1. 紧凑编码：已存在的成员先删除再按新分数插入
+        if (pack != null) {
+            final byte[] raw = memberBytes.getBytesUnsafe();
+            final int index = pack.indexOf(raw);
+            if (index >= 0) {
+                if (Double.compare(pack.score(index), score) == 0) {
+                    return false;
+                }
+                pack.removeAt(index);
+                pack.insert(score, raw);
                 return false;
             }
-            // 移除旧的分数映射
-            skipList.delete(existingScore, new ZsetNode(existingScore, memberStr));
-        }
-        
-        // 添加新的映射
-        memberDict.put(memberStr, score);
-        skipList.insert(score, new ZsetNode(score, memberStr));
-        
-        return existingScore == null;
+            if (pack.size() < EncodingConfig.getZsetMaxListpackEntries()
+                    && raw.length <= EncodingConfig.getZsetMaxListpackValue()) {
+                pack.insert(score, raw);
+                return true;
+            }
+            convertToSkipList();
+        }
+
+        // 2. 跳表编码：成员表直接指向跳表节点，更新分数时不再分配查询对象
+        final SkipList.SkipListNode<RedisBytes> existing = memberDict.get(memberBytes);
+        if (existing != null) {
+            if (Double.compare(existing.score, score) == 0) {
+                return false;
+            }
+            skipList.delete(existing.score, existing.member);
+            memberDict.put(existing.member, skipList.insert(score, existing.member));
+            return false;
+        }
+        memberDict.put(memberBytes, skipList.insert(score, memberBytes));
+        return true;
+    }
+
+    /**
+     * 解析命令中的分数，支持"-inf"、"+inf"和"inf"
+     *
+     * @param value 分数参数
+     * @return 分数
+     * @throws IllegalArgumentException 如果不是有效的分数或是NaN
+     */
+    public static double parseScore(final String value) {
+        if ("+inf".equalsIgnoreCase(value) || "inf".equalsIgnoreCase(value)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if ("-inf".equalsIgnoreCase(value)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        try {
+            final double score = Double.parseDouble(value);
+            if (!Double.isNaN(score)) {
+                return score;
+            }
+        } catch (final NumberFormatException e) {
+            // 统一在下面抛出
+        }
+        throw new IllegalArgumentException("value is not a valid float");
+    }
+
+    /**
+     * 增加成员的分数，成员不存在时以增量作为分数添加
+     *
+     * @param increment 增量
+     * @param member 成员
+     * @return 新分数
+     * @throws IllegalArgumentException 如果结果是NaN
+     */
+    public double incrementScore(final double increment, final Object member) {
+        final RedisBytes memberBytes = toRedisBytes(member);
+        final Double current = getScore(memberBytes);
+        final double score = current == null ? increment : current + increment;
+        if (Double.isNaN(score)) {
+            throw new IllegalArgumentException("resulting score is not a number (NaN)");
+        }
+        add(score, memberBytes);
+        return score;
     }
-    
+
     /**
-     * 将成员对象转换为字符串
+     * 将成员对象转换为字节串
      */
-    private String convertMemberToString(final Object member) {
+    private static RedisBytes toRedisBytes(final Object member) {
         if (member instanceof RedisBytes) {
-            return ((RedisBytes) member).getString();
+            return (RedisBytes) member;
         }
-        return member.toString();
+        return RedisBytes.fromString(member.toString());
     }
-    
+
     /**
      * 根据排名范围获取元素
-     * 
+     *
      * @param start 开始位置（从0开始）
      * @param stop 结束位置
      * @return 节点列表
      */
     public List<ZsetNode> getRange(final int start, final int stop) {
-        return skipList.getElementByRankRange(start, stop)
-                      .stream()
-                      .map(node -> (ZsetNode)node.member)
-                      .collect(Collectors.toList());
+        if (pack == null) {
+            return toNodes(skipList.getElementByRankRange(start, stop));
+        }
+
+        // 1. 处理负数索引和边界
+        final int size = pack.size();
+        final int actualStart = Math.max(0, start < 0 ? size + start : start);
+        final int actualStop = Math.min(size - 1, stop < 0 ? size + stop : stop);
+        if (actualStart > actualStop) {
+            return new ArrayList<>(0);
+        }
+
+        // 2. 排名就是下标
+        return packRange(actualStart, actualStop + 1);
     }
-    
+
     /**
      * 根据分数范围获取元素
-     * 
+     *
      * @param min 最小分数
      * @param max 最大分数
      * @return 节点列表
      */
     public List<ZsetNode> getRangeByScore(final double min, final double max) {
-        return skipList.getElementByScoreRange(min, max)
-                      .stream()
-                      .map(node -> (ZsetNode)node.member)
-                      .collect(Collectors.toList());
+        if (pack == null) {
+            return toNodes(skipList.getElementByScoreRange(min, max));
+        }
+        return packRange(pack.lowerBound(min, false), pack.upperBound(max, false));
     }
-    
+
+    /**
+     * 获取成员的排名
+     *
+     * <p>跳表编码下沿各层累加跨度计算，O(log N)。
+     *
+     * @param member 成员
+     * @param reverse true表示按分数从高到低排名
+     * @return 从0开始的排名，成员不存在时返回-1
+     */
+    public long rank(final Object member, final boolean reverse) {
+        final RedisBytes memberBytes = toRedisBytes(member);
+        final long rank;
+        if (pack != null) {
+            rank = pack.indexOf(memberBytes.getBytesUnsafe());
+            if (rank < 0) {
+                return -1;
+            }
+        } else {
+            final SkipList.SkipListNode<RedisBytes> node = memberDict.get(memberBytes);
+            if (node == null) {
+                return -1;
+            }
+            rank = skipList.getRank(node.score, node.member) - 1;
+        }
+        return reverse ? size() - 1 - rank : rank;
+    }
+
+    /**
+     * 统计分数在范围内的成员数
+     *
+     * @param range 分数范围
+     * @return 成员数
+     */
+    public long count(final ScoreRange range) {
+        if (pack != null) {
+            return Math.max(0, pack.upperBound(range.max, range.maxExclusive)
+                    - pack.lowerBound(range.min, range.minExclusive));
+        }
+        return skipList.countInRange(range.min, range.minExclusive, range.max, range.maxExclusive);
+    }
+
+    /**
+     * 按排名范围依次访问元素
+     *
+     * <p>跳表编码下按跨度定位到起始节点，正向沿第0层前向指针、反向沿后向指针遍历，
+     * 不生成中间列表。
+     *
+     * @param start 开始排名，负数表示从末尾开始
+     * @param stop 结束排名（包含），负数表示从末尾开始
+     * @param reverse true表示按分数从高到低排名和访问
+     * @param action 接收成员和分数
+     * @return 访问的元素数
+     */
+    public long rangeByRank(final long start, final long stop, final boolean reverse,
+                            final ObjDoubleConsumer<RedisBytes> action) {
+        final long size = size();
+
+        // 1. 处理负数索引和边界
+        final long actualStart = Math.max(0, start < 0 ? size + start : start);
+        final long actualStop = Math.min(size - 1, stop < 0 ? size + stop : stop);
+        if (actualStart > actualStop) {
+            return 0;
+        }
+        final long count = actualStop - actualStart + 1;
+
+        // 2. 紧凑编码：反向排名r对应下标size-1-r
+        if (pack != null) {
+            final int first = (int) (reverse ? size - 1 - actualStop : actualStart);
+            visitPack(first, (int) count, reverse, action);
+            return count;
+        }
+
+        // 3. 跳表编码：定位起始节点后逐个移动
+        return skipList.forEachByRank(actualStart, actualStop, reverse, node -> action.accept(node.member, node.score));
+    }
+
+    /**
+     * 按分数范围依次访问元素
+     *
+     * <p>跳表编码下先定位范围端点，偏移量通过排名直接跳过，不逐个遍历被跳过的节点。
+     *
+     * @param range 分数范围
+     * @param reverse true表示按分数从高到低访问
+     * @param offset 跳过的元素数
+     * @param limit 最多访问的元素数，负数表示不限制
+     * @param action 接收成员和分数
+     * @return 访问的元素数
+     */
+    public long rangeByScore(final ScoreRange range, final boolean reverse, final long offset,
+                             final long limit, final ObjDoubleConsumer<RedisBytes> action) {
+        if (offset < 0 || limit == 0) {
+            return 0;
+        }
+        final long max = limit < 0 ? Long.MAX_VALUE : limit;
+
+        // 1. 紧凑编码：二分得到下标区间后截取
+        if (pack != null) {
+            final int low = pack.lowerBound(range.min, range.minExclusive);
+            final int high = pack.upperBound(range.max, range.maxExclusive);
+            final long count = Math.min(high - low - offset, max);
+            if (count <= 0) {
+                return 0;
+            }
+            final int first = (int) (reverse ? high - offset - count : low + offset);
+            visitPack(first, (int) count, reverse, action);
+            return count;
+        }
+
+        // 2. 跳表编码：定位端点，再按排名跳过偏移量
+        return skipList.forEachByScore(range.min, range.minExclusive, range.max, range.maxExclusive,
+                reverse, offset, limit, node -> action.accept(node.member, node.score));
+    }
+
+    /**
+     * 删除排名范围内的元素
+     *
+     * @param start 开始排名，负数表示从末尾开始
+     * @param stop 结束排名（包含），负数表示从末尾开始
+     * @return 删除的元素数
+     */
+    public long removeRangeByRank(final long start, final long stop) {
+        final long size = size();
+        final long actualStart = Math.max(0, start < 0 ? size + start : start);
+        final long actualStop = Math.min(size - 1, stop < 0 ? size + stop : stop);
+        if (actualStart > actualStop) {
+            return 0;
+        }
+        if (pack != null) {
+            pack.removeRange((int) actualStart, (int) actualStop + 1);
+            return actualStop - actualStart + 1;
+        }
+        return skipList.deleteRangeByRank(actualStart + 1, actualStop + 1, memberDict::remove);
+    }
+
+    /**
+     * 删除分数范围内的元素
+     *
+     * @param range 分数范围
+     * @return 删除的元素数
+     */
+    public long removeRangeByScore(final ScoreRange range) {
+        if (pack != null) {
+            final int low = pack.lowerBound(range.min, range.minExclusive);
+            final int high = pack.upperBound(range.max, range.maxExclusive);
+            if (low >= high) {
+                return 0;
+            }
+            pack.removeRange(low, high);
+            return high - low;
+        }
+        return skipList.deleteRangeByScore(range.min, range.minExclusive, range.max, range.maxExclusive,
+                memberDict::remove);
+    }
+
     /**
      * 获取有序集合的大小
-     * 
+     *
      * @return 元素数量
      */
     public long size() {
-        return memberDict.size();
+        return pack != null ? pack.size() : memberDict.size();
+    }
+
+    /**
+     * 获取当前编码名称
+     *
+     * @return {@link #ENCODING_LISTPACK}或{@link #ENCODING_SKIPLIST}
+     */
+    public String getEncoding() {
+        return pack != null ? ENCODING_LISTPACK : ENCODING_SKIPLIST;
+    }
+
+    /**
+     * 按(分数, 成员)升序惰性遍历所有元素
+     *
+     * <p>遍历期间不能修改有序集合。
+     *
+     * @return 元素迭代器
+     */
+    public Iterator<ZsetNode> iterator() {
+        if (pack != null) {
+            final SortedPack values = pack;
+            final Iterator<byte[]> members = values.members(0, values.size()).iterator();
+            return new Iterator<ZsetNode>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return members.hasNext();
+                }
+
+                @Override
+                public ZsetNode next() {
+                    final byte[] member = members.next();
+                    return new ZsetNode(values.score(index++), RedisBytes.wrapTrusted(member));
+                }
+            };
+        }
+        return new Iterator<ZsetNode>() {
+            private SkipList.SkipListNode<RedisBytes> node = skipList.getFirst();
+
+            @Override
+            public boolean hasNext() {
+                return node != null;
+            }
+
+            @Override
+            public ZsetNode next() {
+                if (node == null) {
+                    throw new NoSuchElementException();
+                }
+                final ZsetNode result = new ZsetNode(node.score, node.member);
+                node = node.next();
+                return result;
+            }
+        };
     }
-    
+
     /**
      * 获取所有元素
-     * 
-     * @return 所有元素的迭代器
+     *
+     * <p>返回惰性视图，成员解码为字符串。持久化等按字节处理的场景应使用{@link #iterator()}。
+     * 遍历期间不能修改有序集合。
+     *
+     * @return 成员到分数的键值对视图
      */
     public Iterable<? extends Map.Entry<String, Double>> getAll() {
-        final Map<String, Double> typedMap = new HashMap<>();
-        for (final Map.Entry<Object, Object> entry : memberDict.entrySet()) {
-            if (entry.getKey() instanceof String && entry.getValue() instanceof Double) {
-                typedMap.put((String) entry.getKey(), (Double) entry.getValue());
-            }
-        }
-        return typedMap.entrySet();
+        return () -> {
+            final Iterator<ZsetNode> iterator = iterator();
+            return new Iterator<Map.Entry<String, Double>>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<String, Double> next() {
+                    final ZsetNode node = iterator.next();
+                    return new AbstractMap.SimpleImmutableEntry<>(node.getMember(), node.getScore());
+                }
+            };
+        };
     }
-    
+
     /**
      * 检查成员是否存在
-     * 
+     *
      * @param member 成员
      * @return 如果存在返回true
      */
     public boolean contains(final Object member) {
-        final String memberStr = convertMemberToString(member);
-        return memberDict.containsKey(memberStr);
+        final RedisBytes memberBytes = toRedisBytes(member);
+        if (pack != null) {
+            return pack.indexOf(memberBytes.getBytesUnsafe()) >= 0;
+        }
+        return memberDict.containsKey(memberBytes);
     }
-    
+
     /**
      * 获取成员的分数
-     * 
+     *
      * @param member 成员
      * @return 分数，如果不存在返回null
      */
     public Double getScore(final Object member) {
-        final String memberStr = convertMemberToString(member);
-        return (Double) memberDict.get(memberStr);
+        final RedisBytes memberBytes = toRedisBytes(member);
+        if (pack != null) {
+            final int index = pack.indexOf(memberBytes.getBytesUnsafe());
+            return index >= 0 ? pack.score(index) : null;
+        }
+        final SkipList.SkipListNode<RedisBytes> node = memberDict.get(memberBytes);
+        return node != null ? node.score : null;
     }
-    
+
     /**
      * 移除成员
-     * 
+     *
      * @param member 成员
      * @return 如果移除成功返回true
      */
     public boolean remove(final Object member) {
-        final String memberStr = convertMemberToString(member);
-        final Double score = (Double) memberDict.remove(memberStr);
-        if (score != null) {
-            skipList.delete(score, new ZsetNode(score, memberStr));
+        final RedisBytes memberBytes = toRedisBytes(member);
+        if (pack != null) {
+            final int index = pack.indexOf(memberBytes.getBytesUnsafe());
+            if (index < 0) {
+                return false;
+            }
+            pack.removeAt(index);
+            return true;
+        }
+        final SkipList.SkipListNode<RedisBytes> node = memberDict.remove(memberBytes);
+        if (node != null) {
+            skipList.delete(node.score, node.member);
             return true;
         }
         return false;
     }
+
+    /**
+     * 访问紧凑编码中下标在[first, first + count)内的元素
+     */
+    private void visitPack(final int first, final int count, final boolean reverse,
+                           final ObjDoubleConsumer<RedisBytes> action) {
+        final List<byte[]> members = pack.members(first, first + count);
+        for (int i = 0; i < count; i++) {
+            final int index = reverse ? count - 1 - i : i;
+            action.accept(RedisBytes.wrapTrusted(members.get(index)), pack.score(first + index));
+        }
+    }
+
+    private List<ZsetNode> packRange(final int start, final int end) {
+        final List<byte[]> members = pack.members(start, end);
+        final List<ZsetNode> result = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            result.add(new ZsetNode(pack.score(start + i), RedisBytes.wrapTrusted(members.get(i))));
+        }
+        return result;
+    }
+
+    private static List<ZsetNode> toNodes(final List<SkipList.SkipListNode<RedisBytes>> nodes) {
+        final List<ZsetNode> result = new ArrayList<>(nodes.size());
+        for (SkipList.SkipListNode<RedisBytes> node : nodes) {
+            result.add(new ZsetNode(node.score, node.member));
+        }
+        return result;
+    }
+
+    /**
+     * 把紧凑编码转换为跳表编码，转换后不再转换回去
+     */
+    private void convertToSkipList() {
+        final LeanDict<RedisBytes, SkipList.SkipListNode<RedisBytes>> dict = new LeanDict<>();
+        final SkipList<RedisBytes> list = new SkipList<>();
+        final List<byte[]> members = pack.members(0, pack.size());
+        for (int i = 0; i < members.size(); i++) {
+            final RedisBytes member = RedisBytes.wrapTrusted(members.get(i));
+            dict.put(member, list.insert(pack.score(i), member));
+        }
+        memberDict = dict;
+        skipList = list;
+        pack = null;
+    }
 }
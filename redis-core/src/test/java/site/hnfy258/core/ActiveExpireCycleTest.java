@@ -0,0 +1,135 @@
+package site.hnfy258.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisString;
+import site.hnfy258.internal.Sds;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ActiveExpireCycle的单元测试
+ */
+@DisplayName("ActiveExpireCycle单元测试")
+class ActiveExpireCycleTest {
+
+    private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(25);
+
+    @Test
+    @DisplayName("测试没有访问的过期键被主动删除")
+    void testExpiresKeysWithoutAccess() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(2, 2);
+        AtomicInteger notified = new AtomicInteger();
+        redisCore.setExpireListener((dbIndex, key) -> notified.incrementAndGet());
+        RedisDB db = redisCore.getDataBases()[1];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5_000; i++) {
+            RedisString value = new RedisString(Sds.create("v".getBytes()));
+            value.setTimeout(i < 4_000 ? now - 1 : now + 60_000);
+            db.put(RedisBytes.fromString("key" + i), value);
+        }
+
+        ActiveExpireCycle[] cycles = {
+                new ActiveExpireCycle(redisCore, 0, BUDGET_NANOS, 1),
+                new ActiveExpireCycle(redisCore, 1, BUDGET_NANOS, 1)
+        };
+        // 1. 没有任何读写，只靠主动过期删除
+        for (int tick = 0; tick < 200; tick++) {
+            for (ActiveExpireCycle cycle : cycles) {
+                cycle.run();
+            }
+        }
+
+        // 2. 过期键的比例降到可容忍范围内，未过期的键不受影响
+        long stale = db.size() - 1_000;
+        assertTrue(stale * 100 < db.size() * 10, "残留过期键: " + stale);
+        assertEquals(db.size(), db.expiresSize());
+        assertEquals(4_000 - stale, notified.get());
+        assertEquals(4_000 - stale, cycles[0].getExpiredKeys() + cycles[1].getExpiredKeys());
+        for (int i = 4_000; i < 5_000; i++) {
+            assertNotNull(db.get(RedisBytes.fromString("key" + i)));
+        }
+    }
+
+    @Test
+    @DisplayName("测试启用时间轮后按到期时间删除")
+    void testExpiresKeysFromTimingWheel() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(1, 1);
+        RedisDB db = redisCore.getDataBases()[0];
+        long now = System.currentTimeMillis();
+        // 1. 启用前写入的键从过期索引重建，启用后写入的键同步加入时间轮
+        for (int i = 0; i < 1_000; i++) {
+            db.put(RedisBytes.fromString("before" + i), expiring(i % 2 == 0 ? now - 1 : now + 60_000));
+        }
+        redisCore.enableTimingWheel(1);
+        for (int i = 0; i < 1_000; i++) {
+            db.put(RedisBytes.fromString("after" + i), expiring(i % 2 == 0 ? now - 1 : now + 60_000));
+        }
+        // 重新写入并延长过期时间的键不会按旧的到期时间删除
+        db.put(RedisBytes.fromString("after0"), expiring(now + 60_000));
+
+        ActiveExpireCycle cycle = new ActiveExpireCycle(redisCore, 0, BUDGET_NANOS, 1);
+        cycle.run();
+
+        // 2. 一次执行就删除全部到期的键，不需要采样
+        assertEquals(1_001, db.size());
+        assertEquals(999, cycle.getExpiredKeys());
+        assertNotNull(db.get(RedisBytes.fromString("after0")));
+        assertNull(db.get(RedisBytes.fromString("before0")));
+        assertNotNull(db.get(RedisBytes.fromString("before1")));
+    }
+
+    @Test
+    @DisplayName("测试过期键堆积时延长预算，回落后恢复")
+    void testStaleBacklogExtendsBudget() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(1, 1);
+        RedisDB db = redisCore.getDataBases()[0];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 50_000; i++) {
+            db.put(RedisBytes.fromString("stale" + i), expiring(now - 1));
+        }
+        // 预算极小，每次执行只采样一轮
+        ActiveExpireCycle cycle = new ActiveExpireCycle(redisCore, 0, 1, 1);
+        assertEquals(1, cycle.currentBudgetNanos());
+
+        // 1. 连续采样到的都是过期键，移动平均超过可接受比例
+        for (int tick = 0; tick < 10; tick++) {
+            cycle.run();
+        }
+        assertTrue(cycle.getStalePercent() > 10);
+        assertEquals(ActiveExpireCycle.LONG_CYCLE_BUDGET_FACTOR, cycle.currentBudgetNanos());
+
+        // 2. 只剩未过期的键后移动平均回落，恢复正常预算
+        db.clear();
+        for (int i = 0; i < 1_000; i++) {
+            db.put(RedisBytes.fromString("live" + i), expiring(now + 60_000));
+        }
+        for (int tick = 0; tick < 100; tick++) {
+            cycle.run();
+        }
+        assertTrue(cycle.getStalePercent() <= 10);
+        assertEquals(1, cycle.currentBudgetNanos());
+    }
+
+    @Test
+    @DisplayName("测试参数校验")
+    void testInvalidArguments() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(1, 2);
+        assertThrows(IllegalArgumentException.class, () -> new ActiveExpireCycle(null, 0, BUDGET_NANOS, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ActiveExpireCycle(redisCore, 2, BUDGET_NANOS, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ActiveExpireCycle(redisCore, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ActiveExpireCycle(redisCore, 0, BUDGET_NANOS, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ActiveExpireCycle(redisCore, 0, BUDGET_NANOS, 11));
+    }
+
+    private static RedisString expiring(long expireAt) {
+        RedisString value = new RedisString(Sds.create("v".getBytes()));
+        value.setTimeout(expireAt);
+        return value;
+    }
+}
@@ -0,0 +1,67 @@
+package site.hnfy258.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisString;
+import site.hnfy258.internal.DictEngine;
+import site.hnfy258.internal.OpenDict;
+import site.hnfy258.internal.SnapshotDict;
+import site.hnfy258.internal.Sds;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DatabaseCron的单元测试
+ */
+@DisplayName("DatabaseCron单元测试")
+class DatabaseCronTest {
+
+    private static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("测试大量删除后缩容并完成rehash")
+    void testShrinkAfterMassDelete() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(2, 2, DictEngine.OPEN_ADDRESSING);
+        RedisDB db = redisCore.getDataBases()[1];
+        for (int i = 0; i < 20_000; i++) {
+            db.put(RedisBytes.fromString("key" + i), new RedisString(Sds.create("v".getBytes())));
+        }
+        for (int i = 100; i < 20_000; i++) {
+            db.delete(RedisBytes.fromString("key" + i));
+        }
+
+        DatabaseCron[] crons = {
+                new DatabaseCron(redisCore, 0, BUDGET_NANOS),
+                new DatabaseCron(redisCore, 1, BUDGET_NANOS)
+        };
+        // 1. 没有任何读写，只靠后台任务完成缩容
+        for (int tick = 0; tick < 1_000; tick++) {
+            for (DatabaseCron cron : crons) {
+                cron.run();
+            }
+        }
+
+        for (SnapshotDict<RedisBytes, ?> segment : db.getSegments()) {
+            assertFalse(segment.isRehashing());
+            assertTrue(((OpenDict<RedisBytes, ?>) segment).capacity() <= 256);
+        }
+        // 2. 数据不受影响
+        assertEquals(100, db.size());
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(db.get(RedisBytes.fromString("key" + i)));
+        }
+    }
+
+    @Test
+    @DisplayName("测试参数校验")
+    void testInvalidArguments() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(1, 2);
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseCron(null, 0, BUDGET_NANOS));
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseCron(redisCore, 2, BUDGET_NANOS));
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseCron(redisCore, 0, 0));
+    }
+}
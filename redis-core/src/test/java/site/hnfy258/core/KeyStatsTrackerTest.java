@@ -0,0 +1,101 @@
+package site.hnfy258.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisHash;
+import site.hnfy258.datastructure.RedisList;
+import site.hnfy258.datastructure.RedisString;
+import site.hnfy258.internal.Sds;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KeyStatsTracker的单元测试
+ */
+@DisplayName("KeyStatsTracker单元测试")
+class KeyStatsTrackerTest {
+
+    @Test
+    @DisplayName("测试热键按访问次数排序并按数据库区分")
+    void testHotKeys() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(2, 4);
+        KeyStatsTracker tracker = new KeyStatsTracker(redisCore, 1, 8);
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int r = random.nextInt(100);
+            // hot0占30%，hot1占20%，其余分散在一千个键上
+            String key = r < 30 ? "hot0" : r < 50 ? "hot1" : "key" + random.nextInt(1_000);
+            tracker.record(0, RedisBytes.fromString(key));
+        }
+        for (int i = 0; i < 100; i++) {
+            tracker.record(1, RedisBytes.fromString("other"));
+        }
+
+        List<KeyStatsTracker.KeyStat> hot = tracker.hotKeys(0, 2);
+        assertEquals(2, hot.size());
+        assertEquals("hot0", hot.get(0).getKey().getString());
+        assertEquals("hot1", hot.get(1).getKey().getString());
+        assertTrue(hot.get(0).getValue() >= 5_000);
+        assertNull(hot.get(0).getType());
+
+        List<KeyStatsTracker.KeyStat> otherDb = tracker.hotKeys(1, 10);
+        assertEquals(1, otherDb.size());
+        assertEquals("other", otherDb.get(0).getKey().getString());
+        assertEquals(20_100, tracker.getSampledKeys());
+
+        tracker.reset();
+        assertTrue(tracker.hotKeys(0, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试大键按类型保留最大的键并在读取时刷新")
+    void testBigKeys() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(1, 2);
+        RedisDB db = redisCore.getDataBases()[0];
+        KeyStatsTracker tracker = new KeyStatsTracker(redisCore, 1, 2);
+        for (int i = 1; i <= 5; i++) {
+            RedisBytes key = RedisBytes.fromString("list" + i);
+            RedisList list = new RedisList();
+            for (int j = 0; j < i * 10; j++) {
+                list.rpush(RedisBytes.fromString("e" + j));
+            }
+            db.put(key, list);
+            tracker.record(0, key);
+        }
+        RedisBytes hashKey = RedisBytes.fromString("hash");
+        RedisHash hash = new RedisHash();
+        hash.put(RedisBytes.fromString("f"), RedisBytes.fromString("v"));
+        db.put(hashKey, hash);
+        tracker.record(0, hashKey);
+        RedisBytes stringKey = RedisBytes.fromString("string");
+        db.put(stringKey, new RedisString(Sds.create(new byte[100])));
+        tracker.record(0, stringKey);
+
+        // 每种类型保留最大的2个
+        List<KeyStatsTracker.KeyStat> big = tracker.bigKeys(0);
+        assertEquals(4, big.size());
+        assertEquals("string", big.get(0).getKey().getString());
+        assertEquals(100, big.get(0).getValue());
+        assertEquals("list5", big.get(1).getKey().getString());
+        assertEquals("list", big.get(1).getType());
+        assertEquals(50, big.get(1).getValue());
+        assertEquals("list4", big.get(2).getKey().getString());
+        assertEquals("hash", big.get(3).getType());
+
+        // 原地增长在读取时刷新，删除的键被移出
+        for (int j = 0; j < 100; j++) {
+            hash.put(RedisBytes.fromString("f" + j), RedisBytes.fromString("v"));
+        }
+        db.put(RedisBytes.fromString("list5"), null);
+        big = tracker.bigKeys(0);
+        assertEquals(4, big.size());
+        assertEquals("hash", big.get(0).getKey().getString());
+        assertEquals(101, big.get(0).getValue());
+        assertTrue(big.stream().noneMatch(stat -> stat.getKey().getString().equals("list5")));
+    }
+}
@@ -0,0 +1,117 @@
+package site.hnfy258.core;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import site.hnfy258.database.AccessMeta;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisString;
+import site.hnfy258.internal.Sds;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MemoryEvictor的单元测试
+ */
+@DisplayName("MemoryEvictor单元测试")
+class MemoryEvictorTest {
+
+    @Test
+    @DisplayName("测试LRU淘汰优先淘汰空闲时间长的键")
+    void testLruEvictsIdleKeys() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(2, 1);
+        RedisDB db = redisCore.getDataBases()[0];
+        List<RedisBytes> evicted = new ArrayList<>();
+        redisCore.setExpireListener((dbIndex, key) -> evicted.add(key));
+        int now = AccessMeta.clockOf(System.currentTimeMillis());
+        for (int i = 0; i < 1_000; i++) {
+            RedisBytes key = RedisBytes.fromString("key" + i);
+            db.put(key, value());
+            // 前一半的键一小时没有访问
+            db.peek(0, key).setAccess(AccessMeta.pack(i < 500 ? now - 3_600 : now, AccessMeta.LFU_INIT_VAL));
+        }
+        long used = db.usedMemory();
+        MemoryEvictor evictor = new MemoryEvictor(redisCore, used * 4 / 5, EvictionPolicy.ALLKEYS_LRU, 5);
+
+        assertTrue(evictor.freeMemoryIfNeeded(0));
+        assertTrue(evictor.usedMemory(0) <= used * 4 / 5);
+        assertEquals(evicted.size(), evictor.getEvictedKeys());
+        assertEquals(1_000 - evicted.size(), db.size());
+        // 淘汰池保留历次采样中最空闲的候选，绝大多数被淘汰的是空闲的键
+        long idle = evicted.stream().filter(k -> Integer.parseInt(k.getString().substring(3)) < 500).count();
+        assertTrue(idle * 100 >= evicted.size() * 90L, "空闲键比例过低: " + idle + "/" + evicted.size());
+    }
+
+    @Test
+    @DisplayName("测试LFU淘汰优先淘汰访问频率低的键")
+    void testLfuEvictsColdKeys() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(1, 1);
+        RedisDB db = redisCore.getDataBases()[0];
+        List<RedisBytes> evicted = new ArrayList<>();
+        redisCore.setExpireListener((dbIndex, key) -> evicted.add(key));
+        int now = AccessMeta.clockOf(System.currentTimeMillis());
+        for (int i = 0; i < 1_000; i++) {
+            RedisBytes key = RedisBytes.fromString("key" + i);
+            db.put(key, value());
+            // 后一半的键访问频繁，空闲时间相同
+            db.peek(0, key).setAccess(AccessMeta.pack(now, i < 500 ? 1 : 100));
+        }
+        long used = db.usedMemory();
+        MemoryEvictor evictor = new MemoryEvictor(redisCore, used * 4 / 5, EvictionPolicy.ALLKEYS_LFU, 5);
+
+        assertTrue(evictor.freeMemoryIfNeeded(0));
+        long cold = evicted.stream().filter(k -> Integer.parseInt(k.getString().substring(3)) < 500).count();
+        assertTrue(cold * 100 >= evicted.size() * 90L, "冷键比例过低: " + cold + "/" + evicted.size());
+    }
+
+    @Test
+    @DisplayName("测试volatile策略只淘汰带过期时间的键，没有候选时失败")
+    void testVolatileOnlyEvictsKeysWithTtl() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(1, 1);
+        RedisDB db = redisCore.getDataBases()[0];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            RedisString value = value();
+            if (i < 20) {
+                value.setTimeout(now + 60_000 + i);
+            }
+            db.put(RedisBytes.fromString("key" + i), value);
+        }
+        MemoryEvictor evictor = new MemoryEvictor(redisCore, 1, EvictionPolicy.VOLATILE_TTL, 5);
+
+        assertFalse(evictor.freeMemoryIfNeeded(0));
+        assertEquals(80, db.size());
+        assertEquals(0, db.expiresSize());
+        for (int i = 20; i < 100; i++) {
+            assertNotNull(db.get(RedisBytes.fromString("key" + i)));
+        }
+    }
+
+    @Test
+    @DisplayName("测试noeviction和未超限时不淘汰")
+    void testNoEviction() {
+        RedisCoreImpl redisCore = new RedisCoreImpl(1, 2);
+        RedisDB db = redisCore.getDataBases()[0];
+        for (int i = 0; i < 100; i++) {
+            db.put(RedisBytes.fromString("key" + i), value());
+        }
+        MemoryEvictor unlimited = new MemoryEvictor(redisCore, 0, EvictionPolicy.ALLKEYS_RANDOM, 5);
+        MemoryEvictor noEviction = new MemoryEvictor(redisCore, 1, EvictionPolicy.NOEVICTION, 5);
+        MemoryEvictor random = new MemoryEvictor(redisCore, db.usedMemory() * 2, EvictionPolicy.ALLKEYS_RANDOM, 5);
+        for (int segment = 0; segment < 2; segment++) {
+            assertTrue(unlimited.freeMemoryIfNeeded(segment));
+            assertFalse(noEviction.freeMemoryIfNeeded(segment));
+            assertTrue(random.freeMemoryIfNeeded(segment));
+        }
+        assertEquals(100, db.size());
+        assertEquals(EvictionPolicy.VOLATILE_LRU, EvictionPolicy.fromConfigName("Volatile-LRU"));
+        assertThrows(IllegalArgumentException.class, () -> EvictionPolicy.fromConfigName("lru"));
+    }
+
+    private static RedisString value() {
+        return new RedisString(Sds.create("value".getBytes()));
+    }
+}
@@ -0,0 +1,66 @@
+package site.hnfy258.database;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AccessMeta的单元测试
+ */
+@DisplayName("AccessMeta单元测试")
+class AccessMetaTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("测试新键的时钟和计数器初值")
+    void testCreate() {
+        int meta = AccessMeta.create(NOW);
+        assertEquals(AccessMeta.clockOf(NOW), AccessMeta.clock(meta));
+        assertEquals(AccessMeta.LFU_INIT_VAL, AccessMeta.frequency(meta, NOW));
+        assertEquals(0, AccessMeta.idleMillis(meta, NOW));
+        assertEquals(90_000, AccessMeta.idleMillis(meta, NOW + 90_500));
+    }
+
+    @Test
+    @DisplayName("测试LRU时钟回绕后的空闲时间")
+    void testIdleAcrossWrap() {
+        int meta = AccessMeta.pack(AccessMeta.LRU_CLOCK_MAX - 10, 0);
+        long now = (AccessMeta.LRU_CLOCK_MAX + 1L) * AccessMeta.LRU_CLOCK_RESOLUTION + 5_000;
+        assertEquals(0, AccessMeta.clockOf(now) - 5);
+        assertEquals(15_000, AccessMeta.idleMillis(meta, now));
+    }
+
+    @Test
+    @DisplayName("测试计数器按对数增长且不超过上限")
+    void testLogarithmicCounter() {
+        int meta = AccessMeta.create(NOW);
+        for (int i = 0; i < 1_000; i++) {
+            meta = AccessMeta.touch(meta, NOW);
+        }
+        int counter = AccessMeta.frequency(meta, NOW);
+        // 对数因子为10时一千次访问约为18
+        assertTrue(counter > 10 && counter < 30, "计数器: " + counter);
+
+        int saturated = AccessMeta.pack(AccessMeta.clockOf(NOW), AccessMeta.LFU_COUNTER_MAX);
+        assertEquals(AccessMeta.LFU_COUNTER_MAX, AccessMeta.frequency(AccessMeta.touch(saturated, NOW), NOW));
+    }
+
+    @Test
+    @DisplayName("测试计数器随空闲时间衰减")
+    void testDecay() {
+        int meta = AccessMeta.pack(AccessMeta.clockOf(NOW), 10);
+        assertEquals(10, AccessMeta.frequency(meta, NOW + 59_000));
+        assertEquals(5, AccessMeta.frequency(meta, NOW + 5 * 60_000));
+        assertEquals(0, AccessMeta.frequency(meta, NOW + 60 * 60_000));
+
+        AccessMeta.setLfuDecayTime(0);
+        try {
+            assertEquals(10, AccessMeta.frequency(meta, NOW + 60 * 60_000));
+        } finally {
+            AccessMeta.setLfuDecayTime(1);
+        }
+        assertThrows(IllegalArgumentException.class, () -> AccessMeta.setLfuLogFactor(-1));
+    }
+}
@@ -5,9 +5,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisHash;
 import site.hnfy258.datastructure.RedisString;
 import site.hnfy258.internal.Sds;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -275,4 +281,314 @@ class RedisDBTest {
 
         assertEquals(LARGE_DATA_SIZE / 2, redisDB.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试分段存储")
+    void testSegmentedStorage() {
+        RedisDB segmented = new RedisDB(TEST_DB_ID, 4);
+        assertEquals(4, segmented.getSegmentCount());
+        assertThrows(IllegalStateException.class, segmented::getData);
+
+        // 1. 键按哈希分配到固定分段
+        for (int i = 0; i < 100; i++) {
+            RedisBytes key = RedisBytes.fromString("seg_key_" + i);
+            segmented.put(key, new RedisString(Sds.create(("v" + i).getBytes())));
+            int segment = RedisDB.segmentIndex(key.hashCode(), 4);
+            assertTrue(segmented.getSegments()[segment].containsKey(key));
+        }
+
+        // 2. 数据库级别的操作覆盖所有分段
+        assertEquals(100, segmented.size());
+        assertEquals(100, segmented.keys().size());
+        assertEquals(100, segmented.createSnapshot().size());
+        assertNotNull(segmented.delete(RedisBytes.fromString("seg_key_7")));
+        assertFalse(segmented.exist(RedisBytes.fromString("seg_key_7")));
+
+        segmented.clear();
+        assertEquals(0, segmented.size());
+    }
+
+    @Test
+    @DisplayName("测试游标迭代")
+    void testScan() {
+        for (int segmentCount : new int[]{1, 4}) {
+            RedisDB db = new RedisDB(TEST_DB_ID, segmentCount);
+            Set<RedisBytes> expected = new HashSet<>();
+            for (int i = 0; i < 1000; i++) {
+                RedisBytes key = RedisBytes.fromString("scan_key_" + i);
+                db.put(key, new RedisString(Sds.create(("v" + i).getBytes())));
+                expected.add(key);
+            }
+
+            // 迭代期间持续写入新键触发扩容，初始的键必须全部返回
+            Set<RedisBytes> seen = new HashSet<>();
+            List<RedisBytes> page = new ArrayList<>();
+            long cursor = 0;
+            int extra = 0;
+            do {
+                page.clear();
+                cursor = db.scan(cursor, 10, page);
+                seen.addAll(page);
+                for (int i = 0; i < 5; i++) {
+                    db.put(RedisBytes.fromString("extra_" + extra++), new RedisString(Sds.create("x".getBytes())));
+                }
+            } while (cursor != 0);
+            assertTrue(seen.containsAll(expected));
+        }
+
+        List<RedisBytes> empty = new ArrayList<>();
+        assertEquals(0, new RedisDB(TEST_DB_ID).scan(0, 10, empty));
+        assertTrue(empty.isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试惰性遍历")
+    void testIterators() {
+        for (int segmentCount : new int[]{1, 4}) {
+            RedisDB db = new RedisDB(TEST_DB_ID, segmentCount);
+            Set<RedisBytes> expected = new HashSet<>();
+            for (int i = 0; i < 200; i++) {
+                RedisBytes key = RedisBytes.fromString("iter_key_" + i);
+                db.put(key, new RedisString(Sds.create(("v" + i).getBytes())));
+                expected.add(key);
+            }
+
+            Set<RedisBytes> keys = new HashSet<>();
+            db.keyIterator().forEachRemaining(keys::add);
+            assertEquals(expected, keys);
+
+            // 快照遍历期间写入的新键不可见
+            db.startSnapshot();
+            Iterator<Map.Entry<RedisBytes, RedisData>> it = db.snapshotIterator();
+            db.put(RedisBytes.fromString("late_key"), new RedisString(Sds.create("x".getBytes())));
+            Set<RedisBytes> snapshotKeys = new HashSet<>();
+            while (it.hasNext()) {
+                snapshotKeys.add(it.next().getKey());
+            }
+            db.finishSnapshot();
+            assertEquals(expected, snapshotKeys);
+            assertEquals(201, db.size());
+        }
+
+        assertFalse(new RedisDB(TEST_DB_ID, 4).keyIterator().hasNext());
+    }
+
+    @Test
+    @DisplayName("测试快照期间修改集合值不影响快照")
+    void testSnapshotDetachesNestedValues() {
+        RedisDB db = new RedisDB(TEST_DB_ID, 4);
+        RedisBytes key = RedisBytes.fromString("nested_hash");
+        RedisHash original = new RedisHash();
+        original.setKey(key);
+        original.put(RedisBytes.fromString("f1"), RedisBytes.fromString("v1"));
+        db.put(key, original);
+        assertSame(original, db.get(key));
+
+        db.startSnapshot();
+        Iterator<Map.Entry<RedisBytes, RedisData>> it = db.snapshotIterator();
+        // 快照期间只读访问不分离副本
+        assertSame(original, db.get(key));
+        // 第一次写访问分离出副本，之后的访问返回同一个副本
+        RedisHash live = (RedisHash) db.getForWrite(key);
+        assertNotSame(original, live);
+        assertSame(live, db.getForWrite(key));
+        assertSame(live, db.get(key));
+        live.put(RedisBytes.fromString("f2"), RedisBytes.fromString("v2"));
+
+        Map.Entry<RedisBytes, RedisData> entry = it.next();
+        assertFalse(it.hasNext());
+        assertSame(original, entry.getValue());
+        assertEquals(1, original.getHash().size());
+        db.finishSnapshot();
+
+        assertSame(live, db.get(key));
+        assertEquals(2, ((RedisHash) db.get(key)).getHash().size());
+        assertEquals(key, live.getKey());
+    }
+
+    @Test
+    @DisplayName("测试随机键")
+    void testRandomKey() {
+        for (int segmentCount : new int[]{1, 4}) {
+            RedisDB db = new RedisDB(TEST_DB_ID, segmentCount);
+            assertNull(db.randomKey());
+
+            Set<RedisBytes> expected = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                RedisBytes key = RedisBytes.fromString("random_key_" + i);
+                db.put(key, new RedisString(Sds.create(("v" + i).getBytes())));
+                expected.add(key);
+            }
+            Set<RedisBytes> seen = new HashSet<>();
+            for (int i = 0; i < 5_000; i++) {
+                seen.add(db.randomKey());
+            }
+            assertEquals(expected, seen);
+        }
+    }
+
+    @Test
+    @DisplayName("测试分段下标计算")
+    void testSegmentIndex() {
+        assertEquals(0, RedisDB.segmentIndex(12345, 1));
+        assertEquals(0, RedisDB.segmentIndex(Integer.MIN_VALUE, 1));
+        for (int hash : new int[]{0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            int index = RedisDB.segmentIndex(hash, 3);
+            assertTrue(index >= 0 && index < 3);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new RedisDB(TEST_DB_ID, 0));
+    }
+
+    @Test
+    @DisplayName("测试访问时惰性删除过期键")
+    void testLazyExpire() {
+        List<String> expired = new ArrayList<>();
+        redisDB.setExpireListener((dbIndex, key) -> expired.add(dbIndex + ":" + key.getString()));
+        testValue.setTimeout(System.currentTimeMillis() - 1);
+        redisDB.put(testKey, testValue);
+        assertEquals(1, redisDB.expiresSize());
+
+        assertFalse(redisDB.exist(testKey));
+        assertNull(redisDB.get(testKey));
+        assertEquals(0, redisDB.size());
+        assertEquals(0, redisDB.expiresSize());
+        assertEquals(List.of(TEST_DB_ID + ":test_key"), expired);
+    }
+
+    @Test
+    @DisplayName("测试设置和清除过期时间")
+    void testExpireAndPersist() {
+        long expireAt = System.currentTimeMillis() + 60_000;
+        assertFalse(redisDB.expire(testKey, expireAt));
+        redisDB.put(testKey, testValue);
+        assertTrue(redisDB.expire(testKey, expireAt));
+        assertEquals(expireAt, redisDB.get(testKey).timeout());
+        assertEquals(1, redisDB.expiresSize());
+
+        assertTrue(redisDB.persist(testKey));
+        assertFalse(redisDB.persist(testKey));
+        assertEquals(-1, redisDB.get(testKey).timeout());
+        assertEquals(0, redisDB.expiresSize());
+
+        // 删除和清空同时清理过期索引
+        redisDB.expire(testKey, expireAt);
+        redisDB.delete(testKey);
+        assertEquals(0, redisDB.expiresSize());
+        redisDB.put(testKey, testValue);
+        redisDB.expire(testKey, expireAt);
+        redisDB.clear();
+        assertEquals(0, redisDB.expiresSize());
+    }
+
+    @Test
+    @DisplayName("测试快照期间设置过期时间不修改快照中的值")
+    void testExpireDuringSnapshotDetaches() {
+        redisDB.put(testKey, testValue);
+        redisDB.startSnapshot();
+        Iterator<Map.Entry<RedisBytes, RedisData>> it = redisDB.snapshotIterator();
+
+        long expireAt = System.currentTimeMillis() + 60_000;
+        assertTrue(redisDB.expire(testKey, expireAt));
+        assertNotSame(testValue, redisDB.peek(testKey));
+        assertEquals(expireAt, redisDB.peek(testKey).timeout());
+        assertSame(testValue, it.next().getValue());
+        assertEquals(-1, testValue.timeout());
+        redisDB.finishSnapshot();
+
+        redisDB.startSnapshot();
+        RedisData beforePersist = redisDB.peek(testKey);
+        assertTrue(redisDB.persist(testKey));
+        assertEquals(expireAt, beforePersist.timeout());
+        redisDB.finishSnapshot();
+    }
+
+    @Test
+    @DisplayName("测试过期检查清理过期索引中的旧条目")
+    void testExpireIfNeededRemovesStaleEntries() {
+        int segment = RedisDB.segmentIndex(testKey.hashCode(), redisDB.getSegments().length);
+        redisDB.put(testKey, testValue);
+        redisDB.expire(testKey, System.currentTimeMillis() + 60_000);
+        // 直接修改值对象，过期索引中留下旧条目
+        testValue.setTimeout(-1);
+        assertFalse(redisDB.expireIfNeeded(segment, testKey, System.currentTimeMillis()));
+        assertEquals(0, redisDB.expiresSize());
+        assertNotNull(redisDB.get(testKey));
+
+        redisDB.expire(testKey, 1000);
+        assertTrue(redisDB.expireIfNeeded(segment, testKey, 1000));
+        assertEquals(0, redisDB.size());
+        assertEquals(0, redisDB.expiresSize());
+    }
+
+    @Test
+    @DisplayName("测试写入、原地修改和删除时的内存记账")
+    void testMemoryAccounting() {
+        assertEquals(0, redisDB.usedMemory());
+        redisDB.put(testKey, testValue);
+        long afterPut = redisDB.usedMemory();
+        assertTrue(afterPut > testValue.memoryUsage());
+        assertEquals(afterPut, testValue.getAccountedMemory());
+
+        // 原地修改后重新记账，已用内存按差值增长
+        RedisHash hash = new RedisHash();
+        RedisBytes hashKey = RedisBytes.fromString("hash");
+        redisDB.put(hashKey, hash);
+        long beforeWrite = redisDB.usedMemory();
+        for (int i = 0; i < 1_000; i++) {
+            hash.put(RedisBytes.fromString("field" + i), RedisBytes.fromString("value" + i));
+        }
+        redisDB.refreshMemory(hashKey);
+        assertTrue(redisDB.usedMemory() > beforeWrite + 1_000 * 10);
+
+        // 替换和删除扣除旧值记账的大小
+        redisDB.put(hashKey, new RedisString(Sds.create("v".getBytes())));
+        assertTrue(redisDB.usedMemory() < beforeWrite + 100);
+        redisDB.delete(hashKey);
+        assertEquals(afterPut, redisDB.usedMemory());
+        redisDB.put(testKey, null);
+        assertEquals(0, redisDB.usedMemory());
+
+        redisDB.put(testKey, testValue);
+        redisDB.clear();
+        assertEquals(0, redisDB.usedMemory());
+    }
+
+    @Test
+    @DisplayName("测试写入null删除条目，删除大量键后分段可以缩容")
+    void testPutNullRemovesEntry() {
+        RedisDB db = new RedisDB(TEST_DB_ID, 1);
+        for (int i = 0; i < 10_000; i++) {
+            db.put(RedisBytes.fromString("key" + i), new RedisString(Sds.create(("v" + i).getBytes())));
+        }
+        while (db.rehashSegment(0, 1_000_000_000L)) {
+            // 完成扩容
+        }
+        for (int i = 0; i < 10_000; i++) {
+            db.put(RedisBytes.fromString("key" + i), null);
+        }
+
+        assertEquals(0, db.size());
+        assertEquals(0, db.usedMemory());
+        assertNull(db.randomKey());
+        assertTrue(db.tryShrinkSegment(0));
+    }
+
+    @Test
+    @DisplayName("测试读写记录访问，peek不记录")
+    void testAccessTracking() {
+        redisDB.put(testKey, testValue);
+        assertEquals(AccessMeta.LFU_INIT_VAL, testValue.getAccess() & AccessMeta.LFU_COUNTER_MAX);
+
+        // 计数器在初值附近时每次访问都会递增
+        redisDB.get(testKey);
+        int afterGet = testValue.getAccess();
+        assertEquals(AccessMeta.LFU_INIT_VAL + 1, afterGet & AccessMeta.LFU_COUNTER_MAX);
+        assertSame(testValue, redisDB.peek(testKey));
+        assertEquals(afterGet, testValue.getAccess());
+
+        // 覆盖写入继承旧值的访问频率
+        RedisString replacement = new RedisString(Sds.create("new".getBytes()));
+        redisDB.put(testKey, replacement);
+        assertTrue((replacement.getAccess() & AccessMeta.LFU_COUNTER_MAX) > AccessMeta.LFU_INIT_VAL);
+    }
+}
@@ -2,6 +2,7 @@ package site.hnfy258.datastructure;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import site.hnfy258.internal.ListPack;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
@@ -282,6 +283,75 @@ class RedisHashTest {
         List<Resp> respList = redisHash.convertToResp();
         assertEquals(DATA_SIZE, respList.size(), "转换结果大小应匹配");
     }
+    /**
+     * 测试紧凑编码及超过阈值时的自动转换
+     */
+    @Test
+    void testListpackEncodingConversion() {
+        // 1. 小Hash使用紧凑编码，读写删除不改变编码
+        assertEquals(RedisHash.ENCODING_LISTPACK, redisHash.getEncoding());
+        assertEquals(1, redisHash.put(testField, testValue));
+        assertEquals(0, redisHash.put(testField, RedisBytes.fromString("updated")));
+        assertEquals(RedisBytes.fromString("updated"), redisHash.get(testField));
+        assertTrue(redisHash.containsKey(testField));
+        assertNull(redisHash.get(RedisBytes.fromString("missing")));
+        assertEquals(1, redisHash.del(Arrays.asList(testField, testField)));
+        assertEquals(0, redisHash.size());
+        assertEquals(RedisHash.ENCODING_LISTPACK, redisHash.getEncoding());
+
+        // 2. 字段数超过阈值时转换，数据保持不变
+        int limit = EncodingConfig.getHashMaxListpackEntries();
+        for (int i = 0; i < limit; i++) {
+            redisHash.put(RedisBytes.fromString("field" + i), RedisBytes.fromString("value" + i));
+        }
+        assertEquals(RedisHash.ENCODING_LISTPACK, redisHash.getEncoding());
+        redisHash.put(RedisBytes.fromString("overflow"), testValue);
+        assertEquals(RedisHash.ENCODING_HASHTABLE, redisHash.getEncoding());
+        assertEquals(limit + 1, redisHash.size());
+        assertEquals(RedisBytes.fromString("value0"), redisHash.get(RedisBytes.fromString("field0")));
+
+        // 3. 值过长时转换
+        RedisHash longValue = new RedisHash();
+        longValue.put(testField, testValue);
+        byte[] big = new byte[EncodingConfig.getHashMaxListpackValue() + 1];
+        longValue.put(RedisBytes.fromString("big"), new RedisBytes(big));
+        assertEquals(RedisHash.ENCODING_HASHTABLE, longValue.getEncoding());
+        assertEquals(testValue, longValue.get(testField));
+    }
+
+    /**
+     * 测试从持久化的紧凑编码恢复及快照副本
+     */
+    @Test
+    void testFromListPackAndDetach() {
+        redisHash.put(testField, testValue);
+        redisHash.put(RedisBytes.fromString("f2"), RedisBytes.fromString("v2"));
+
+        RedisHash restored = RedisHash.fromListPack(
+                ListPack.fromBytes(redisHash.getListPack().toByteArray()));
+        assertEquals(RedisHash.ENCODING_LISTPACK, restored.getEncoding());
+        assertEquals(testValue, restored.get(testField));
+        assertEquals(2, restored.size());
+
+        // 副本与原对象互不影响
+        RedisHash copy = (RedisHash) redisHash.detach(1);
+        assertSame(copy, copy.detach(1));
+        copy.put(testField, RedisBytes.fromString("changed"));
+        assertEquals(testValue, redisHash.get(testField));
+        assertEquals(RedisHash.ENCODING_LISTPACK, copy.getEncoding());
+
+        int previous = EncodingConfig.getHashMaxListpackEntries();
+        try {
+            EncodingConfig.setHashMaxListpackEntries(1);
+            RedisHash converted = RedisHash.fromListPack(redisHash.getListPack().copy());
+            assertEquals(RedisHash.ENCODING_HASHTABLE, converted.getEncoding());
+            assertEquals(testValue, converted.get(testField));
+        } finally {
+            EncodingConfig.setHashMaxListpackEntries(previous);
+        }
+        assertThrows(IllegalArgumentException.class, () -> EncodingConfig.setHashMaxListpackValue(-1));
+    }
+
     /**
      * 测试简单并发插入
      */
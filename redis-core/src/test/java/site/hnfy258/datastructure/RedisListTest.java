@@ -247,4 +247,84 @@ class RedisListTest {
         assertEquals("value2", allElements[0].getString());
         assertEquals("value1", allElements[1].getString());
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试按下标读取、替换和插入")
+    void testIndexSetAndInsert() {
+        // 1. 准备跨越多个节点的数据
+        for (int i = 0; i < 2000; i++) {
+            redisList.rpush(RedisBytes.fromString("value" + i));
+        }
+        assertEquals("value0", redisList.index(0).getString());
+        assertEquals("value1999", redisList.index(-1).getString());
+        assertEquals("value1234", redisList.index(1234).getString());
+        assertNull(redisList.index(2000));
+        assertNull(redisList.index(-2001));
+
+        // 2. 替换元素
+        assertTrue(redisList.set(-2, RedisBytes.fromString("replaced")));
+        assertEquals("replaced", redisList.index(1998).getString());
+        assertFalse(redisList.set(2000, RedisBytes.fromString("x")));
+
+        // 3. 在参照元素前后插入
+        assertEquals(2001, redisList.insert(true, RedisBytes.fromString("value1000"), RedisBytes.fromString("before")));
+        assertEquals(2002, redisList.insert(false, RedisBytes.fromString("value1000"), RedisBytes.fromString("after")));
+        assertEquals(-1, redisList.insert(true, RedisBytes.fromString("missing"), RedisBytes.fromString("x")));
+        List<RedisBytes> range = redisList.lrange(999, 1002);
+        assertEquals("value999", range.get(0).getString());
+        assertEquals("before", range.get(1).getString());
+        assertEquals("value1000", range.get(2).getString());
+        assertEquals("after", range.get(3).getString());
+    }
+
+    @Test
+    @DisplayName("测试裁剪和按数量移除")
+    void testTrimAndRemoveWithCount() {
+        for (int i = 0; i < 100; i++) {
+            redisList.rpush(RedisBytes.fromString(i % 10 == 0 ? "x" : "value" + i));
+        }
+
+        // 1. 从尾部移除2个，从头部移除3个
+        assertEquals(2, redisList.remove(RedisBytes.fromString("x"), -2));
+        assertEquals("value99", redisList.index(-1).getString());
+        assertEquals("x", redisList.index(-28).getString());
+        assertEquals(3, redisList.remove(RedisBytes.fromString("x"), 3));
+        assertEquals("value1", redisList.index(0).getString());
+        assertEquals(95, redisList.size());
+
+        // 2. 裁剪到中间的范围
+        redisList.trim(10, -11);
+        assertEquals(75, redisList.size());
+        redisList.trim(-5, 1000);
+        assertEquals(5, redisList.size());
+        assertEquals("value84", redisList.index(0).getString());
+
+        // 3. 范围为空时清空列表
+        redisList.trim(3, 1);
+        assertEquals(0, redisList.size());
+    }
+
+    @Test
+    @DisplayName("测试快照副本与原列表互不影响")
+    void testDetachIsIndependent() {
+        for (int i = 0; i < 1000; i++) {
+            redisList.rpush(RedisBytes.fromString("value" + i));
+        }
+        RedisList copy = (RedisList) redisList.detach(1);
+        assertNotSame(redisList, copy);
+        assertSame(copy, copy.detach(1));
+
+        copy.lpop();
+        copy.set(500, RedisBytes.fromString("changed"));
+        assertEquals(1000, redisList.size());
+        assertEquals("value501", redisList.index(501).getString());
+        assertEquals("changed", copy.index(500).getString());
+        assertEquals(TEST_KEY, copy.getKey().getString());
+
+        // 大列表的协议转换保持元素顺序
+        Resp[] commands = ((RespArray) redisList.convertToResp().get(0)).getContent();
+        assertEquals(1002, commands.length);
+        assertEquals("value999", ((BulkString) commands[2]).getContent().getString());
+        assertEquals("value0", ((BulkString) commands[1001]).getContent().getString());
+    }
+}
@@ -164,6 +164,74 @@ class RedisSetTest {
         assertEquals(5, redisSet.size(), "集合大小应该不变");
     }
 
+    /**
+     * 测试随机读取成员
+     */
+    @Test
+    void testRandomMembers() {
+        // 1. 空集合
+        assertTrue(redisSet.randomMembers(1).isEmpty(), "空集合应该返回空列表");
+
+        Set<RedisBytes> all = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            all.add(RedisBytes.fromString("member" + i));
+        }
+        redisSet.add(new ArrayList<>(all));
+
+        // 2. 正数：互不相同，覆盖随机选取和蓄水池两种路径
+        for (int count : new int[]{1, 10, 50, 99}) {
+            List<RedisBytes> result = redisSet.randomMembers(count);
+            assertEquals(count, result.size());
+            assertEquals(count, new HashSet<>(result).size(), "正数count不应该返回重复成员");
+            assertTrue(all.containsAll(result));
+        }
+        assertEquals(all, new HashSet<>(redisSet.randomMembers(1000)), "count超过集合大小时返回全部成员");
+
+        // 3. 负数：数量精确，允许重复
+        List<RedisBytes> repeated = redisSet.randomMembers(-500);
+        assertEquals(500, repeated.size());
+        assertTrue(all.containsAll(repeated));
+
+        // 4. 不修改集合
+        assertTrue(redisSet.randomMembers(0).isEmpty());
+        assertEquals(100, redisSet.size(), "随机读取不应该修改集合");
+    }
+
+    /**
+     * 测试负数count远大于集合大小时不按count预分配
+     */
+    @Test
+    void testRandomMembersHugeNegativeCount() {
+        RedisBytes member = RedisBytes.fromString("only");
+        redisSet.add(Collections.singletonList(member));
+
+        // 结果数量以count为准，列表从小容量开始增长
+        List<RedisBytes> result = redisSet.randomMembers(-2_000_000L);
+        assertEquals(2_000_000, result.size());
+        assertSame(member, result.get(0));
+        assertSame(member, result.get(result.size() - 1));
+        assertEquals(1, redisSet.size());
+    }
+
+    /**
+     * 测试弹出的成员互不相同且确实被移除
+     */
+    @Test
+    void testPopRemovesDistinctMembers() {
+        List<RedisBytes> members = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            members.add(RedisBytes.fromString("member" + i));
+        }
+        redisSet.add(members);
+
+        List<RedisBytes> popped = redisSet.pop(150);
+        assertEquals(150, new HashSet<>(popped).size(), "弹出的成员应该互不相同");
+        assertEquals(50, redisSet.size());
+        for (RedisBytes member : popped) {
+            assertEquals(0, redisSet.remove(member), "弹出的成员应该已经被移除");
+        }
+    }
+
     /**
      * 测试获取所有元素
      */
@@ -341,4 +409,78 @@ class RedisSetTest {
             }
         }
     }
+
+    /**
+     * 测试整数集合编码与哈希表编码的转换
+     */
+    @Test
+    void testIntsetEncodingConversion() {
+        // 1. 全部是整数成员时使用整数集合编码
+        assertEquals(RedisSet.ENCODING_INTSET, redisSet.getEncoding());
+        List<RedisBytes> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(RedisBytes.fromString(String.valueOf(i * -7)));
+        }
+        assertEquals(10, redisSet.add(members));
+        assertEquals(0, redisSet.add(Collections.singletonList(RedisBytes.fromString("-14"))));
+        assertEquals(RedisSet.ENCODING_INTSET, redisSet.getEncoding());
+        assertTrue(redisSet.contains(RedisBytes.fromString("-63")));
+        assertFalse(redisSet.contains(RedisBytes.fromString("007")));
+        assertEquals(1, redisSet.remove(RedisBytes.fromString("-63")));
+        assertEquals(0, redisSet.remove(RedisBytes.fromString("abc")));
+
+        // 2. 非规范形式的整数按普通字符串处理，触发转换
+        assertEquals(1, redisSet.add(Collections.singletonList(RedisBytes.fromString("007"))));
+        assertEquals(RedisSet.ENCODING_HASHTABLE, redisSet.getEncoding());
+        assertEquals(10, redisSet.size());
+        assertTrue(redisSet.contains(RedisBytes.fromString("-56")));
+        assertTrue(redisSet.contains(RedisBytes.fromString("007")));
+
+        // 3. 超过成员数阈值时转换
+        RedisSet numbers = new RedisSet();
+        int limit = EncodingConfig.getSetMaxIntsetEntries();
+        List<RedisBytes> many = new ArrayList<>();
+        for (int i = 0; i <= limit; i++) {
+            many.add(RedisBytes.fromString(String.valueOf(i)));
+        }
+        numbers.add(many.subList(0, limit));
+        assertEquals(RedisSet.ENCODING_INTSET, numbers.getEncoding());
+        numbers.add(many.subList(limit, limit + 1));
+        assertEquals(RedisSet.ENCODING_HASHTABLE, numbers.getEncoding());
+        assertEquals(limit + 1, numbers.size());
+    }
+
+    /**
+     * 测试整数集合编码下的弹出、随机和分离副本
+     */
+    @Test
+    void testIntsetPopAndDetach() {
+        List<RedisBytes> members = new ArrayList<>();
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            members.add(RedisBytes.fromString(String.valueOf(i * 100_000L)));
+            expected.add(String.valueOf(i * 100_000L));
+        }
+        redisSet.add(members);
+
+        RedisSet copy = (RedisSet) redisSet.detach(1);
+        assertNotSame(redisSet, copy);
+        assertEquals(RedisSet.ENCODING_INTSET, copy.getEncoding());
+
+        Set<String> popped = new HashSet<>();
+        for (RedisBytes member : redisSet.pop(5)) {
+            popped.add(member.getString());
+        }
+        assertEquals(5, popped.size());
+        assertTrue(expected.containsAll(popped));
+        assertEquals(15, redisSet.size());
+        assertEquals(20, copy.size());
+
+        for (RedisBytes member : redisSet.randomMembers(-30)) {
+            assertTrue(expected.contains(member.getString()));
+        }
+        assertEquals(15, redisSet.pop(100).size());
+        assertEquals(0, redisSet.size());
+        assertEquals(RedisSet.ENCODING_INTSET, redisSet.getEncoding());
+    }
 }
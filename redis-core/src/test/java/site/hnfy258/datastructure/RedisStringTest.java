@@ -247,4 +247,72 @@ class RedisStringTest {
         assertEquals("101", new String(numValue2.getBytes()));
     }
 
+    @Test
+    @DisplayName("测试整数编码和共享整数")
+    void testIntEncoding() {
+        // 1. 规范整数使用整数编码，其他内容使用raw编码
+        RedisString counter = RedisString.fromBytes("42".getBytes());
+        assertEquals(RedisString.ENCODING_INT, counter.getEncoding());
+        assertEquals(RedisString.ENCODING_RAW, RedisString.fromBytes("042".getBytes()).getEncoding());
+        assertEquals(RedisString.ENCODING_RAW, RedisString.fromBytes("4.2".getBytes()).getEncoding());
+        assertEquals(RedisString.ENCODING_RAW, new RedisString(Sds.create("42".getBytes())).getEncoding());
+
+        // 2. 小整数共享同一个实例
+        assertSame(RedisBytes.fromLong(42), counter.getValue());
+        assertSame(counter.getValue(), RedisString.fromLong(42).getValue());
+        assertEquals(2, counter.length());
+        assertEquals("12345", RedisString.fromLong(12345).getValue().getString());
+
+        // 3. 递增后仍是整数编码，取出SDS后转换为raw编码
+        assertEquals(43, counter.incrBy(1));
+        assertEquals(RedisString.ENCODING_INT, counter.getEncoding());
+        counter.getSds().append("x".getBytes());
+        assertEquals(RedisString.ENCODING_RAW, counter.getEncoding());
+        assertEquals("43x", counter.getValue().getString());
+
+        // 4. 分离的副本保留整数值
+        RedisString original = RedisString.fromLong(-7);
+        RedisString copy = (RedisString) original.detach(1);
+        original.incrBy(1);
+        assertEquals(-7, copy.toLong());
+        assertEquals(RedisString.ENCODING_INT, copy.getEncoding());
+    }
+
+    @Test
+    @DisplayName("测试INCRBY溢出检查")
+    void testIncrByOverflow() {
+        RedisString counter = RedisString.fromLong(10);
+        assertEquals(-5, counter.incrBy(-15));
+        assertEquals("-5", counter.getValue().getString());
+
+        RedisString max = RedisString.fromLong(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> max.incrBy(1));
+        assertEquals(Long.MAX_VALUE, max.toLong());
+
+        RedisString min = RedisString.fromBytes(String.valueOf(Long.MIN_VALUE).getBytes());
+        assertEquals(RedisString.ENCODING_INT, min.getEncoding());
+        assertThrows(ArithmeticException.class, () -> min.incrBy(-1));
+
+        RedisString text = RedisString.fromBytes("abc".getBytes());
+        assertThrows(IllegalStateException.class, () -> text.incrBy(1));
+    }
+
+    @Test
+    @DisplayName("测试INCRBYFLOAT")
+    void testIncrByFloat() {
+        RedisString value = RedisString.fromBytes("10.50".getBytes());
+        assertEquals("10.6", value.incrByFloat(0.1).getString());
+        assertEquals(RedisString.ENCODING_RAW, value.getEncoding());
+
+        // 结果恰好是整数时回到整数编码
+        assertEquals("11", value.incrByFloat(0.4).getString());
+        assertEquals(RedisString.ENCODING_INT, value.getEncoding());
+        assertEquals("5000", RedisString.fromLong(0).incrByFloat(5.0e3).getString());
+
+        RedisString text = RedisString.fromBytes("1.5abc".getBytes());
+        assertThrows(IllegalStateException.class, () -> text.incrByFloat(1));
+        RedisString huge = RedisString.fromBytes("1e308".getBytes());
+        assertThrows(ArithmeticException.class, () -> huge.incrByFloat(1e308));
+    }
+
 }
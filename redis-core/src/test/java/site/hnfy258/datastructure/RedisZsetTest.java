@@ -8,6 +8,7 @@ import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -280,4 +281,195 @@ class RedisZsetTest {    private static final String TEST_KEY = "test_zset";
             }
         }
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试紧凑编码到跳表编码的转换")
+    void testEncodingConversion() {
+        // 1. 小集合使用紧凑编码，更新分数后顺序正确
+        assertEquals(RedisZset.ENCODING_LISTPACK, redisZset.getEncoding());
+        int limit = EncodingConfig.getZsetMaxListpackEntries();
+        for (int i = 0; i < limit; i++) {
+            assertTrue(redisZset.add(i, "m" + i));
+        }
+        assertFalse(redisZset.add(-1.0, "m5"));
+        assertEquals(RedisZset.ENCODING_LISTPACK, redisZset.getEncoding());
+        assertEquals("m5", redisZset.getRange(0, 0).get(0).getMember());
+        assertEquals(4, redisZset.getRangeByScore(1.0, 4.0).size());
+
+        // 2. 超过成员数阈值时转换，内容和顺序不变
+        assertTrue(redisZset.add(limit, "m" + limit));
+        assertEquals(RedisZset.ENCODING_SKIPLIST, redisZset.getEncoding());
+        assertEquals(limit + 1, redisZset.size());
+        assertEquals("m5", redisZset.getRange(0, 0).get(0).getMember());
+        assertEquals(-1.0, redisZset.getScore("m5"));
+        assertFalse(redisZset.add(1000.0, "m5"));
+        assertEquals("m5", redisZset.getRange(-1, -1).get(0).getMember());
+        assertTrue(redisZset.remove("m5"));
+        assertFalse(redisZset.contains("m5"));
+
+        // 3. 成员超过字节数阈值时转换
+        RedisZset longMember = new RedisZset();
+        longMember.add(1.0, "short");
+        longMember.add(2.0, "x".repeat(EncodingConfig.getZsetMaxListpackValue() + 1));
+        assertEquals(RedisZset.ENCODING_SKIPLIST, longMember.getEncoding());
+        assertEquals(2, longMember.size());
+    }
+
+    @Test
+    @DisplayName("测试同分数成员按字节排序")
+    void testEqualScoreOrderingByBytes() {
+        RedisZset large = new RedisZset();
+        for (int i = 0; i <= EncodingConfig.getZsetMaxListpackEntries(); i++) {
+            large.add(0.0, "pad" + i);
+        }
+        for (RedisZset zset : new RedisZset[]{redisZset, large}) {
+            zset.add(1.0, RedisBytes.wrapTrusted(new byte[]{(byte) 0xC3}));
+            zset.add(1.0, "b");
+            zset.add(1.0, "a");
+            zset.add(1.0, "ab");
+            List<ZsetNode> nodes = zset.getRangeByScore(1.0, 1.0);
+            assertEquals(4, nodes.size());
+            assertEquals("a", nodes.get(0).getMember());
+            assertEquals("ab", nodes.get(1).getMember());
+            assertEquals("b", nodes.get(2).getMember());
+            // 无符号比较时高位字节排在ASCII之后
+            assertArrayEquals(new byte[]{(byte) 0xC3}, nodes.get(3).getMemberBytes().getBytesUnsafe());
+        }
+        assertThrows(IllegalArgumentException.class, () -> redisZset.add(Double.NaN, "nan"));
+    }
+
+    @Test
+    @DisplayName("测试分离副本互不影响")
+    void testDetachIndependence() {
+        RedisZset large = new RedisZset();
+        large.setKey(testKey);
+        for (int i = 0; i <= EncodingConfig.getZsetMaxListpackEntries(); i++) {
+            large.add(i, "m" + i);
+        }
+        for (RedisZset zset : new RedisZset[]{redisZset, large}) {
+            zset.add(-2.0, "a");
+            zset.add(-1.0, "b");
+            RedisZset copy = (RedisZset) zset.detach(1L);
+            assertNotSame(zset, copy);
+            assertSame(copy, copy.detach(1L));
+            assertEquals(zset.getEncoding(), copy.getEncoding());
+
+            zset.add(99.0, "a");
+            zset.remove("b");
+            assertEquals(-2.0, copy.getScore("a"));
+            assertTrue(copy.contains("b"));
+            assertEquals(zset.size() + 1, copy.size());
+            assertEquals(testKey, copy.getKey());
+        }
+    }
+
+    @Test
+    @DisplayName("测试排名、计数和分数增量")
+    void testRankCountAndIncrement() {
+        RedisZset large = new RedisZset();
+        for (int i = 0; i <= EncodingConfig.getZsetMaxListpackEntries(); i++) {
+            large.add(i + 10, "pad" + i);
+        }
+        for (RedisZset zset : new RedisZset[]{redisZset, large}) {
+            zset.add(1.0, "a");
+            zset.add(2.0, "b");
+            zset.add(3.0, "c");
+            long size = zset.size();
+            assertEquals(0, zset.rank("a", false));
+            assertEquals(size - 1, zset.rank("a", true));
+            assertEquals(2, zset.rank("c", false));
+            assertEquals(-1, zset.rank("missing", false));
+
+            assertEquals(3, zset.count(RedisZset.ScoreRange.parse("-inf", "3")));
+            assertEquals(1, zset.count(RedisZset.ScoreRange.parse("(1", "(3")));
+            assertEquals(0, zset.count(RedisZset.ScoreRange.parse("(2", "2")));
+
+            assertEquals(5.5, zset.incrementScore(4.5, "a"));
+            assertEquals(2, zset.rank("a", false));
+            assertEquals(-1.0, zset.incrementScore(-1.0, "new"));
+            assertEquals(0, zset.rank("new", false));
+            zset.add(Double.POSITIVE_INFINITY, "inf");
+            assertThrows(IllegalArgumentException.class,
+                    () -> zset.incrementScore(Double.NEGATIVE_INFINITY, "inf"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> RedisZset.ScoreRange.parse("abc", "1"));
+        assertThrows(IllegalArgumentException.class, () -> RedisZset.parseScore("nan"));
+        assertEquals(Double.NEGATIVE_INFINITY, RedisZset.parseScore("-INF"));
+    }
+
+    @Test
+    @DisplayName("测试两种编码的范围查询和删除结果一致")
+    void testRangesMatchAcrossEncodings() {
+        int oldEntries = EncodingConfig.getZsetMaxListpackEntries();
+        EncodingConfig.setZsetMaxListpackEntries(0);
+        RedisZset skip = new RedisZset();
+        try {
+            // 阈值为0时第一次添加就转换为跳表编码
+            skip.add(0, "m0");
+        } finally {
+            EncodingConfig.setZsetMaxListpackEntries(oldEntries);
+        }
+        for (int i = 0; i < 40; i++) {
+            redisZset.add(i / 3, "m" + i);
+            skip.add(i / 3, "m" + i);
+        }
+        assertEquals(RedisZset.ENCODING_LISTPACK, redisZset.getEncoding());
+        assertEquals(RedisZset.ENCODING_SKIPLIST, skip.getEncoding());
+
+        long[][] ranks = {{0, -1}, {5, 9}, {-3, -1}, {38, 100}, {10, 5}, {-100, 2}};
+        for (long[] r : ranks) {
+            for (boolean reverse : new boolean[]{false, true}) {
+                assertEquals(collectByRank(redisZset, r[0], r[1], reverse), collectByRank(skip, r[0], r[1], reverse));
+            }
+        }
+        List<String> reversed = collectByRank(skip, 0, 2, true);
+        assertEquals(List.of("m39:13.0", "m38:12.0", "m37:12.0"), reversed);
+
+        String[][] scores = {{"-inf", "+inf"}, {"2", "5"}, {"(2", "(5"}, {"4", "4"}, {"20", "30"}};
+        long[][] limits = {{0, -1}, {1, 3}, {4, 100}, {100, 1}};
+        for (String[] sc : scores) {
+            RedisZset.ScoreRange range = RedisZset.ScoreRange.parse(sc[0], sc[1]);
+            assertEquals(redisZset.count(range), skip.count(range));
+            for (long[] l : limits) {
+                for (boolean reverse : new boolean[]{false, true}) {
+                    assertEquals(collectByScore(redisZset, range, reverse, l[0], l[1]),
+                            collectByScore(skip, range, reverse, l[0], l[1]));
+                }
+            }
+        }
+        assertEquals(List.of("m11:3.0", "m9:3.0"),
+                collectByScore(skip, RedisZset.ScoreRange.parse("(2", "5"), false, 1, 2));
+        assertEquals(List.of("m13:4.0", "m12:4.0"),
+                collectByScore(skip, RedisZset.ScoreRange.parse("(2", "(5"), true, 1, 2));
+
+        for (RedisZset zset : new RedisZset[]{redisZset, skip}) {
+            assertEquals(3, zset.removeRangeByRank(0, 2));
+            assertEquals(6, zset.removeRangeByScore(RedisZset.ScoreRange.parse("(5", "7")));
+            assertEquals(0, zset.removeRangeByScore(RedisZset.ScoreRange.parse("6", "7")));
+            assertEquals(2, zset.removeRangeByRank(-2, -1));
+            assertEquals(29, zset.size());
+            assertFalse(zset.contains("m18"));
+            assertTrue(zset.contains("m17"));
+            assertFalse(zset.contains("m39"));
+        }
+        assertEquals(collectByRank(redisZset, 0, -1, false), collectByRank(skip, 0, -1, false));
+        assertEquals(29, skip.removeRangeByRank(0, -1));
+        assertEquals(0, skip.size());
+    }
+
+    private static List<String> collectByRank(RedisZset zset, long start, long stop, boolean reverse) {
+        List<String> result = new ArrayList<>();
+        long count = zset.rangeByRank(start, stop, reverse, (member, score) -> result.add(member.getString() + ":" + score));
+        assertEquals(result.size(), count);
+        return result;
+    }
+
+    private static List<String> collectByScore(RedisZset zset, RedisZset.ScoreRange range, boolean reverse,
+                                               long offset, long limit) {
+        List<String> result = new ArrayList<>();
+        long count = zset.rangeByScore(range, reverse, offset, limit,
+                (member, score) -> result.add(member.getString() + ":" + score));
+        assertEquals(result.size(), count);
+        return result;
+    }
+}
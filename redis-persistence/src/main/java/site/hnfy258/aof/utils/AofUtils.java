@@ -4,10 +4,13 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import lombok.extern.slf4j.Slf4j;
 import site.hnfy258.datastructure.*;
+import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespArray;
 
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -34,6 +37,9 @@ import java.util.List;
 @Slf4j
 public final class AofUtils {
     
+    /** 重写时为带过期时间的键追加的命令 */
+    private static final BulkString PEXPIREAT = BulkString.wrapTrusted("PEXPIREAT".getBytes());
+    
     // ==================== 构造函数 ====================
     
     /**
@@ -55,8 +61,9 @@ public final class AofUtils {
      * <p>处理流程：</p>
      * <ol>
      *   <li>参数有效性验证</li>
-     *   <li>跳过 null 值（避免无效写入）</li>
+     *   <li>跳过 null 值和已过期的键（避免无效写入）</li>
      *   <li>根据数据类型分发到专门的写入方法</li>
+     *   <li>带过期时间的键追加 PEXPIREAT 命令</li>
      *   <li>记录操作日志和异常处理</li>
      * </ol>
      * 
@@ -75,6 +82,11 @@ public final class AofUtils {
             log.debug("Redis值为null，跳过写入操作: {}", key);
             return;
         }
+        final long timeout = value.timeout();
+        if (timeout != -1 && timeout <= System.currentTimeMillis()) {
+            log.debug("键已过期，跳过写入操作: {}", key);
+            return;
+        }
         
         // 2. 根据数据类型分发处理
         final String dataType = value.getClass().getSimpleName();
@@ -98,6 +110,11 @@ public final class AofUtils {
                 default:
                     log.warn("不支持的数据类型: {}, key: {}", dataType, key);
             }
+            // 3. 过期时间以绝对时间戳写入，重放时不受重写时刻影响
+            if (timeout != -1) {
+                writeCommandsToChannel(Collections.singletonList(new RespArray(new Resp[]{
+                        PEXPIREAT, new BulkString(key), new BulkString(RedisBytes.fromLong(timeout))})), channel);
+            }
         } catch (final Exception e) {
             log.error("写入{}类型数据到AOF失败, key: {}", dataType, key, e);
             throw new RuntimeException("Failed to write data to AOF", e);
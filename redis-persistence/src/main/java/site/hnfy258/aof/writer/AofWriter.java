@@ -12,7 +12,6 @@ import site.hnfy258.core.RedisCore;
 import site.hnfy258.database.RedisDB;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.datastructure.RedisData;
-import site.hnfy258.internal.Dict;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
@@ -442,19 +441,12 @@ public class AofWriter implements Writer {
             snapshotFile = File.createTempFile("redis_aof_snapshot", ".aof", file.getParentFile());
             bufferFile = File.createTempFile("redis_aof_buffer", ".aof", file.getParentFile());
             
-            // 触发异步快照，真正的异步，不等待
-            CompletableFuture<Map<Integer, Map<RedisBytes, RedisData>>> snapshotsFuture = triggerAsyncSnapshot();
-            
             // 启动缓冲区处理
             CompletableFuture<Void> bufferWriteFuture = processRewriteBuffer(bufferFile);
             
             try {
-                // 等待快照完成
-                Map<Integer, Map<RedisBytes, RedisData>> snapshots = 
-                    snapshotsFuture.get(30, TimeUnit.SECONDS);
-                
-                // 写入快照数据到文件A
-                writeSnapshotsToFile(snapshots, snapshotFile);
+                // 逐个数据库进入快照，边遍历边写入文件A，不复制数据
+                writeSnapshotsToFile(snapshotFile);
                 
                 // 通知缓冲区处理线程可以开始准备退出
                 stopBufferProcessing = true;
@@ -499,35 +491,6 @@ public class AofWriter implements Writer {
         }
     }
 
-    private CompletableFuture<Map<Integer, Map<RedisBytes, RedisData>>> triggerAsyncSnapshot() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                RedisDB[] dataBases = redisCore.getDataBases();
-                Map<Integer, Map<RedisBytes, RedisData>> snapshots = new ConcurrentHashMap<>();
-                
-                // 在异步线程中同步创建快照，确保快照时间点一致性
-                for (RedisDB db : dataBases) {
-                    if (db != null && db.size() > 0) {
-                        try {
-                            // 使用同步快照方法，确保快照一致性
-                            Map<RedisBytes, RedisData> snapshot = db.getData().createSnapshot();
-                            if (snapshot != null && !snapshot.isEmpty()) {
-                                snapshots.put(db.getId(), snapshot);
-                            }
-                        } catch (Exception e) {
-                            log.error("创建数据库{}快照失败", db.getId(), e);
-                            throw new RuntimeException("创建数据库快照失败", e);
-                        }
-                    }
-                }
-                
-                return snapshots;
-            } catch (Exception e) {
-                throw new CompletionException("创建数据库快照失败", e);
-            }
-        });
-    }
-
     private CompletableFuture<Void> processRewriteBuffer(File bufferFile) {
         return CompletableFuture.runAsync(() -> {
             try (RandomAccessFile raf = new RandomAccessFile(bufferFile, "rw");
@@ -554,25 +517,25 @@ public class AofWriter implements Writer {
         });
     }
 
-    private void writeSnapshotsToFile(Map<Integer, Map<RedisBytes, RedisData>> snapshots, 
-                                    File snapshotFile) throws IOException {
+    private void writeSnapshotsToFile(File snapshotFile) throws IOException {
         try (RandomAccessFile raf = new RandomAccessFile(snapshotFile, "rw");
              FileChannel channel = raf.getChannel()) {
             
-            // 按数据库ID排序处理
-            List<Integer> dbIds = new ArrayList<>(snapshots.keySet());
-            Collections.sort(dbIds);
-            
-            for (Integer dbId : dbIds) {
-                Map<RedisBytes, RedisData> snapshot = snapshots.get(dbId);
-                if (snapshot != null) {
-                    // 写入SELECT命令
-                    writeSelectCommand(dbId, channel);
-                    
-                    // 批量写入数据
+            // 按数据库ID顺序处理
+            for (RedisDB db : redisCore.getDataBases()) {
+                if (db == null || db.size() == 0) {
+                    continue;
+                }
+                // 写入SELECT命令
+                writeSelectCommand(db.getId(), channel);
+                
+                db.startSnapshot();
+                try {
+                    // 批量写入数据，批次只持有条目引用
                     List<Map.Entry<RedisBytes, RedisData>> batch = new ArrayList<>(1000);
-                    for (Map.Entry<RedisBytes, RedisData> entry : snapshot.entrySet()) {
-                        batch.add(entry);
+                    Iterator<Map.Entry<RedisBytes, RedisData>> it = db.snapshotIterator();
+                    while (it.hasNext()) {
+                        batch.add(it.next());
                         if (batch.size() >= 1000) {
                             writeBatchToAof(batch, channel);
                             batch.clear();
@@ -582,6 +545,8 @@ public class AofWriter implements Writer {
                     if (!batch.isEmpty()) {
                         writeBatchToAof(batch, channel);
                     }
+                } finally {
+                    db.finishSnapshot();
                 }
             }
             
@@ -30,6 +30,9 @@ public final class RdbConstants {
     /** 数据库选择操作码 */
     public static final byte RDB_OPCODE_SELECTDB = (byte) 254;
     
+    /** 毫秒级过期时间操作码 */
+    public static final byte RDB_OPCODE_EXPIRETIME_MS = (byte) 252;
+    
     // ========== 数据类型常量 ==========
     
     /** 字符串类型标识 */
@@ -46,6 +49,12 @@ public final class RdbConstants {
     /** 哈希表类型标识 */
     public static final byte HASH_TYPE = (byte) 4;
     
+    /** 整数集合编码的集合类型标识，整个intset作为一个字符串保存 */
+    public static final byte SET_INTSET_TYPE = (byte) 11;
+    
+    /** 紧凑编码哈希表类型标识，整个listpack作为一个字符串保存 */
+    public static final byte HASH_LISTPACK_TYPE = (byte) 16;
+    
     // ========== 异步持久化配置常量 ==========
     
     /** 后台保存线程池核心线程数 */
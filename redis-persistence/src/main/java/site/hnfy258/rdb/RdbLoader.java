@@ -2,6 +2,7 @@ package site.hnfy258.rdb;
 
 import lombok.extern.slf4j.Slf4j;
 import site.hnfy258.core.RedisCore;
+import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.rdb.crc.Crc64InputStream;
 
 import java.io.*;
@@ -92,37 +93,59 @@ public class RdbLoader {
      * @throws IOException 如果读取失败
      */
     private void loadAllDatabases(DataInputStream dis) throws IOException {        int currentDbIndex = 0;
+        long expireAt = -1;
         while (true) {
             int type = dis.read();
             if (type == -1 || (byte) type == RdbConstants.RDB_OPCODE_EOF) {
                 break;
             }
             
+            RedisBytes key = null;
             switch ((byte) type) {
+                case RdbConstants.RDB_OPCODE_EXPIRETIME_MS:
+                    expireAt = dis.readLong();
+                    continue;
                 case RdbConstants.RDB_OPCODE_SELECTDB:
                     currentDbIndex = dis.read();
                     redisCore.selectDB(currentDbIndex);
                     log.info("选择数据库: {}", currentDbIndex);
                     break;
                 case RdbConstants.STRING_TYPE:
-                    RdbUtils.loadString(dis, redisCore, currentDbIndex);
+                    key = RdbUtils.loadString(dis, redisCore, currentDbIndex);
                     break;
                 case RdbConstants.LIST_TYPE:
-                    RdbUtils.loadList(dis, redisCore, currentDbIndex);
+                    key = RdbUtils.loadList(dis, redisCore, currentDbIndex);
                     break;
                 case RdbConstants.SET_TYPE:
-                    RdbUtils.loadSet(dis, redisCore, currentDbIndex);
+                    key = RdbUtils.loadSet(dis, redisCore, currentDbIndex);
+                    break;
+                case RdbConstants.SET_INTSET_TYPE:
+                    key = RdbUtils.loadSetIntSet(dis, redisCore, currentDbIndex);
                     break;
                 case RdbConstants.HASH_TYPE:
-                    RdbUtils.loadHash(dis, redisCore, currentDbIndex);
-                    break;                case RdbConstants.ZSET_TYPE:
-                    RdbUtils.loadZSet(dis, redisCore, currentDbIndex);
+                    key = RdbUtils.loadHash(dis, redisCore, currentDbIndex);
+                    break;
+                case RdbConstants.HASH_LISTPACK_TYPE:
+                    key = RdbUtils.loadHashListPack(dis, redisCore, currentDbIndex);
+                    break;
+                case RdbConstants.ZSET_TYPE:
+                    key = RdbUtils.loadZSet(dis, redisCore, currentDbIndex);
                     break;
                     
                 default:
                     log.warn("不支持的数据类型: {}", type);
                     break;
             }
+            
+            // 键值对带有过期时间时，已过期的直接丢弃，否则记录到过期索引
+            if (key != null && expireAt != -1) {
+                if (expireAt <= System.currentTimeMillis()) {
+                    redisCore.delete(key);
+                } else {
+                    redisCore.getDataBases()[currentDbIndex].expire(key, expireAt);
+                }
+            }
+            expireAt = -1;
         }
     }
 
@@ -3,8 +3,8 @@ package site.hnfy258.rdb;
 import lombok.extern.slf4j.Slf4j;
 import site.hnfy258.core.RedisCore;
 import site.hnfy258.datastructure.*;
-import site.hnfy258.internal.Dict;
-import site.hnfy258.internal.Sds;
+import site.hnfy258.internal.IntSet;
+import site.hnfy258.internal.ListPack;
 import site.hnfy258.rdb.crc.Crc64InputStream;
 import site.hnfy258.rdb.crc.Crc64OutputStream;
 
@@ -12,6 +12,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -64,6 +65,18 @@ public class RdbUtils {
           log.debug("RDB尾部写入完成，CRC64校验和: 0x{}", Long.toHexString(crc64OutputStream.getCrc64()));
     }
 
+    /**
+     * 写入毫秒级过期时间，紧跟在对应键值对之前
+     * 
+     * @param dos 数据输出流
+     * @param expireAt 毫秒级绝对过期时间
+     * @throws IOException 如果发生IO错误
+     */
+    public static void writeExpireTime(DataOutputStream dos, long expireAt) throws IOException {
+        dos.writeByte(RdbConstants.RDB_OPCODE_EXPIRETIME_MS);
+        dos.writeLong(expireAt);
+    }
+
     /**
      * 写入数据库选择指令
      * 
@@ -90,10 +103,11 @@ public class RdbUtils {
     private static void writeLength(DataOutputStream dos, int length) throws IOException {        if (length < 0x40) {
             dos.writeByte(length);
         } else if (length < 0x4000) {
-            dos.writeByte(length | 0x4000);
+            dos.writeByte(0x40 | (length >>> 8));
+            dos.writeByte(length & 0xFF);
         } else {
             dos.writeByte(0x80);
-            dos.writeByte(length);
+            dos.writeInt(length);
         }
     }
 
@@ -131,7 +145,7 @@ public class RdbUtils {
      */    public static void saveString(DataOutputStream dos, RedisBytes key, RedisString value) throws IOException {
         dos.writeByte(RdbConstants.STRING_TYPE);
         writeString(dos, key.getBytes());
-        writeString(dos, value.getValue().getBytes());
+        writeString(dos, value.getValue().getBytesUnsafe());
     }
 
     /**
@@ -140,15 +154,16 @@ public class RdbUtils {
      * @param dis 数据输入流
      * @param redisCore Redis核心接口
      * @param currentDBIndex 当前数据库索引
+     * @return 加载的键
      * @throws IOException 如果发生IO错误
      */
-    public static void loadString(DataInputStream dis, RedisCore redisCore, int currentDBIndex) throws IOException {
+    public static RedisBytes loadString(DataInputStream dis, RedisCore redisCore, int currentDBIndex) throws IOException {
         RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
-        RedisBytes value = new RedisBytes(RdbUtils.readString(dis));
-        RedisString redisString = new RedisString(Sds.create(value.getBytes()));
+        RedisString redisString = RedisString.fromBytes(RdbUtils.readString(dis));
         redisCore.selectDB(currentDBIndex);
         redisCore.put(key, redisString);
 //        log.debug("加载键值对到数据库{}:{}->{}",currentDBIndex, key.getString(), value.getString());
+        return key;
     }
 
     /**
@@ -246,6 +261,8 @@ public class RdbUtils {
     /**
      * 保存列表类型数据
      * 
+     * <p>从头到尾惰性遍历，不复制整个列表。
+     * 
      * @param dos 数据输出流
      * @param key 键
      * @param value 列表值
@@ -254,8 +271,9 @@ public class RdbUtils {
     public static void saveList(DataOutputStream dos, RedisBytes key, RedisList value) throws IOException {        dos.writeByte(RdbConstants.LIST_TYPE);
         writeString(dos, key.getBytes());
         writeLength(dos, value.size());
-        for (RedisBytes bytes : value.getAll()) {
-            writeString(dos, bytes.getBytesUnsafe());
+        Iterator<RedisBytes> iterator = value.iterator();
+        while (iterator.hasNext()) {
+            writeString(dos, iterator.next().getBytesUnsafe());
         }
     }
 
@@ -265,35 +283,50 @@ public class RdbUtils {
      * @param dis 数据输入流
      * @param redisCore Redis核心接口
      * @param currentDbIndex 当前数据库索引
+     * @return 加载的键
      * @throws IOException 如果发生IO错误
      */
-    public static void loadList(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {        RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
+    public static RedisBytes loadList(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {        RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
         long size = RdbUtils.readLength(dis);
         RedisList redisList = new RedisList();
+        // 保存时从头到尾写入，按相同顺序追加到尾部
         for (int i = 0; i < size; i++) {
-            redisList.lpush(new RedisBytes(RdbUtils.readString(dis)));
+            redisList.rpush(new RedisBytes(RdbUtils.readString(dis)));
         }
         redisCore.selectDB(currentDbIndex);
         redisCore.put(key, redisList);
-        log.info("加载列表到数据库{}:{}->{}",currentDbIndex, key.getString(), redisList.lrange(0, (int) (size-1)));
+        log.info("加载列表到数据库{}:{}，元素数: {}",currentDbIndex, key.getString(), redisList.size());
+        return key;
     }
 
     /**
      * 保存哈希表类型数据
      * 
+     * <p>紧凑编码的哈希表直接保存整个listpack，加载时无需逐个字段重建。
+     * 
      * @param dos 数据输出流
      * @param key 键
      * @param value 哈希表值
      * @throws IOException 如果发生IO错误
      */
     public static void saveHash(DataOutputStream dos, RedisBytes key, RedisHash value) throws IOException {
+        ListPack listPack = value.getListPack();
+        if (listPack != null) {
+            dos.writeByte(RdbConstants.HASH_LISTPACK_TYPE);
+            writeString(dos, key.getBytes());
+            writeString(dos, listPack.toByteArray());
+            log.info("保存哈希表: {}", key);
+            return;
+        }
+
         dos.writeByte(RdbConstants.HASH_TYPE);
         writeString(dos, key.getBytes());
-        Dict<RedisBytes, RedisBytes> hash = value.getHash();
-        writeLength(dos, (int) hash.size());
+        writeLength(dos, value.size());
 
-        Map<RedisBytes, RedisBytes> snapshot = hash.createSnapshot();
-        for (Map.Entry<RedisBytes, RedisBytes> entry : snapshot.entrySet()) {
+        // 快照期间命令线程修改的是分离出的副本，这里直接惰性遍历，不复制字段
+        Iterator<Map.Entry<RedisBytes, RedisBytes>> iterator = value.entryIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RedisBytes, RedisBytes> entry = iterator.next();
             writeString(dos, entry.getKey().getBytesUnsafe());
             writeString(dos, entry.getValue().getBytesUnsafe());
         }
@@ -306,9 +339,10 @@ public class RdbUtils {
      * @param dis 数据输入流
      * @param redisCore Redis核心接口
      * @param currentDbIndex 当前数据库索引
+     * @return 加载的键
      * @throws IOException 如果发生IO错误
      */
-    public static void loadHash(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {        RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
+    public static RedisBytes loadHash(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {        RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
         long size = RdbUtils.readLength(dis);
         RedisHash redisHash = new RedisHash();
         for (int i = 0; i < size; i++) {
@@ -318,22 +352,60 @@ public class RdbUtils {
         }
         redisCore.selectDB(currentDbIndex);
         redisCore.put(key, redisHash);
-        log.info("加载哈希表到数据库{}:{}->{}",currentDbIndex, key.getString(), redisHash.getHash());
+        log.info("加载哈希表到数据库{}:{}，字段数: {}",currentDbIndex, key.getString(), redisHash.size());
+        return key;
+    }
+
+    /**
+     * 加载紧凑编码的哈希表类型数据
+     * 
+     * @param dis 数据输入流
+     * @param redisCore Redis核心接口
+     * @param currentDbIndex 当前数据库索引
+     * @return 加载的键
+     * @throws IOException 如果发生IO错误或listpack格式不合法
+     */
+    public static RedisBytes loadHashListPack(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {
+        RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
+        RedisHash redisHash;
+        try {
+            redisHash = RedisHash.fromListPack(ListPack.fromBytes(RdbUtils.readString(dis)));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("哈希表listpack数据损坏: " + key.getString(), e);
+        }
+        redisHash.setKey(key);
+        redisCore.selectDB(currentDbIndex);
+        redisCore.put(key, redisHash);
+        log.info("加载哈希表到数据库{}:{}，字段数: {}",currentDbIndex, key.getString(), redisHash.size());
+        return key;
     }
 
     /**
      * 保存集合类型数据
      * 
+     * <p>整数集合编码的集合直接保存整个intset，加载时无需逐个成员解析。
+     * 
      * @param dos 数据输出流
      * @param key 键
      * @param value 集合值
      * @throws IOException 如果发生IO错误
      */
-    public static void saveSet(DataOutputStream dos, RedisBytes key, RedisSet value) throws IOException {        dos.writeByte(RdbConstants.SET_TYPE);
+    public static void saveSet(DataOutputStream dos, RedisBytes key, RedisSet value) throws IOException {
+        IntSet intSet = value.getIntSet();
+        if (intSet != null) {
+            dos.writeByte(RdbConstants.SET_INTSET_TYPE);
+            writeString(dos, key.getBytes());
+            writeString(dos, intSet.toByteArray());
+            log.info("保存集合: {}", key);
+            return;
+        }
+
+        dos.writeByte(RdbConstants.SET_TYPE);
         writeString(dos, key.getBytes());
         writeLength(dos, (int) value.size());
-        for (RedisBytes bytes : value.getAll()) {
-            writeString(dos, bytes.getBytesUnsafe());
+        Iterator<RedisBytes> iterator = value.memberIterator();
+        while (iterator.hasNext()) {
+            writeString(dos, iterator.next().getBytesUnsafe());
         }
         log.info("保存集合: {}", key);
     }
@@ -344,9 +416,10 @@ public class RdbUtils {
      * @param dis 数据输入流
      * @param redisCore Redis核心接口
      * @param currentDbIndex 当前数据库索引
+     * @return 加载的键
      * @throws IOException 如果发生IO错误
      */
-    public static void loadSet(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {        RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
+    public static RedisBytes loadSet(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {        RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
         long size = RdbUtils.readLength(dis);
         RedisSet redisSet = new RedisSet();
         List<RedisBytes> temp = new ArrayList<>();
@@ -356,7 +429,32 @@ public class RdbUtils {
         redisSet.add(temp);
         redisCore.selectDB(currentDbIndex);
         redisCore.put(key, redisSet);
-        log.info("加载集合到数据库{}:{}->{}",currentDbIndex, key.getString(), redisSet.getAll());
+        log.info("加载集合到数据库{}:{}，成员数: {}",currentDbIndex, key.getString(), redisSet.size());
+        return key;
+    }
+
+    /**
+     * 加载整数集合编码的集合类型数据
+     * 
+     * @param dis 数据输入流
+     * @param redisCore Redis核心接口
+     * @param currentDbIndex 当前数据库索引
+     * @return 加载的键
+     * @throws IOException 如果发生IO错误或intset格式不合法
+     */
+    public static RedisBytes loadSetIntSet(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {
+        RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
+        RedisSet redisSet;
+        try {
+            redisSet = RedisSet.fromIntSet(IntSet.fromBytes(RdbUtils.readString(dis)));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("集合intset数据损坏: " + key.getString(), e);
+        }
+        redisSet.setKey(key);
+        redisCore.selectDB(currentDbIndex);
+        redisCore.put(key, redisSet);
+        log.info("加载集合到数据库{}:{}，成员数: {}",currentDbIndex, key.getString(), redisSet.size());
+        return key;
     }
 
     /**
@@ -372,12 +470,13 @@ public class RdbUtils {
         int size = Math.toIntExact(value.size());
         writeLength(dos, size);
 
-        Iterable<? extends Map.Entry<String, Double>> entries = value.getAll();
-        for (Map.Entry<String, Double> entry : entries) {
+        Iterator<RedisZset.ZsetNode> iterator = value.iterator();
+        while (iterator.hasNext()) {
+            RedisZset.ZsetNode node = iterator.next();
             // 保存分数
-            writeString(dos, String.valueOf(entry.getValue()).getBytes());
-            // 保存成员（现在entry.getKey()是成员，entry.getValue()是分数）
-            writeString(dos, RedisBytes.fromString(entry.getKey()).getBytesUnsafe());
+            writeString(dos, String.valueOf(node.getScore()).getBytes());
+            // 保存成员，直接写入原始字节
+            writeString(dos, node.getMemberBytes().getBytesUnsafe());
         }
         log.info("保存有序集合: {}", key);
     }
@@ -388,9 +487,10 @@ public class RdbUtils {
      * @param dis 数据输入流
      * @param redisCore Redis核心接口
      * @param currentDbIndex 当前数据库索引
+     * @return 加载的键
      * @throws IOException 如果发生IO错误
      */
-    public static void loadZSet(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {
+    public static RedisBytes loadZSet(DataInputStream dis, RedisCore redisCore, int currentDbIndex) throws IOException {
         RedisBytes key = new RedisBytes(RdbUtils.readString(dis));
         long size = RdbUtils.readLength(dis);
         RedisZset redisZset = new RedisZset();
@@ -401,6 +501,7 @@ public class RdbUtils {
         }
         redisCore.selectDB(currentDbIndex);
         redisCore.put(key, redisZset);
-        log.info("加载有序集合到数据库{}:{}->{}",currentDbIndex,key.getString(), redisZset.getAll());
+        log.info("加载有序集合到数据库{}:{}，成员数: {}",currentDbIndex,key.getString(), redisZset.size());
+        return key;
     }
 }
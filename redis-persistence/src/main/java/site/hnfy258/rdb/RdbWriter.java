@@ -4,7 +4,6 @@ import lombok.extern.slf4j.Slf4j;
 import site.hnfy258.core.RedisCore;
 import site.hnfy258.database.RedisDB;
 import site.hnfy258.datastructure.*;
-import site.hnfy258.internal.Dict;
 import site.hnfy258.rdb.crc.Crc64OutputStream;
 
 import java.io.*;
@@ -167,9 +166,9 @@ public class RdbWriter {
             final RedisDB[] databases = redisCore.getDataBases();
             if (databases != null) {
                 for (final RedisDB db : databases) {
-                    if (db != null && db.size() > 0 && db.getData() != null) {
-                        // 在主线程中启动快照状态
-                        db.getData().startSnapshot();
+                    if (db != null && db.size() > 0) {
+                        // 在主线程中启动快照状态（覆盖所有分段）
+                        db.startSnapshot();
                         log.debug("数据库{}快照状态已启动", db.getId());
                     }
                 }
@@ -226,81 +225,6 @@ public class RdbWriter {
     }
 
     
-    /**
-     * 异步创建所有数据库的快照
-     * 
-     * <p>使用Dict的异步快照功能，完全在后台线程中执行，不阻塞主线程。
-     * 每个数据库的快照创建都是异步的，可以并行执行。
-     * 
-     * @return 异步快照结果，包含Map和DictSnapshot的Future
-     */
-    private AsyncSnapshotResult createDatabaseSnapshotsAsync() {
-        log.info("开始创建异步数据库快照");
-        
-        final Map<Integer, CompletableFuture<Map<RedisBytes, RedisData>>> snapshotFutures = new HashMap<>();
-        final Map<Integer, CompletableFuture<site.hnfy258.internal.Dict.DictSnapshot<RedisBytes, RedisData>>> dictSnapshotFutures = new HashMap<>();
-        final RedisDB[] databases = redisCore.getDataBases();
-        
-        if (databases == null) {
-            log.warn("数据库数组为null，返回空快照Future映射");
-            return new AsyncSnapshotResult(snapshotFutures, dictSnapshotFutures);
-        }
-        
-        // 为每个数据库创建异步快照
-        for (final RedisDB db : databases) {
-            if (db != null && db.size() > 0 && db.getData() != null) {
-                try {
-                    // 使用Dict的异步快照功能，不阻塞主线程
-                    CompletableFuture<site.hnfy258.internal.Dict.DictSnapshot<RedisBytes, RedisData>> snapshotFuture = 
-                        db.getData().createRdbSnapshot();
-                    
-                    // 保存DictSnapshot的Future，用于后续调用finishSnapshot
-                    dictSnapshotFutures.put(db.getId(), snapshotFuture);
-                    
-                    // 将DictSnapshot转换为Map，但不调用finishSnapshot()
-                    CompletableFuture<Map<RedisBytes, RedisData>> mapFuture = 
-                        snapshotFuture.thenApply(dictSnapshot -> {
-                            try {
-                                Map<RedisBytes, RedisData> result = dictSnapshot.toMap();
-                                log.debug("数据库{}异步快照创建完成，包含{}个键", db.getId(), result.size());
-                                
-                                // 关键：不在这里调用finishSnapshot()，保持快照的冻结状态
-                                // 快照的ForwardNode机制会确保主线程看到的是新值，快照看到的是旧值
-                                
-                                return result;
-                            } catch (Exception e) {
-                                log.error("转换数据库{}快照失败", db.getId(), e);
-                                throw new RuntimeException("转换数据库快照失败", e);
-                            }
-                        });
-                    
-                    snapshotFutures.put(db.getId(), mapFuture);
-                    
-                } catch (Exception e) {
-                    log.error("创建数据库{}异步快照失败", db.getId(), e);
-                    throw new RuntimeException("创建数据库异步快照失败", e);
-                }
-            }
-        }
-        
-        log.info("所有数据库异步快照启动完成，共{}个数据库", snapshotFutures.size());
-        return new AsyncSnapshotResult(snapshotFutures, dictSnapshotFutures);
-    }
-    
-    /**
-     * 异步快照结果包装类
-     */
-    private static class AsyncSnapshotResult {
-        final Map<Integer, CompletableFuture<Map<RedisBytes, RedisData>>> snapshotFutures;
-        final Map<Integer, CompletableFuture<site.hnfy258.internal.Dict.DictSnapshot<RedisBytes, RedisData>>> dictSnapshotFutures;
-        
-        AsyncSnapshotResult(Map<Integer, CompletableFuture<Map<RedisBytes, RedisData>>> snapshotFutures,
-                           Map<Integer, CompletableFuture<site.hnfy258.internal.Dict.DictSnapshot<RedisBytes, RedisData>>> dictSnapshotFutures) {
-            this.snapshotFutures = snapshotFutures;
-            this.dictSnapshotFutures = dictSnapshotFutures;
-        }
-    }
-
     /**
      * 从快照写入RDB文件
      * 
@@ -391,16 +315,23 @@ public class RdbWriter {
         int databaseId = db.getId();
         RdbUtils.writeSelectDB(dos, databaseId);
         
-        //2.写数据库数据 - 使用线程安全的快照
-        Map<RedisBytes, RedisData> snapshot = db.getData().createSnapshot();
-        for (Map.Entry<RedisBytes, RedisData> entry : snapshot.entrySet()) {
-            RedisBytes key = entry.getKey();
-            RedisData value = entry.getValue();
-            rdbSaveObject(dos, key, value);
+        //2.写数据库数据 - 在快照视图上惰性遍历，不复制整个数据库
+        db.startSnapshot();
+        try {
+            Iterator<Map.Entry<RedisBytes, RedisData>> iterator = db.snapshotIterator();
+            while (iterator.hasNext()) {
+                Map.Entry<RedisBytes, RedisData> entry = iterator.next();
+                rdbSaveObject(dos, entry.getKey(), entry.getValue());
+            }
+        } finally {
+            db.finishSnapshot();
         }
     }
 
     private void rdbSaveObject(DataOutputStream dos, RedisBytes key, RedisData value) throws IOException {
+        if (value.timeout() != -1) {
+            RdbUtils.writeExpireTime(dos, value.timeout());
+        }
         switch(value.getClass().getSimpleName()){
             case "RedisString":
                 RdbUtils.saveString(dos,key,(RedisString)value);
@@ -467,9 +398,9 @@ public class RdbWriter {
             
             int finishedCount = 0;
             for (final RedisDB db : databases) {
-                if (db != null && db.getData() != null) {
+                if (db != null) {
                     try {
-                        db.getData().finishSnapshot();
+                        db.finishSnapshot();
                         finishedCount++;
                         log.debug("数据库{}快照状态清理完成", db.getId());
                     } catch (Exception e) {
@@ -513,7 +444,7 @@ public class RdbWriter {
             
             // 2. 为每个数据库直接迭代快照并写入
             for (final RedisDB db : databases) {
-                if (db != null && db.size() > 0 && db.getData() != null) {
+                if (db != null && db.size() > 0) {
                     try {
                         log.info("开始直接迭代数据库{}快照并写入", db.getId());
                         
@@ -550,8 +481,8 @@ public class RdbWriter {
     /**
      * 直接从快照迭代写入单个数据库
      * 
-     * <p>仿照Dict内部的快照迭代逻辑，直接遍历哈希表，
-     * 对ForwardNode使用快照视图，对普通值直接使用。
+     * <p>在快照视图上惰性遍历所有分段，边遍历边写入，
+     * 不在内存中复制整个键空间。对ForwardNode使用快照视图，对普通值直接使用。
      * 
      * @param dos 数据输出流
      * @param db 数据库对象
@@ -561,51 +492,13 @@ public class RdbWriter {
     private int writeDbFromDirectSnapshot(final DataOutputStream dos, final RedisDB db) throws IOException {
         int writtenCount = 0;
         
-        // 获取Dict对象
-        final Dict<RedisBytes, RedisData> dict = db.getData();
-        
-
-        final Map<RedisBytes, RedisData> snapshotData = new HashMap<>();
-
-        try {
-            // 直接调用Dict的内部迭代逻辑
-            collectSnapshotData(dict, snapshotData);
-            
-            // 写入收集到的快照数据
-            for (final Map.Entry<RedisBytes, RedisData> entry : snapshotData.entrySet()) {
-                final RedisBytes key = entry.getKey();
-                final RedisData value = entry.getValue();
-                rdbSaveObject(dos, key, value);
-                writtenCount++;
-            }
-            
-        } catch (Exception e) {
-            log.error("收集数据库{}快照数据失败", db.getId(), e);
-            throw new IOException("收集快照数据失败", e);
+        final Iterator<Map.Entry<RedisBytes, RedisData>> iterator = db.snapshotIterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<RedisBytes, RedisData> entry = iterator.next();
+            rdbSaveObject(dos, entry.getKey(), entry.getValue());
+            writtenCount++;
         }
         
         return writtenCount;
     }
-    
-    /**
-     * 收集快照数据
-     * 
-     * <p>使用反射或者Dict提供的接口来收集快照时刻的数据。
-     * 这里仿照Dict内部的快照逻辑来实现。
-     * 
-     * @param dict Dict对象
-     * @param snapshotData 用于收集快照数据的Map
-     */
-    private void collectSnapshotData(final site.hnfy258.internal.Dict<RedisBytes, RedisData> dict, 
-                                    final Map<RedisBytes, RedisData> snapshotData) {
-        try {
-
-            final Map<RedisBytes, RedisData> tempSnapshot = dict.createSnapshotWithoutFinish();
-            snapshotData.putAll(tempSnapshot);
-            
-        } catch (Exception e) {
-            log.error("收集快照数据时发生异常", e);
-            throw new RuntimeException("收集快照数据失败", e);
-        }
-    }
 }
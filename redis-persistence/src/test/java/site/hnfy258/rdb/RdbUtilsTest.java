@@ -11,12 +11,14 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import site.hnfy258.core.RedisCore;
+import site.hnfy258.core.RedisCoreImpl;
 import site.hnfy258.datastructure.*;
 import site.hnfy258.internal.Sds;
 import site.hnfy258.rdb.crc.Crc64OutputStream;
 import site.hnfy258.rdb.crc.Crc64InputStream;
 
 import java.io.*;
+import java.util.Arrays;
 
 /**
  * RdbUtils单元测试
@@ -352,6 +354,131 @@ class RdbUtilsTest {
         }
     }
 
+    @Nested
+    @DisplayName("哈希表编码测试")
+    class HashEncodingTests {
+
+        private RedisHash roundTrip(RedisHash hash, byte expectedType) throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(baos);
+            RedisBytes key = RedisBytes.fromString("hash-key");
+            RdbUtils.saveHash(dos, key, hash);
+            dos.flush();
+
+            byte[] bytes = baos.toByteArray();
+            assertEquals(expectedType, bytes[0], "第一个字节应该是对应编码的类型标识");
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            RedisCore core = new RedisCoreImpl(1);
+            if (expectedType == RdbConstants.HASH_LISTPACK_TYPE) {
+                RdbUtils.loadHashListPack(dis, core, 0);
+            } else {
+                RdbUtils.loadHash(dis, core, 0);
+            }
+            assertEquals(0, dis.available(), "应完整读取保存的数据");
+            return (RedisHash) core.get(key);
+        }
+
+        @Test
+        @DisplayName("紧凑编码哈希表保存加载测试")
+        void testListpackHashRoundTrip() throws IOException {
+            RedisHash hash = new RedisHash();
+            for (int i = 0; i < 20; i++) {
+                hash.put(RedisBytes.fromString("field" + i), RedisBytes.fromString("value" + i));
+            }
+            assertEquals(RedisHash.ENCODING_LISTPACK, hash.getEncoding());
+
+            RedisHash loaded = roundTrip(hash, RdbConstants.HASH_LISTPACK_TYPE);
+            assertEquals(RedisHash.ENCODING_LISTPACK, loaded.getEncoding());
+            assertEquals(20, loaded.size());
+            assertEquals(RedisBytes.fromString("value7"), loaded.get(RedisBytes.fromString("field7")));
+        }
+
+        @Test
+        @DisplayName("哈希表编码保存加载测试")
+        void testHashtableRoundTrip() throws IOException {
+            RedisHash hash = new RedisHash();
+            byte[] longValue = new byte[EncodingConfig.getHashMaxListpackValue() + 100];
+            Arrays.fill(longValue, (byte) 'x');
+            hash.put(RedisBytes.fromString("long"), new RedisBytes(longValue));
+            hash.put(RedisBytes.fromString("short"), RedisBytes.fromString("v"));
+            assertEquals(RedisHash.ENCODING_HASHTABLE, hash.getEncoding());
+
+            // 超过63字节的字符串使用多字节长度编码
+            RedisHash loaded = roundTrip(hash, RdbConstants.HASH_TYPE);
+            assertEquals(2, loaded.size());
+            assertArrayEquals(longValue, loaded.get(RedisBytes.fromString("long")).getBytes());
+            assertEquals(RedisHash.ENCODING_HASHTABLE, loaded.getEncoding());
+        }
+
+        @Test
+        @DisplayName("损坏的紧凑编码加载测试")
+        void testCorruptedListpack() throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(baos);
+            dos.writeByte(3);
+            dos.writeBytes("key");
+            dos.writeByte(2);
+            dos.writeByte(5);
+            dos.writeByte('a');
+            dos.flush();
+
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+            assertThrows(IOException.class, () -> RdbUtils.loadHashListPack(dis, mockRedisCore, 0));
+        }
+
+        @Test
+        @DisplayName("列表保存加载保持元素顺序")
+        void testListRoundTripKeepsOrder() throws IOException {
+            RedisList list = new RedisList();
+            for (int i = 0; i < 1000; i++) {
+                list.rpush(RedisBytes.fromString("item" + i));
+            }
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(baos);
+            RedisBytes key = RedisBytes.fromString("list-key");
+            RdbUtils.saveList(dos, key, list);
+            dos.flush();
+
+            byte[] bytes = baos.toByteArray();
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            RedisCore core = new RedisCoreImpl(1);
+            RdbUtils.loadList(dis, core, 0);
+
+            RedisList loaded = (RedisList) core.get(key);
+            assertEquals(1000, loaded.size());
+            assertEquals("item0", loaded.index(0).getString());
+            assertEquals("item999", loaded.index(-1).getString());
+        }
+
+        @Test
+        @DisplayName("整数集合编码保存加载测试")
+        void testIntsetSetRoundTrip() throws IOException {
+            RedisSet set = new RedisSet();
+            set.add(Arrays.asList(RedisBytes.fromString("-5"), RedisBytes.fromString("70000"),
+                    RedisBytes.fromString("12")));
+            assertEquals(RedisSet.ENCODING_INTSET, set.getEncoding());
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream dos = new DataOutputStream(baos);
+            RedisBytes key = RedisBytes.fromString("set-key");
+            RdbUtils.saveSet(dos, key, set);
+            dos.flush();
+
+            byte[] bytes = baos.toByteArray();
+            assertEquals(RdbConstants.SET_INTSET_TYPE, bytes[0]);
+            DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            RedisCore core = new RedisCoreImpl(1);
+            RdbUtils.loadSetIntSet(dis, core, 0);
+            assertEquals(0, dis.available(), "应完整读取保存的数据");
+
+            RedisSet loaded = (RedisSet) core.get(key);
+            assertEquals(RedisSet.ENCODING_INTSET, loaded.getEncoding());
+            assertEquals(3, loaded.size());
+            assertTrue(loaded.contains(RedisBytes.fromString("70000")));
+        }
+    }
+
     @Nested
     @DisplayName("数据库选择测试")
     class DatabaseSelectionTests {
@@ -49,8 +49,8 @@ public abstract class Resp implements Serializable {
     /** 最大缓存数字 */
     protected static final int MAX_CACHED_NUMBER = 255;
 
-    private static final int PROTO_MAX_BULK_LEN = 512 * 1024 * 1024; // 最大 512MB
-    private static final int PROTO_MAX_ARRAY_LEN = 1024 * 1024;
+    static final int PROTO_MAX_BULK_LEN = 512 * 1024 * 1024; // 最大 512MB
+    static final int PROTO_MAX_ARRAY_LEN = 1024 * 1024;
     
     // 静态初始化数字缓存
     static {
@@ -0,0 +1,301 @@
+package site.hnfy258.protocal;
+
+import io.netty.buffer.ByteBuf;
+
+import java.io.Serializable;
+
+/**
+ * 扁平argv形式的客户端命令
+ *
+ * <p>客户端发送的命令几乎都是"由批量字符串组成的数组"，本类针对这种形式做专门优化：
+ * 不再为每个参数分配独立的{@link BulkString}和字节数组，而是持有累积缓冲区中
+ * 整个帧的一个retained slice，并记录每个参数在帧内的偏移量和长度。
+ *
+ * <p>主要功能包括：
+ * <ul>
+ *     <li>零拷贝解析 - 解析阶段只记录偏移量，不复制参数内容</li>
+ *     <li>按需拷贝 - 只有在参数需要成为{@link BulkString}/RedisBytes时才复制</li>
+ *     <li>原样转发 - 编码时直接写出原始帧，AOF和复制无需重新编码</li>
+ *     <li>原地比较 - 命令名等参数可直接在缓冲区上比较，无需分配</li>
+ * </ul>
+ *
+ * <p>生命周期：实例持有缓冲区的引用计数，使用完毕后必须调用{@link #release()}。
+ * 释放后不能再访问参数内容。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class RespCommand extends Resp implements Serializable {
+
+    /** 整个帧的retained slice，读索引为0 */
+    private final transient ByteBuf frame;
+
+    /** 参数个数 */
+    private final int argc;
+
+    /** 每个参数内容在帧内的起始偏移量 */
+    private final int[] argOffsets;
+
+    /** 每个参数内容的长度 */
+    private final int[] argLengths;
+
+    /** 是否已释放缓冲区 */
+    private boolean released;
+
+    private RespCommand(final ByteBuf frame, final int argc, final int[] argOffsets, final int[] argLengths) {
+        this.frame = frame;
+        this.argc = argc;
+        this.argOffsets = argOffsets;
+        this.argLengths = argLengths;
+    }
+
+    /**
+     * 从缓冲区解码一个扁平argv命令
+     *
+     * <p>只处理"*N\r\n"后跟N个非空批量字符串的帧。成功时缓冲区读索引移动到帧末尾，
+     * 并持有帧的retained slice；数据不完整时读索引不变并返回null。
+     *
+     * @param in 输入缓冲区，读索引指向'*'
+     * @return 解码后的命令，如果数据不完整返回null
+     * @throws IllegalArgumentException 如果帧不是扁平的批量字符串数组，调用方应回退到{@link Resp#decode(ByteBuf)}
+     */
+    public static RespCommand decode(final ByteBuf in) {
+        final int frameStart = in.readerIndex();
+        final int limit = in.writerIndex();
+        if (frameStart >= limit || in.getByte(frameStart) != '*') {
+            throw new IllegalArgumentException("不是数组帧");
+        }
+
+        // 1. 解析参数个数
+        int lineEnd = findLineEnd(in, frameStart + 1, limit);
+        if (lineEnd < 0) {
+            return null;
+        }
+        final int argc = parseLength(in, frameStart + 1, lineEnd);
+        if (argc <= 0 || argc > PROTO_MAX_ARRAY_LEN) {
+            throw new IllegalArgumentException("不是扁平argv数组: " + argc);
+        }
+
+        // 2. 逐个解析批量字符串，只记录偏移量
+        final int[] argOffsets = new int[argc];
+        final int[] argLengths = new int[argc];
+        int pos = lineEnd + 2;
+        for (int i = 0; i < argc; i++) {
+            if (pos >= limit) {
+                return null;
+            }
+            if (in.getByte(pos) != '$') {
+                throw new IllegalArgumentException("argv元素不是批量字符串");
+            }
+            lineEnd = findLineEnd(in, pos + 1, limit);
+            if (lineEnd < 0) {
+                return null;
+            }
+            final int length = parseLength(in, pos + 1, lineEnd);
+            if (length < 0 || length > PROTO_MAX_BULK_LEN) {
+                throw new IllegalArgumentException("argv元素长度非法: " + length);
+            }
+            final int contentStart = lineEnd + 2;
+            if ((long) contentStart + length + 2 > limit) {
+                return null;
+            }
+            if (in.getByte(contentStart + length) != '\r' || in.getByte(contentStart + length + 1) != '\n') {
+                throw new IllegalArgumentException("BulkString格式错误：期望\\r\\n结尾");
+            }
+            argOffsets[i] = contentStart - frameStart;
+            argLengths[i] = length;
+            pos = contentStart + length + 2;
+        }
+
+        // 3. 截取整个帧并推进读索引
+        final ByteBuf frame = in.retainedSlice(frameStart, pos - frameStart);
+        in.readerIndex(pos);
+        return new RespCommand(frame, argc, argOffsets, argLengths);
+    }
+
+    /**
+     * 查找从start开始的第一个\r\n
+     *
+     * @return '\r'的位置，如果数据不完整返回-1
+     */
+    private static int findLineEnd(final ByteBuf in, final int start, final int limit) {
+        final int cr = in.indexOf(start, limit, (byte) '\r');
+        if (cr < 0 || cr + 1 >= limit) {
+            return -1;
+        }
+        if (in.getByte(cr + 1) != '\n') {
+            throw new IllegalArgumentException("格式错误：期望\\r\\n但找到了其他字符");
+        }
+        return cr;
+    }
+
+    /**
+     * 解析非负的长度字段，负数（如null批量字符串）视为非扁平argv
+     */
+    private static int parseLength(final ByteBuf in, final int start, final int end) {
+        if (start >= end || end - start > 10) {
+            throw new IllegalArgumentException("长度字段非法");
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            final byte b = in.getByte(i);
+            if (b < '0' || b > '9') {
+                throw new IllegalArgumentException("长度字段包含非数字字符");
+            }
+            value = value * 10 + (b - '0');
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("长度字段溢出");
+        }
+        return (int) value;
+    }
+
+    /**
+     * 获取参数个数
+     *
+     * @return 参数个数（包含命令名）
+     */
+    public int getArgc() {
+        return argc;
+    }
+
+    /**
+     * 获取指定参数的长度
+     *
+     * @param index 参数下标
+     * @return 参数字节长度
+     */
+    public int getArgLength(final int index) {
+        return argLengths[index];
+    }
+
+    /**
+     * 获取指定参数中某个位置的字节，不发生拷贝
+     *
+     * @param index 参数下标
+     * @param position 参数内的位置
+     * @return 字节值
+     */
+    public byte getArgByte(final int index, final int position) {
+        ensureNotReleased();
+        return frame.getByte(argOffsets[index] + position);
+    }
+
+    /**
+     * 大小写不敏感地比较参数与给定的ASCII字节序列，不发生拷贝
+     *
+     * @param index 参数下标
+     * @param expected 期望的字节序列
+     * @return 是否相等（忽略ASCII大小写）
+     */
+    public boolean argEqualsIgnoreCase(final int index, final byte[] expected) {
+        ensureNotReleased();
+        final int length = argLengths[index];
+        if (length != expected.length) {
+            return false;
+        }
+        final int offset = argOffsets[index];
+        for (int i = 0; i < length; i++) {
+            final byte actual = frame.getByte(offset + i);
+            if (actual != expected[i] && toLowerAscii(actual) != toLowerAscii(expected[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte toLowerAscii(final byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 32) : b;
+    }
+
+    /**
+     * 复制指定参数的内容，这是参数需要被存储时唯一的一次拷贝
+     *
+     * @param index 参数下标
+     * @return 参数内容的新字节数组
+     */
+    public byte[] copyArg(final int index) {
+        ensureNotReleased();
+        final byte[] bytes = new byte[argLengths[index]];
+        frame.getBytes(argOffsets[index], bytes);
+        return bytes;
+    }
+
+    /**
+     * 在缓冲区上直接计算参数的哈希值，不发生拷贝
+     *
+     * <p>结果与对{@link #copyArg(int)}的结果调用{@link java.util.Arrays#hashCode(byte[])}一致，
+     * 因此与RedisBytes的哈希值相同，可用于按键路由命令。
+     *
+     * @param index 参数下标
+     * @return 参数内容的哈希值
+     */
+    public int argHashCode(final int index) {
+        ensureNotReleased();
+        final int offset = argOffsets[index];
+        final int length = argLengths[index];
+        int h = 1;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + frame.getByte(offset + i);
+        }
+        return h;
+    }
+
+    /**
+     * 物化为{@link RespArray}，供基于Resp[]的命令实现使用
+     *
+     * <p>每个参数复制一次并以受信任方式包装，不会再做防御性拷贝，
+     * 哈希值也只会在参数作为键使用时才计算。
+     *
+     * @return 等价的RespArray
+     */
+    public RespArray toRespArray() {
+        final Resp[] array = new Resp[argc];
+        for (int i = 0; i < argc; i++) {
+            array[i] = BulkString.wrapTrusted(copyArg(i));
+        }
+        return new RespArray(array);
+    }
+
+    /**
+     * 获取整个帧的字节长度
+     *
+     * @return 帧长度
+     */
+    public int getFrameLength() {
+        return frame.readableBytes();
+    }
+
+    /**
+     * 释放持有的缓冲区引用，重复调用是安全的
+     */
+    public void release() {
+        if (!released) {
+            released = true;
+            frame.release();
+        }
+    }
+
+    private void ensureNotReleased() {
+        if (released) {
+            throw new IllegalStateException("命令缓冲区已释放");
+        }
+    }
+
+    /**
+     * 直接写出原始帧，不重新编码
+     *
+     * @param resp 响应对象（接口要求但未使用）
+     * @param byteBuf 写入编码数据的目标缓冲区
+     */
+    @Override
+    public void encode(final Resp resp, final ByteBuf byteBuf) {
+        ensureNotReleased();
+        byteBuf.writeBytes(frame, frame.readerIndex(), frame.readableBytes());
+    }
+
+    @Override
+    public String toString() {
+        return "RespCommand{argc=" + argc + ", frameLength=" + (released ? -1 : frame.readableBytes()) + "}";
+    }
+}
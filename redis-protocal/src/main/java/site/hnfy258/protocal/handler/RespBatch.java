@@ -0,0 +1,64 @@
+package site.hnfy258.protocal.handler;
+
+import site.hnfy258.protocal.Resp;
+
+import java.util.List;
+
+/**
+ * 流水线批次消息
+ *
+ * <p>由{@link RespDecoder}在批量模式下产出，封装一次解码调用中从累积缓冲区
+ * 取出的全部完整RESP帧。下游处理器收到批次后可以连续执行其中的命令，
+ * 避免每个命令单独经过一次Pipeline传递和一次线程池任务提交。
+ *
+ * <p>设计说明：
+ * <ul>
+ *     <li>不是RESP数据类型 - 仅在Pipeline内部传递，不会被编码到网络</li>
+ *     <li>帧顺序与客户端发送顺序一致</li>
+ *     <li>只在一次解码得到多个帧时创建，单帧仍直接传递{@link Resp}</li>
+ * </ul>
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public final class RespBatch {
+
+    /** 批次中的RESP帧，按接收顺序排列 */
+    private final List<Resp> frames;
+
+    /**
+     * 创建流水线批次
+     *
+     * @param frames 已解码的RESP帧列表
+     * @throws IllegalArgumentException 如果帧列表为空
+     */
+    public RespBatch(final List<Resp> frames) {
+        if (frames == null || frames.isEmpty()) {
+            throw new IllegalArgumentException("流水线批次不能为空");
+        }
+        this.frames = frames;
+    }
+
+    /**
+     * 获取批次中的所有帧
+     *
+     * @return 按接收顺序排列的RESP帧
+     */
+    public List<Resp> getFrames() {
+        return frames;
+    }
+
+    /**
+     * 获取批次中的帧数量
+     *
+     * @return 帧数量
+     */
+    public int size() {
+        return frames.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RespBatch{size=" + frames.size() + "}";
+    }
+}
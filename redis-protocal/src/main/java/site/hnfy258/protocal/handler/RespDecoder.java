@@ -6,9 +6,11 @@ import io.netty.handler.codec.ByteToMessageDecoder;
 import lombok.extern.slf4j.Slf4j;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
+import site.hnfy258.protocal.RespCommand;
 import site.hnfy258.protocal.BulkString;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,6 +25,8 @@ import java.util.List;
  *     <li>INLINE格式解码 - 支持传统的文本命令格式</li>
  *     <li>零拷贝优化 - 使用ByteBuf的零拷贝特性提升性能</li>
  *     <li>错误恢复 - 支持数据不完整和格式错误的处理</li>
+ *     <li>流水线批量解码 - 一次调用取出所有完整帧，可合并为{@link RespBatch}</li>
+ *     <li>扁平argv解码 - 命令参数以缓冲区切片加偏移量表示，见{@link RespCommand}</li>
  * </ul>
  * 
  * <p>支持的RESP类型：
@@ -43,69 +47,164 @@ public class RespDecoder extends ByteToMessageDecoder {
     /** 最大内联命令长度限制 */
     private static final int MAX_INLINE_LENGTH = 64 * 1024; // 64KB
 
+    /** 批量模式下一个批次的最大帧数，一次读取的帧更多时拆成多个批次传递 */
+    static final int MAX_BATCH_FRAMES = 1024;
+
+    /** 是否启用流水线批量模式：一次解码的多个帧合并为一个{@link RespBatch}向下游传递 */
+    private final boolean batchMode;
+
+    /** 是否启用扁平argv模式：批量字符串数组解码为持有缓冲区切片的{@link RespCommand} */
+    private final boolean argvMode;
+
+    /**
+     * 创建逐帧传递的解码器
+     *
+     * <p>每次调用仍会取出累积缓冲区中的全部完整帧，但每个帧作为独立消息向下游传递。
+     */
+    public RespDecoder() {
+        this(false);
+    }
+
+    /**
+     * 创建解码器
+     *
+     * @param batchMode 是否启用流水线批量模式，启用后一次解码得到的多个帧会
+     *                  合并为一个{@link RespBatch}传递，供下游连续处理
+     */
+    public RespDecoder(final boolean batchMode) {
+        this(batchMode, false);
+    }
+
+    /**
+     * 创建解码器
+     *
+     * @param batchMode 是否启用流水线批量模式
+     * @param argvMode 是否启用扁平argv模式，启用后客户端命令解码为{@link RespCommand}，
+     *                 参数只记录偏移量，由下游决定何时复制；下游必须负责释放
+     */
+    public RespDecoder(final boolean batchMode, final boolean argvMode) {
+        this.batchMode = batchMode;
+        this.argvMode = argvMode;
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        List<Resp> batch = null;
         try {
-            while (in.readableBytes() > 0) {
-                in.markReaderIndex();
-
-                // 1. 确保至少有一个字节可读
-                if (in.readableBytes() < 1) {
-                    in.resetReaderIndex();
-                    return;
+            // 1. 一次性取出累积缓冲区中所有完整的帧，避免每个帧都经过一轮callDecode
+            int decodedCount = 0;
+            Resp frame;
+            while ((frame = decodeFrame(in)) != null) {
+                decodedCount++;
+                if (batchMode) {
+                    if (batch == null) {
+                        batch = new ArrayList<>();
+                    }
+                    batch.add(frame);
+                    // 批次达到上限时先传递，一次大读取不会变成一个巨大的批次
+                    if (batch.size() >= MAX_BATCH_FRAMES) {
+                        out.add(new RespBatch(batch));
+                        batch = null;
+                    }
+                } else {
+                    out.add(frame);
                 }
+            }
 
-                byte firstByte = in.getByte(in.readerIndex());
+            // 2. 批量模式下，多帧合并为一个批次，单帧直接传递
+            if (batch != null) {
+                out.add(batch.size() == 1 ? batch.get(0) : new RespBatch(batch));
+                batch = null;
+            }
 
-                // 2. 跳过前导的换行符
-                if (firstByte == '\n' || firstByte == '\r') {
-                    in.skipBytes(1);
-                    continue;
-                }
-                // 3. 判断是RESP格式还是INLINE格式
-                if (isValidRespType(firstByte)) {
-                    // 标准RESP协议格式
+            if (decodedCount > 0 && log.isDebugEnabled()) {
+                log.debug("本次解码 {} 个RESP帧，剩余 {} 字节", decodedCount, in.readableBytes());
+            }
+        } catch (Exception e) {
+            log.error("解码过程发生错误: {}", e.getMessage(), e);
+            // 还没有传递的帧持有累积缓冲区的切片，连接关闭前释放
+            if (batch != null) {
+                releaseFrames(batch);
+            }
+            ctx.close();
+        }
+    }
+
+    /**
+     * 释放帧持有的缓冲区引用
+     *
+     * @param frames 未传递给下游的帧
+     */
+    private static void releaseFrames(final List<Resp> frames) {
+        for (Resp frame : frames) {
+            if (frame instanceof RespCommand) {
+                ((RespCommand) frame).release();
+            }
+        }
+    }
+
+    /**
+     * 从缓冲区解码下一个完整的帧
+     *
+     * @param in 输入缓冲区
+     * @return 解码后的RESP对象，如果数据不完整返回null（读索引已回滚）
+     */
+    private Resp decodeFrame(ByteBuf in) {
+        while (in.readableBytes() > 0) {
+            in.markReaderIndex();
+
+            byte firstByte = in.getByte(in.readerIndex());
+
+            // 1. 跳过前导的换行符
+            if (firstByte == '\n' || firstByte == '\r') {
+                in.skipBytes(1);
+                continue;
+            }
+            // 2. 判断是RESP格式还是INLINE格式
+            if (isValidRespType(firstByte)) {
+                // 扁平argv优先：客户端命令不再逐个参数分配对象
+                if (argvMode && firstByte == '*') {
                     try {
-                        Resp resp = Resp.decode(in);
-                        if (resp != null) {
-                            out.add(resp);
-                            log.debug("成功解码RESP对象: {}", resp.getClass().getSimpleName());
-                            return; // 成功解码一个消息，退出
-                        } else {
-                            // 数据不完整，等待更多数据
+                        RespCommand command = RespCommand.decode(in);
+                        if (command == null) {
                             in.resetReaderIndex();
-                            return;
                         }
+                        return command;
                     } catch (IllegalArgumentException e) {
-                        // RESP格式错误，跳过这个字节并继续尝试
-                        log.debug("RESP格式错误，跳过一个字节: {}", e.getMessage());
+                        // 不是扁平的批量字符串数组，回退到通用解码
                         in.resetReaderIndex();
-                        in.skipBytes(1);
-                        continue;
-                    } catch (Exception e) {
-                        // 其他异常可能表示数据不完整，等待更多数据
-                        log.debug("RESP解码异常，等待更多数据: {}", e.getMessage());
-                        in.resetReaderIndex();
-                        return;
                     }
-                } else {
-                    // 4. 尝试解码INLINE格式命令
-                    Resp inlineResp = decodeInlineCommand(in);
-                    if (inlineResp != null) {
-                        out.add(inlineResp);
-                        log.debug("成功解码INLINE命令");
-                        return; // 成功解码一个消息，退出
-                    } else {
-                        // 数据不完整或无效，等待更多数据
+                }
+                // 标准RESP协议格式
+                try {
+                    Resp resp = Resp.decode(in);
+                    if (resp == null) {
+                        // 数据不完整，等待更多数据
                         in.resetReaderIndex();
-                        return;
                     }
+                    return resp;
+                } catch (IllegalArgumentException e) {
+                    // RESP格式错误，跳过这个字节并继续尝试
+                    log.debug("RESP格式错误，跳过一个字节: {}", e.getMessage());
+                    in.resetReaderIndex();
+                    in.skipBytes(1);
+                } catch (Exception e) {
+                    // 其他异常可能表示数据不完整，等待更多数据
+                    log.debug("RESP解码异常，等待更多数据: {}", e.getMessage());
+                    in.resetReaderIndex();
+                    return null;
                 }
+            } else {
+                // 3. 尝试解码INLINE格式命令
+                Resp inlineResp = decodeInlineCommand(in);
+                if (inlineResp == null) {
+                    // 数据不完整或无效，等待更多数据
+                    in.resetReaderIndex();
+                }
+                return inlineResp;
             }
-        } catch (Exception e) {
-            log.error("解码过程发生错误: {}", e.getMessage(), e);
-            ctx.close();
         }
+        return null;
     }
 
     /**
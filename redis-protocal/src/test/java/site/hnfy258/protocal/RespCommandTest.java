@@ -0,0 +1,88 @@
+package site.hnfy258.protocal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RespCommandTest {
+
+    @Test
+    public void testDecodeFlatArgv() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes("*3\r\n$3\r\nset\r\n$3\r\nkey\r\n$5\r\nvalue\r\n".getBytes());
+
+        RespCommand command = RespCommand.decode(buf);
+        try {
+            assertNotNull(command);
+            assertEquals(3, command.getArgc());
+            assertEquals(0, buf.readableBytes());
+
+            // 命令名可在缓冲区上直接比较
+            assertTrue(command.argEqualsIgnoreCase(0, "SET".getBytes()));
+            assertFalse(command.argEqualsIgnoreCase(0, "GET".getBytes()));
+            assertEquals(5, command.getArgLength(2));
+            assertArrayEquals("value".getBytes(), command.copyArg(2));
+
+            RespArray array = command.toRespArray();
+            assertEquals(3, array.getContent().length);
+            assertEquals("key", array.getContent()[1].toString());
+        } finally {
+            command.release();
+            buf.release();
+        }
+    }
+
+    @Test
+    public void testEncodeWritesOriginalFrame() {
+        String frame = "*2\r\n$3\r\nGET\r\n$3\r\nkey\r\n";
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes(frame.getBytes());
+
+        RespCommand command = RespCommand.decode(buf);
+        ByteBuf out = Unpooled.buffer();
+        try {
+            command.encode(command, out);
+            assertEquals(frame, out.toString(io.netty.util.CharsetUtil.UTF_8));
+        } finally {
+            command.release();
+            out.release();
+            buf.release();
+        }
+    }
+
+    @Test
+    public void testIncompleteFrameKeepsReaderIndex() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes("*2\r\n$3\r\nGET\r\n$3\r\nke".getBytes());
+
+        assertNull(RespCommand.decode(buf));
+        assertEquals(0, buf.readerIndex());
+        buf.release();
+    }
+
+    @Test
+    public void testNonFlatArrayIsRejected() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes("*1\r\n:1\r\n".getBytes());
+
+        // 非批量字符串元素交给通用解码处理
+        assertThrows(IllegalArgumentException.class, () -> RespCommand.decode(buf));
+        assertEquals(0, buf.readerIndex());
+        buf.release();
+    }
+
+    @Test
+    public void testReleaseIsIdempotent() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes("*1\r\n$4\r\nPING\r\n".getBytes());
+
+        RespCommand command = RespCommand.decode(buf);
+        assertEquals(2, buf.refCnt());
+        command.release();
+        command.release();
+        assertEquals(1, buf.refCnt());
+        assertThrows(IllegalStateException.class, () -> command.copyArg(0));
+        buf.release();
+    }
+}
@@ -239,4 +239,83 @@ public class RespDecoderTest {
         
         channel.finish();
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testBatchModeDrainsPipelinedCommands() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder(true));
+        
+        // 一次写入三个流水线命令，最后附带一个不完整的命令
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes(("*1\r\n$4\r\nPING\r\n"
+                + "*3\r\n$3\r\nSET\r\n$1\r\nk\r\n$1\r\nv\r\n"
+                + "*2\r\n$3\r\nGET\r\n$1\r\nk\r\n"
+                + "*2\r\n$3\r\nGET").getBytes());
+        
+        assertTrue(channel.writeInbound(buf));
+        
+        // 完整的三个命令合并为一个批次
+        RespBatch batch = channel.readInbound();
+        assertNotNull(batch);
+        assertEquals(3, batch.size());
+        assertEquals("PING", ((RespArray) batch.getFrames().get(0)).getContent()[0].toString());
+        assertEquals("SET", ((RespArray) batch.getFrames().get(1)).getContent()[0].toString());
+        assertEquals("GET", ((RespArray) batch.getFrames().get(2)).getContent()[0].toString());
+        assertNull(channel.readInbound());
+        
+        // 补齐剩余数据后，单个命令直接以RespArray传递
+        ByteBuf remaining = Unpooled.buffer();
+        remaining.writeBytes("\r\n$1\r\nk\r\n".getBytes());
+        assertTrue(channel.writeInbound(remaining));
+        
+        RespArray last = channel.readInbound();
+        assertNotNull(last);
+        assertEquals(2, last.getContent().length);
+        assertEquals("k", last.getContent()[1].toString());
+        
+        channel.finish();
+    }
+
+    @Test
+    public void testArgvModeDecodesRespCommand() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder(false, true));
+        
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes("*2\r\n$3\r\nGET\r\n$3\r\nkey\r\n*1\r\n:1\r\n".getBytes());
+        
+        assertTrue(channel.writeInbound(buf));
+        
+        // 批量字符串数组解码为扁平argv
+        RespCommand command = channel.readInbound();
+        assertNotNull(command);
+        assertEquals(2, command.getArgc());
+        assertArrayEquals("key".getBytes(), command.copyArg(1));
+        command.release();
+        
+        // 其他数组回退到通用解码
+        RespArray fallback = channel.readInbound();
+        assertNotNull(fallback);
+        assertTrue(fallback.getContent()[0] instanceof RespInteger);
+        
+        channel.finish();
+    }
+
+    @Test
+    public void testBatchModeCapsFramesPerBatch() {
+        EmbeddedChannel channel = new EmbeddedChannel(new RespDecoder(true));
+        
+        // 一次读取超过上限的帧，拆成一个满批次和一个剩余批次
+        ByteBuf buf = Unpooled.buffer();
+        for (int i = 0; i < RespDecoder.MAX_BATCH_FRAMES + 3; i++) {
+            buf.writeBytes("*1\r\n$4\r\nPING\r\n".getBytes());
+        }
+        assertTrue(channel.writeInbound(buf));
+        
+        RespBatch first = channel.readInbound();
+        assertEquals(RespDecoder.MAX_BATCH_FRAMES, first.size());
+        RespBatch second = channel.readInbound();
+        assertEquals(3, second.size());
+        assertNull(channel.readInbound());
+        
+        channel.finish();
+    }
+}
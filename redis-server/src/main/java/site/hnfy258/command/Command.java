@@ -1,6 +1,7 @@
 package site.hnfy258.command;
 
 import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespArray;
 
 /**
  * Redis命令接口，定义了所有Redis命令的基本行为。
@@ -26,6 +27,7 @@ import site.hnfy258.protocal.Resp;
  * <p>实现要求：
  * <ul>
  *   <li>所有命令实现类必须是线程安全的
+ *   <li>实例可被同一执行线程复用，setContext必须重置所有请求级字段
  *   <li>命令执行应该是原子性的
  *   <li>命令应该处理好异常情况
  *   <li>写命令需要考虑持久化
@@ -63,6 +65,9 @@ public interface Command {
      *   <li>会话数据
      * </ul>
      * 
+     * <p>命令实例会被同一连接复用，实现必须在此处重置上一次请求遗留的
+     * 可选参数（例如默认的count、WITHSCORES标记等）。
+     * 
      * @param array RESP协议格式的参数数组
      */
     void setContext(Resp[] array);
@@ -96,4 +101,16 @@ public interface Command {
      * @return 如果是写命令返回true，读命令返回false
      */
     boolean isWriteCommand();
+
+    /**
+     * 获取写入AOF和复制流的等价命令。
+     * 
+     * <p>结果依赖执行时刻的写命令（例如相对过期时间）原样重放会得到不同的数据，
+     * 这类命令在{@link #handle()}之后返回改写后的确定性命令（例如绝对过期时间）。
+     * 
+     * @return 改写后的命令，返回null表示原样传播请求
+     */
+    default RespArray propagateAs() {
+        return null;
+    }
 }
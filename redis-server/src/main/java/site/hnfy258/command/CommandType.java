@@ -13,24 +13,44 @@ import site.hnfy258.command.impl.list.*;
 import site.hnfy258.command.impl.set.Sadd;
 import site.hnfy258.command.impl.set.Scard;
 import site.hnfy258.command.impl.set.Spop;
+import site.hnfy258.command.impl.set.Srandmember;
 import site.hnfy258.command.impl.set.Srem;
 import site.hnfy258.command.impl.string.Append;
 import site.hnfy258.command.impl.string.Get;
 import site.hnfy258.command.impl.string.Getrange;
+import site.hnfy258.command.impl.string.Decr;
+import site.hnfy258.command.impl.string.Decrby;
 import site.hnfy258.command.impl.string.Incr;
+import site.hnfy258.command.impl.string.Incrby;
+import site.hnfy258.command.impl.string.Incrbyfloat;
 import site.hnfy258.command.impl.string.Mset;
 import site.hnfy258.command.impl.string.Set;
 import site.hnfy258.command.impl.string.Strlen;
 import site.hnfy258.command.impl.zset.Zadd;
 import site.hnfy258.command.impl.zset.Zcard;
+import site.hnfy258.command.impl.zset.Zcount;
+import site.hnfy258.command.impl.zset.Zincrby;
 import site.hnfy258.command.impl.zset.Zrange;
+import site.hnfy258.command.impl.zset.Zrangebyscore;
+import site.hnfy258.command.impl.zset.Zrank;
+import site.hnfy258.command.impl.zset.Zrem;
+import site.hnfy258.command.impl.zset.Zremrangebyrank;
+import site.hnfy258.command.impl.zset.Zremrangebyscore;
+import site.hnfy258.command.impl.zset.Zrevrange;
+import site.hnfy258.command.impl.zset.Zrevrangebyscore;
+import site.hnfy258.command.impl.zset.Zrevrank;
+import site.hnfy258.command.impl.zset.Zscore;
 import site.hnfy258.command.impl.server.*;
 import site.hnfy258.command.impl.key.*;
+import site.hnfy258.database.RedisDB;
 import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespCommand;
 import site.hnfy258.server.context.RedisContext;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.Consumer;
+
 
 /**
  * Redis命令类型枚举，定义了系统支持的所有Redis命令。
@@ -55,13 +75,16 @@ import java.util.Map;
  * 
  * <p>性能优化：
  * <ul>
- *   <li>使用HashMap缓存命令映射
- *   <li>预计算命令字节数组的哈希值
+ *   <li>预计算的大小写不敏感分发表，直接匹配原始命令字节
+ *   <li>预计算命令名的大小写折叠哈希值
  *   <li>实现零拷贝的字节数组比较
- *   <li>支持命令名称的快速匹配
- *   <li>优化大小写转换性能
+ *   <li>查找过程不转换大小写、不分配对象
+ *   <li>命令实例可被同一连接复用，见{@link #createCommand(RedisContext)}
  * </ul>
  * 
+ * <p>键参数位置：每个命令声明键参数的下标范围，分片执行模式据此把命令路由到
+ * 键所在的分片；不声明的命令视为全局命令。
+ * 
  * @author hnfy258
  * @since 1.0
  */
@@ -69,59 +92,99 @@ import java.util.Map;
 public enum CommandType {
     // ========== 字符串命令 ==========
     /** PING命令：测试服务器连接 */
-    PING("PING"),
+    PING("PING", 0, 0, 0),
     /** SET命令：设置键值对 */
-    SET("SET"),
+    SET("SET", 1, 1, 1),
     /** GET命令：获取键值 */
-    GET("GET"),
+    GET("GET", 1, 1, 1),
     /** INCR命令：将键值加1 */
-    INCR("INCR"),
+    INCR("INCR", 1, 1, 1),
+    /** INCRBY命令：将键值加上指定增量 */
+    INCRBY("INCRBY", 1, 1, 1),
+    /** DECR命令：将键值减1 */
+    DECR("DECR", 1, 1, 1),
+    /** DECRBY命令：将键值减去指定减量 */
+    DECRBY("DECRBY", 1, 1, 1),
+    /** INCRBYFLOAT命令：将键值加上指定浮点增量 */
+    INCRBYFLOAT("INCRBYFLOAT", 1, 1, 1),
     /** MSET命令：批量设置键值对 */
-    MSET("MSET"),
+    MSET("MSET", 1, -1, 2),
     /** APPEND命令：追加字符串 */
-    APPEND("APPEND"),
+    APPEND("APPEND", 1, 1, 1),
     /** STRLEN命令：获取字符串长度 */
-    STRLEN("STRLEN"),
+    STRLEN("STRLEN", 1, 1, 1),
     /** GETRANGE命令：获取字符串子串 */
-    GETRANGE("GETRANGE"),
+    GETRANGE("GETRANGE", 1, 1, 1),
 
     // ========== 集合命令 ==========
     /** SADD命令：添加集合成员 */
-    SADD("SADD"),
+    SADD("SADD", 1, 1, 1),
     /** SPOP命令：随机移除集合成员 */
-    SPOP("SPOP"),
+    SPOP("SPOP", 1, 1, 1),
+    /** SRANDMEMBER命令：随机获取集合成员 */
+    SRANDMEMBER("SRANDMEMBER", 1, 1, 1),
     /** SREM命令：移除指定集合成员 */
-    SREM("SREM"),
+    SREM("SREM", 1, 1, 1),
 
     // ========== 列表命令 ==========
     /** LPUSH命令：左侧插入列表 */
-    LPUSH("LPUSH"),
+    LPUSH("LPUSH", 1, 1, 1),
     /** LPOP命令：左侧弹出列表 */
-    LPOP("LPOP"),
+    LPOP("LPOP", 1, 1, 1),
     /** RPUSH命令：右侧插入列表 */
-    RPUSH("RPUSH"),
+    RPUSH("RPUSH", 1, 1, 1),
     /** RPOP命令：右侧弹出列表 */
-    RPOP("RPOP"),
+    RPOP("RPOP", 1, 1, 1),
     /** LRANGE命令：获取列表范围 */
-    LRANGE("LRANGE"),
+    LRANGE("LRANGE", 1, 1, 1),
+    /** LINDEX命令：获取列表指定下标的元素 */
+    LINDEX("LINDEX", 1, 1, 1),
+    /** LSET命令：替换列表指定下标的元素 */
+    LSET("LSET", 1, 1, 1),
+    /** LINSERT命令：在参照元素前后插入列表元素 */
+    LINSERT("LINSERT", 1, 1, 1),
+    /** LTRIM命令：裁剪列表 */
+    LTRIM("LTRIM", 1, 1, 1),
 
     // ========== 哈希命令 ==========
     /** HSET命令：设置哈希字段 */
-    HSET("HSET"),
+    HSET("HSET", 1, 1, 1),
     /** HGET命令：获取哈希字段 */
-    HGET("HGET"),
+    HGET("HGET", 1, 1, 1),
     /** HDEL命令：删除哈希字段 */
-    HDEL("HDEL"),
+    HDEL("HDEL", 1, 1, 1),
 
     // ========== 有序集合命令 ==========
     /** ZADD命令：添加有序集合成员 */
-    ZADD("ZADD"),
+    ZADD("ZADD", 1, 1, 1),
     /** ZRANGE命令：获取有序集合范围 */
-    ZRANGE("ZRANGE"),
+    ZRANGE("ZRANGE", 1, 1, 1),
+    /** ZREVRANGE命令：按分数从高到低获取有序集合范围 */
+    ZREVRANGE("ZREVRANGE", 1, 1, 1),
+    /** ZRANGEBYSCORE命令：按分数范围获取有序集合成员 */
+    ZRANGEBYSCORE("ZRANGEBYSCORE", 1, 1, 1),
+    /** ZREVRANGEBYSCORE命令：按分数范围从高到低获取有序集合成员 */
+    ZREVRANGEBYSCORE("ZREVRANGEBYSCORE", 1, 1, 1),
+    /** ZRANK命令：获取有序集合成员的排名 */
+    ZRANK("ZRANK", 1, 1, 1),
+    /** ZREVRANK命令：获取有序集合成员从高到低的排名 */
+    ZREVRANK("ZREVRANK", 1, 1, 1),
+    /** ZSCORE命令：获取有序集合成员的分数 */
+    ZSCORE("ZSCORE", 1, 1, 1),
+    /** ZCOUNT命令：统计分数范围内的有序集合成员数 */
+    ZCOUNT("ZCOUNT", 1, 1, 1),
+    /** ZREM命令：删除有序集合成员 */
+    ZREM("ZREM", 1, 1, 1),
+    /** ZINCRBY命令：增加有序集合成员的分数 */
+    ZINCRBY("ZINCRBY", 1, 1, 1),
+    /** ZREMRANGEBYRANK命令：删除排名范围内的有序集合成员 */
+    ZREMRANGEBYRANK("ZREMRANGEBYRANK", 1, 1, 1),
+    /** ZREMRANGEBYSCORE命令：删除分数范围内的有序集合成员 */
+    ZREMRANGEBYSCORE("ZREMRANGEBYSCORE", 1, 1, 1),
 
     // ========== 服务器命令 ==========
     /** SELECT命令：选择数据库 */
-    SELECT("SELECT"),
+    SELECT("SELECT", 0, 0, 0),
     /** BGSAVE命令：异步保存数据 */
     BGSAVE("BGSAVE"),
     /** BGREWRITEAOF命令：重写AOF文件 */
@@ -134,12 +197,14 @@ public enum CommandType {
     SCAN("SCAN"),
     /** KEYS命令：查找所有匹配的键 */
     KEYS("KEYS"),
+    /** RANDOMKEY命令：随机返回一个键 */
+    RANDOMKEY("RANDOMKEY"),
     /** LLEN命令：获取列表长度 */
-    LLEN("LLEN"),
+    LLEN("LLEN", 1, 1, 1),
     /** SCARD命令：获取集合成员数 */
-    SCARD("SCARD"),
+    SCARD("SCARD", 1, 1, 1),
     /** ZCARD命令：获取有序集合成员数 */
-    ZCARD("ZCARD"),
+    ZCARD("ZCARD", 1, 1, 1),
     /** INFO命令：获取服务器信息 */
     INFO("INFO"),
     /** CONFIG_GET命令：获取配置参数 */
@@ -147,44 +212,151 @@ public enum CommandType {
     /** DBSIZE命令：获取数据库大小 */
     DBSIZE("DBSIZE"),
     /** TYPE命令：获取键的数据类型 */
-    TYPE("TYPE"),
+    TYPE("TYPE", 1, 1, 1),
     /** TTL命令：获取键的过期时间 */
-    TTL("TTL");
+    TTL("TTL", 1, 1, 1),
+    /** PTTL命令：以毫秒获取键的过期时间 */
+    PTTL("PTTL", 1, 1, 1),
+    /** DEL命令：删除一个或多个键 */
+    DEL("DEL", 1, -1, 1),
+    /** EXPIRE命令：以秒设置键的过期时间 */
+    EXPIRE("EXPIRE", 1, 1, 1),
+    /** PEXPIRE命令：以毫秒设置键的过期时间 */
+    PEXPIRE("PEXPIRE", 1, 1, 1),
+    /** EXPIREAT命令：以秒级时间戳设置键的过期时间 */
+    EXPIREAT("EXPIREAT", 1, 1, 1),
+    /** PEXPIREAT命令：以毫秒级时间戳设置键的过期时间 */
+    PEXPIREAT("PEXPIREAT", 1, 1, 1),
+    /** PERSIST命令：移除键的过期时间 */
+    PERSIST("PERSIST", 1, 1, 1),
+    /** OBJECT命令：查看键的空闲时间和访问频率 */
+    OBJECT("OBJECT", 2, 2, 1),
+    /** HOTKEYS命令：查看估计访问次数最多的键 */
+    HOTKEYS("HOTKEYS");
 
     /** 命令字节数组，使用RedisBytes优化性能 */
     private final RedisBytes commandBytes;
 
-    /** 命令查找缓存，提高查找性能 */
-    private static final Map<RedisBytes, CommandType> COMMAND_CACHE = new HashMap<>();
+    /** 分发表大小，必须是2的幂且远大于命令数量，保证探测链很短且一定能遇到空槽 */
+    private static final int DISPATCH_TABLE_SIZE = 256;
+
+    /** 分发表掩码 */
+    private static final int DISPATCH_TABLE_MASK = DISPATCH_TABLE_SIZE - 1;
+
+    /** 大小写不敏感的命令分发表，按折叠哈希开放寻址（线性探测） */
+    private static final CommandType[] DISPATCH_TABLE = new CommandType[DISPATCH_TABLE_SIZE];
 
-    /** 命令字节数组的哈希值，用于快速比较 */
+    /** 命令名的大小写折叠哈希值，用于分发表定位 */
     private final int bytesHashCode;
+
+    /** 第一个键参数的下标；0表示命令不涉及键，-1表示命令作用于整个服务器 */
+    private final int firstKey;
+
+    /** 最后一个键参数的下标，-1表示最后一个参数 */
+    private final int lastKey;
+
+    /** 相邻键参数的下标间隔 */
+    private final int keyStep;
+
+    /** 路由结果：命令不涉及键，可在任意分片上执行 */
+    public static final int ROUTE_ANY_SHARD = -1;
+
+    /** 路由结果：命令作用于整个服务器或键跨越多个分片，需要全局执行 */
+    public static final int ROUTE_GLOBAL = -2;
     
     static {
-        // 初始化命令查找缓存
+        // 初始化命令分发表
         for (final CommandType type : CommandType.values()) {
-            COMMAND_CACHE.put(type.commandBytes, type);
+            int slot = type.bytesHashCode & DISPATCH_TABLE_MASK;
+            while (DISPATCH_TABLE[slot] != null) {
+                slot = (slot + 1) & DISPATCH_TABLE_MASK;
+            }
+            DISPATCH_TABLE[slot] = type;
         }
     }
 
     /**
-     * 构造函数，初始化命令类型。
+     * 构造函数，初始化作用于整个服务器的命令类型。
      * 
      * @param commandName 命令名称
      */
     CommandType(final String commandName) {
+        this(commandName, -1, -1, 0);
+    }
+
+    /**
+     * 构造函数，初始化命令类型及其键参数位置。
+     * 
+     * <p>键参数位置与Redis的key spec一致，用于分片执行时按键路由。
+     * 
+     * @param commandName 命令名称
+     * @param firstKey 第一个键参数的下标，0表示不涉及键，-1表示全局命令
+     * @param lastKey 最后一个键参数的下标，-1表示最后一个参数
+     * @param keyStep 相邻键参数的下标间隔
+     */
+    CommandType(final String commandName, final int firstKey, final int lastKey, final int keyStep) {
         this.commandBytes = RedisBytes.fromString(commandName);
-        this.bytesHashCode = this.commandBytes.hashCode();
+        final byte[] bytes = this.commandBytes.getBytesUnsafe();
+        this.bytesHashCode = foldedHash(bytes, 0, bytes.length);
+        this.firstKey = firstKey;
+        this.lastKey = lastKey;
+        this.keyStep = keyStep;
     }
 
     /**
-     * 根据字节数组查找对应的命令类型。
+     * 计算大小写折叠后的哈希值。
+     * 
+     * <p>ASCII字母的大小写只相差0x20位，统一置位后大小写得到相同的哈希值；
+     * 非字母字符可能因此碰撞，但查找时还会逐字节比较，不影响正确性。
+     * 
+     * @param bytes 字节数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 折叠哈希值
+     */
+    private static int foldedHash(final byte[] bytes, final int offset, final int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + (bytes[i] | 0x20);
+        }
+        return spread(h);
+    }
+
+    /**
+     * 扰动哈希值，让高位也参与槽位计算。
+     */
+    private static int spread(final int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 大小写不敏感地比较原始字节与命令名，不分配任何对象。
+     */
+    private boolean nameEqualsIgnoreCase(final byte[] bytes, final int offset, final int length) {
+        final byte[] name = commandBytes.getBytesUnsafe();
+        if (name.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            final byte b = bytes[offset + i];
+            // 命令名都是大写ASCII，只需把输入的小写字母转换为大写
+            final byte upper = b >= 'a' && b <= 'z' ? (byte) (b - 32) : b;
+            if (upper != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 根据RedisBytes查找对应的命令类型。
      * 
      * <p>查找过程：
      * <ul>
-     *   <li>首先在缓存中直接查找
-     *   <li>如果未找到，转换为大写再查找
-     *   <li>支持大小写不敏感的匹配
+     *   <li>在原始字节上计算大小写折叠哈希
+     *   <li>在分发表中线性探测
+     *   <li>逐字节大小写不敏感比较
+     *   <li>整个过程不分配对象
      * </ul>
      *
      * @param commandBytes 命令字节数组
@@ -194,33 +366,191 @@ public enum CommandType {
         if (commandBytes == null) {
             return null;
         }
-        
-        // 1. 直接查找缓存
-        CommandType result = COMMAND_CACHE.get(commandBytes);
-        if (result != null) {
-            return result;
-        }
-        
-        // 2. 大小写不敏感查找：将输入转换为大写后再查找
-        final String commandStr = commandBytes.getString();
-        final String upperCommandStr = commandStr.toUpperCase();
-        
-        // 3. 使用大写字符串创建RedisBytes进行查找
-        final RedisBytes upperCommandBytes = RedisBytes.fromString(upperCommandStr);
-        result = COMMAND_CACHE.get(upperCommandBytes);
-        
-        return result;
+        return findByBytes(commandBytes.getBytesUnsafe());
     }
     
     /**
-     * 根据原始字节数组查找命令类型。
+     * 根据原始字节数组查找命令类型，大小写不敏感且不分配对象。
      * 
      * @param bytes 命令字节数组
      * @return 对应的CommandType，如果不存在则返回null
      */
     public static CommandType findByBytes(final byte[] bytes) {
-        final RedisBytes redisBytes = new RedisBytes(bytes);
-        return COMMAND_CACHE.get(redisBytes);
+        if (bytes == null) {
+            return null;
+        }
+        return findByBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 根据字节数组的指定区间查找命令类型，大小写不敏感且不分配对象。
+     * 
+     * @param bytes 字节数组
+     * @param offset 命令名起始位置
+     * @param length 命令名长度
+     * @return 对应的CommandType，如果不存在则返回null
+     */
+    public static CommandType findByBytes(final byte[] bytes, final int offset, final int length) {
+        int slot = foldedHash(bytes, offset, length) & DISPATCH_TABLE_MASK;
+        CommandType candidate;
+        while ((candidate = DISPATCH_TABLE[slot]) != null) {
+            if (candidate.nameEqualsIgnoreCase(bytes, offset, length)) {
+                return candidate;
+            }
+            slot = (slot + 1) & DISPATCH_TABLE_MASK;
+        }
+        return null;
+    }
+
+    /**
+     * 直接在扁平argv命令的缓冲区上查找命令类型。
+     * 
+     * <p>命令名不会被复制，也不会创建RedisBytes；未知命令可以在
+     * 物化任何参数之前就被拒绝。
+     * 
+     * @param command 扁平argv命令
+     * @return 对应的CommandType，如果不存在则返回null
+     */
+    public static CommandType findByCommand(final RespCommand command) {
+        if (command == null || command.getArgc() == 0) {
+            return null;
+        }
+        final int length = command.getArgLength(0);
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + (command.getArgByte(0, i) | 0x20);
+        }
+        int slot = spread(h) & DISPATCH_TABLE_MASK;
+        CommandType candidate;
+        while ((candidate = DISPATCH_TABLE[slot]) != null) {
+            if (command.argEqualsIgnoreCase(0, candidate.commandBytes.getBytesUnsafe())) {
+                return candidate;
+            }
+            slot = (slot + 1) & DISPATCH_TABLE_MASK;
+        }
+        return null;
+    }
+
+    /**
+     * 判断命令是否作用于整个服务器（如SELECT、KEYS、BGSAVE）。
+     * 
+     * @return 如果是全局命令返回true
+     */
+    public boolean isGlobal() {
+        return firstKey < 0;
+    }
+
+    /**
+     * 计算扁平argv命令应当在哪个分片上执行。
+     * 
+     * <p>键的哈希直接在缓冲区上计算，与RedisBytes的哈希值一致，
+     * 因此路由结果与{@link RedisDB#segmentIndex(int, int)}的存储位置相同。
+     * 
+     * @param command 扁平argv命令
+     * @param shardCount 分片数量
+     * @return 分片下标，或{@link #ROUTE_ANY_SHARD}、{@link #ROUTE_GLOBAL}
+     */
+    public int routeShard(final RespCommand command, final int shardCount) {
+        if (firstKey < 0) {
+            return ROUTE_GLOBAL;
+        }
+        final int argc = command.getArgc();
+        if (firstKey == 0 || firstKey >= argc) {
+            // 不涉及键或参数不足，参数错误由命令自身报告
+            return ROUTE_ANY_SHARD;
+        }
+        final int last = lastKey < 0 ? argc + lastKey : Math.min(lastKey, argc - 1);
+        int shard = RedisDB.segmentIndex(command.argHashCode(firstKey), shardCount);
+        for (int i = firstKey + keyStep; i <= last; i += keyStep) {
+            if (RedisDB.segmentIndex(command.argHashCode(i), shardCount) != shard) {
+                return ROUTE_GLOBAL;
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * 计算已物化的命令应当在哪个分片上执行。
+     * 
+     * @param args 命令参数数组（包含命令名）
+     * @param shardCount 分片数量
+     * @return 分片下标，或{@link #ROUTE_ANY_SHARD}、{@link #ROUTE_GLOBAL}
+     * @see #routeShard(RespCommand, int)
+     */
+    public int routeShard(final Resp[] args, final int shardCount) {
+        if (firstKey < 0) {
+            return ROUTE_GLOBAL;
+        }
+        final int argc = args.length;
+        if (firstKey == 0 || firstKey >= argc) {
+            return ROUTE_ANY_SHARD;
+        }
+        final int last = lastKey < 0 ? argc + lastKey : Math.min(lastKey, argc - 1);
+        int shard = -1;
+        for (int i = firstKey; i <= last; i += keyStep) {
+            if (!(args[i] instanceof BulkString)) {
+                return ROUTE_ANY_SHARD;
+            }
+            final RedisBytes key = ((BulkString) args[i]).getContent();
+            if (key == null) {
+                return ROUTE_ANY_SHARD;
+            }
+            final int keyShard = RedisDB.segmentIndex(key.hashCode(), shardCount);
+            if (shard >= 0 && keyShard != shard) {
+                return ROUTE_GLOBAL;
+            }
+            shard = keyShard;
+        }
+        return shard;
+    }
+
+    /**
+     * 依次交出已物化命令中的键参数，键参数位置与{@link #routeShard(Resp[], int)}相同。
+     * 
+     * @param args 命令参数数组（包含命令名）
+     * @param consumer 接收键
+     */
+    public void forEachKey(final Resp[] args, final Consumer<RedisBytes> consumer) {
+        if (firstKey <= 0 || firstKey >= args.length) {
+            return;
+        }
+        final int last = lastKey < 0 ? args.length + lastKey : Math.min(lastKey, args.length - 1);
+        for (int i = firstKey; i <= last; i += keyStep) {
+            if (args[i] instanceof BulkString && ((BulkString) args[i]).getContent() != null) {
+                consumer.accept(((BulkString) args[i]).getContent());
+            }
+        }
+    }
+
+    /**
+     * 判断写命令是否只会删除数据或修改元数据，不会使内存增长。
+     * 
+     * <p>对应Redis中不带denyoom标记的写命令：超过maxmemory且无法淘汰时，
+     * 其他写命令被拒绝，这些命令仍然可以执行，用于释放内存。
+     * 
+     * @return 不会使内存增长时返回true
+     */
+    public boolean isMemoryReleasing() {
+        switch (this) {
+            case DEL:
+            case SPOP:
+            case SREM:
+            case LPOP:
+            case RPOP:
+            case LTRIM:
+            case HDEL:
+            case ZREM:
+            case ZREMRANGEBYRANK:
+            case ZREMRANGEBYSCORE:
+            case EXPIRE:
+            case PEXPIRE:
+            case EXPIREAT:
+            case PEXPIREAT:
+            case PERSIST:
+                return true;
+            default:
+                return false;
+        }
     }
 
     /**
@@ -258,7 +588,7 @@ public enum CommandType {
      * @return 如果匹配返回true，否则返回false
      */
     public boolean matchesBytes(byte[] bytes) {
-        return commandBytes.equalsIgnoreCase(new RedisBytes(bytes));
+        return bytes != null && nameEqualsIgnoreCase(bytes, 0, bytes.length);
     }
 
     /**
@@ -282,6 +612,9 @@ public enum CommandType {
      *   <li>支持命令的扩展
      * </ul>
      * 
+     * <p>创建出的实例可以在同一执行线程上反复复用：每次{@link Command#setContext(Resp[])}
+     * 都会完整重置上一次请求的解析状态，调用方不必为每个请求创建新实例。
+     * 
      * @param context Redis统一上下文
      * @return 命令实例
      * @throws IllegalArgumentException 如果命令类型不支持
@@ -296,6 +629,14 @@ public enum CommandType {
                 return new Get(context);
             case INCR:
                 return new Incr(context);
+            case INCRBY:
+                return new Incrby(context);
+            case DECR:
+                return new Decr(context);
+            case DECRBY:
+                return new Decrby(context);
+            case INCRBYFLOAT:
+                return new Incrbyfloat(context);
             case MSET:
                 return new Mset(context);
             case APPEND:
@@ -308,6 +649,8 @@ public enum CommandType {
                 return new Sadd(context);
             case SPOP:
                 return new Spop(context);
+            case SRANDMEMBER:
+                return new Srandmember(context);
             case SREM:
                 return new Srem(context);
             case LPUSH:
@@ -320,6 +663,14 @@ public enum CommandType {
                 return new Rpop(context);
             case LRANGE:
                 return new Lrange(context);
+            case LINDEX:
+                return new Lindex(context);
+            case LSET:
+                return new Lset(context);
+            case LINSERT:
+                return new Linsert(context);
+            case LTRIM:
+                return new Ltrim(context);
             case HSET:
                 return new Hset(context);
             case HGET:
@@ -330,6 +681,28 @@ public enum CommandType {
                 return new Zadd(context);
             case ZRANGE:
                 return new Zrange(context);
+            case ZREVRANGE:
+                return new Zrevrange(context);
+            case ZRANGEBYSCORE:
+                return new Zrangebyscore(context);
+            case ZREVRANGEBYSCORE:
+                return new Zrevrangebyscore(context);
+            case ZRANK:
+                return new Zrank(context);
+            case ZREVRANK:
+                return new Zrevrank(context);
+            case ZSCORE:
+                return new Zscore(context);
+            case ZCOUNT:
+                return new Zcount(context);
+            case ZREM:
+                return new Zrem(context);
+            case ZINCRBY:
+                return new Zincrby(context);
+            case ZREMRANGEBYRANK:
+                return new Zremrangebyrank(context);
+            case ZREMRANGEBYSCORE:
+                return new Zremrangebyscore(context);
             case SELECT:
                 return new Select(context);
             case BGSAVE:
@@ -342,6 +715,8 @@ public enum CommandType {
                 return new Scan(context);
             case KEYS:
                 return new Keys(context);
+            case RANDOMKEY:
+                return new Randomkey(context);
             case LLEN:
                 return new Llen(context);
             case SCARD:
@@ -358,6 +733,24 @@ public enum CommandType {
                 return new Type(context);
             case TTL:
                 return new Ttl(context);
+            case PTTL:
+                return new Pttl(context);
+            case DEL:
+                return new Del(context);
+            case EXPIRE:
+                return new Expire(context);
+            case PEXPIRE:
+                return new Pexpire(context);
+            case EXPIREAT:
+                return new Expireat(context);
+            case PEXPIREAT:
+                return new Pexpireat(context);
+            case PERSIST:
+                return new Persist(context);
+            case OBJECT:
+                return new ObjectCommand(context);
+            case HOTKEYS:
+                return new Hotkeys(context);
             default:
                 throw new IllegalArgumentException("不支持的命令类型: " + this);
         }
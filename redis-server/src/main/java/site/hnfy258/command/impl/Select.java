@@ -41,8 +41,12 @@ public class Select implements Command {
         }
     }
 
+    /**
+     * SELECT只修改客户端会话，不记录到AOF也不传播；
+     * 写命令落盘和传播时会按需补写SELECT。
+     */
     @Override
     public boolean isWriteCommand() {
-        return true;
+        return false;
     }
 }
@@ -40,7 +40,7 @@ public class Hdel implements Command {
 
     @Override
     public Resp handle() {
-        RedisData redisData = redisContext.get(key);
+        RedisData redisData = redisContext.getForWrite(key);
         if(redisData == null){
             return new BulkString(new RedisBytes("0".getBytes()));
         }
@@ -39,7 +39,7 @@ public class Hget implements Command {
         if(redisData == null) return new BulkString((RedisBytes)null);
         if(redisData instanceof RedisHash){
             RedisHash redisHash = (RedisHash) redisData;
-            RedisBytes value = redisHash.getHash().get(field);
+            RedisBytes value = redisHash.get(field);
             return new BulkString(value);
         }
         return new Errors("key not hash");
@@ -42,7 +42,7 @@ public class Hset implements Command {
 
     @Override
     public Resp handle() {
-        RedisData redisData = redisContext.get(key);
+        RedisData redisData = redisContext.getForWrite(key);
         if(redisData == null){
             RedisHash hash = new RedisHash();
             int put = hash.put(field, value);
@@ -0,0 +1,62 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * DEL命令实现 - 删除一个或多个key
+ * 语法: DEL key [key ...]
+ *
+ * <p>只判断键是否存在，查找不记录访问，快照期间也不分离即将被删除的值。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Del implements Command {
+    private final RedisContext context;
+    private RedisBytes[] keys;
+
+    public Del(final RedisContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.DEL;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 2) {
+            throw new IllegalStateException("参数不足");
+        }
+        this.keys = new RedisBytes[array.length - 1];
+        for (int i = 1; i < array.length; i++) {
+            keys[i - 1] = ((BulkString) array[i]).getContent();
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        final RedisDB db = context.getDB(context.getCurrentDBIndex());
+        int deleted = 0;
+        for (final RedisBytes key : keys) {
+            if (db.peek(key) != null) {
+                context.put(key, null);
+                deleted++;
+            }
+        }
+        return RespInteger.valueOf(deleted);
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
@@ -0,0 +1,113 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.internal.IntSet;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespArray;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * EXPIRE命令实现 - 设置key的过期时间
+ * 语法: EXPIRE key seconds
+ *
+ * <p>PEXPIRE、EXPIREAT、PEXPIREAT只是时间单位和相对/绝对时间不同，
+ * 通过受保护的构造器复用同一套逻辑。所有形式统一换算为毫秒级绝对时间戳，
+ * 写入AOF和传播到从节点时改写为PEXPIREAT，保证重放结果与主节点一致。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Expire implements Command {
+
+    private static final BulkString PEXPIREAT = BulkString.wrapTrusted("PEXPIREAT".getBytes());
+
+    private final RedisContext context;
+    private final long unitMillis;
+    private final boolean absolute;
+    private RedisBytes key;
+    private long expireAt;
+    private boolean invalid;
+    private RespArray propagation;
+
+    public Expire(final RedisContext context) {
+        this(context, 1000, false);
+    }
+
+    /**
+     * @param context 上下文
+     * @param unitMillis 时间参数的单位（毫秒数）
+     * @param absolute 时间参数是否为绝对时间戳
+     */
+    protected Expire(final RedisContext context, final long unitMillis, final boolean absolute) {
+        this.context = context;
+        this.unitMillis = unitMillis;
+        this.absolute = absolute;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.EXPIRE;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 3) {
+            throw new IllegalStateException("参数不足");
+        }
+        this.key = ((BulkString) array[1]).getContent();
+        this.propagation = null;
+        final byte[] time = ((BulkString) array[2]).getContent().getBytesUnsafe();
+        if (!IntSet.isLong(time)) {
+            throw new IllegalStateException("value is not an integer or out of range");
+        }
+        // 换算为毫秒级绝对时间戳，溢出视为非法参数
+        try {
+            final long millis = Math.multiplyExact(IntSet.toLong(time), unitMillis);
+            this.expireAt = absolute ? millis : Math.addExact(System.currentTimeMillis(), millis);
+            this.invalid = false;
+        } catch (final ArithmeticException e) {
+            this.invalid = true;
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        if (invalid) {
+            return new Errors("ERR invalid expire time in '" + getType().name().toLowerCase() + "' command");
+        }
+        // 1. key不存在返回0
+        final RedisData data = context.getForWrite(key);
+        if (data == null) {
+            return RespInteger.ZERO;
+        }
+
+        // 2. 过期时间已过直接删除，否则记录过期时间并加入过期索引
+        if (expireAt <= System.currentTimeMillis()) {
+            context.put(key, null);
+        } else {
+            data.setTimeout(expireAt);
+            context.put(key, data);
+        }
+
+        // 3. 传播时使用绝对时间，避免重放时间点不同导致的偏差
+        this.propagation = new RespArray(new Resp[]{
+                PEXPIREAT, new BulkString(key), new BulkString(RedisBytes.fromLong(expireAt))});
+        return RespInteger.ONE;
+    }
+
+    @Override
+    public RespArray propagateAs() {
+        return propagation;
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
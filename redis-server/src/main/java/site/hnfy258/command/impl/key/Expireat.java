@@ -0,0 +1,23 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.CommandType;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * EXPIREAT命令实现 - 以秒级Unix时间戳设置key的过期时间
+ * 语法: EXPIREAT key unix-time-seconds
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Expireat extends Expire {
+
+    public Expireat(final RedisContext context) {
+        super(context, 1000, true);
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.EXPIREAT;
+    }
+}
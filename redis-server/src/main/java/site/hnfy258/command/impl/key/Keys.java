@@ -9,8 +9,8 @@ import site.hnfy258.server.context.RedisContext;
 import site.hnfy258.datastructure.RedisBytes;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.regex.Pattern;
 
 public class Keys implements Command {
@@ -30,6 +30,7 @@ public class Keys implements Command {
     @Override
     public void setContext(Resp[] array) {
         this.array = array;
+        this.pattern = null;
         if (array.length >= 2) {
             this.pattern = ((BulkString) array[1]).toString();
         }
@@ -41,22 +42,19 @@ public class Keys implements Command {
             return RespArray.EMPTY;
         }
 
-        Set<RedisBytes> keys = context.keys();
-        List<RedisBytes> result = new ArrayList<>();
+        // 惰性遍历键空间，只保留匹配的键，不复制整个键集合
+        Iterator<RedisBytes> keys = context.getDB(context.getCurrentDBIndex()).keyIterator();
+        List<Resp> result = new ArrayList<>();
         Pattern regex = Pattern.compile(pattern.replace("*", ".*"));
         
-        for (RedisBytes key : keys) {
+        while (keys.hasNext()) {
+            RedisBytes key = keys.next();
             if (regex.matcher(key.toString()).matches()) {
-                result.add(key);
+                result.add(new BulkString(key.getBytesUnsafe()));
             }
         }
         
-        Resp[] keyArray = new Resp[result.size()];
-        for (int i = 0; i < result.size(); i++) {
-            keyArray[i] = new BulkString(result.get(i).getBytesUnsafe());
-        }
-        
-        return new RespArray(keyArray);
+        return new RespArray(result.toArray(new Resp[0]));
     }
 
     @Override
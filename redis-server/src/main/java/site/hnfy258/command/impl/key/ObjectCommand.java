@@ -0,0 +1,71 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.database.AccessMeta;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * OBJECT命令实现 - 查看值对象的访问元数据
+ * 语法: OBJECT IDLETIME|FREQ key
+ *
+ * <p>读取时不记录访问，否则查询本身会把空闲时间清零、让计数器递增。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class ObjectCommand implements Command {
+    private final RedisContext context;
+    private Resp[] array;
+
+    public ObjectCommand(final RedisContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.OBJECT;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        this.array = array;
+    }
+
+    @Override
+    public Resp handle() {
+        if (array.length != 3) {
+            return new Errors("ERR wrong number of arguments for 'object' command");
+        }
+
+        // 1. 不记录访问地查找键
+        final String subcommand = ((BulkString) array[1]).getContent().getString();
+        final RedisBytes key = ((BulkString) array[2]).getContent();
+        final RedisData data = context.getDB(context.getCurrentDBIndex()).peek(key);
+        if (data == null) {
+            return new BulkString((RedisBytes) null);
+        }
+
+        // 2. 按子命令解码访问元数据
+        final long now = System.currentTimeMillis();
+        if ("idletime".equalsIgnoreCase(subcommand)) {
+            final long idleSeconds = AccessMeta.idleMillis(data.getAccess(), now) / 1000;
+            return new RespInteger((int) idleSeconds);
+        }
+        if ("freq".equalsIgnoreCase(subcommand)) {
+            return new RespInteger(AccessMeta.frequency(data.getAccess(), now));
+        }
+        return new Errors("ERR unknown subcommand '" + subcommand + "'. Try OBJECT IDLETIME|FREQ.");
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * PERSIST命令实现 - 移除key的过期时间
+ * 语法: PERSIST key
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Persist implements Command {
+    private final RedisContext context;
+    private RedisBytes key;
+
+    public Persist(final RedisContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.PERSIST;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 2) {
+            throw new IllegalStateException("参数不足");
+        }
+        this.key = ((BulkString) array[1]).getContent();
+    }
+
+    @Override
+    public Resp handle() {
+        final RedisData data = context.getForWrite(key);
+        if (data == null || data.timeout() == -1) {
+            return RespInteger.ZERO;
+        }
+        // 过期索引中的残留项会在下次检查时清理
+        data.setTimeout(-1);
+        context.put(key, data);
+        return RespInteger.ONE;
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
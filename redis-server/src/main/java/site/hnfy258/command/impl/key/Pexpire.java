@@ -0,0 +1,23 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.CommandType;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * PEXPIRE命令实现 - 以毫秒为单位设置key的过期时间
+ * 语法: PEXPIRE key milliseconds
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Pexpire extends Expire {
+
+    public Pexpire(final RedisContext context) {
+        super(context, 1, false);
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.PEXPIRE;
+    }
+}
@@ -0,0 +1,23 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.CommandType;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * PEXPIREAT命令实现 - 以毫秒级Unix时间戳设置key的过期时间
+ * 语法: PEXPIREAT key unix-time-milliseconds
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Pexpireat extends Expire {
+
+    public Pexpireat(final RedisContext context) {
+        super(context, 1, true);
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.PEXPIREAT;
+    }
+}
@@ -0,0 +1,23 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.CommandType;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * PTTL命令实现 - 以毫秒为单位获取key的剩余过期时间
+ * 语法: PTTL key
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Pttl extends Ttl {
+
+    public Pttl(final RedisContext context) {
+        super(context, true);
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.PTTL;
+    }
+}
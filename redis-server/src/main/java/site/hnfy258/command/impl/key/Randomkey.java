@@ -0,0 +1,38 @@
+package site.hnfy258.command.impl.key;
+
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.server.context.RedisContext;
+
+public class Randomkey implements Command {
+    private final RedisContext context;
+
+    public Randomkey(RedisContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.RANDOMKEY;
+    }
+
+    @Override
+    public void setContext(Resp[] array) {
+        // RANDOMKEY没有参数
+    }
+
+    @Override
+    public Resp handle() {
+        // 直接在当前数据库的哈希表中随机探测，不枚举所有键
+        final RedisBytes key = context.getDB(context.getCurrentDBIndex()).randomKey();
+        return new BulkString(key);
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return false;
+    }
+}
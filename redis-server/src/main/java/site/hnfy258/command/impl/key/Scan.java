@@ -2,24 +2,21 @@ package site.hnfy258.command.impl.key;
 
 import site.hnfy258.command.Command;
 import site.hnfy258.command.CommandType;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.protocal.Errors;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
-import site.hnfy258.protocal.RespInteger;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.server.context.RedisContext;
 import site.hnfy258.datastructure.RedisBytes;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.regex.Pattern;
 
 public class Scan implements Command {
     private final RedisContext context;
     private Resp[] array;
-    private int cursor = 0;
-    private String pattern;
-    private int count = 10;
 
     public Scan(RedisContext context) {
         this.context = context;
@@ -28,65 +25,66 @@ public class Scan implements Command {
     @Override
     public CommandType getType() {
         return CommandType.SCAN;
-    }    @Override
+    }
+
+    @Override
     public void setContext(Resp[] array) {
         this.array = array;
-        if (array.length >= 2) {
-            RedisBytes cursorBytes = ((BulkString) array[1]).getContent();
-            this.cursor = Integer.parseInt(cursorBytes.getString());
-        }
-        if (array.length >= 4) {
-            RedisBytes optionBytes = ((BulkString) array[2]).getContent();
-            String option = optionBytes.getString().toLowerCase();
-            if ("match".equals(option)) {
-                RedisBytes patternBytes = ((BulkString) array[3]).getContent();
-                this.pattern = patternBytes.getString();
-            } else if ("count".equals(option)) {
-                RedisBytes countBytes = ((BulkString) array[3]).getContent();
-                this.count = Integer.parseInt(countBytes.getString());
-            }
-        }        if (array.length >= 6) {
-            RedisBytes optionBytes = ((BulkString) array[4]).getContent();
-            String option = optionBytes.getString().toLowerCase();
-            if ("count".equals(option)) {
-                RedisBytes countBytes = ((BulkString) array[5]).getContent();
-                this.count = Integer.parseInt(countBytes.getString());
-            }
-        }
     }
 
     @Override
     public Resp handle() {
-        Set<RedisBytes> keys = context.keys();
-        List<RedisBytes> result = new ArrayList<>();
-        Pattern regex = pattern != null ? Pattern.compile(pattern.replace("*", ".*")) : null;
-        
-        int i = 0;
-        int matched = 0;
-        int nextCursor = 0;
-        
-        for (RedisBytes key : keys) {
-            if (i++ < cursor) continue;
-            
-            if (regex == null || regex.matcher(key.getString()).matches()) {
-                result.add(key);
-                matched++;
-                if (matched >= count) {
-                    nextCursor = i;
-                    break;
+        if (array.length < 2 || array.length % 2 != 0) {
+            return new Errors("ERR wrong number of arguments for 'scan' command");
+        }
+
+        // 1. 解析游标，游标是无符号64位整数
+        final long cursor;
+        try {
+            cursor = Long.parseUnsignedLong(((BulkString) array[1]).getContent().getString());
+        } catch (NumberFormatException e) {
+            return new Errors("ERR invalid cursor");
+        }
+
+        // 2. 解析MATCH和COUNT选项
+        String pattern = null;
+        int count = 10;
+        for (int i = 2; i < array.length; i += 2) {
+            final String option = ((BulkString) array[i]).getContent().getString();
+            final String value = ((BulkString) array[i + 1]).getContent().getString();
+            if ("match".equalsIgnoreCase(option)) {
+                pattern = value;
+            } else if ("count".equalsIgnoreCase(option)) {
+                try {
+                    count = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    return new Errors("ERR value is not an integer or out of range");
                 }
+                if (count < 1) {
+                    return new Errors("ERR syntax error");
+                }
+            } else {
+                return new Errors("ERR syntax error");
             }
         }
-        
-        Resp[] response = new Resp[2];
-        response[0] = new RespInteger(nextCursor);
-        
-        Resp[] keyArray = new Resp[result.size()];
-        for (int j = 0; j < result.size(); j++) {
-            keyArray[j] = new BulkString(result.get(j).getBytesUnsafe());
+
+        // 3. 从游标处继续迭代，只访问与COUNT成正比的桶
+        final RedisDB db = context.getDB(context.getCurrentDBIndex());
+        final List<RedisBytes> keys = new ArrayList<>(count);
+        final long nextCursor = db.scan(cursor, count, keys);
+
+        // 4. 与Redis相同，MATCH在迭代之后过滤，可能返回少于COUNT个键
+        final Pattern regex = pattern != null ? Pattern.compile(pattern.replace("*", ".*")) : null;
+        final List<Resp> result = new ArrayList<>(keys.size());
+        for (RedisBytes key : keys) {
+            if (regex == null || regex.matcher(key.getString()).matches()) {
+                result.add(new BulkString(key.getBytesUnsafe()));
+            }
         }
-        response[1] = new RespArray(keyArray);
-        
+
+        final Resp[] response = new Resp[2];
+        response[0] = new BulkString(Long.toUnsignedString(nextCursor).getBytes());
+        response[1] = new RespArray(result.toArray(new Resp[0]));
         return new RespArray(response);
     }
 
@@ -94,4 +92,4 @@ public class Scan implements Command {
     public boolean isWriteCommand() {
         return false;
     }
-} 
\ No newline at end of file
+}
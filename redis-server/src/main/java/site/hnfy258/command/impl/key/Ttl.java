@@ -11,11 +11,21 @@ import site.hnfy258.server.context.RedisContext;
 
 public class Ttl implements Command {
     private final RedisContext context;
+    private final boolean millis;
     private Resp[] array;
     private RedisBytes key;
 
     public Ttl(RedisContext context) {
+        this(context, false);
+    }
+
+    /**
+     * @param context 上下文
+     * @param millis 是否以毫秒返回剩余时间（PTTL）
+     */
+    protected Ttl(final RedisContext context, final boolean millis) {
         this.context = context;
+        this.millis = millis;
     }
 
     @Override
@@ -26,6 +36,7 @@ public class Ttl implements Command {
     @Override
     public void setContext(Resp[] array) {
         this.array = array;
+        this.key = null;
         if (array.length >= 2) {
             this.key = ((BulkString) array[1]).getContent();
         }
@@ -37,7 +48,8 @@ public class Ttl implements Command {
             return new RespInteger(-2); // key不存在返回-2
         }
 
-        RedisData data = context.get(key);
+        // 只读取元数据，不记录访问，不影响LRU/LFU淘汰
+        RedisData data = context.getDB(context.getCurrentDBIndex()).peek(key);
         if (data == null) {
             return new RespInteger(-2); // key不存在返回-2
         }
@@ -47,13 +59,13 @@ public class Ttl implements Command {
             return new RespInteger(-1); // key永不过期返回-1
         }
 
-        // 计算剩余过期时间（秒）
+        // 计算剩余过期时间，秒级结果四舍五入
         long now = System.currentTimeMillis();
         if (now >= timeout) {
             return new RespInteger(-2); // key已过期返回-2
         }
         
-        long ttl = (timeout - now) / 1000;
+        long ttl = millis ? timeout - now : (timeout - now + 500) / 1000;
         // 如果ttl大于Integer.MAX_VALUE，返回Integer.MAX_VALUE
         return new RespInteger(ttl > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)ttl);
     }
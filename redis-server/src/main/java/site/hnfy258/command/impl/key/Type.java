@@ -25,6 +25,7 @@ public class Type implements Command {
     @Override
     public void setContext(Resp[] array) {
         this.array = array;
+        this.key = null;
         if (array.length >= 2) {
             this.key = ((BulkString) array[1]).getContent();
         }
@@ -36,7 +37,8 @@ public class Type implements Command {
             return new SimpleString("none");
         }
 
-        RedisData data = context.get(key);
+        // 只读取元数据，不记录访问，不影响LRU/LFU淘汰
+        RedisData data = context.getDB(context.getCurrentDBIndex()).peek(key);
         if (data == null) {
             return new SimpleString("none");
         }
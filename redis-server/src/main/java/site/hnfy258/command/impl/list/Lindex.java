@@ -0,0 +1,81 @@
+package site.hnfy258.command.impl.list;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisList;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * LINDEX命令实现 - 返回列表中指定下标的元素
+ * 语法: LINDEX key index
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Lindex implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private long index;
+
+    public Lindex(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.LINDEX;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 3) {
+            throw new IllegalStateException("参数不足：LINDEX需要key和index参数");
+        }
+        
+        try {
+            key = ((BulkString) array[1]).getContent();
+            index = Long.parseLong(((BulkString) array[2]).getContent().getString());
+        } catch (final NumberFormatException e) {
+            throw new IllegalStateException("index参数必须是有效的整数");
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取列表数据
+            final RedisData redisData = redisContext.get(key);
+            
+            if (redisData == null) {
+                // 2. 键不存在，返回null
+                return new BulkString((RedisBytes) null);
+            }
+            
+            if (!(redisData instanceof RedisList)) {
+                // 3. 键存在但不是列表类型
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            // 4. 定位元素，下标越界时返回null
+            return new BulkString(((RedisList) redisData).index(index));
+            
+        } catch (final Exception e) {
+            log.error("LINDEX命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package site.hnfy258.command.impl.list;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisList;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * LINSERT命令实现 - 在参照元素之前或之后插入元素
+ * 语法: LINSERT key BEFORE|AFTER pivot element
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Linsert implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private boolean before;
+    private RedisBytes pivot;
+    private RedisBytes element;
+
+    public Linsert(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.LINSERT;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 5) {
+            throw new IllegalStateException("参数不足：LINSERT需要key、BEFORE|AFTER、pivot和element参数");
+        }
+        
+        key = ((BulkString) array[1]).getContent();
+        final String where = ((BulkString) array[2]).getContent().getString();
+        if ("BEFORE".equalsIgnoreCase(where)) {
+            before = true;
+        } else if ("AFTER".equalsIgnoreCase(where)) {
+            before = false;
+        } else {
+            throw new IllegalStateException("syntax error");
+        }
+        pivot = ((BulkString) array[3]).getContent();
+        element = ((BulkString) array[4]).getContent();
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取列表数据
+            final RedisData redisData = redisContext.getForWrite(key);
+            
+            if (redisData == null) {
+                // 2. 键不存在，不做任何操作
+                return RespInteger.valueOf(0);
+            }
+            
+            if (!(redisData instanceof RedisList)) {
+                // 3. 键存在但不是列表类型
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            final RedisList redisList = (RedisList) redisData;
+            
+            // 4. 插入元素，找不到参照元素时返回-1
+            final int size = redisList.insert(before, pivot, element);
+            if (size > 0) {
+                redisContext.put(key, redisList);
+            }
+            return RespInteger.valueOf(size);
+            
+        } catch (final Exception e) {
+            log.error("LINSERT命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
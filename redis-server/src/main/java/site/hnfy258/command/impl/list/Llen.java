@@ -27,8 +27,9 @@ public class Llen implements Command {
     @Override
     public void setContext(Resp[] array) {
         this.array = array;
+        this.key = null;
         if (array.length >= 2) {
-            this.key = RedisBytes.fromString(((BulkString) array[1]).toString());
+            this.key = ((BulkString) array[1]).getContent();
         }
     }
 
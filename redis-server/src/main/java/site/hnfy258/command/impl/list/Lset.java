@@ -0,0 +1,92 @@
+package site.hnfy258.command.impl.list;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisList;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.SimpleString;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * LSET命令实现 - 替换列表中指定下标的元素
+ * 语法: LSET key index element
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Lset implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private long index;
+    private RedisBytes element;
+
+    public Lset(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.LSET;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 4) {
+            throw new IllegalStateException("参数不足：LSET需要key、index和element参数");
+        }
+        
+        try {
+            key = ((BulkString) array[1]).getContent();
+            index = Long.parseLong(((BulkString) array[2]).getContent().getString());
+            element = ((BulkString) array[3]).getContent();
+        } catch (final NumberFormatException e) {
+            throw new IllegalStateException("index参数必须是有效的整数");
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取列表数据
+            final RedisData redisData = redisContext.getForWrite(key);
+            
+            if (redisData == null) {
+                // 2. 键不存在
+                return new Errors("ERR no such key");
+            }
+            
+            if (!(redisData instanceof RedisList)) {
+                // 3. 键存在但不是列表类型
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            final RedisList redisList = (RedisList) redisData;
+            
+            // 4. 替换元素
+            if (!redisList.set(index, element)) {
+                return new Errors("ERR index out of range");
+            }
+
+            // 5. 保存更新后的列表
+            redisContext.put(key, redisList);
+            return SimpleString.OK;
+            
+        } catch (final Exception e) {
+            log.error("LSET命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
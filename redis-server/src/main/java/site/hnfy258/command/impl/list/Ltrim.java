@@ -0,0 +1,95 @@
+package site.hnfy258.command.impl.list;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisList;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.SimpleString;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * LTRIM命令实现 - 只保留列表中指定区间内的元素
+ * 语法: LTRIM key start stop
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Ltrim implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private long start;
+    private long stop;
+
+    public Ltrim(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.LTRIM;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 4) {
+            throw new IllegalStateException("参数不足：LTRIM需要key、start和stop参数");
+        }
+        
+        try {
+            key = ((BulkString) array[1]).getContent();
+            start = Long.parseLong(((BulkString) array[2]).getContent().getString());
+            stop = Long.parseLong(((BulkString) array[3]).getContent().getString());
+        } catch (final NumberFormatException e) {
+            throw new IllegalStateException("start和stop参数必须是有效的整数");
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取列表数据
+            final RedisData redisData = redisContext.getForWrite(key);
+            
+            if (redisData == null) {
+                // 2. 键不存在，视为空列表
+                return SimpleString.OK;
+            }
+            
+            if (!(redisData instanceof RedisList)) {
+                // 3. 键存在但不是列表类型
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            final RedisList redisList = (RedisList) redisData;
+            
+            // 4. 裁剪列表
+            redisList.trim(start, stop);
+
+            if (redisList.size() == 0) {
+                // 5. 如果列表变空，删除键
+                redisContext.put(key, null);
+            } else {
+                // 6. 保存更新后的列表
+                redisContext.put(key, redisList);
+            }
+            return SimpleString.OK;
+            
+        } catch (final Exception e) {
+            log.error("LTRIM命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
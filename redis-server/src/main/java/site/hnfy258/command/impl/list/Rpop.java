@@ -46,7 +46,7 @@ public class Rpop implements Command {
     public Resp handle() {
         try {
             // 1. 获取列表数据
-            final RedisData redisData = redisContext.get(key);
+            final RedisData redisData = redisContext.getForWrite(key);
 
             if (redisData == null) {
                 // 2. 键不存在，返回null
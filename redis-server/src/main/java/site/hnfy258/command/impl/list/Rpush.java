@@ -59,7 +59,7 @@ public class Rpush implements Command {
     public Resp handle() {
         try {
             // 1. 获取或创建列表
-            final RedisData redisData = redisContext.get(key);
+            final RedisData redisData = redisContext.getForWrite(key);
             final RedisList redisList;
 
             if (redisData == null) {
@@ -2,6 +2,8 @@ package site.hnfy258.command.impl.server;
 
 import site.hnfy258.command.Command;
 import site.hnfy258.command.CommandType;
+import site.hnfy258.core.EvictionPolicy;
+import site.hnfy258.core.MemoryEvictor;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
@@ -37,8 +39,10 @@ public class ConfigGet implements Command {
         config.put("save", context.isRdbEnabled() ? "3600 1 300 100 60 10000" : "");
         
         // Memory configuration
-        config.put("maxmemory", String.valueOf(Runtime.getRuntime().maxMemory()));
-        config.put("maxmemory-policy", "noeviction");
+        final MemoryEvictor evictor = context.getMemoryEvictor();
+        config.put("maxmemory", String.valueOf(evictor == null ? 0 : evictor.getMaxMemory()));
+        config.put("maxmemory-policy", evictor == null
+                ? EvictionPolicy.NOEVICTION.getConfigName() : evictor.getPolicy().getConfigName());
         
         // General configuration
         config.put("timeout", "0");
@@ -58,6 +62,7 @@ public class ConfigGet implements Command {
     @Override
     public void setContext(Resp[] array) {
         this.array = array;
+        this.pattern = null;
         if (array.length >= 2) {
             this.pattern = ((BulkString) array[1]).toString();
         }
@@ -25,7 +25,8 @@ public class Dbsize implements Command {
 
     @Override
     public Resp handle() {
-        return new RespInteger(context.keys().size());
+        // 当前客户端选中数据库的键数量，无需枚举所有键
+        return new RespInteger((int) context.getDB(context.getCurrentDBIndex()).size());
     }
 
     @Override
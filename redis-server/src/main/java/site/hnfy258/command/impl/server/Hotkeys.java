@@ -0,0 +1,87 @@
+package site.hnfy258.command.impl.server;
+
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.core.KeyStatsTracker;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespArray;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.protocal.SimpleString;
+import site.hnfy258.server.context.RedisContext;
+
+import java.util.List;
+
+/**
+ * HOTKEYS命令实现 - 查看当前数据库估计访问次数最多的键
+ * 语法: HOTKEYS [COUNT count] | HOTKEYS RESET
+ *
+ * <p>返回键和估计访问次数交替排列的数组，访问次数由采样结果按采样比例放大，
+ * 只会高估不会低估。RESET清空热键和大键统计。
+ *
+ * <p>作为全局命令在所有分片暂停时执行，读取各分段的统计不需要同步。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Hotkeys implements Command {
+    private final RedisContext context;
+    private Resp[] array;
+
+    public Hotkeys(final RedisContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.HOTKEYS;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        this.array = array;
+    }
+
+    @Override
+    public Resp handle() {
+        final KeyStatsTracker tracker = context.getKeyStatsTracker();
+        if (tracker == null) {
+            return new Errors("ERR hotkeys tracking is disabled, set hotkeys-sample-rate to enable it");
+        }
+
+        // 1. 解析参数
+        int count = tracker.getTopK();
+        if (array.length == 2 && "reset".equalsIgnoreCase(((BulkString) array[1]).getContent().getString())) {
+            tracker.reset();
+            return SimpleString.OK;
+        }
+        if (array.length == 3 && "count".equalsIgnoreCase(((BulkString) array[1]).getContent().getString())) {
+            try {
+                count = Integer.parseInt(((BulkString) array[2]).getContent().getString());
+            } catch (NumberFormatException e) {
+                return new Errors("ERR value is not an integer or out of range");
+            }
+            if (count <= 0) {
+                return new Errors("ERR COUNT must be positive");
+            }
+        } else if (array.length != 1) {
+            return new Errors("ERR syntax error");
+        }
+
+        // 2. 键和估计访问次数交替排列
+        final List<KeyStatsTracker.KeyStat> hotKeys = tracker.hotKeys(context.getCurrentDBIndex(), count);
+        final Resp[] result = new Resp[hotKeys.size() * 2];
+        for (int i = 0; i < hotKeys.size(); i++) {
+            final KeyStatsTracker.KeyStat stat = hotKeys.get(i);
+            result[i * 2] = new BulkString(stat.getKey());
+            result[i * 2 + 1] = new RespInteger((int) Math.min(stat.getValue(), Integer.MAX_VALUE));
+        }
+        return new RespArray(result);
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return false;
+    }
+}
@@ -2,12 +2,18 @@ package site.hnfy258.command.impl.server;
 
 import site.hnfy258.command.Command;
 import site.hnfy258.command.CommandType;
+import site.hnfy258.core.EvictionPolicy;
+import site.hnfy258.core.KeyStatsTracker;
+import site.hnfy258.core.MemoryEvictor;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.server.context.RedisContext;
 
 import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class Info implements Command {
     private final RedisContext context;
@@ -26,6 +32,7 @@ public class Info implements Command {
     @Override
     public void setContext(Resp[] array) {
         this.array = array;
+        this.section = null;
         if (array.length >= 2) {
             this.section = ((BulkString) array[1]).toString();
         }
@@ -34,6 +41,10 @@ public class Info implements Command {
     @Override
     public Resp handle() {
         StringBuilder info = new StringBuilder();
+        if ("keysizes".equalsIgnoreCase(section)) {
+            appendKeysizes(info);
+            return new BulkString(RedisBytes.fromString(info.toString()));
+        }
         
         // Server section
         info.append("# Server\r\n");
@@ -51,6 +62,17 @@ public class Info implements Command {
         info.append("used_memory_human:").append(formatBytes(Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory())).append("\r\n");
         info.append("total_system_memory:").append(Runtime.getRuntime().maxMemory()).append("\r\n");
         info.append("total_system_memory_human:").append(formatBytes(Runtime.getRuntime().maxMemory())).append("\r\n");
+        // 键空间按值对象编码估算的内存，maxmemory按它判断，其他线程读取时是近似值
+        long dataset = 0;
+        for (int i = 0; i < context.getDBNum(); i++) {
+            dataset += context.getDB(i).usedMemory();
+        }
+        final MemoryEvictor evictor = context.getMemoryEvictor();
+        info.append("used_memory_dataset:").append(dataset).append("\r\n");
+        info.append("used_memory_dataset_human:").append(formatBytes(dataset)).append("\r\n");
+        info.append("maxmemory:").append(evictor == null ? 0 : evictor.getMaxMemory()).append("\r\n");
+        info.append("maxmemory_policy:").append(evictor == null
+                ? EvictionPolicy.NOEVICTION.getConfigName() : evictor.getPolicy().getConfigName()).append("\r\n");
         
         // Persistence section
         info.append("\r\n# Persistence\r\n");
@@ -64,6 +86,7 @@ public class Info implements Command {
         info.append("instantaneous_ops_per_sec:0\r\n");
         info.append("total_net_input_bytes:0\r\n");
         info.append("total_net_output_bytes:0\r\n");
+        info.append("evicted_keys:").append(evictor == null ? 0 : evictor.getEvictedKeys()).append("\r\n");
         
         // Replication section
         info.append("\r\n# Replication\r\n");
@@ -83,23 +106,58 @@ public class Info implements Command {
         
         // Keyspace section
         info.append("\r\n# Keyspace\r\n");
-        int currentDb = context.getCurrentDBIndex(); // 保存当前数据库索引
-        try {
-            for (int i = 0; i < context.getDBNum(); i++) {
-                context.selectDB(i);
-                long keys = context.keys().size();
-                if (keys > 0) {
-                    info.append("db").append(i).append(":keys=").append(keys).append("\r\n");
-                }
-            }        
-        } finally {
-            context.selectDB(currentDb); // 恢复原来的数据库索引
+        for (int i = 0; i < context.getDBNum(); i++) {
+            // 直接读取各数据库的大小，不切换客户端选中的数据库
+            long keys = context.getDB(i).size();
+            if (keys > 0) {
+                info.append("db").append(i).append(":keys=").append(keys).append("\r\n");
+            }
+        }
+        
+        // Keysizes section需要重新读取大键的大小，只在显式请求时输出
+        if ("all".equalsIgnoreCase(section) || "everything".equalsIgnoreCase(section)) {
+            info.append("\r\n");
+            appendKeysizes(info);
         }
         
         // 🚀 优化：使用 RedisBytes.fromString 获得更好的性能
         return new BulkString(RedisBytes.fromString(info.toString()));
     }
 
+    /**
+     * 输出采样统计到的热键和每种类型的大键
+     * 
+     * <p>INFO是全局命令，在所有分片暂停时执行，可以直接读取各分段的统计。
+     */
+    private void appendKeysizes(final StringBuilder info) {
+        info.append("# Keysizes\r\n");
+        final KeyStatsTracker tracker = context.getKeyStatsTracker();
+        if (tracker == null) {
+            info.append("hotkeys_sample_rate:0\r\n");
+            return;
+        }
+        info.append("hotkeys_sample_rate:").append(tracker.getSampleRate()).append("\r\n");
+        info.append("hotkeys_sampled_keys:").append(tracker.getSampledKeys()).append("\r\n");
+        for (int i = 0; i < context.getDBNum(); i++) {
+            // 1. 每种类型最大的键，大键列表已按大小降序排列
+            final Set<String> reported = new HashSet<>();
+            for (KeyStatsTracker.KeyStat stat : tracker.bigKeys(i)) {
+                if (reported.add(stat.getType())) {
+                    info.append("db").append(i).append("_biggest_").append(stat.getType())
+                            .append(":key=").append(stat.getKey().getString())
+                            .append(",size=").append(stat.getValue()).append("\r\n");
+                }
+            }
+            // 2. 估计访问次数最多的键
+            final List<KeyStatsTracker.KeyStat> hottest = tracker.hotKeys(i, 1);
+            if (!hottest.isEmpty()) {
+                info.append("db").append(i).append("_hottest_key:key=")
+                        .append(hottest.get(0).getKey().getString())
+                        .append(",accesses=").append(hottest.get(0).getValue()).append("\r\n");
+            }
+        }
+    }
+
     private String formatBytes(long bytes) {
         String[] units = {"B", "KB", "MB", "GB", "TB"};
         int unitIndex = 0;
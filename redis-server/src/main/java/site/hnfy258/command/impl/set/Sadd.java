@@ -36,7 +36,7 @@ public class Sadd implements Command {
     }    @Override
     public Resp handle() {
         RedisSet redisSet = null;
-        RedisData redisData = redisContext.get(key);
+        RedisData redisData = redisContext.getForWrite(key);
         
         if (redisData == null) {
             // 1. 键不存在，创建新的Set
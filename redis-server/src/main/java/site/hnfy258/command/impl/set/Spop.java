@@ -14,12 +14,27 @@ import site.hnfy258.server.context.RedisContext;
 
 import java.util.List;
 
-import static site.hnfy258.protocal.BulkString.NULL_BYTES;
-
+/**
+ * SPOP命令实现 - 随机移除并返回集合成员
+ * 语法: SPOP key [count]
+ *
+ * <p>弹出的成员是随机的，原样重放会在从节点和AOF加载时移除不同的成员。
+ * 写入AOF和传播到从节点时改写为移除实际弹出成员的SREM；集合被弹空时键被删除，
+ * 改写为DEL。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
 public class Spop implements Command {
+
+    private static final BulkString SREM = BulkString.wrapTrusted("SREM".getBytes());
+
+    private static final BulkString DEL = BulkString.wrapTrusted("DEL".getBytes());
+
     private RedisContext redisContext;
     private RedisBytes key;
     private int count = 1;
+    private RespArray propagation;
 
     public Spop(RedisContext redisContext) {
         this.redisContext = redisContext;
@@ -32,6 +47,8 @@ public class Spop implements Command {
     @Override
     public void setContext(Resp[] array) {
         key = ((BulkString)array[1]).getContent();
+        count = 1;
+        propagation = null;
         if(array.length > 2){
             try{
                 count = Integer.parseInt(((BulkString)array[2]).getContent().getString());
@@ -43,7 +60,8 @@ public class Spop implements Command {
 
     @Override
     public Resp handle() {
-        RedisData redisData = redisContext.get(key);        if(redisData == null){
+        RedisData redisData = redisContext.getForWrite(key);
+        if(redisData == null){
             if(count == 1){
                 return new BulkString((RedisBytes)null);
             }
@@ -51,25 +69,47 @@ public class Spop implements Command {
         }
 
         if(redisData instanceof RedisSet){
-            RedisSet redisSet = (RedisSet) redisData;            if(redisSet.size() == 0){
+            RedisSet redisSet = (RedisSet) redisData;
+            if(redisSet.size() == 0){
                 if(count == 1) return new BulkString((RedisBytes)null);
                 return RespArray.EMPTY;
             }
 
-            List<RedisBytes> poppedElements = redisSet.pop(count);            if(poppedElements.isEmpty()){
+            List<RedisBytes> poppedElements = redisSet.pop(count);
+            if(poppedElements.isEmpty()){
                 return RespArray.EMPTY;
             }
-            redisContext.put(key,redisSet);
-            
+
+            // 1. 弹空的集合删除键，否则写回
+            if(redisSet.size() == 0){
+                redisContext.put(key, null);
+                propagation = new RespArray(new Resp[]{DEL, new BulkString(key)});
+            }else{
+                redisContext.put(key,redisSet);
+                // 2. 传播实际弹出的成员，重放结果与主节点一致
+                final Resp[] srem = new Resp[poppedElements.size() + 2];
+                srem[0] = SREM;
+                srem[1] = new BulkString(key);
+                for(int i = 0; i < poppedElements.size(); i++){
+                    srem[i + 2] = new BulkString(poppedElements.get(i));
+                }
+                propagation = new RespArray(srem);
+            }
+
             if(count == 1 && poppedElements.size() == 1) {
                 return new BulkString(poppedElements.get(0));
             }
-            
+
             return new RespArray(poppedElements.stream().map(BulkString::new).toArray(Resp[]::new));
         }
         return new Errors("命令执行失败");
     }
 
+    @Override
+    public RespArray propagateAs() {
+        return propagation;
+    }
+
     @Override
     public boolean isWriteCommand() {
         return true;
@@ -0,0 +1,77 @@
+package site.hnfy258.command.impl.set;
+
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisSet;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespArray;
+import site.hnfy258.server.context.RedisContext;
+
+import java.util.List;
+
+public class Srandmember implements Command {
+    private final RedisContext context;
+    private Resp[] array;
+
+    public Srandmember(RedisContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.SRANDMEMBER;
+    }
+
+    @Override
+    public void setContext(Resp[] array) {
+        this.array = array;
+    }
+
+    @Override
+    public Resp handle() {
+        if (array.length < 2 || array.length > 3) {
+            return new Errors("ERR wrong number of arguments for 'srandmember' command");
+        }
+
+        // 1. 解析可选的count，不带count时返回单个成员
+        final boolean withCount = array.length == 3;
+        long count = 1;
+        if (withCount) {
+            try {
+                count = Long.parseLong(((BulkString) array[2]).getContent().getString());
+            } catch (NumberFormatException e) {
+                return new Errors("ERR value is not an integer or out of range");
+            }
+        }
+
+        // 2. 检查键类型
+        final RedisBytes key = ((BulkString) array[1]).getContent();
+        final RedisData data = context.get(key);
+        if (data == null) {
+            return withCount ? RespArray.EMPTY : new BulkString((RedisBytes) null);
+        }
+        if (!(data instanceof RedisSet)) {
+            return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+        }
+
+        // 3. 随机选取成员，不修改集合
+        final List<RedisBytes> members = ((RedisSet) data).randomMembers(count);
+        if (!withCount) {
+            return members.isEmpty() ? new BulkString((RedisBytes) null) : new BulkString(members.get(0));
+        }
+        final Resp[] result = new Resp[members.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new BulkString(members.get(i));
+        }
+        return new RespArray(result);
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return false;
+    }
+}
@@ -37,7 +37,7 @@ public class Srem implements Command {
 
     @Override
     public Resp handle() {
-        RedisData redisData = redisContext.get(key);
+        RedisData redisData = redisContext.getForWrite(key);
         if(redisData == null) return new Errors("ERR no such key");
         int count=0;
         if(redisData instanceof RedisSet){
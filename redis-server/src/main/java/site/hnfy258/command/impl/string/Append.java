@@ -49,7 +49,7 @@ public class Append implements Command {
 
     @Override
     public Resp handle() {
-        RedisData data = redisContext.get(key);
+        RedisData data = redisContext.getForWrite(key);
         if (data == null) {
             // 键不存在，创建新的RedisString
             Sds sds = Sds.create(value.getBytes());
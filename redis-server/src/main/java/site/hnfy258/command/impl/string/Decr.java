@@ -0,0 +1,34 @@
+package site.hnfy258.command.impl.string;
+
+import site.hnfy258.command.CommandType;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * DECR命令实现 - 将key中储存的数字值减一
+ * 语法: DECR key
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Decr extends Incrby {
+
+    public Decr(final RedisContext redisContext) {
+        super(redisContext);
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.DECR;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 2) {
+            throw new IllegalStateException("参数不足");
+        }
+        key = ((BulkString) array[1]).getContent();
+        increment = -1;
+    }
+}
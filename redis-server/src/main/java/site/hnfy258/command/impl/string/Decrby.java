@@ -0,0 +1,23 @@
+package site.hnfy258.command.impl.string;
+
+import site.hnfy258.command.CommandType;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * DECRBY命令实现 - 将key中储存的数字值减去指定的减量
+ * 语法: DECRBY key decrement
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Decrby extends Incrby {
+
+    public Decrby(final RedisContext redisContext) {
+        super(redisContext, true);
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.DECRBY;
+    }
+}
@@ -6,7 +6,6 @@ import site.hnfy258.command.CommandType;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.datastructure.RedisData;
 import site.hnfy258.datastructure.RedisString;
-import site.hnfy258.internal.Sds;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespInteger;
@@ -63,10 +62,9 @@ public class Getrange implements Command {
         }
         
         RedisString redisString = (RedisString) data;
-        Sds sds = redisString.getSds();
-        
-        // SDS的O(1)长度获取用于边界检查
-        int length = sds.length();
+        // 读取缓存的字节表示，整数编码不会转换为SDS
+        byte[] fullBytes = redisString.getValue().getBytesUnsafe();
+        int length = fullBytes.length;
         
         if (length == 0) {
             return new BulkString(new byte[0]);
@@ -80,8 +78,6 @@ public class Getrange implements Command {
             return new BulkString(new byte[0]);
         }
         
-        // 直接从SDS获取字节数组进行范围截取
-        byte[] fullBytes = sds.getBytes();
         int rangeLength = endIndex - startIndex + 1;
         byte[] rangeBytes = new byte[rangeLength];
         
@@ -6,7 +6,6 @@ import site.hnfy258.command.CommandType;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.datastructure.RedisData;
 import site.hnfy258.datastructure.RedisString;
-import site.hnfy258.internal.Sds;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Errors;
 import site.hnfy258.protocal.Resp;
@@ -46,11 +45,11 @@ public class Incr implements Command {
     public Resp handle() {
         try {
             // 1. 获取或创建RedisString对象
-            RedisData redisData = redisContext.get(key);
+            RedisData redisData = redisContext.getForWrite(key);
             RedisString redisString;
               if (redisData == null) {
                 // 2. 键不存在，创建新的RedisString，值为0
-                redisString = new RedisString(Sds.create("0".getBytes()));
+                redisString = RedisString.fromLong(0);
                 redisContext.put(key, redisString);
             } else if (redisData instanceof RedisString) {
                 // 3. 键存在且为字符串类型
@@ -60,14 +59,16 @@ public class Incr implements Command {
                 return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
             }
             
-            // 5. 使用RedisString内置的高效递增方法
-            final long newValue = redisString.incr();
+            // 5. 使用RedisString内置的整数编码递增，溢出时报错
+            final long newValue = redisString.incrBy(1);
             
             // 6. 返回新值
             return new SimpleString(String.valueOf(newValue));
             
         } catch (final IllegalStateException e) {
             return new Errors("ERR value is not an integer or out of range");
+        } catch (final ArithmeticException e) {
+            return new Errors("ERR increment or decrement would overflow");
         } catch (final Exception e) {
             return new Errors("ERR " + e.getMessage());
         }
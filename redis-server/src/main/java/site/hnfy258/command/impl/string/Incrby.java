@@ -0,0 +1,104 @@
+package site.hnfy258.command.impl.string;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisString;
+import site.hnfy258.internal.IntSet;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.SimpleString;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * INCRBY命令实现 - 将key中储存的数字值加上指定的增量
+ * 语法: INCRBY key increment
+ *
+ * <p>值使用整数编码原地更新，不再经过字符串解析和SDS重建；结果超出long范围时报错。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Incrby implements Command {
+
+    private RedisContext redisContext;
+    private final boolean negate;
+    protected RedisBytes key;
+    protected long increment;
+
+    public Incrby(final RedisContext redisContext) {
+        this(redisContext, false);
+    }
+
+    /**
+     * @param negate true表示对增量取反，供DECRBY使用
+     */
+    protected Incrby(final RedisContext redisContext, final boolean negate) {
+        this.redisContext = redisContext;
+        this.negate = negate;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.INCRBY;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 3) {
+            throw new IllegalStateException("参数不足：" + getType().name() + "需要key和increment参数");
+        }
+        key = ((BulkString) array[1]).getContent();
+        final byte[] arg = ((BulkString) array[2]).getContent().getBytesUnsafe();
+        if (!IntSet.isLong(arg)) {
+            throw new IllegalStateException("value is not an integer or out of range");
+        }
+        increment = IntSet.toLong(arg);
+        if (negate) {
+            if (increment == Long.MIN_VALUE) {
+                throw new IllegalStateException("decrement would overflow");
+            }
+            increment = -increment;
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取或创建RedisString对象
+            final RedisData redisData = redisContext.getForWrite(key);
+            final RedisString redisString;
+            if (redisData == null) {
+                redisString = RedisString.fromLong(0);
+            } else if (redisData instanceof RedisString) {
+                redisString = (RedisString) redisData;
+            } else {
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            // 2. 计算成功后再写入，失败时不创建键
+            final long newValue = redisString.incrBy(increment);
+            if (redisData == null) {
+                redisContext.put(key, redisString);
+            }
+            return new SimpleString(String.valueOf(newValue));
+
+        } catch (final IllegalStateException e) {
+            return new Errors("ERR value is not an integer or out of range");
+        } catch (final ArithmeticException e) {
+            return new Errors("ERR increment or decrement would overflow");
+        } catch (final Exception e) {
+            log.error("{}命令执行失败", getType().name(), e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
@@ -0,0 +1,90 @@
+package site.hnfy258.command.impl.string;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisString;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * INCRBYFLOAT命令实现 - 将key中储存的数字值加上指定的浮点增量
+ * 语法: INCRBYFLOAT key increment
+ *
+ * <p>结果按最短的十进制形式保存，恰好是整数时仍使用整数编码。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Incrbyfloat implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private double increment;
+
+    public Incrbyfloat(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.INCRBYFLOAT;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 3) {
+            throw new IllegalStateException("参数不足：INCRBYFLOAT需要key和increment参数");
+        }
+        key = ((BulkString) array[1]).getContent();
+        try {
+            increment = Double.parseDouble(((BulkString) array[2]).getContent().getString());
+        } catch (final NumberFormatException e) {
+            throw new IllegalStateException("value is not a valid float");
+        }
+        if (Double.isNaN(increment) || Double.isInfinite(increment)) {
+            throw new IllegalStateException("value is not a valid float");
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取或创建RedisString对象
+            final RedisData redisData = redisContext.getForWrite(key);
+            final RedisString redisString;
+            if (redisData == null) {
+                redisString = RedisString.fromLong(0);
+            } else if (redisData instanceof RedisString) {
+                redisString = (RedisString) redisData;
+            } else {
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            // 2. 计算成功后再写入，失败时不创建键
+            final RedisBytes result = redisString.incrByFloat(increment);
+            if (redisData == null) {
+                redisContext.put(key, redisString);
+            }
+            return new BulkString(result);
+
+        } catch (final IllegalStateException e) {
+            return new Errors("ERR value is not a valid float");
+        } catch (final ArithmeticException e) {
+            return new Errors("ERR increment would produce NaN or Infinity");
+        } catch (final Exception e) {
+            log.error("INCRBYFLOAT命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
@@ -3,8 +3,8 @@ package site.hnfy258.command.impl.string;
 import lombok.extern.slf4j.Slf4j;
 import site.hnfy258.command.Command;
 import site.hnfy258.command.CommandType;
-import site.hnfy258.core.RedisBatchOptimizer;
 import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisString;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Errors;
 import site.hnfy258.protocal.Resp;
@@ -56,8 +56,10 @@ public class Mset implements Command {
     @Override
     public Resp handle() {        
         try {
-            // 1. 使用批处理优化器进行批量设置，通过RedisContext获取RedisCore
-            RedisBatchOptimizer.batchSetStrings(redisContext.getRedisCore(), keyValuePairs);
+            // 1. 写入客户端选中的数据库（RedisCore只知道全局数据库索引，不能直接使用）
+            for (final Map.Entry<RedisBytes, RedisBytes> entry : keyValuePairs.entrySet()) {
+                redisContext.put(entry.getKey(), RedisString.fromBytes(entry.getValue().getBytes()));
+            }
             
             // 2. 返回成功响应
             return SimpleString.OK;
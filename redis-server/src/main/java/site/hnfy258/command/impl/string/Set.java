@@ -6,16 +6,32 @@ import site.hnfy258.command.CommandType;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.datastructure.RedisData;
 import site.hnfy258.datastructure.RedisString;
+import site.hnfy258.internal.IntSet;
 import site.hnfy258.internal.Sds;
 import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
 import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespArray;
 import site.hnfy258.protocal.SimpleString;
 import site.hnfy258.server.context.RedisContext;
 @Slf4j
 public class Set implements Command {
+    private static final BulkString PXAT = BulkString.wrapTrusted("PXAT".getBytes());
+
+    private static final String SYNTAX_ERROR = "ERR syntax error";
+
+    private static final String INVALID_EXPIRE_ERROR = "ERR invalid expire time in 'set' command";
+
     private RedisBytes key;
     private RedisBytes value;
     private RedisContext redisContext;
+    /** 毫秒级绝对过期时间，-1表示不设置过期 */
+    private long expireAt;
+    /** 过期时间是否以相对时间给出，需要改写后再传播 */
+    private boolean relativeExpire;
+    private boolean keepTtl;
+    /** 选项解析失败时返回给客户端的错误，null表示参数合法 */
+    private String error;
 
     public Set(RedisContext redisContext) {
         this.redisContext = redisContext;
@@ -32,24 +48,98 @@ public class Set implements Command {
         }
         key = ((BulkString)array[1]).getContent();
         value = ((BulkString)array[2]).getContent();
+        expireAt = -1;
+        relativeExpire = false;
+        keepTtl = false;
+        error = parseOptions(array);
+    }
+
+    /**
+     * 解析 EX|PX|EXAT|PXAT|KEEPTTL 选项
+     *
+     * @return 参数不合法时的错误信息，合法时返回null
+     */
+    private String parseOptions(final Resp[] array) {
+        for (int i = 3; i < array.length; i++) {
+            final String option = ((BulkString) array[i]).getContent().getString().toUpperCase();
+            if ("KEEPTTL".equals(option) && expireAt == -1) {
+                keepTtl = true;
+                continue;
+            }
+            if (keepTtl || expireAt != -1 || i + 1 >= array.length) {
+                return SYNTAX_ERROR;
+            }
+            final byte[] time = ((BulkString) array[++i]).getContent().getBytesUnsafe();
+            if (!IntSet.isLong(time) || IntSet.toLong(time) <= 0) {
+                return INVALID_EXPIRE_ERROR;
+            }
+            final long amount = IntSet.toLong(time);
+            try {
+                switch (option) {
+                    case "EX":
+                        expireAt = Math.addExact(System.currentTimeMillis(), Math.multiplyExact(amount, 1000L));
+                        relativeExpire = true;
+                        break;
+                    case "PX":
+                        expireAt = Math.addExact(System.currentTimeMillis(), amount);
+                        relativeExpire = true;
+                        break;
+                    case "EXAT":
+                        expireAt = Math.multiplyExact(amount, 1000L);
+                        break;
+                    case "PXAT":
+                        expireAt = amount;
+                        break;
+                    default:
+                        return SYNTAX_ERROR;
+                }
+            } catch (ArithmeticException e) {
+                return INVALID_EXPIRE_ERROR;
+            }
+        }
+        return null;
     }
 
     @Override
     public Resp handle() {
-        if(redisContext.get(key) != null){
-            RedisData data = redisContext.get(key);
-            if(data instanceof RedisString){
-                RedisString redisString = (RedisString) data;
+        if (error != null) {
+            return new Errors(error);
+        }
+        RedisData data = redisContext.getForWrite(key);
+        if(data instanceof RedisString){
+            RedisString redisString = (RedisString) data;
+            if(IntSet.isLong(value.getBytesUnsafe())){
+                redisString.setLong(IntSet.toLong(value.getBytesUnsafe()));
+            }else{
                 redisString.setSds(Sds.create(value.getBytesUnsafe()));
-                return SimpleString.OK;
             }
+            // 普通SET会清除原有的过期时间，带过期时间时需要重新放入以更新过期索引
+            if (!keepTtl) {
+                redisString.setTimeout(expireAt);
+                if (expireAt != -1) {
+                    redisContext.put(key, redisString);
+                }
+            }
+            return SimpleString.OK;
         }
-        redisContext.put(key, new RedisString(Sds.create(value.getBytesUnsafe())));
+        RedisString redisString = RedisString.fromBytes(value.getBytesUnsafe());
+        redisString.setTimeout(keepTtl && data != null ? data.timeout() : expireAt);
+        redisContext.put(key, redisString);
 //        log.info("set key:{} value:{}", key, value);
 
         return SimpleString.OK;
     }
 
+    @Override
+    public RespArray propagateAs() {
+        if (!relativeExpire) {
+            return null;
+        }
+        // EX/PX改写为PXAT，重放时得到相同的绝对过期时间
+        return new RespArray(new Resp[]{BulkString.SET, new BulkString(key), new BulkString(value),
+                PXAT, new BulkString(RedisBytes.fromLong(expireAt))});
+    }
+
     @Override
     public boolean isWriteCommand() {
         return true;
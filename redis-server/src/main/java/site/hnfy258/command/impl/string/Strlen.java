@@ -59,8 +59,8 @@ public class Strlen implements Command {
         }
           RedisString redisString = (RedisString) data;
         
-        // SDS的O(1)长度获取 - 核心优势展示
-        int length = redisString.getSds().length();
+        // O(1)长度获取，整数编码不会转换为SDS
+        int length = redisString.length();
         
         log.debug("STRLEN key:{} length:{}", key.getString(), length);
         return RespInteger.valueOf(length);
@@ -48,7 +48,7 @@ public class Zadd implements Command {
     @Override
     public Resp handle() {
         try{
-            RedisZset zset = (RedisZset) redisContext.get(key);
+            RedisZset zset = (RedisZset) redisContext.getForWrite(key);
             if(zset == null){
                 zset = new RedisZset();
                 redisContext.put(key,zset);
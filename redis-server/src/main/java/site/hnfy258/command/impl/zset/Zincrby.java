@@ -0,0 +1,74 @@
+package site.hnfy258.command.impl.zset;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisZset;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * ZINCRBY命令实现 - 增加成员的分数，成员不存在时以增量作为分数添加
+ * 语法: ZINCRBY key increment member
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Zincrby implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private double increment;
+    private RedisBytes member;
+
+    public Zincrby(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ZINCRBY;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 4) {
+            throw new IllegalStateException("参数不足：ZINCRBY需要key、increment和member参数");
+        }
+        key = ((BulkString) array[1]).getContent();
+        increment = RedisZset.parseScore(((BulkString) array[2]).getContent().getString());
+        member = ((BulkString) array[3]).getContent();
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取有序集合，不存在时创建
+            final RedisData redisData = redisContext.getForWrite(key);
+            if (redisData != null && !(redisData instanceof RedisZset)) {
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+            final RedisZset zset = redisData == null ? new RedisZset() : (RedisZset) redisData;
+
+            // 2. 更新分数并保存
+            final double score = zset.incrementScore(increment, member);
+            redisContext.put(key, zset);
+            return new BulkString(RedisBytes.fromString(String.valueOf(score)));
+
+        } catch (final Exception e) {
+            log.error("ZINCRBY命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
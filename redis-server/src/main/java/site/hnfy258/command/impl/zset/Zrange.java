@@ -5,7 +5,6 @@ import site.hnfy258.command.CommandType;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.datastructure.RedisData;
 import site.hnfy258.datastructure.RedisZset;
-import site.hnfy258.datastructure.RedisZset;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Errors;
 import site.hnfy258.protocal.Resp;
@@ -14,18 +13,26 @@ import site.hnfy258.server.context.RedisContext;
 
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class Zrange implements Command {
     private RedisContext redisContext;
+    private final boolean reverse;
     private RedisBytes key;
     private int start;
     private int stop;
     private boolean withScores = false;
 
     public Zrange(RedisContext redisContext) {
+        this(redisContext, false);
+    }
+
+    /**
+     * @param reverse true表示按分数从高到低排名，供ZREVRANGE使用
+     */
+    protected Zrange(RedisContext redisContext, boolean reverse) {
         this.redisContext = redisContext;
+        this.reverse = reverse;
     }
 
     @Override
@@ -36,13 +43,14 @@ public class Zrange implements Command {
     @Override
     public void setContext(Resp[] array) {
         if(array.length < 4){
-            throw new IllegalArgumentException("ZRANGE command requires at least 4 arguments.");
+            throw new IllegalArgumentException(getType().name() + " command requires at least 4 arguments.");
         }
         key = ((BulkString)array[1]).getContent();
         RedisBytes startBytes = ((BulkString)array[2]).getContent();
         start = Integer.parseInt(startBytes.getString());
         RedisBytes stopBytes = ((BulkString)array[3]).getContent();
         stop = Integer.parseInt(stopBytes.getString());
+        withScores = false;
         if(array.length == 5){
             RedisBytes option = ((BulkString)array[4]).getContent();
             if(option.getString().equalsIgnoreCase("WITHSCORES")){
@@ -60,66 +68,22 @@ public class Zrange implements Command {
 
             // 检查类型
             if(!(data instanceof RedisZset)){
-                return new Errors("ERR wrong type for 'zrange' command");
+                return new Errors("ERR wrong type for '" + getType().name().toLowerCase() + "' command");
             }
-            
-            RedisZset redisZset = (RedisZset) data;
-            int size = Math.toIntExact(redisZset.size());
-            if(size == 0) return RespArray.EMPTY;
-
-            // 处理索引
-            int startIndex = start;
-            int stopIndex = stop;
-
-            if(startIndex < 0) startIndex = size + startIndex;
-            if(stopIndex < 0) stopIndex = size + stopIndex;
 
-            startIndex = Math.max(0, startIndex);
-            stopIndex = Math.min(size-1, stopIndex);
-            if(startIndex > stopIndex){
-                return RespArray.EMPTY;
-            }
-              // 获取范围数据
-            List<RedisZset.ZsetNode> range;
-            try {
-                range = redisZset.getRange(startIndex, stopIndex);
-                if(range == null) {
-                    return RespArray.EMPTY;
-                }
-                
-                // 不需要再反转列表，因为已经在ConcurrentSkipListMap中正确排序
-                // Collections.reverse(range);
-            } catch (Exception e) {
-                return new Errors("ERR Failed to get range: " + e.getMessage());
-            }
-            
-            // 构建返回数据
+            // 按跨度定位起点后逐个回调，直接写入回复，不生成中间节点列表
             List<Resp> respList = new ArrayList<>();
-            try {
-                for(RedisZset.ZsetNode node : range){
-                    if(node == null || node.getMember() == null) {
-                        continue; // 跳过空节点
-                    }
-                    
-                    // 优化：使用 RedisBytes.fromString 获得缓存和零拷贝优势
-                    final RedisBytes memberBytes = RedisBytes.fromString(node.getMember());
-                    respList.add(new BulkString(memberBytes));
-                    
-                    if(withScores){
-                        final RedisBytes scoreBytes = RedisBytes.fromString(String.valueOf(node.getScore()));
-                        respList.add(new BulkString(scoreBytes));
-                    }
+            ((RedisZset) data).rangeByRank(start, stop, reverse, (member, score) -> {
+                respList.add(new BulkString(member));
+                if(withScores){
+                    respList.add(new BulkString(RedisBytes.fromString(String.valueOf(score))));
                 }
-            } catch (Exception e) {
-                return new Errors("ERR Failed to process range results: " + e.getMessage());
-            }
-            
+            });
+            if(respList.isEmpty()) return RespArray.EMPTY;
             return new RespArray(respList.toArray(new Resp[0]));
         } catch(Exception e) {
-            // 打印异常堆栈供调试
-            e.printStackTrace();
             if(e.getMessage() == null) {
-                return new Errors("ERR Internal error in 'zrange' command");
+                return new Errors("ERR Internal error in '" + getType().name().toLowerCase() + "' command");
             }
             return new Errors("ERR " + e.getMessage());
         }
@@ -0,0 +1,122 @@
+package site.hnfy258.command.impl.zset;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisZset;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespArray;
+import site.hnfy258.server.context.RedisContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ZRANGEBYSCORE命令实现 - 按分数从低到高获取分数范围内的成员
+ * 语法: ZRANGEBYSCORE key min max [WITHSCORES] [LIMIT offset count]
+ *
+ * <p>分数以"("开头表示开区间，支持"-inf"和"+inf"。LIMIT的偏移量通过排名直接跳过，
+ * 结果逐个写入回复，服务端完成分页。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Zrangebyscore implements Command {
+
+    private RedisContext redisContext;
+    private final boolean reverse;
+    private RedisBytes key;
+    private RedisZset.ScoreRange range;
+    private boolean withScores;
+    private long offset;
+    private long limit;
+
+    public Zrangebyscore(final RedisContext redisContext) {
+        this(redisContext, false);
+    }
+
+    /**
+     * @param reverse true表示按分数从高到低返回，参数顺序为max min，供ZREVRANGEBYSCORE使用
+     */
+    protected Zrangebyscore(final RedisContext redisContext, final boolean reverse) {
+        this.redisContext = redisContext;
+        this.reverse = reverse;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ZRANGEBYSCORE;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 4) {
+            throw new IllegalStateException("参数不足：" + getType().name() + "需要key、min和max参数");
+        }
+
+        // 1. 解析分数范围，反向命令先给出上界
+        key = ((BulkString) array[1]).getContent();
+        final String first = ((BulkString) array[2]).getContent().getString();
+        final String second = ((BulkString) array[3]).getContent().getString();
+        range = reverse ? RedisZset.ScoreRange.parse(second, first) : RedisZset.ScoreRange.parse(first, second);
+
+        // 2. 解析可选参数
+        withScores = false;
+        offset = 0;
+        limit = -1;
+        for (int i = 4; i < array.length; i++) {
+            final String option = ((BulkString) array[i]).getContent().getString();
+            if ("WITHSCORES".equalsIgnoreCase(option)) {
+                withScores = true;
+            } else if ("LIMIT".equalsIgnoreCase(option) && i + 2 < array.length) {
+                try {
+                    offset = Long.parseLong(((BulkString) array[i + 1]).getContent().getString());
+                    limit = Long.parseLong(((BulkString) array[i + 2]).getContent().getString());
+                } catch (final NumberFormatException e) {
+                    throw new IllegalStateException("LIMIT的offset和count必须是有效的整数");
+                }
+                i += 2;
+            } else {
+                throw new IllegalStateException("语法错误：不支持的参数" + option);
+            }
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取有序集合
+            final RedisData redisData = redisContext.get(key);
+            if (redisData == null) {
+                return RespArray.EMPTY;
+            }
+            if (!(redisData instanceof RedisZset)) {
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            // 2. 定位范围端点后逐个写入回复
+            final List<Resp> reply = new ArrayList<>();
+            ((RedisZset) redisData).rangeByScore(range, reverse, offset, limit, (member, score) -> {
+                reply.add(new BulkString(member));
+                if (withScores) {
+                    reply.add(new BulkString(RedisBytes.fromString(String.valueOf(score))));
+                }
+            });
+            return reply.isEmpty() ? RespArray.EMPTY : new RespArray(reply.toArray(new Resp[0]));
+
+        } catch (final Exception e) {
+            log.error("{}命令执行失败", getType().name(), e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return false;
+    }
+}
@@ -0,0 +1,90 @@
+package site.hnfy258.command.impl.zset;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisZset;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * ZREM命令实现 - 删除有序集合中的成员
+ * 语法: ZREM key member [member ...]
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Zrem implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private RedisBytes[] members;
+
+    public Zrem(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ZREM;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 3) {
+            throw new IllegalStateException("参数不足：ZREM需要key和至少一个member参数");
+        }
+        key = ((BulkString) array[1]).getContent();
+        members = new RedisBytes[array.length - 2];
+        for (int i = 2; i < array.length; i++) {
+            members[i - 2] = ((BulkString) array[i]).getContent();
+        }
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取有序集合
+            final RedisData redisData = redisContext.getForWrite(key);
+            if (redisData == null) {
+                return RespInteger.ZERO;
+            }
+            if (!(redisData instanceof RedisZset)) {
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            // 2. 逐个删除成员
+            final RedisZset zset = (RedisZset) redisData;
+            int removed = 0;
+            for (final RedisBytes member : members) {
+                if (zset.remove(member)) {
+                    removed++;
+                }
+            }
+
+            // 3. 有序集合变空时删除键
+            if (zset.size() == 0) {
+                redisContext.put(key, null);
+            } else if (removed > 0) {
+                redisContext.put(key, zset);
+            }
+            return RespInteger.valueOf(removed);
+
+        } catch (final Exception e) {
+            log.error("ZREM命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+package site.hnfy258.command.impl.zset;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisZset;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * ZREMRANGEBYSCORE命令实现 - 删除分数在范围内的成员
+ * 语法: ZREMRANGEBYSCORE key min max
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Zremrangebyscore implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private RedisZset.ScoreRange range;
+
+    public Zremrangebyscore(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ZREMRANGEBYSCORE;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 4) {
+            throw new IllegalStateException("参数不足：ZREMRANGEBYSCORE需要key和范围参数");
+        }
+        key = ((BulkString) array[1]).getContent();
+        range = RedisZset.ScoreRange.parse(((BulkString) array[2]).getContent().getString(),
+                ((BulkString) array[3]).getContent().getString());
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取有序集合
+            final RedisData redisData = redisContext.getForWrite(key);
+            if (redisData == null) {
+                return RespInteger.ZERO;
+            }
+            if (!(redisData instanceof RedisZset)) {
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            // 2. 删除范围内的成员
+            final RedisZset zset = (RedisZset) redisData;
+            final long removed = zset.removeRangeByScore(range);
+
+            // 3. 有序集合变空时删除键
+            if (zset.size() == 0) {
+                redisContext.put(key, null);
+            } else if (removed > 0) {
+                redisContext.put(key, zset);
+            }
+            return RespInteger.valueOf(Math.toIntExact(removed));
+
+        } catch (final Exception e) {
+            log.error("ZREMRANGEBYSCORE命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return true;
+    }
+}
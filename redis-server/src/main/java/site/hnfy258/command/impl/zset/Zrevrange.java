@@ -0,0 +1,25 @@
+package site.hnfy258.command.impl.zset;
+
+import site.hnfy258.command.CommandType;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * ZREVRANGE命令实现 - 按分数从高到低获取排名范围内的成员
+ * 语法: ZREVRANGE key start stop [WITHSCORES]
+ *
+ * <p>从跳表中按跨度定位起始节点后沿后向指针遍历。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Zrevrange extends Zrange {
+
+    public Zrevrange(final RedisContext redisContext) {
+        super(redisContext, true);
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ZREVRANGE;
+    }
+}
@@ -0,0 +1,25 @@
+package site.hnfy258.command.impl.zset;
+
+import site.hnfy258.command.CommandType;
+import site.hnfy258.server.context.RedisContext;
+
+/**
+ * ZREVRANGEBYSCORE命令实现 - 按分数从高到低获取分数范围内的成员
+ * 语法: ZREVRANGEBYSCORE key max min [WITHSCORES] [LIMIT offset count]
+ *
+ * <p>从范围内的最后一个节点开始沿后向指针遍历。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class Zrevrangebyscore extends Zrangebyscore {
+
+    public Zrevrangebyscore(final RedisContext redisContext) {
+        super(redisContext, true);
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ZREVRANGEBYSCORE;
+    }
+}
@@ -0,0 +1,77 @@
+package site.hnfy258.command.impl.zset;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisZset;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespInteger;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * ZREVRANK命令实现 - 获取成员按分数从高到低的排名
+ * 语法: ZREVRANK key member
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Zrevrank implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private RedisBytes member;
+
+    public Zrevrank(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ZREVRANK;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 3) {
+            throw new IllegalStateException("参数不足：ZREVRANK需要key和member参数");
+        }
+        key = ((BulkString) array[1]).getContent();
+        member = ((BulkString) array[2]).getContent();
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取有序集合
+            final RedisData redisData = redisContext.get(key);
+            if (redisData == null) {
+                return new BulkString((RedisBytes) null);
+            }
+            if (!(redisData instanceof RedisZset)) {
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            // 2. 按跨度计算排名，成员不存在时返回null
+            final long rank = ((RedisZset) redisData).rank(member, true);
+            if (rank < 0) {
+                return new BulkString((RedisBytes) null);
+            }
+            return RespInteger.valueOf(Math.toIntExact(rank));
+
+        } catch (final Exception e) {
+            log.error("ZREVRANK命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return false;
+    }
+}
@@ -0,0 +1,76 @@
+package site.hnfy258.command.impl.zset;
+
+import lombok.extern.slf4j.Slf4j;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.datastructure.RedisZset;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Errors;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.server.context.RedisContext;
+
+
+/**
+ * ZSCORE命令实现 - 获取成员的分数
+ * 语法: ZSCORE key member
+ * 
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class Zscore implements Command {
+
+    private RedisContext redisContext;
+    private RedisBytes key;
+    private RedisBytes member;
+
+    public Zscore(final RedisContext redisContext) {
+        this.redisContext = redisContext;
+    }
+
+    @Override
+    public CommandType getType() {
+        return CommandType.ZSCORE;
+    }
+
+    @Override
+    public void setContext(final Resp[] array) {
+        if (array.length < 3) {
+            throw new IllegalStateException("参数不足：ZSCORE需要key和member参数");
+        }
+        key = ((BulkString) array[1]).getContent();
+        member = ((BulkString) array[2]).getContent();
+    }
+
+    @Override
+    public Resp handle() {
+        try {
+            // 1. 获取有序集合
+            final RedisData redisData = redisContext.get(key);
+            if (redisData == null) {
+                return new BulkString((RedisBytes) null);
+            }
+            if (!(redisData instanceof RedisZset)) {
+                return new Errors("WRONGTYPE Operation against a key holding the wrong kind of value");
+            }
+
+            // 2. 成员不存在时返回null
+            final Double score = ((RedisZset) redisData).getScore(member);
+            if (score == null) {
+                return new BulkString((RedisBytes) null);
+            }
+            return new BulkString(RedisBytes.fromString(String.valueOf(score)));
+
+        } catch (final Exception e) {
+            log.error("ZSCORE命令执行失败", e);
+            return new Errors("ERR " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isWriteCommand() {
+        return false;
+    }
+}
@@ -7,9 +7,12 @@ import io.netty.channel.kqueue.KQueueServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.util.concurrent.DefaultEventExecutorGroup;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.ScheduledFuture;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.kqueue.KQueueEventLoopGroup;
@@ -22,8 +25,12 @@ import site.hnfy258.cluster.host.ReplicationHost;
 import site.hnfy258.cluster.node.RedisNode;
 import site.hnfy258.command.Command;
 import site.hnfy258.command.CommandType;
+import site.hnfy258.core.ActiveExpireCycle;
+import site.hnfy258.core.DatabaseCron;
 import site.hnfy258.core.RedisCore;
 import site.hnfy258.core.RedisCoreImpl;
+import site.hnfy258.database.AccessMeta;
+import site.hnfy258.datastructure.EncodingConfig;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
@@ -36,11 +43,17 @@ import site.hnfy258.server.handler.RespCommandHandler;
 import site.hnfy258.server.context.RedisContext;
 import site.hnfy258.server.context.RedisContextImpl;
 import site.hnfy258.server.config.RedisServerConfig;
+import site.hnfy258.server.shard.ShardExecutorGroup;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Redis服务器的轻量级实现。
@@ -91,18 +104,30 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
     
     /** 命令执行线程池 */
     private EventExecutorGroup commandExecutor;
+
+    /**
+     * 非分片模式下拥有键空间的执行线程，后台维护任务和复制命令都在这个线程上执行，
+     * 与客户端命令串行访问数据库
+     */
+    private EventExecutor keyspaceExecutor;
+
+    /** 分片命令执行器组，分片数大于1时启用 */
+    private ShardExecutorGroup shardGroup;
     
     /** 服务器Channel */
     private Channel serverChannel;
 
+    /** 各分段的键空间后台维护任务 */
+    private final List<ScheduledFuture<?>> cronTasks = new ArrayList<>();
+
     /** Redis核心功能实现 */
     private RedisCore redisCore;
     
     /** Redis服务器上下文 */
     private RedisContext redisContext;
     
-    /** Redis节点信息（用于复制功能） */
-    private RedisNode redisNode;
+    /** Redis节点信息（用于复制功能），主动过期任务在执行线程上读取 */
+    private volatile RedisNode redisNode;
     
     /** 复制功能的唯一标识符 */
     private String replicationId;
@@ -132,8 +157,22 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
         initializeEventLoopGroups();
         initializeCommandExecutor();
         
-        // 2. 初始化Redis核心
-        this.redisCore = new RedisCoreImpl(config.getDatabaseCount());
+        // 2. 初始化Redis核心，编码阈值必须在加载持久化数据之前设置
+        EncodingConfig.setHashMaxListpackEntries(config.getHashMaxListpackEntries());
+        EncodingConfig.setHashMaxListpackValue(config.getHashMaxListpackValue());
+        EncodingConfig.setSetMaxIntsetEntries(config.getSetMaxIntsetEntries());
+        EncodingConfig.setListMaxListpackSize(config.getListMaxListpackSize());
+        EncodingConfig.setListCompressDepth(config.getListCompressDepth());
+        EncodingConfig.setZsetMaxListpackEntries(config.getZsetMaxListpackEntries());
+        EncodingConfig.setZsetMaxListpackValue(config.getZsetMaxListpackValue());
+        AccessMeta.setLfuLogFactor(config.getLfuLogFactor());
+        AccessMeta.setLfuDecayTime(config.getLfuDecayTime());
+        final RedisCoreImpl core = new RedisCoreImpl(config.getDatabaseCount(), config.getShardCount(), config.getDictEngine());
+        if (config.getExpireWheelTickMillis() > 0) {
+            // 在加载RDB/AOF之前启用，加载过程中的写入会同步维护时间轮
+            core.enableTimingWheel(config.getExpireWheelTickMillis());
+        }
+        this.redisCore = core;
         
         // 3. 创建RedisContext（持久化组件的创建被移到RedisContext内部）
         this.redisContext = new RedisContextImpl(
@@ -182,9 +221,21 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
                     @Override
                     protected void initChannel(SocketChannel ch) throws Exception {
                         ChannelPipeline pipeline = ch.pipeline();
-                        pipeline.addLast(new RespDecoder());
+                        if (config.getFlushConsolidationThreshold() > 0) {
+                            pipeline.addLast(new FlushConsolidationHandler(
+                                    config.getFlushConsolidationThreshold(), true));
+                        }
+                        pipeline.addLast(new RespDecoder(
+                                config.isPipelineBatchEnabled(), config.isArgvDecodeEnabled()));
                         pipeline.addLast(new RespEncoder());
-                        pipeline.addLast(commandExecutor, new RespCommandHandler(redisContext));
+                        if (shardGroup != null) {
+                            // 分片模式：处理器在I/O线程上路由，命令在分片线程上执行
+                            pipeline.addLast(new RespCommandHandler(
+                                    redisContext, config.isDeferredFlushEnabled(), shardGroup));
+                        } else {
+                            pipeline.addLast(commandExecutor, new RespCommandHandler(
+                                    redisContext, config.isDeferredFlushEnabled()));
+                        }
                     }
                 });
         try {
@@ -193,6 +244,10 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
             
             // 启动Redis上下文
             redisContext.startup();
+            
+            // 启动键空间后台维护
+            startDatabaseCron();
+            startActiveExpire();
         } catch (InterruptedException e) {
             log.error("Redis server start error", e);
             stop();
@@ -231,12 +286,21 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
                 log.info("Redis上下文已关闭");
             }
 
-            // 2. 关闭命令执行器
+            // 2. 停止后台维护任务，关闭命令执行器
+            for (ScheduledFuture<?> task : cronTasks) {
+                task.cancel(false);
+            }
+            cronTasks.clear();
             if(commandExecutor != null) {
                 log.info("正在关闭命令执行器...");
                 commandExecutor.shutdown();
                 log.info("命令执行器已关闭");
             }
+            if(shardGroup != null) {
+                log.info("正在关闭分片执行器组...");
+                shardGroup.shutdown();
+                log.info("分片执行器组已关闭");
+            }
 
             // 3. 关闭网络连接
             if(serverChannel != null) {
@@ -365,6 +429,11 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
      *   <li>执行命令并返回结果
      * </ul>
      * 
+     * <p>调用方是复制连接的线程。数据库不是线程安全的，命令提交到拥有键空间的执行线程上执行，
+     * 与客户端命令、后台rehash和主动过期串行，调用线程等待执行结果。
+     * 分片模式下按{@link CommandType#routeShard(Resp[], int)}提交到键所在的分片，
+     * 跨分片命令和全局命令在所有分片暂停时执行。
+     * 
      * @param command RESP格式的命令
      * @return 命令执行结果
      */
@@ -388,7 +457,23 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
                 // 创建并执行命令
                 Command redisCommand = commandType.createCommand(redisContext);
                 redisCommand.setContext(array);
-                return redisCommand.handle();
+                if (shardGroup != null) {
+                    final int shard = commandType.routeShard(array, shardGroup.getShardCount());
+                    final Supplier<Resp> task = redisCommand::handle;
+                    return (shard == CommandType.ROUTE_GLOBAL
+                            ? shardGroup.submitGlobal(task)
+                            : shardGroup.submit(shard == CommandType.ROUTE_ANY_SHARD ? 0 : shard, task)).get();
+                }
+                if (keyspaceExecutor == null || keyspaceExecutor.inEventLoop()) {
+                    return redisCommand.handle();
+                }
+                return keyspaceExecutor.submit(redisCommand::handle).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new Errors("ERR interrupted");
+            } catch (ExecutionException e) {
+                log.error("执行复制命令失败", e.getCause());
+                return new Errors("ERR " + e.getCause().getMessage());
             } catch (Exception e) {
                 log.error("执行复制命令失败", e);
                 return new Errors("ERR " + e.getMessage());
@@ -427,7 +512,94 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
         }
     }
 
+    /**
+     * 启动键空间后台维护任务。
+     * 
+     * <p>每个分段一个任务，调度到该分段所属的执行线程上，与命令串行执行：
+     * 在固定时间预算内推进空闲表的渐进式rehash，并在大量删除后缩容。
+     */
+    private void startDatabaseCron() {
+        if (!config.isActiveRehashing()) {
+            return;
+        }
+        final long budgetNanos = TimeUnit.MICROSECONDS.toNanos(config.getActiveRehashBudgetMicros());
+        final long period = config.getCronIntervalMillis();
+        for (int segment = 0; segment < redisCore.getSegmentCount(); segment++) {
+            final DatabaseCron cron = new DatabaseCron(redisCore, segment, budgetNanos);
+            // 周期任务抛出异常后不会再执行，这里吞掉异常保证后续周期继续运行
+            final Runnable task = () -> {
+                try {
+                    cron.run();
+                } catch (Exception e) {
+                    log.error("键空间后台维护失败", e);
+                }
+            };
+            if (shardGroup != null) {
+                cronTasks.add(shardGroup.scheduleAtFixedRate(segment, task, period));
+            } else {
+                cronTasks.add(keyspaceExecutor.scheduleAtFixedRate(task, period, period, TimeUnit.MILLISECONDS));
+            }
+        }
+        log.info("键空间后台维护已启动，周期: {}ms，rehash预算: {}us",
+                period, config.getActiveRehashBudgetMicros());
+    }
+
+    /**
+     * 启动主动过期任务。
+     * 
+     * <p>与后台维护任务一样按分段调度到所属执行线程。每个周期的时间预算为周期的25%，
+     * 力度每增加1级多给2%，采样到的过期键持续偏多时加倍，
+     * 超出预算后下个周期从中断的数据库继续。
+     * 启用过期时间轮时每个tick执行一次。
+     * 
+     * <p>从节点不主动删除过期键，与Redis相同：主节点删除过期键时会传播DEL，
+     * 从节点等待DEL到达，键空间只由复制流修改，不会与主节点的删除顺序不一致。
+     */
+    private void startActiveExpire() {
+        if (!config.isActiveExpireEnabled()) {
+            return;
+        }
+        final int effort = config.getActiveExpireEffort();
+        final long period = config.getExpireWheelTickMillis() > 0
+                ? config.getExpireWheelTickMillis() : config.getCronIntervalMillis();
+        final long budgetNanos = TimeUnit.MILLISECONDS.toNanos(period) * (25 + 2 * (effort - 1)) / 100;
+        for (int segment = 0; segment < redisCore.getSegmentCount(); segment++) {
+            final ActiveExpireCycle cycle = new ActiveExpireCycle(redisCore, segment, budgetNanos, effort);
+            final Runnable task = () -> {
+                if (isReplica()) {
+                    return;
+                }
+                try {
+                    cycle.run();
+                } catch (Exception e) {
+                    log.error("主动过期失败", e);
+                }
+            };
+            if (shardGroup != null) {
+                cronTasks.add(shardGroup.scheduleAtFixedRate(segment, task, period));
+            } else {
+                cronTasks.add(keyspaceExecutor.scheduleAtFixedRate(task, period, period, TimeUnit.MILLISECONDS));
+            }
+        }
+        log.info("主动过期已启动，周期: {}ms，力度: {}", period, effort);
+    }
+
+    /**
+     * 当前节点是否作为从节点运行
+     * 
+     * @return 配置了节点信息且不是主节点时返回true
+     */
+    private boolean isReplica() {
+        final RedisNode node = redisNode;
+        return node != null && !node.isMaster();
+    }
+
     private void initializeCommandExecutor() {
+        if (config.getShardCount() > 1) {
+            log.info("使用分片CommandExecutor，分片数量: {}", config.getShardCount());
+            this.shardGroup = new ShardExecutorGroup(config.getShardCount());
+            return;
+        }
         final String threadNamePrefix = "redis-cmd-single";
         log.info("使用单线程CommandExecutor，确保命令串行执行");
         
@@ -435,5 +607,6 @@ public class RedisMiniServer implements RedisServer, ReplicationHost {
             config.getCommandExecutorThreadCount(),
             new DefaultThreadFactory(threadNamePrefix)
         );
+        this.keyspaceExecutor = commandExecutor.next();
     }
 }
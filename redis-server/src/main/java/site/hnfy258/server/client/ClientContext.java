@@ -0,0 +1,272 @@
+package site.hnfy258.server.client;
+
+import site.hnfy258.aof.AofManager;
+import site.hnfy258.cluster.node.RedisNode;
+import site.hnfy258.core.KeyStatsTracker;
+import site.hnfy258.core.MemoryEvictor;
+import site.hnfy258.core.RedisCore;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.datastructure.RedisData;
+import site.hnfy258.raft.Raft;
+import site.hnfy258.rdb.RdbManager;
+import site.hnfy258.server.context.RedisContext;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 绑定客户端会话的Redis上下文
+ *
+ * <p>为连接上执行的命令提供上下文：键操作和数据库选择作用于会话选中的
+ * {@link RedisDB}，不读写{@link RedisCore}中的全局数据库索引；
+ * 持久化、复制等服务器级别的操作委托给服务器上下文。
+ *
+ * <p>命令实现无需关心自己运行在哪个会话上，仍然通过{@link RedisContext}访问数据。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+public class ClientContext implements RedisContext {
+
+    /** 服务器上下文 */
+    private final RedisContext server;
+
+    /** 客户端会话 */
+    private final ClientSession session;
+
+    /**
+     * 创建绑定会话的上下文
+     *
+     * @param server 服务器上下文
+     * @param session 客户端会话
+     * @throws IllegalArgumentException 如果参数为null
+     */
+    public ClientContext(final RedisContext server, final ClientSession session) {
+        if (server == null || session == null) {
+            throw new IllegalArgumentException("服务器上下文和客户端会话不能为null");
+        }
+        this.server = server;
+        this.session = session;
+    }
+
+    /**
+     * 获取绑定的客户端会话
+     *
+     * @return 客户端会话
+     */
+    public ClientSession getSession() {
+        return session;
+    }
+
+    // ========== 会话级别的数据操作 ==========
+
+    @Override
+    public RedisData get(final RedisBytes key) {
+        if (key == null) {
+            throw new IllegalArgumentException("键不能为null");
+        }
+        return session.getDb().get(key);
+    }
+
+    @Override
+    public RedisData getForWrite(final RedisBytes key) {
+        if (key == null) {
+            throw new IllegalArgumentException("键不能为null");
+        }
+        return session.getDb().getForWrite(key);
+    }
+
+    @Override
+    public void put(final RedisBytes key, final RedisData value) {
+        session.getDb().put(key, value);
+    }
+
+    @Override
+    public Set<RedisBytes> keys() {
+        return session.getDb().keys();
+    }
+
+    @Override
+    public void selectDB(final int dbIndex) {
+        // 只修改本会话，其他客户端不受影响
+        session.select(dbIndex, server.getDB(dbIndex));
+    }
+
+    @Override
+    public int getCurrentDBIndex() {
+        return session.getDbIndex();
+    }
+
+    @Override
+    public void writeAof(final byte[] commandBytes) {
+        server.writeAof(session.getDbIndex(), commandBytes);
+    }
+
+    @Override
+    public void propagateCommand(final byte[] commandBytes) {
+        server.propagateCommand(session.getDbIndex(), commandBytes);
+    }
+
+    // ========== 委托给服务器上下文 ==========
+
+    @Override
+    public int getDBNum() {
+        return server.getDBNum();
+    }
+
+    @Override
+    public RedisDB getDB(final int dbIndex) {
+        return server.getDB(dbIndex);
+    }
+
+    @Override
+    public void flushAll() {
+        server.flushAll();
+    }
+
+    @Override
+    public void writeAof(final int dbIndex, final byte[] commandBytes) {
+        server.writeAof(dbIndex, commandBytes);
+    }
+
+    @Override
+    public boolean saveRdb() {
+        return server.saveRdb();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> bgSaveRdb() {
+        return server.bgSaveRdb();
+    }
+
+    @Override
+    public boolean loadRdb() {
+        return server.loadRdb();
+    }
+
+    @Override
+    public byte[] createTempRdbForReplication() {
+        return server.createTempRdbForReplication();
+    }
+
+    @Override
+    public boolean loadRdbFromBytes(final byte[] rdbContent) {
+        return server.loadRdbFromBytes(rdbContent);
+    }
+
+    @Override
+    public void propagateCommand(final int dbIndex, final byte[] commandBytes) {
+        server.propagateCommand(dbIndex, commandBytes);
+    }
+
+    @Override
+    public void resetReplicationSelectedDb() {
+        server.resetReplicationSelectedDb();
+    }
+
+    @Override
+    public boolean isMaster() {
+        return server.isMaster();
+    }
+
+    @Override
+    public String getNodeId() {
+        return server.getNodeId();
+    }
+
+    @Override
+    public void setRedisNode(final RedisNode redisNode) {
+        server.setRedisNode(redisNode);
+    }
+
+    @Override
+    public boolean isAofEnabled() {
+        return server.isAofEnabled();
+    }
+
+    @Override
+    public boolean isRdbEnabled() {
+        return server.isRdbEnabled();
+    }
+
+    @Override
+    public boolean rewriteAof() {
+        return server.rewriteAof();
+    }
+
+    @Override
+    public RedisNode getRedisNode() {
+        return server.getRedisNode();
+    }
+
+    @Override
+    public RdbManager getRdbManager() {
+        return server.getRdbManager();
+    }
+
+    @Override
+    public AofManager getAofManager() {
+        return server.getAofManager();
+    }
+
+    @Override
+    public void flushAof() {
+        server.flushAof();
+    }
+
+    @Override
+    public String getServerHost() {
+        return server.getServerHost();
+    }
+
+    @Override
+    public int getServerPort() {
+        return server.getServerPort();
+    }
+
+    @Override
+    public void startup() {
+        server.startup();
+    }
+
+    @Override
+    public void shutdown() {
+        server.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server.isRunning();
+    }
+
+    @Override
+    public RedisDB[] getDataBases() {
+        return server.getDataBases();
+    }
+
+    @Override
+    public RedisCore getRedisCore() {
+        return server.getRedisCore();
+    }
+
+    @Override
+    public Raft getRaft() {
+        return server.getRaft();
+    }
+
+    @Override
+    public boolean isRaftEnabled() {
+        return server.isRaftEnabled();
+    }
+
+    @Override
+    public MemoryEvictor getMemoryEvictor() {
+        return server.getMemoryEvictor();
+    }
+
+    @Override
+    public KeyStatsTracker getKeyStatsTracker() {
+        return server.getKeyStatsTracker();
+    }
+}
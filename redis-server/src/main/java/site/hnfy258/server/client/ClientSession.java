@@ -0,0 +1,137 @@
+package site.hnfy258.server.client;
+
+import io.netty.util.AttributeKey;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import site.hnfy258.command.Command;
+import site.hnfy258.command.CommandType;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.server.context.RedisContext;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 客户端会话，保存单个连接的状态
+ *
+ * <p>对应Redis中的client结构，随连接创建并作为Channel属性挂载，
+ * 生命周期与连接相同。
+ *
+ * <p>会话内容：
+ * <ul>
+ *     <li>选中的数据库 - SELECT只修改本会话，键操作直接作用于会话解析出的{@link RedisDB}</li>
+ *     <li>客户端名称和标志位</li>
+ *     <li>创建时间和最近一次交互时间</li>
+ *     <li>复用的命令实例 - 每种命令在本连接上只创建一次</li>
+ * </ul>
+ *
+ * <p>线程模型：会话只由执行该连接命令的线程访问，同一连接的命令串行执行，
+ * 因此不需要同步。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Getter
+public class ClientSession {
+
+    /** 会话在Channel上的属性键 */
+    public static final AttributeKey<ClientSession> SESSION_KEY = AttributeKey.valueOf("redis.client.session");
+
+    /** 标志位：连接已通过PSYNC成为从节点 */
+    public static final int FLAG_SLAVE = 1;
+
+    /** 会话ID生成器 */
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+    /** 会话ID，进程内唯一 */
+    private final long id;
+
+    /** 会话创建时间（毫秒） */
+    private final long createTime;
+
+    /** 客户端名称 */
+    @Setter
+    private String name;
+
+    /** 选中的数据库索引 */
+    private int dbIndex;
+
+    /** 选中的数据库实例 */
+    private RedisDB db;
+
+    /** 标志位 */
+    private int flags;
+
+    /** 最近一次交互时间（毫秒） */
+    @Setter
+    private long lastInteraction;
+
+    /** 本连接复用的命令实例 */
+    @Getter(AccessLevel.NONE)
+    private final EnumMap<CommandType, Command> commandCache = new EnumMap<>(CommandType.class);
+
+    /**
+     * 创建客户端会话，默认选中0号数据库
+     *
+     * @param db 0号数据库实例
+     */
+    public ClientSession(final RedisDB db) {
+        this.id = NEXT_ID.getAndIncrement();
+        this.createTime = System.currentTimeMillis();
+        this.lastInteraction = createTime;
+        this.dbIndex = 0;
+        this.db = db;
+    }
+
+    /**
+     * 切换选中的数据库
+     *
+     * @param dbIndex 数据库索引
+     * @param db 数据库实例
+     */
+    public void select(final int dbIndex, final RedisDB db) {
+        this.dbIndex = dbIndex;
+        this.db = db;
+    }
+
+    /**
+     * 检查是否设置了指定标志位
+     *
+     * @param flag 标志位
+     * @return 是否设置
+     */
+    public boolean hasFlag(final int flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * 设置标志位
+     *
+     * @param flag 标志位
+     */
+    public void addFlag(final int flag) {
+        flags |= flag;
+    }
+
+    /**
+     * 获取本连接复用的命令实例，首次使用时创建
+     *
+     * @param commandType 命令类型
+     * @param context 创建命令时注入的上下文
+     * @return 命令实例
+     */
+    public Command getCommand(final CommandType commandType, final RedisContext context) {
+        Command command = commandCache.get(commandType);
+        if (command == null) {
+            command = commandType.createCommand(context);
+            commandCache.put(commandType, command);
+        }
+        return command;
+    }
+
+    @Override
+    public String toString() {
+        return "ClientSession{id=" + id + ", name=" + name + ", db=" + dbIndex + ", flags=" + flags + "}";
+    }
+}
@@ -2,6 +2,8 @@ package site.hnfy258.server.config;
 
 import lombok.Builder;
 import lombok.Data;
+import site.hnfy258.core.EvictionPolicy;
+import site.hnfy258.internal.DictEngine;
 
 /**
  * Redis服务器配置类，统一管理所有服务器配置参数。
@@ -111,6 +113,62 @@ public class RedisServerConfig {
     @Builder.Default
     private int sendBufferSize = 32 * 1024;
     
+    /**
+     * 是否启用流水线批量解码。
+     * 
+     * <p>功能说明：
+     * <ul>
+     *   <li>一次读取中的多个完整命令合并为一个批次
+     *   <li>批次整体提交给命令执行线程
+     *   <li>批次内命令按顺序连续执行
+     *   <li>适合大量使用Pipeline的客户端
+     * </ul>
+     */
+    @Builder.Default
+    private boolean pipelineBatchEnabled = true;
+    
+    /**
+     * 是否启用扁平argv解码。
+     * 
+     * <p>功能说明：
+     * <ul>
+     *   <li>客户端命令解析时只记录参数偏移量
+     *   <li>参数内容只在需要时复制一次
+     *   <li>写命令的AOF和复制直接转发原始字节
+     *   <li>非常规格式的请求自动回退到通用解码
+     * </ul>
+     */
+    @Builder.Default
+    private boolean argvDecodeEnabled = true;
+    
+    /**
+     * 是否延迟刷新响应。
+     * 
+     * <p>功能说明：
+     * <ul>
+     *   <li>启用后每条响应只写入不刷新
+     *   <li>在流水线批次结束或读取完成时统一刷新
+     *   <li>同一Pipeline的响应尽量合并为一次系统调用
+     *   <li>关闭时每条响应立即刷新
+     * </ul>
+     */
+    @Builder.Default
+    private boolean deferredFlushEnabled = true;
+    
+    /**
+     * 刷新合并阈值（FlushConsolidationHandler的explicitFlushAfterFlushes）。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>0表示不安装刷新合并处理器
+     *   <li>大于0时最多合并该数量的flush再真正写出
+     *   <li>读取未在进行时的flush也会被合并到下一次事件循环
+     *   <li>过大可能增加单个响应的延迟
+     * </ul>
+     */
+    @Builder.Default
+    private int flushConsolidationThreshold = 256;
+    
     // ========== 持久化配置 ==========
     
     /**
@@ -213,6 +271,21 @@ public class RedisServerConfig {
     @Builder.Default
     private int commandExecutorThreadCount = 1;
     
+    /**
+     * 命令执行分片数。
+     * 
+     * <p>说明：
+     * <ul>
+     *   <li>1表示使用单个命令执行器，保持原有的单线程模型
+     *   <li>大于1时每个数据库按键哈希划分为相同数量的分段，每个分段由一个线程独占
+     *   <li>单键命令在键所在分片上执行，同一个键的命令保持顺序
+     *   <li>全局命令和跨分片的多键命令在所有分片暂停时执行
+     *   <li>通常不超过CPU核心数
+     * </ul>
+     */
+    @Builder.Default
+    private int shardCount = 1;
+    
     // ========== 数据库配置 ==========
     
     /**
@@ -229,6 +302,158 @@ public class RedisServerConfig {
     @Builder.Default
     private int databaseCount = 16;
     
+    /**
+     * 键空间哈希表引擎。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>CHAINED：链地址法，默认引擎
+     *   <li>OPEN_ADDRESSING：开放寻址，并行数组存储，查找更缓存友好
+     *   <li>两种引擎的渐进式rehash和快照行为一致
+     * </ul>
+     */
+    @Builder.Default
+    private DictEngine dictEngine = DictEngine.CHAINED;
+    
+    /**
+     * 是否启用主动rehash。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>启用后后台定时推进没有访问的表的渐进式rehash
+     *   <li>同时在键数量远小于表容量时缩容，释放大量删除后的内存
+     *   <li>每次只占用固定的时间预算，不影响命令延迟
+     * </ul>
+     */
+    @Builder.Default
+    private boolean activeRehashing = true;
+    
+    /**
+     * 后台维护任务的执行周期（毫秒）。
+     * 
+     * <p>默认100毫秒，即每秒10次，与Redis默认的hz一致。
+     */
+    @Builder.Default
+    private int cronIntervalMillis = 100;
+    
+    /**
+     * 每次后台维护中主动rehash的时间预算（微秒）。
+     * 
+     * <p>预算由所有数据库共享，默认1毫秒。
+     */
+    @Builder.Default
+    private int activeRehashBudgetMicros = 1000;
+    
+    /**
+     * 是否启用主动过期。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>启用后后台定时从过期索引中抽样，删除已经过期但没有被访问的键
+     *   <li>关闭时只在访问时惰性删除，过期键会一直占用内存直到被访问
+     * </ul>
+     */
+    @Builder.Default
+    private boolean activeExpireEnabled = true;
+    
+    /**
+     * 主动过期的力度（active-expire-effort），取值1-10。
+     * 
+     * <p>力度越大每轮抽样越多、可容忍的过期键比例越低，
+     * 每个周期占用的时间也越多，默认1。
+     */
+    @Builder.Default
+    private int activeExpireEffort = 1;
+    
+    /**
+     * 过期时间轮的tick长度（毫秒），0表示不启用。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>启用后过期键按到期时间放入分层时间轮，主动过期直接取出到期的键，不再采样
+     *   <li>主动过期任务改为每个tick执行一次，键最多在到期后一个tick内被删除
+     *   <li>适合大量几百毫秒级过期时间的键（例如锁），代价是每个带过期时间的键多一个时间轮条目
+     * </ul>
+     */
+    @Builder.Default
+    private int expireWheelTickMillis = 0;
+    
+    // ========== 值对象编码配置 ==========
+    
+    /**
+     * Hash使用紧凑编码的最大字段数（hash-max-listpack-entries）。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>字段数不超过该值的Hash把字段和值连续存放在一个字节数组中
+     *   <li>超过后自动转换为哈希表编码，不会转换回去
+     *   <li>0表示总是使用哈希表编码
+     * </ul>
+     */
+    @Builder.Default
+    private int hashMaxListpackEntries = 128;
+    
+    /**
+     * Hash使用紧凑编码时字段名和值的最大字节数（hash-max-listpack-value）。
+     * 
+     * <p>任意字段名或值超过该长度时转换为哈希表编码。
+     */
+    @Builder.Default
+    private int hashMaxListpackValue = 64;
+    
+    /**
+     * 整数Set使用整数集合编码的最大成员数（set-max-intset-entries）。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>成员全部是整数且不超过该数量的Set升序存放在基本类型数组中
+     *   <li>加入非整数成员或超过该数量时转换为哈希表编码，不会转换回去
+     *   <li>0表示总是使用哈希表编码
+     * </ul>
+     */
+    @Builder.Default
+    private int setMaxIntsetEntries = 512;
+    
+    /**
+     * List每个快速列表节点的大小（list-max-listpack-size）。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>正数表示每个节点最多存放的元素个数
+     *   <li>-1到-5表示每个节点最多占用4KB、8KB、16KB、32KB、64KB
+     *   <li>超过节点上限的单个元素独占一个节点
+     * </ul>
+     */
+    @Builder.Default
+    private int listMaxListpackSize = -2;
+    
+    /**
+     * List两端不压缩的节点数（list-compress-depth）。
+     * 
+     * <p>中间的节点使用Deflate压缩，适合只在两端读写的长队列。0表示不压缩。
+     */
+    @Builder.Default
+    private int listCompressDepth = 0;
+    
+    /**
+     * 有序集合使用紧凑编码的最大成员数（zset-max-listpack-entries）。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>不超过该数量的有序集合按顺序紧凑存放成员字节和基本类型分数
+     *   <li>超过该数量时转换为跳表编码，不会转换回去
+     *   <li>0表示总是使用跳表编码
+     * </ul>
+     */
+    @Builder.Default
+    private int zsetMaxListpackEntries = 128;
+    
+    /**
+     * 有序集合使用紧凑编码时成员的最大字节数（zset-max-listpack-value）。
+     */
+    @Builder.Default
+    private int zsetMaxListpackValue = 64;
+    
     /**
      * 最大内存限制（字节）。
      * 
@@ -243,6 +468,63 @@ public class RedisServerConfig {
     @Builder.Default
     private long maxMemory = 0L;
     
+    /**
+     * 超过最大内存时的淘汰策略（maxmemory-policy）。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>默认noeviction，内存不足时拒绝写命令，读命令和删除不受影响
+     *   <li>allkeys-*从全部键中淘汰，适合缓存场景
+     *   <li>volatile-*只淘汰设置了过期时间的键，没有这样的键时同样拒绝写命令
+     *   <li>已用内存按值对象的编码估算，不是JVM堆的实际占用
+     * </ul>
+     */
+    @Builder.Default
+    private EvictionPolicy maxMemoryPolicy = EvictionPolicy.NOEVICTION;
+    
+    /**
+     * 每次淘汰从每个数据库采样的键数量（maxmemory-samples）。
+     * 
+     * <p>采样越多越接近精确的LRU，每次淘汰的代价也越高，默认5。
+     */
+    @Builder.Default
+    private int maxMemorySamples = 5;
+    
+    /**
+     * LFU计数器的对数因子（lfu-log-factor）。
+     * 
+     * <p>因子越大计数器增长越慢，能区分的访问次数越多；默认10时约百万次访问计数器饱和。
+     */
+    @Builder.Default
+    private int lfuLogFactor = 10;
+    
+    /**
+     * LFU计数器的衰减时间（lfu-decay-time），单位分钟。
+     * 
+     * <p>键每空闲这么长时间计数器减1，0表示不衰减，默认1。
+     */
+    @Builder.Default
+    private int lfuDecayTime = 1;
+    
+    /**
+     * 热键和大键统计的采样比例（hotkeys-sample-rate）。
+     * 
+     * <p>配置说明：
+     * <ul>
+     *   <li>每N条来自客户端的命令采样一条，记录命令涉及的键，0表示关闭统计
+     *   <li>采样的命令多一次草图更新和一次键查找，默认32时均摊到每条命令的开销低于1%
+     *   <li>结果通过HOTKEYS命令和INFO keysizes查看
+     * </ul>
+     */
+    @Builder.Default
+    private int hotKeysSampleRate = 32;
+    
+    /**
+     * 热键和每种类型的大键各保留的数量（hotkeys-top-k），默认16。
+     */
+    @Builder.Default
+    private int hotKeysTopK = 16;
+    
     // ========== 复制配置 ==========
     
     /**
@@ -488,6 +770,74 @@ public class RedisServerConfig {
             throw new IllegalArgumentException("缓冲区大小必须大于0");
         }
         
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("命令执行分片数必须大于0");
+        }
+        
+        if (dictEngine == null) {
+            throw new IllegalArgumentException("键空间哈希表引擎不能为null");
+        }
+        
+        if (cronIntervalMillis <= 0 || activeRehashBudgetMicros <= 0) {
+            throw new IllegalArgumentException("后台维护周期和rehash时间预算必须大于0");
+        }
+        
+        if (activeExpireEffort < 1 || activeExpireEffort > 10) {
+            throw new IllegalArgumentException("主动过期力度必须在1-10范围内");
+        }
+        
+        if (maxMemory < 0) {
+            throw new IllegalArgumentException("最大内存不能为负数");
+        }
+        
+        if (maxMemoryPolicy == null) {
+            throw new IllegalArgumentException("淘汰策略不能为null");
+        }
+        
+        if (maxMemorySamples < 1 || maxMemorySamples > 64) {
+            throw new IllegalArgumentException("淘汰采样数必须在1-64范围内");
+        }
+        
+        if (lfuLogFactor < 0 || lfuDecayTime < 0) {
+            throw new IllegalArgumentException("LFU对数因子和衰减时间不能为负数");
+        }
+        
+        if (hotKeysSampleRate < 0) {
+            throw new IllegalArgumentException("热键采样比例不能为负数");
+        }
+        
+        if (hotKeysTopK < 1 || hotKeysTopK > 1024) {
+            throw new IllegalArgumentException("热键统计数量必须在1-1024范围内");
+        }
+        
+        if (expireWheelTickMillis < 0) {
+            throw new IllegalArgumentException("过期时间轮tick长度不能为负数");
+        }
+        
+        if (hashMaxListpackEntries < 0 || hashMaxListpackValue < 0) {
+            throw new IllegalArgumentException("Hash紧凑编码阈值不能为负数");
+        }
+        
+        if (setMaxIntsetEntries < 0) {
+            throw new IllegalArgumentException("Set整数集合编码阈值不能为负数");
+        }
+        
+        if (listMaxListpackSize == 0 || listMaxListpackSize < -5) {
+            throw new IllegalArgumentException("List节点大小必须是正数或-1到-5");
+        }
+        
+        if (listCompressDepth < 0) {
+            throw new IllegalArgumentException("List压缩深度不能为负数");
+        }
+        
+        if (zsetMaxListpackEntries < 0 || zsetMaxListpackValue < 0) {
+            throw new IllegalArgumentException("有序集合紧凑编码阈值不能为负数");
+        }
+        
+        if (flushConsolidationThreshold < 0) {
+            throw new IllegalArgumentException("刷新合并阈值不能为负数");
+        }
+        
         if (aofEnabled && (aofFileName == null || aofFileName.trim().isEmpty())) {
             throw new IllegalArgumentException("启用AOF时必须指定AOF文件名");
         }
@@ -2,6 +2,8 @@ package site.hnfy258.server.context;
 
 import site.hnfy258.aof.AofManager;
 import site.hnfy258.cluster.node.RedisNode;
+import site.hnfy258.core.KeyStatsTracker;
+import site.hnfy258.core.MemoryEvictor;
 import site.hnfy258.core.RedisCore;
 import site.hnfy258.database.RedisDB;
 import site.hnfy258.datastructure.RedisBytes;
@@ -94,6 +96,18 @@ public interface RedisContext {
      * @throws IllegalArgumentException 如果key为null
      */
     RedisData get(RedisBytes key);
+
+    /**
+     * 获取键对应的数据，返回的值对象可以原地修改
+     * 
+     * <p>{@link #get(RedisBytes)}返回的值对象在快照期间可能正被持久化线程读取，
+     * 写命令修改值对象前必须通过此方法获取，快照期间会分离出独立副本。
+     * 
+     * @param key 要查找的键
+     * @return 对应的数据，如果键不存在或已过期则返回null
+     * @throws IllegalArgumentException 如果key为null
+     */
+    RedisData getForWrite(RedisBytes key);
     
     /**
      * 存储键值对到当前数据库。
@@ -179,6 +193,18 @@ public interface RedisContext {
      */
     int getDBNum();
     
+    /**
+     * 获取指定索引的数据库实例。
+     * 
+     * <p>用于客户端会话解析自己选中的数据库，键操作直接作用于返回的实例，
+     * 不依赖也不修改全局的当前数据库索引。
+     * 
+     * @param dbIndex 数据库索引
+     * @return 数据库实例
+     * @throws IllegalArgumentException 如果索引超出范围
+     */
+    RedisDB getDB(int dbIndex);
+    
     /**
      * 清空所有数据库的数据。
      * 
@@ -209,6 +235,17 @@ public interface RedisContext {
      */
     void writeAof(byte[] commandBytes);
     
+    /**
+     * 将在指定数据库上执行的命令写入AOF日志。
+     * 
+     * <p>各客户端可以选中不同的数据库，AOF中只在数据库发生变化时
+     * 补写一条SELECT命令，保证重放时命令落在正确的数据库上。
+     * 
+     * @param dbIndex 命令执行时所在的数据库索引
+     * @param commandBytes 要记录的命令字节数组
+     */
+    void writeAof(int dbIndex, byte[] commandBytes);
+    
     /**
      * 执行同步RDB保存操作。
      * 
@@ -299,6 +336,23 @@ public interface RedisContext {
      */
     void propagateCommand(byte[] commandBytes);
     
+    /**
+     * 将在指定数据库上执行的命令传播到从节点。
+     * 
+     * <p>与{@link #writeAof(int, byte[])}相同，复制流中只在数据库发生变化时补发SELECT。
+     * 
+     * @param dbIndex 命令执行时所在的数据库索引
+     * @param commandBytes 要传播的命令字节数组
+     */
+    void propagateCommand(int dbIndex, byte[] commandBytes);
+    
+    /**
+     * 标记复制流当前所在的数据库未知。
+     * 
+     * <p>新的从节点开始同步时调用，下一条传播的写命令之前会重新发送SELECT。
+     */
+    void resetReplicationSelectedDb();
+    
     /**
      * 判断当前节点是否为主节点。
      * 
@@ -470,4 +524,18 @@ public interface RedisContext {
     Raft getRaft();
 
     boolean isRaftEnabled();
+
+    /**
+     * 获取maxmemory淘汰器。
+     * 
+     * @return 淘汰器，未设置最大内存时返回null
+     */
+    MemoryEvictor getMemoryEvictor();
+
+    /**
+     * 获取热键和大键统计。
+     * 
+     * @return 统计器，未启用采样时返回null
+     */
+    KeyStatsTracker getKeyStatsTracker();
 }
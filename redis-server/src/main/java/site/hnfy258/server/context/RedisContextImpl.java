@@ -3,6 +3,8 @@ package site.hnfy258.server.context;
 import lombok.extern.slf4j.Slf4j;
 import site.hnfy258.aof.AofManager;
 import site.hnfy258.cluster.node.RedisNode;
+import site.hnfy258.core.KeyStatsTracker;
+import site.hnfy258.core.MemoryEvictor;
 import site.hnfy258.core.RedisCore;
 import site.hnfy258.core.RedisCoreImpl;
 import site.hnfy258.database.RedisDB;
@@ -13,6 +15,7 @@ import site.hnfy258.rdb.RdbManager;
 import site.hnfy258.server.command.executor.CommandExecutorImpl;
 import site.hnfy258.server.config.RedisServerConfig;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -43,10 +46,32 @@ public class RedisContextImpl implements RedisContext {
     private final String serverHost;
     private final int serverPort;
     private final RedisServerConfig config;
+
+    /** maxmemory淘汰器，未设置最大内存时为null */
+    private final MemoryEvictor memoryEvictor;
+
+    /** 热键和大键统计，未启用采样时为null */
+    private final KeyStatsTracker keyStatsTracker;
     
     // ========== 系统状态 ==========
     private final AtomicBoolean running = new AtomicBoolean(false);
 
+    // ========== 命令流的数据库选择 ==========
+    /** 各数据库预编码的SELECT命令 */
+    private final byte[][] selectCommands;
+
+    /** AOF中最近一次SELECT的数据库，-1表示未知 */
+    private int aofSelectedDb = -1;
+
+    /** 复制流中最近一次SELECT的数据库，-1表示未知 */
+    private int replicationSelectedDb = -1;
+
+    /** 保证SELECT与紧随其后的命令在AOF中相邻 */
+    private final Object aofSelectLock = new Object();
+
+    /** 保证SELECT与紧随其后的命令在复制流中相邻 */
+    private final Object replicationSelectLock = new Object();
+
 
     // ==========raft组件============
     Raft raft;
@@ -70,6 +95,10 @@ public class RedisContextImpl implements RedisContext {
         
         // 1. 初始化分层组件
         this.dataStore = new RedisDataStore(redisCore);
+        this.selectCommands = new byte[redisCore.getDBNum()][];
+        for (int i = 0; i < selectCommands.length; i++) {
+            selectCommands[i] = encodeSelect(i);
+        }
         
         // 2. 设置命令执行器（移到前面）
         if (redisCore instanceof RedisCoreImpl) {
@@ -83,6 +112,22 @@ public class RedisContextImpl implements RedisContext {
         // 4. 初始化持久化管理层
         this.persistence = new RedisPersistence(aofManager, rdbManager);
         
+        // 5. 过期删除以DEL的形式写入AOF并传播到从节点，放在加载之后避免重放期间回写
+        if (redisCore instanceof RedisCoreImpl && !config.isRaftEnabled()) {
+            ((RedisCoreImpl) redisCore).setExpireListener(this::propagateExpired);
+        }
+        
+        // 6. 设置了最大内存时在写命令前淘汰键，淘汰同样以DEL传播
+        this.memoryEvictor = config.getMaxMemory() > 0
+                ? new MemoryEvictor(redisCore, config.getMaxMemory(),
+                        config.getMaxMemoryPolicy(), config.getMaxMemorySamples())
+                : null;
+        
+        // 7. 按比例采样命令涉及的键，统计热键和大键
+        this.keyStatsTracker = config.getHotKeysSampleRate() > 0
+                ? new KeyStatsTracker(redisCore, config.getHotKeysSampleRate(), config.getHotKeysTopK())
+                : null;
+        
         log.info("RedisContext初始化完成 - AOF:{}, RDB:{}, 服务器:{}:{}", 
                 aofManager != null ? "启用" : "禁用",
                 rdbManager != null ? "启用" : "禁用",
@@ -146,6 +191,11 @@ public class RedisContextImpl implements RedisContext {
     public RedisData get(final RedisBytes key) {
         return dataStore.get(key);
     }
+
+    @Override
+    public RedisData getForWrite(final RedisBytes key) {
+        return dataStore.getForWrite(key);
+    }
     
     @Override
     public void put(final RedisBytes key, final RedisData value) {
@@ -171,6 +221,11 @@ public class RedisContextImpl implements RedisContext {
         return dataStore.getDBNum();
     }
     
+    @Override
+    public RedisDB getDB(final int dbIndex) {
+        return dataStore.getDB(dbIndex);
+    }
+    
     @Override
     public void flushAll() {
         dataStore.flushAll();
@@ -180,7 +235,20 @@ public class RedisContextImpl implements RedisContext {
     
     @Override
     public void writeAof(final byte[] commandBytes) {
-        persistence.writeAof(commandBytes);
+        writeAof(getCurrentDBIndex(), commandBytes);
+    }
+    
+    @Override
+    public void writeAof(final int dbIndex, final byte[] commandBytes) {
+        synchronized (aofSelectLock) {
+            // 1. 数据库与AOF中最近一次SELECT不同时先补写SELECT
+            if (dbIndex != aofSelectedDb) {
+                persistence.writeAof(selectCommands[dbIndex]);
+                aofSelectedDb = dbIndex;
+            }
+            // 2. 写入命令本身
+            persistence.writeAof(commandBytes);
+        }
     }
       @Override
     public boolean saveRdb() {
@@ -210,6 +278,77 @@ public class RedisContextImpl implements RedisContext {
     
     @Override
     public void propagateCommand(byte[] commandBytes) {
+        propagateCommand(getCurrentDBIndex(), commandBytes);
+    }
+    
+    @Override
+    public void propagateCommand(final int dbIndex, final byte[] commandBytes) {
+        synchronized (replicationSelectLock) {
+            if (dbIndex != replicationSelectedDb) {
+                doPropagateCommand(selectCommands[dbIndex]);
+                replicationSelectedDb = dbIndex;
+            }
+            doPropagateCommand(commandBytes);
+        }
+    }
+    
+    @Override
+    public void resetReplicationSelectedDb() {
+        synchronized (replicationSelectLock) {
+            replicationSelectedDb = -1;
+        }
+    }
+    
+    /**
+     * 编码SELECT命令
+     * 
+     * @param dbIndex 数据库索引
+     * @return RESP格式的SELECT命令
+     */
+    private static byte[] encodeSelect(final int dbIndex) {
+        final String index = String.valueOf(dbIndex);
+        return ("*2\r\n$6\r\nSELECT\r\n$" + index.length() + "\r\n" + index + "\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * 编码DEL命令
+     * 
+     * @param key 被删除的键
+     * @return RESP格式的DEL命令
+     */
+    private static byte[] encodeDel(final RedisBytes key) {
+        final byte[] keyBytes = key.getBytesUnsafe();
+        final byte[] header = ("*2\r\n$3\r\nDEL\r\n$" + keyBytes.length + "\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        final byte[] command = new byte[header.length + keyBytes.length + 2];
+        System.arraycopy(header, 0, command, 0, header.length);
+        System.arraycopy(keyBytes, 0, command, header.length, keyBytes.length);
+        command[command.length - 2] = '\r';
+        command[command.length - 1] = '\n';
+        return command;
+    }
+    
+    /**
+     * 过期删除回调，把删除记录到AOF并传播给从节点
+     * 
+     * @param dbIndex 数据库索引
+     * @param key 过期的键
+     */
+    private void propagateExpired(final int dbIndex, final RedisBytes key) {
+        if (!persistence.isAofEnabled() && !isMaster()) {
+            return;
+        }
+        final byte[] command = encodeDel(key);
+        if (persistence.isAofEnabled()) {
+            writeAof(dbIndex, command);
+        }
+        if (isMaster()) {
+            propagateCommand(dbIndex, command);
+        }
+    }
+    
+    private void doPropagateCommand(final byte[] commandBytes) {
         if (redisNode != null && redisNode.isMaster()) {
             try {
                 redisNode.propagateCommand(commandBytes);
@@ -246,6 +385,10 @@ public class RedisContextImpl implements RedisContext {
             try {
                 if (aofManager != null && aofManager.getAofWriter() != null) {
                     log.info("开始执行AOF重写操作");
+                    // 重写后的文件不保证以当前数据库结尾，下一条命令前重新写入SELECT
+                    synchronized (aofSelectLock) {
+                        aofSelectedDb = -1;
+                    }
                     return aofManager.getAofWriter().bgrewrite();
                 } else {
                     log.warn("AOF重写失败：AofManager或AofWriter不可用");
@@ -282,6 +425,16 @@ public class RedisContextImpl implements RedisContext {
         return config.isRaftEnabled();
     }
 
+    @Override
+    public MemoryEvictor getMemoryEvictor() {
+        return memoryEvictor;
+    }
+
+    @Override
+    public KeyStatsTracker getKeyStatsTracker() {
+        return keyStatsTracker;
+    }
+
     @Override
     public void flushAof() {
         if (persistence.isAofEnabled()) {
@@ -119,6 +119,20 @@ public class RedisDataStore {
         }
         return redisCore.get(key);
     }
+
+    /**
+     * 获取键对应的数据，供会原地修改值对象的写命令使用
+     * 
+     * @param key 键
+     * @return 对应的数据，如果不存在则返回null
+     * @throws IllegalArgumentException 如果key为null
+     */
+    public RedisData getForWrite(final RedisBytes key) {
+        if (key == null) {
+            throw new IllegalArgumentException("键不能为null");
+        }
+        return redisCore.getForWrite(key);
+    }
     
     /**
      * 存储键值对。
@@ -252,6 +266,25 @@ public class RedisDataStore {
         return redisCore.getDataBases();
     }
     
+    /**
+     * 获取指定索引的数据库实例。
+     * 
+     * <p>客户端会话通过该方法解析自己选中的数据库，
+     * 之后的键操作直接作用于该实例，不再依赖全局的当前数据库索引。
+     * 
+     * @param dbIndex 数据库索引
+     * @return 数据库实例
+     * @throws IllegalArgumentException 如果索引超出范围
+     */
+    public RedisDB getDB(final int dbIndex) {
+        if (dbIndex < 0 || dbIndex >= redisCore.getDBNum()) {
+            throw new IllegalArgumentException(
+                String.format("数据库索引超出范围: %d，有效范围: 0-%d", 
+                    dbIndex, redisCore.getDBNum() - 1));
+        }
+        return redisCore.getDataBases()[dbIndex];
+    }
+    
     /**
      * 清空所有数据库。
      * 
@@ -10,13 +10,27 @@ import site.hnfy258.cluster.node.RedisNode;
 import site.hnfy258.command.Command;
 import site.hnfy258.command.CommandType;
 import site.hnfy258.command.impl.cluster.Psync;
+import site.hnfy258.core.KeyStatsTracker;
+import site.hnfy258.core.MemoryEvictor;
+import site.hnfy258.database.RedisDB;
 import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.protocal.BulkString;
 import site.hnfy258.protocal.Errors;
 import site.hnfy258.protocal.Resp;
 import site.hnfy258.protocal.RespArray;
+import site.hnfy258.protocal.RespCommand;
+import site.hnfy258.protocal.handler.RespBatch;
 import site.hnfy258.raft.Raft;
+import site.hnfy258.server.client.ClientContext;
+import site.hnfy258.server.client.ClientSession;
 import site.hnfy258.server.context.RedisContext;
+import site.hnfy258.server.shard.ShardExecutorGroup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Redis命令处理器，负责解析和执行客户端请求。
@@ -49,7 +63,7 @@ import site.hnfy258.server.context.RedisContext;
  */
 @Slf4j
 @Getter
-public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
+public class RespCommandHandler extends SimpleChannelInboundHandler<Object> {
     
     /** 不支持的命令错误响应 */
     private static final Errors UNSUPPORTED_COMMAND_ERROR = new Errors("不支持的命令");
@@ -63,6 +77,16 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
     /** 命令执行失败错误响应 */
     private static final Errors COMMAND_EXECUTION_ERROR = new Errors("命令执行失败");
     
+    /** 超过最大内存且无法淘汰时的错误响应，与Redis相同 */
+    private static final Errors OOM_ERROR =
+            new Errors("OOM command not allowed when used memory > 'maxmemory'.");
+
+    /** 分片模式下一个连接排队未执行的帧超过该数量时暂停读取 */
+    static final int MAX_PENDING_FRAMES = 4096;
+
+    /** 排队的帧降到该数量以下时恢复读取 */
+    static final int RESUME_PENDING_FRAMES = MAX_PENDING_FRAMES / 2;
+    
     /** Redis服务器上下文 */
     private final RedisContext redisContext;
     
@@ -72,6 +96,34 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
     /** 是否启用Raft协议 */
     private final boolean isRaftEnabled;
 
+    /** 是否延迟刷新：响应只写入不刷新，在批次结束或读取完成时统一刷新 */
+    private final boolean deferredFlush;
+
+    /**
+     * 本连接的客户端会话，保存选中的数据库和复用的命令实例。单执行线程模式下
+     * 处理器只在命令执行线程上运行；分片模式下同一连接的命令通过{@link #tail}
+     * 串行执行，前一条命令的完成happens-before后一条命令的开始，因此都无需同步
+     */
+    private final ClientSession session;
+
+    /** 绑定会话的上下文，来自连接的命令通过它访问会话选中的数据库 */
+    private final ClientContext clientContext;
+
+    /** 分片执行器组，为null时在处理器所在的执行线程上直接执行命令 */
+    private final ShardExecutorGroup shardGroup;
+
+    /** 本连接的归属分片，用于执行不涉及键的命令 */
+    private final int homeShard;
+
+    /** 本连接最后一条命令的完成Future，只在I/O线程上读写，用于保证响应顺序 */
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+    /**
+     * 本连接已挂到执行链上但还没有执行完的帧数量。I/O线程增加、分片线程减少；
+     * 超过{@link #MAX_PENDING_FRAMES}时关闭autoRead，快速流水线的客户端不能无限排队
+     */
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+
     /**
      * 创建命令处理器实例。
      * 
@@ -86,15 +138,61 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
      * @throws IllegalArgumentException 如果redisContext为null
      */
     public RespCommandHandler(final RedisContext redisContext) {
+        this(redisContext, false);
+    }
+
+    /**
+     * 创建命令处理器实例，并指定响应刷新方式。
+     * 
+     * @param redisContext Redis服务器上下文
+     * @param deferredFlush 是否延迟刷新，启用后每条响应只写入，
+     *                      在流水线批次结束或读取完成时统一刷新
+     * @throws IllegalArgumentException 如果redisContext为null
+     */
+    public RespCommandHandler(final RedisContext redisContext, final boolean deferredFlush) {
+        this(redisContext, deferredFlush, null);
+    }
+
+    /**
+     * 创建分片模式的命令处理器实例。
+     * 
+     * <p>分片模式下处理器运行在I/O线程上，只负责按键路由：
+     * 单键命令提交到键所在的分片线程，全局命令和跨分片命令交给协调线程
+     * 在所有分片暂停时执行。同一连接的命令依次执行，响应顺序与请求顺序一致。
+     * 
+     * @param redisContext Redis服务器上下文
+     * @param deferredFlush 是否延迟刷新
+     * @param shardGroup 分片执行器组，为null时不启用分片
+     * @throws IllegalArgumentException 如果redisContext为null
+     */
+    public RespCommandHandler(final RedisContext redisContext, final boolean deferredFlush,
+                              final ShardExecutorGroup shardGroup) {
         if (redisContext == null) {
             throw new IllegalArgumentException("Redis上下文不能为null");
         }
         this.redisContext = redisContext;
         this.isMaster = redisContext.isMaster();
         this.isRaftEnabled = redisContext.isRaftEnabled();
+        this.deferredFlush = deferredFlush;
+        this.shardGroup = shardGroup;
+        this.homeShard = shardGroup == null ? 0 : shardGroup.nextHomeShard();
+        this.session = new ClientSession(redisContext.getDB(0));
+        this.clientContext = new ClientContext(redisContext, session);
         
-        log.info("RespCommandHandler初始化完成 - 模式: {}", 
-                isMaster ? "主节点" : "从节点");
+        log.info("RespCommandHandler初始化完成 - 模式: {}, 延迟刷新: {}, 分片: {}", 
+                isMaster ? "主节点" : "从节点", deferredFlush,
+                shardGroup == null ? "关闭" : "分片" + homeShard);
+    }
+
+    /**
+     * 将客户端会话挂载到Channel上，供连接上的其他处理器访问。
+     * 
+     * @param ctx 通道上下文
+     */
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        ctx.channel().attr(ClientSession.SESSION_KEY).set(session);
+        super.handlerAdded(ctx);
     }
 
     /**
@@ -107,15 +205,208 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
      *   <li>返回响应
      * </ul>
      * 
+     * <p>流水线请求以{@link RespBatch}的形式到达时，批次内的命令按顺序连续执行，
+     * 响应也按相同顺序连续写出。
+     * 
      * @param ctx 通道上下文
-     * @param msg RESP格式的命令
+     * @param msg RESP格式的命令，或流水线批次
      * @throws Exception 如果处理过程中发生错误
      */
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, Resp msg) throws Exception {
+    protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (shardGroup != null) {
+            dispatchToShards(ctx, msg);
+            return;
+        }
+        if (msg instanceof RespBatch) {
+            for (Resp frame : ((RespBatch) msg).getFrames()) {
+                processFrame(ctx, frame);
+            }
+            // 批次结束后统一刷新，整个流水线的响应合并写出
+            if (deferredFlush) {
+                ctx.flush();
+            }
+        } else {
+            processFrame(ctx, msg);
+        }
+    }
+
+    /**
+     * 分片模式下把请求路由到分片执行。
+     * 
+     * <p>连续路由到同一分片的帧合并为一个任务，在分片线程上依次执行，
+     * 流水线中的命令不会每条都经过一次跨线程提交和完成回调。只有目标分片改变时，
+     * 下一段才挂在本连接的{@link #tail}之后、等前一段完成后提交，
+     * 因此同一连接的命令和响应保持请求顺序；不同连接的命令则在各自的分片上并行执行。
+     * 
+     * @param ctx 通道上下文
+     * @param msg 单个RESP帧，或流水线批次
+     */
+    private void dispatchToShards(final ChannelHandlerContext ctx, final Object msg) {
+        if (msg instanceof RespBatch) {
+            // 1. 在I/O线程上解析每个帧的命令类型和目标分片，不物化参数
+            final List<Resp> frames = ((RespBatch) msg).getFrames();
+            final int size = frames.size();
+            final CommandType[] types = new CommandType[size];
+            final int[] targets = new int[size];
+            for (int i = 0; i < size; i++) {
+                types[i] = resolveCommandType(frames.get(i));
+                targets[i] = targetShard(frames.get(i), types[i]);
+            }
+            // 2. 按目标分片切分为连续的段，每段提交一次
+            int runStart = 0;
+            for (int i = 1; i <= size; i++) {
+                if (i == size || targets[i] != targets[runStart]) {
+                    dispatchRun(ctx, frames, types, runStart, i, targets[runStart]);
+                    runStart = i;
+                }
+            }
+        } else {
+            final CommandType commandType = resolveCommandType(msg);
+            dispatchRun(ctx, Collections.singletonList(msg), new CommandType[]{commandType},
+                    0, 1, targetShard(msg, commandType));
+        }
+        // 本次读取的命令全部写出后统一刷新
+        if (deferredFlush) {
+            tail = tail.thenRun(ctx::flush);
+        }
+    }
+
+    /**
+     * 计算单个帧的目标分片。
+     * 
+     * @param msg 单个RESP帧
+     * @param commandType 命令类型，无法识别时为null
+     * @return 分片下标，或{@link CommandType#ROUTE_GLOBAL}；不涉及键的命令在本连接的归属分片上执行
+     */
+    private int targetShard(final Object msg, final CommandType commandType) {
+        int shard = CommandType.ROUTE_ANY_SHARD;
+        if (commandType != null) {
+            final int shardCount = shardGroup.getShardCount();
+            shard = msg instanceof RespCommand
+                    ? commandType.routeShard((RespCommand) msg, shardCount)
+                    : commandType.routeShard(((RespArray) msg).getContent(), shardCount);
+        }
+        return shard == CommandType.ROUTE_ANY_SHARD ? homeShard : shard;
+    }
+
+    /**
+     * 把一段目标分片相同的连续帧作为一个任务挂到执行链上。
+     * 
+     * @param ctx 通道上下文
+     * @param frames 帧列表
+     * @param types 与帧一一对应的命令类型
+     * @param from 段的起始下标（包含）
+     * @param to 段的结束下标（不包含）
+     * @param targetShard 目标分片，或{@link CommandType#ROUTE_GLOBAL}
+     */
+    private void dispatchRun(final ChannelHandlerContext ctx, final List<?> frames, final CommandType[] types,
+                             final int from, final int to, final int targetShard) {
+        final Supplier<Void> task = () -> {
+            for (int i = from; i < to; i++) {
+                processFrame(ctx, frames.get(i), types[i]);
+            }
+            return null;
+        };
+        final int count = to - from;
+        if (pendingFrames.addAndGet(count) >= MAX_PENDING_FRAMES && ctx.channel().config().isAutoRead()) {
+            // 执行链过长时暂停读取，已读入的数据仍会解码并排队，之后不再从套接字读取
+            ctx.channel().config().setAutoRead(false);
+        }
+        tail = tail.thenCompose(v -> targetShard == CommandType.ROUTE_GLOBAL
+                        ? shardGroup.submitGlobal(task)
+                        : shardGroup.submit(targetShard, task))
+                .exceptionally(e -> {
+                    // 执行器已关闭等情况下任务未执行完，释放缓冲区并保持执行链可用，重复释放是安全的
+                    log.error("分片命令提交失败: {}", e.getMessage());
+                    for (int i = from; i < to; i++) {
+                        if (frames.get(i) instanceof RespCommand) {
+                            ((RespCommand) frames.get(i)).release();
+                        }
+                    }
+                    return null;
+                });
+        // 单独挂回调，回调失败不影响执行链
+        tail.whenComplete((v, e) -> onFramesCompleted(ctx, count));
+    }
+
+    /**
+     * 一段帧执行完后减少排队数量，降到恢复阈值时回到I/O线程恢复读取。
+     * 
+     * <p>暂停和恢复都在I/O线程上进行，恢复任务总是在触发暂停的那次分派之后执行，
+     * 不会出现恢复先于暂停而使连接永久停止读取的情况。
+     * 
+     * @param ctx 通道上下文
+     * @param count 执行完的帧数量
+     */
+    private void onFramesCompleted(final ChannelHandlerContext ctx, final int count) {
+        final int pending = pendingFrames.addAndGet(-count);
+        if (pending > RESUME_PENDING_FRAMES || pending + count <= RESUME_PENDING_FRAMES) {
+            return;
+        }
+        ctx.channel().eventLoop().execute(() -> {
+            if (pendingFrames.get() <= RESUME_PENDING_FRAMES && !ctx.channel().config().isAutoRead()) {
+                ctx.channel().config().setAutoRead(true);
+            }
+        });
+    }
+
+    /**
+     * 解析帧对应的命令类型，不物化参数。
+     * 
+     * @param msg 单个RESP帧
+     * @return 命令类型，无法识别时返回null
+     */
+    private static CommandType resolveCommandType(final Object msg) {
+        if (msg instanceof RespCommand) {
+            return CommandType.findByCommand((RespCommand) msg);
+        }
         if (msg instanceof RespArray) {
+            final Resp[] array = ((RespArray) msg).getContent();
+            if (array.length > 0 && array[0] instanceof BulkString) {
+                return CommandType.findByBytes(((BulkString) array[0]).getContent());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 处理单个RESP帧并写出响应。
+     * 
+     * @param ctx 通道上下文
+     * @param msg 单个RESP帧
+     */
+    private void processFrame(final ChannelHandlerContext ctx, final Object msg) {
+        processFrame(ctx, msg, null);
+    }
+
+    /**
+     * 处理单个RESP帧并写出响应。
+     * 
+     * @param ctx 通道上下文
+     * @param msg 单个RESP帧
+     * @param resolvedType 已解析出的命令类型，为null时重新解析
+     */
+    private void processFrame(final ChannelHandlerContext ctx, final Object msg, final CommandType resolvedType) {
+        if (msg instanceof RespCommand) {
+            // 扁平argv命令：执行完毕后释放缓冲区切片
+            final RespCommand command = (RespCommand) msg;
+            try {
+                // 直接在缓冲区上分发，未知命令无需物化任何参数
+                final CommandType commandType = resolvedType != null
+                        ? resolvedType : CommandType.findByCommand(command);
+                Resp response = commandType == null
+                        ? COMMAND_NOT_FOUND_ERROR
+                        : processCommand(command, command.toRespArray(), commandType, ctx);
+                if (response != null) {
+                    writeResponseDirectly(ctx, response);
+                }
+            } finally {
+                command.release();
+            }
+        } else if (msg instanceof RespArray) {
             RespArray respArray = (RespArray) msg;
-            Resp response = processCommand(respArray, ctx);
+            Resp response = processCommand(respArray, respArray, resolvedType, ctx);
 
             if (response != null) {
                 writeResponseDirectly(ctx, response);
@@ -133,7 +424,7 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
      *   <li>直接写入Channel
      *   <li>避免中间缓冲
      *   <li>减少内存分配
-     *   <li>提高响应速度
+     *   <li>延迟刷新模式下只写入不刷新，减少系统调用
      * </ul>
      * 
      * @param ctx 通道上下文
@@ -141,7 +432,22 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
      */
     private void writeResponseDirectly(final ChannelHandlerContext ctx, final Resp response) {
         try {
-            if (!ctx.channel().isActive() || !ctx.channel().isWritable()) {
+            if (!ctx.channel().isActive()) {
+                log.debug("Channel 已关闭，跳过响应发送");
+                return;
+            }
+
+            if (deferredFlush) {
+                // 1. 输出缓冲区超过高水位时先刷新已写入的响应，不能丢弃流水线中的响应
+                if (!ctx.channel().isWritable()) {
+                    ctx.flush();
+                }
+                // 2. 只写入，由批次结束或channelReadComplete统一刷新
+                ctx.write(response);
+                return;
+            }
+
+            if (!ctx.channel().isWritable()) {
                 log.debug("Channel 不可写，跳过响应发送");
                 return;
             }
@@ -191,7 +497,7 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
      * @return 命令执行结果
      */
     public Resp executeCommand(final RespArray command) {
-        return processCommand(command, null);
+        return processCommand(command, command, null, null);
     }
 
     /**
@@ -205,30 +511,39 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
      *   <li>处理写命令的持久化和复制
      * </ul>
      * 
+     * @param request 原始请求，写命令持久化和复制时直接编码该对象
      * @param respArray 命令数组
+     * @param resolvedType 已解析出的命令类型，为null时从命令数组解析
      * @param ctx 通道上下文（可选）
      * @return 命令执行结果
      */
-    private Resp processCommand(RespArray respArray, ChannelHandlerContext ctx) {
+    private Resp processCommand(Resp request, RespArray respArray, CommandType resolvedType,
+                                ChannelHandlerContext ctx) {
         if (respArray.getContent().length == 0) {
             return EMPTY_COMMAND_ERROR;
         }
 
         try {
             Resp[] array = respArray.getContent();
-            final RedisBytes cmd = ((BulkString) array[0]).getContent();
-            final CommandType commandType = CommandType.findByBytes(cmd);
+            CommandType commandType = resolvedType;
+            if (commandType == null) {
+                final RedisBytes cmd = ((BulkString) array[0]).getContent();
+                commandType = CommandType.findByBytes(cmd);
+            }
             
             if (commandType == null) {
                 return COMMAND_NOT_FOUND_ERROR;
             }
             
-            final Command command = commandType.createCommand(redisContext);
+            final Command command = obtainCommand(commandType, ctx);
             command.setContext(array);
 
             // 特殊处理PSYNC命令
             if (command instanceof Psync) {
                 ((Psync) command).setChannelHandlerContext(ctx);
+                // 新的从节点从全量数据开始同步，复制流需要重新发送SELECT
+                session.addFlag(ClientSession.FLAG_SLAVE);
+                redisContext.resetReplicationSelectedDb();
                 final RedisNode masterNode = redisContext.getRedisNode();
                 if (masterNode != null && masterNode.isMaster()) {
                     ((Psync) command).setMasterNode(masterNode);
@@ -236,10 +551,29 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
                 log.info("执行PSYNC命令，来自：{}", ctx.channel().remoteAddress());
             }
 
+            // 来自客户端的写命令执行前检查最大内存，复制流和内部执行的命令不受限制
+            if (ctx != null && command.isWriteCommand() && !commandType.isMemoryReleasing()
+                    && !freeMemoryIfNeeded(array, commandType)) {
+                return OOM_ERROR;
+            }
+
             final Resp result = command.handle();
 
-            if (command.isWriteCommand()) {
-                handleWriteCommand(respArray, commandType);
+            // 返回错误的写命令没有修改数据，不写入AOF也不传播
+            if (command.isWriteCommand() && !(result instanceof Errors)) {
+                final RespArray rewritten = command.propagateAs();
+                final RedisContext commandContext = ctx == null ? redisContext : clientContext;
+                refreshMemory(array, commandType, commandContext);
+                if (rewritten != null) {
+                    handleWriteCommand(rewritten, rewritten, commandType, commandContext);
+                } else {
+                    handleWriteCommand(request, respArray, commandType, commandContext);
+                }
+            }
+
+            // 来自客户端的命令按比例采样，统计热键和大键
+            if (ctx != null) {
+                recordKeyStats(array, commandType);
             }
 
             return result;
@@ -249,6 +583,87 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
         }
     }
 
+    /**
+     * 写命令执行前淘汰键，使命令所在分段的内存不超过上限。
+     * 
+     * <p>淘汰只处理命令所在分段的键，与命令在同一个执行线程上；
+     * 跨分片的命令在所有分片暂停时全局执行，此时依次检查每个分段。
+     * 
+     * @param array 命令数组
+     * @param commandType 命令类型
+     * @return 内存不超过上限时返回true，否则应拒绝命令
+     */
+    private boolean freeMemoryIfNeeded(final Resp[] array, final CommandType commandType) {
+        final MemoryEvictor evictor = redisContext.getMemoryEvictor();
+        if (evictor == null) {
+            return true;
+        }
+        final int segmentCount = redisContext.getRedisCore().getSegmentCount();
+        final int segment = commandType.routeShard(array, segmentCount);
+        if (segment >= 0) {
+            return evictor.freeMemoryIfNeeded(segment);
+        }
+        if (segment == CommandType.ROUTE_ANY_SHARD) {
+            // 不涉及键的写命令由命令自身报告参数错误
+            return true;
+        }
+        boolean freed = true;
+        for (int i = 0; i < segmentCount; i++) {
+            freed &= evictor.freeMemoryIfNeeded(i);
+        }
+        return freed;
+    }
+
+    /**
+     * 写命令执行后按命令涉及的键重新记账，原地修改的值对象在这里更新已用内存。
+     * 
+     * @param array 命令数组
+     * @param commandType 命令类型
+     * @param commandContext 命令所用的上下文
+     */
+    private static void refreshMemory(final Resp[] array, final CommandType commandType,
+                                      final RedisContext commandContext) {
+        final RedisDB db = commandContext.getDB(commandContext.getCurrentDBIndex());
+        commandType.forEachKey(array, db::refreshMemory);
+    }
+
+    /**
+     * 采样命令涉及的键，更新热键和大键统计。
+     * 
+     * <p>在命令执行之后调用，大键按写入后的大小记录；与命令在同一个执行线程上，
+     * 跨分片的命令在所有分片暂停时执行，因此访问各分段的统计不需要同步。
+     * 
+     * @param array 命令数组
+     * @param commandType 命令类型
+     */
+    private void recordKeyStats(final Resp[] array, final CommandType commandType) {
+        final KeyStatsTracker tracker = redisContext.getKeyStatsTracker();
+        if (tracker == null || !tracker.shouldSample()) {
+            return;
+        }
+        final int dbIndex = clientContext.getCurrentDBIndex();
+        commandType.forEachKey(array, key -> tracker.record(dbIndex, key));
+    }
+
+    /**
+     * 获取命令实例。
+     * 
+     * <p>来自连接的请求复用会话中缓存的实例，命令通过{@link ClientContext}
+     * 访问会话选中的数据库；{@link #executeCommand(RespArray)}可能在其他线程调用，
+     * 每次使用服务器上下文创建新实例。
+     * 
+     * @param commandType 命令类型
+     * @param ctx 通道上下文（可选）
+     * @return 命令实例
+     */
+    private Command obtainCommand(final CommandType commandType, final ChannelHandlerContext ctx) {
+        if (ctx == null) {
+            return commandType.createCommand(redisContext);
+        }
+        session.setLastInteraction(System.currentTimeMillis());
+        return session.getCommand(commandType, clientContext);
+    }
+
     /**
      * 处理写命令的持久化和复制。
      * 
@@ -268,10 +683,13 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
      *   <li>异常的优雅处理
      * </ul>
      * 
+     * @param request 原始请求，扁平argv命令会原样写出帧字节而不重新编码
      * @param respArray 命令数组
      * @param commandType 命令类型
+     * @param commandContext 执行命令的上下文，AOF和复制据此补写SELECT
      */
-    private void handleWriteCommand(final RespArray respArray, final CommandType commandType) {
+    private void handleWriteCommand(final Resp request, final RespArray respArray, final CommandType commandType,
+                                    final RedisContext commandContext) {
         final boolean needAof = redisContext.isAofEnabled();
         final boolean needReplication = redisContext.isMaster();
         final boolean isRaftEnabled = redisContext.isRaftEnabled();
@@ -307,10 +725,10 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
             try {
                 final ByteBuf tempBuf = PooledByteBufAllocator.DEFAULT.buffer();
                 try {
-                    respArray.encode(respArray, tempBuf);
+                    request.encode(request, tempBuf);
                     final byte[] commandBytes = new byte[tempBuf.readableBytes()];
                     tempBuf.readBytes(commandBytes);
-                    redisContext.writeAof(commandBytes);
+                    commandContext.writeAof(commandBytes);
                     log.debug("[AOF] 写命令已持久化: {}", commandType);
                 } finally {
                     tempBuf.release();
@@ -324,10 +742,10 @@ public class RespCommandHandler extends SimpleChannelInboundHandler<Resp> {
             try {
                 final ByteBuf tempBuf = PooledByteBufAllocator.DEFAULT.buffer();
                 try {
-                    respArray.encode(respArray, tempBuf);
+                    request.encode(request, tempBuf);
                     final byte[] commandBytes = new byte[tempBuf.readableBytes()];
                     tempBuf.readBytes(commandBytes);
-                    redisContext.propagateCommand(commandBytes);
+                    commandContext.propagateCommand(commandBytes);
                     log.debug("[主节点] 写命令已传播: {}", commandType);
                 } finally {
                     tempBuf.release();
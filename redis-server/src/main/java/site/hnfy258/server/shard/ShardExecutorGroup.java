@@ -0,0 +1,196 @@
+package site.hnfy258.server.shard;
+
+import io.netty.util.concurrent.DefaultEventExecutor;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 分片命令执行器组
+ *
+ * <p>每个数据库的键空间按哈希划分为N个分段，第i个分段只由第i个分片线程访问，
+ * 分片之间不共享可变状态，因此单键命令无需加锁即可在多个核心上并行执行。
+ *
+ * <p>执行模型：
+ * <ul>
+ *     <li>单键命令 - 提交到键所在的分片线程，同一个键的命令总是串行执行</li>
+ *     <li>不涉及键的命令 - 提交到连接的归属分片</li>
+ *     <li>全局命令和跨分片命令 - 由协调线程在所有分片暂停时执行</li>
+ * </ul>
+ *
+ * <p>全局执行采用屏障方式：协调线程向每个分片提交一个等待任务，
+ * 所有分片到达屏障后执行全局任务，完成后释放所有分片。
+ * 全局任务只由单个协调线程执行，相互之间天然串行。
+ *
+ * @author hnfy258
+ * @since 1.0.0
+ */
+@Slf4j
+public class ShardExecutorGroup {
+
+    /** 分片执行线程 */
+    private final EventExecutor[] shards;
+
+    /** 全局命令协调线程 */
+    private final EventExecutor coordinator;
+
+    /** 用于分配连接归属分片的轮询计数器 */
+    private final AtomicInteger nextHome = new AtomicInteger();
+
+    /**
+     * 创建分片执行器组
+     *
+     * @param shardCount 分片数量，必须大于0
+     * @throws IllegalArgumentException 如果分片数量不合法
+     */
+    public ShardExecutorGroup(final int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("分片数量必须大于0");
+        }
+        this.shards = new EventExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new DefaultEventExecutor(new DefaultThreadFactory("redis-shard-" + i));
+        }
+        this.coordinator = new DefaultEventExecutor(new DefaultThreadFactory("redis-shard-coordinator"));
+        log.info("分片执行器组初始化完成，分片数量: {}", shardCount);
+    }
+
+    /**
+     * 获取分片数量
+     *
+     * @return 分片数量
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * 为新连接分配归属分片，用于执行不涉及键的命令
+     *
+     * @return 分片下标
+     */
+    public int nextHomeShard() {
+        return (nextHome.getAndIncrement() & 0x7fffffff) % shards.length;
+    }
+
+    /**
+     * 在指定分片上执行任务
+     *
+     * @param shard 分片下标
+     * @param task 任务
+     * @param <T> 结果类型
+     * @return 任务结果的Future，执行器已关闭时异常完成
+     */
+    public <T> CompletableFuture<T> submit(final int shard, final Supplier<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            shards[shard].execute(() -> complete(future, task));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 在指定分片上周期性执行任务
+     *
+     * <p>任务与该分片上的命令串行执行，可以无锁访问该分片负责的数据。
+     *
+     * @param shard 分片下标
+     * @param task 任务
+     * @param periodMillis 执行周期，毫秒
+     * @return 定时任务的Future，可用于取消
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(final int shard, final Runnable task, final long periodMillis) {
+        return shards[shard].scheduleAtFixedRate(task, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在所有分片暂停的状态下执行全局任务
+     *
+     * <p>执行流程：
+     * <ul>
+     *     <li>协调线程向每个分片提交屏障任务</li>
+     *     <li>等待所有分片执行完已排队的任务并到达屏障</li>
+     *     <li>执行全局任务，此时没有任何分片在访问数据</li>
+     *     <li>释放所有分片</li>
+     * </ul>
+     *
+     * @param task 全局任务
+     * @param <T> 结果类型
+     * @return 任务结果的Future，执行器已关闭时异常完成
+     */
+    public <T> CompletableFuture<T> submitGlobal(final Supplier<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            coordinator.execute(() -> runGlobal(future, task));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void runGlobal(final CompletableFuture<T> future, final Supplier<T> task) {
+        final CountDownLatch arrived = new CountDownLatch(shards.length);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            // 1. 让每个分片停在屏障上
+            for (EventExecutor shard : shards) {
+                shard.execute(() -> {
+                    arrived.countDown();
+                    awaitUninterruptibly(release);
+                });
+            }
+            // 2. 等待所有分片到达
+            awaitUninterruptibly(arrived);
+            // 3. 所有分片都已暂停，执行全局任务
+            complete(future, task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        } finally {
+            // 4. 释放所有分片
+            release.countDown();
+        }
+    }
+
+    private static <T> void complete(final CompletableFuture<T> future, final Supplier<T> task) {
+        try {
+            future.complete(task.get());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 关闭所有分片线程和协调线程
+     */
+    public void shutdown() {
+        coordinator.shutdownGracefully();
+        for (EventExecutor shard : shards) {
+            shard.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package site.hnfy258.command;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import site.hnfy258.database.RedisDB;
+import site.hnfy258.datastructure.RedisBytes;
+import site.hnfy258.protocal.BulkString;
+import site.hnfy258.protocal.Resp;
+import site.hnfy258.protocal.RespCommand;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTypeTest {
+
+    @Test
+    void testEveryCommandIsReachable() {
+        // 分发表中每个命令都能通过自身的命令名找到
+        for (CommandType type : CommandType.values()) {
+            assertSame(type, CommandType.findByBytes(type.getCommandBytes()));
+        }
+    }
+
+    @Test
+    void testCaseInsensitiveLookup() {
+        assertSame(CommandType.GET, CommandType.findByBytes("get".getBytes(StandardCharsets.UTF_8)));
+        assertSame(CommandType.GET, CommandType.findByBytes("GeT".getBytes(StandardCharsets.UTF_8)));
+        assertSame(CommandType.BGREWRITEAOF,
+                CommandType.findByBytes(RedisBytes.wrapTrusted("bgrewriteaof".getBytes(StandardCharsets.UTF_8))));
+        assertSame(CommandType.CONFIG_GET, CommandType.findByBytes("config".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testUnknownCommand() {
+        assertNull(CommandType.findByBytes("NOPE".getBytes(StandardCharsets.UTF_8)));
+        assertNull(CommandType.findByBytes("GETX".getBytes(StandardCharsets.UTF_8)));
+        assertNull(CommandType.findByBytes(new byte[0]));
+        assertNull(CommandType.findByBytes((byte[]) null));
+    }
+
+    @Test
+    void testLookupWithOffset() {
+        byte[] line = "xxhsetyy".getBytes(StandardCharsets.UTF_8);
+        assertSame(CommandType.HSET, CommandType.findByBytes(line, 2, 4));
+    }
+
+    @Test
+    void testFindByCommandOnBuffer() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes("*2\r\n$4\r\nllen\r\n$1\r\nk\r\n".getBytes(StandardCharsets.UTF_8));
+        RespCommand command = RespCommand.decode(buf);
+        try {
+            assertSame(CommandType.LLEN, CommandType.findByCommand(command));
+        } finally {
+            command.release();
+            buf.release();
+        }
+    }
+
+    @Test
+    void testMatchesBytes() {
+        assertTrue(CommandType.SET.matchesBytes("set".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(CommandType.SET.matchesBytes("get".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testRouteShardMatchesStorageSegment() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeBytes("*3\r\n$3\r\nset\r\n$5\r\nuser1\r\n$1\r\nv\r\n".getBytes(StandardCharsets.UTF_8));
+        RespCommand command = RespCommand.decode(buf);
+        try {
+            // 缓冲区上计算的哈希与RedisBytes一致，路由结果就是存储分段
+            int expected = RedisDB.segmentIndex(new RedisBytes("user1".getBytes(StandardCharsets.UTF_8)).hashCode(), 8);
+            assertEquals(expected, CommandType.SET.routeShard(command, 8));
+            assertEquals(expected, CommandType.SET.routeShard(command.toRespArray().getContent(), 8));
+        } finally {
+            command.release();
+            buf.release();
+        }
+    }
+
+    @Test
+    void testRouteShardSpecialCases() {
+        Resp[] ping = {BulkString.wrapTrusted("PING".getBytes(StandardCharsets.UTF_8))};
+        assertEquals(CommandType.ROUTE_ANY_SHARD, CommandType.PING.routeShard(ping, 4));
+
+        Resp[] keys = {BulkString.wrapTrusted("KEYS".getBytes(StandardCharsets.UTF_8)),
+                BulkString.wrapTrusted("*".getBytes(StandardCharsets.UTF_8))};
+        assertEquals(CommandType.ROUTE_GLOBAL, CommandType.KEYS.routeShard(keys, 4));
+
+        // 参数不足时交给任意分片，由命令自身报告参数错误
+        Resp[] get = {BulkString.wrapTrusted("GET".getBytes(StandardCharsets.UTF_8))};
+        assertEquals(CommandType.ROUTE_ANY_SHARD, CommandType.GET.routeShard(get, 4));
+    }
+
+    @Test
+    void testMultiKeyRouteShard() {
+        // 找到两个落在不同分片的键
+        String first = "k0";
+        String second = null;
+        int firstShard = RedisDB.segmentIndex(Arrays.hashCode(first.getBytes(StandardCharsets.UTF_8)), 4);
+        for (int i = 1; second == null; i++) {
+            String candidate = "k" + i;
+            if (RedisDB.segmentIndex(Arrays.hashCode(candidate.getBytes(StandardCharsets.UTF_8)), 4) != firstShard) {
+                second = candidate;
+            }
+        }
+        Resp[] sameShard = mset(first, first);
+        assertEquals(firstShard, CommandType.MSET.routeShard(sameShard, 4));
+        Resp[] crossShard = mset(first, second);
+        assertEquals(CommandType.ROUTE_GLOBAL, CommandType.MSET.routeShard(crossShard, 4));
+    }
+
+    private static Resp[] mset(String key1, String key2) {
+        return new Resp[]{
+                BulkString.wrapTrusted("MSET".getBytes(StandardCharsets.UTF_8)),
+                BulkString.wrapTrusted(key1.getBytes(StandardCharsets.UTF_8)),
+                BulkString.wrapTrusted("a".getBytes(StandardCharsets.UTF_8)),
+                BulkString.wrapTrusted(key2.getBytes(StandardCharsets.UTF_8)),
+                BulkString.wrapTrusted("b".getBytes(StandardCharsets.UTF_8))
+        };
+    }
+}
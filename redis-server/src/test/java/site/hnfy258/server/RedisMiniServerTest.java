@@ -11,6 +11,10 @@ import site.hnfy258.datastructure.RedisBytes;
 import site.hnfy258.protocal.*;
 import site.hnfy258.server.config.RedisServerConfig;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -103,6 +107,59 @@ class RedisMiniServerTest {
         assertEquals("ERR Invalid command format", ((Errors) response).getContent());
     }
 
+    @Test
+    void testReplicatedCommandRunsOnKeyspaceExecutor() throws Exception {
+        // 1. 占住拥有键空间的执行线程
+        CountDownLatch release = new CountDownLatch(1);
+        server.getKeyspaceExecutor().execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // 2. 复制线程提交的命令排在后面，不会与执行线程上的任务并发
+        RespArray setCommand = new RespArray(new Resp[]{
+            BulkString.SET,
+            new BulkString(RedisBytes.fromString("replicated-key")),
+            new BulkString(RedisBytes.fromString("v"))
+        });
+        CompletableFuture<Resp> applied = CompletableFuture.supplyAsync(() -> server.executeCommand(setCommand));
+        Thread.sleep(100);
+        assertFalse(applied.isDone());
+
+        release.countDown();
+        assertEquals("OK", ((SimpleString) applied.get(5, TimeUnit.SECONDS)).getContent());
+    }
+
+    @Test
+    void testReplicatedCommandRoutesToShard() throws Exception {
+        RedisMiniServer sharded = new RedisMiniServer(RedisServerConfig.builder()
+                .host("localhost")
+                .port(6379)
+                .databaseCount(16)
+                .shardCount(4)
+                .rdbEnabled(false)
+                .build());
+        try {
+            RespArray setCommand = new RespArray(new Resp[]{
+                BulkString.SET,
+                new BulkString(RedisBytes.fromString("sharded-key")),
+                new BulkString(RedisBytes.fromString("v"))
+            });
+            assertEquals("OK", ((SimpleString) sharded.executeCommand(setCommand)).getContent());
+
+            // 在键所在的分片线程上读取，确认写入发生在该分片
+            RedisBytes key = RedisBytes.fromString("sharded-key");
+            int shard = site.hnfy258.database.RedisDB.segmentIndex(key.hashCode(), 4);
+            assertNotNull(sharded.getShardGroup().submit(shard, () -> sharded.getRedisCore().get(key))
+                    .get(5, TimeUnit.SECONDS));
+        } finally {
+            sharded.getShardGroup().shutdown();
+        }
+    }
+
     @Test
     void testGenerateRdbSnapshot() {
         // 测试生成RDB快照
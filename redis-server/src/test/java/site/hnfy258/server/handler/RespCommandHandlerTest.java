@@ -1,11 +1,15 @@
 package site.hnfy258.server.handler;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoop;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import site.hnfy258.cluster.node.RedisNode;
+import site.hnfy258.core.EvictionPolicy;
 import site.hnfy258.core.RedisCore;
 import site.hnfy258.core.RedisCoreImpl;
 import site.hnfy258.datastructure.RedisBytes;
@@ -13,9 +17,19 @@ import site.hnfy258.datastructure.RedisData;
 import site.hnfy258.datastructure.RedisString;
 import site.hnfy258.internal.Sds;
 import site.hnfy258.protocal.*;
+import site.hnfy258.protocal.handler.RespBatch;
 import site.hnfy258.server.config.RedisServerConfig;
 import site.hnfy258.server.context.RedisContext;
 import site.hnfy258.server.context.RedisContextImpl;
+import site.hnfy258.server.shard.ShardExecutorGroup;
+import site.hnfy258.database.RedisDB;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -143,4 +157,352 @@ class RespCommandHandlerTest {
         // 验证错误响应被发送
         verify(ctx).writeAndFlush(any(Errors.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testPipelineBatchExecutesInOrder() throws Exception {
+        when(channel.isActive()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+
+        // 准备SET + GET组成的流水线批次
+        RespArray setCommand = new RespArray(new Resp[]{
+            BulkString.SET,
+            new BulkString(RedisBytes.fromString("batch-key")),
+            new BulkString(RedisBytes.fromString("batch-value"))
+        });
+        RespArray getCommand = new RespArray(new Resp[]{
+            BulkString.GET,
+            new BulkString(RedisBytes.fromString("batch-key"))
+        });
+        RespBatch batch = new RespBatch(java.util.Arrays.asList(setCommand, getCommand));
+
+        handler.channelRead0(ctx, batch);
+
+        // 两条命令都被执行，且SET先于GET生效
+        verify(ctx, times(2)).writeAndFlush(any(Resp.class));
+        RedisData storedValue = redisContext.get(RedisBytes.fromString("batch-key"));
+        assertNotNull(storedValue);
+        assertEquals("batch-value", ((RedisString) storedValue).getSds().toString());
+    }
+
+    @Test
+    void testDeferredFlushWritesBatchThenFlushesOnce() throws Exception {
+        when(channel.isActive()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+        RespCommandHandler deferredHandler = new RespCommandHandler(redisContext, true);
+
+        RespArray ping = new RespArray(new Resp[]{BulkString.wrapTrusted("PING".getBytes())});
+        RespBatch batch = new RespBatch(java.util.Arrays.asList(ping, ping, ping));
+
+        deferredHandler.channelRead0(ctx, batch);
+
+        // 每条响应只写入，批次结束时刷新一次
+        verify(ctx, times(3)).write(any(Resp.class));
+        verify(ctx, never()).writeAndFlush(any());
+        verify(ctx, times(1)).flush();
+    }
+
+    @Test
+    void testReusedCommandResetsOptionalArguments() throws Exception {
+        when(channel.isActive()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+
+        RespArray sadd = new RespArray(new Resp[]{
+            BulkString.wrapTrusted("SADD".getBytes()),
+            new BulkString(RedisBytes.fromString("reuse-set")),
+            new BulkString(RedisBytes.fromString("a")),
+            new BulkString(RedisBytes.fromString("b")),
+            new BulkString(RedisBytes.fromString("c"))
+        });
+        handler.channelRead0(ctx, sadd);
+
+        // 第一次SPOP带count，第二次不带count，复用的实例必须恢复默认值
+        handler.channelRead0(ctx, new RespArray(new Resp[]{
+            BulkString.wrapTrusted("spop".getBytes()),
+            new BulkString(RedisBytes.fromString("reuse-set")),
+            new BulkString(RedisBytes.fromString("2"))
+        }));
+        handler.channelRead0(ctx, new RespArray(new Resp[]{
+            BulkString.wrapTrusted("spop".getBytes()),
+            new BulkString(RedisBytes.fromString("reuse-set"))
+        }));
+
+        verify(ctx, times(1)).writeAndFlush(any(RespArray.class));
+        verify(ctx, times(1)).writeAndFlush(any(BulkString.class));
+    }
+
+    @Test
+    void testSelectIsPerConnection() throws Exception {
+        when(channel.isActive()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+        RespCommandHandler other = new RespCommandHandler(redisContext);
+
+        // 1. 本连接切换到1号库并写入
+        handler.channelRead0(ctx, new RespArray(new Resp[]{
+            BulkString.wrapTrusted("SELECT".getBytes()),
+            new BulkString(RedisBytes.fromString("1"))
+        }));
+        handler.channelRead0(ctx, new RespArray(new Resp[]{
+            BulkString.SET,
+            new BulkString(RedisBytes.fromString("session-key")),
+            new BulkString(RedisBytes.fromString("v"))
+        }));
+        assertEquals(1, handler.getSession().getDbIndex());
+
+        // 2. 其他连接和全局数据库索引都不受影响
+        assertEquals(0, other.getSession().getDbIndex());
+        assertEquals(0, redisContext.getCurrentDBIndex());
+        assertNull(redisContext.getDB(0).get(RedisBytes.fromString("session-key")));
+        assertNotNull(redisContext.getDB(1).get(RedisBytes.fromString("session-key")));
+
+        assertNull(other.getClientContext().get(RedisBytes.fromString("session-key")));
+        assertNotNull(handler.getClientContext().get(RedisBytes.fromString("session-key")));
+    }
+
+    @Test
+    void testShardedPipelineCoalescesRunsAndKeepsOrder() throws Exception {
+        when(channel.isActive()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+        ShardExecutorGroup group = spy(new ShardExecutorGroup(4));
+        try {
+            RedisCore shardedCore = new RedisCoreImpl(16, 4);
+            RedisContext shardedContext = new RedisContextImpl(shardedCore, "localhost", 6379,
+                    RedisServerConfig.builder().aofEnabled(false).rdbEnabled(false).build());
+            RespCommandHandler shardedHandler = new RespCommandHandler(shardedContext, false, group);
+
+            // 1. 找两个位于不同分片的键
+            String keyA = "pipe-a";
+            String keyB = null;
+            int shardA = RedisDB.segmentIndex(RedisBytes.fromString(keyA).hashCode(), 4);
+            for (int i = 0; keyB == null; i++) {
+                String candidate = "pipe-b" + i;
+                if (RedisDB.segmentIndex(RedisBytes.fromString(candidate).hashCode(), 4) != shardA) {
+                    keyB = candidate;
+                }
+            }
+
+            // 2. A A A B B A：三段连续的同分片命令
+            List<Resp> frames = new ArrayList<>();
+            frames.add(set(keyA, "1"));
+            frames.add(get(keyA));
+            frames.add(set(keyA, "2"));
+            frames.add(set(keyB, "3"));
+            frames.add(get(keyB));
+            frames.add(get(keyA));
+            shardedHandler.channelRead0(ctx, new RespBatch(frames));
+            shardedHandler.getTail().get(5, TimeUnit.SECONDS);
+
+            // 每段只提交一次，响应按请求顺序写出
+            verify(group, times(3)).submit(anyInt(), any());
+            ArgumentCaptor<Resp> responses = ArgumentCaptor.forClass(Resp.class);
+            verify(ctx, times(6)).writeAndFlush(responses.capture());
+            List<String> replies = new ArrayList<>();
+            for (Resp response : responses.getAllValues()) {
+                replies.add(response instanceof SimpleString
+                        ? ((SimpleString) response).getContent()
+                        : ((BulkString) response).getContent().getString());
+            }
+            assertEquals(java.util.Arrays.asList("OK", "1", "OK", "OK", "3", "2"), replies);
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    @Test
+    void testShardedPipelinePausesReadsWhileBacklogged() throws Exception {
+        when(channel.isActive()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+        ChannelConfig config = mock(ChannelConfig.class);
+        AtomicBoolean autoRead = new AtomicBoolean(true);
+        when(config.isAutoRead()).thenAnswer(invocation -> autoRead.get());
+        when(config.setAutoRead(anyBoolean())).thenAnswer(invocation -> {
+            autoRead.set(invocation.getArgument(0));
+            return config;
+        });
+        EventLoop eventLoop = mock(EventLoop.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(eventLoop).execute(any(Runnable.class));
+        when(channel.config()).thenReturn(config);
+        when(channel.eventLoop()).thenReturn(eventLoop);
+
+        ShardExecutorGroup group = new ShardExecutorGroup(1);
+        try {
+            RedisContext shardedContext = new RedisContextImpl(new RedisCoreImpl(16, 1), "localhost", 6379,
+                    RedisServerConfig.builder().aofEnabled(false).rdbEnabled(false).build());
+            RespCommandHandler shardedHandler = new RespCommandHandler(shardedContext, false, group);
+
+            // 1. 分片被占住时排队的帧达到上限，暂停读取
+            CountDownLatch release = new CountDownLatch(1);
+            group.submit(0, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+            List<Resp> frames = new ArrayList<>();
+            for (int i = 0; i < RespCommandHandler.MAX_PENDING_FRAMES; i++) {
+                frames.add(get("backlog-key"));
+            }
+            shardedHandler.channelRead0(ctx, new RespBatch(frames));
+            assertFalse(autoRead.get());
+
+            // 2. 执行完后恢复读取
+            release.countDown();
+            shardedHandler.getTail().get(10, TimeUnit.SECONDS);
+            verify(config, timeout(5000)).setAutoRead(true);
+            assertTrue(autoRead.get());
+            verify(ctx, times(RespCommandHandler.MAX_PENDING_FRAMES)).writeAndFlush(any());
+        } finally {
+            group.shutdown();
+        }
+    }
+
+    @Test
+    void testSpopPropagatesPoppedMembers() throws Exception {
+        handler.executeCommand(new RespArray(new Resp[]{
+            BulkString.wrapTrusted("SADD".getBytes()),
+            new BulkString(RedisBytes.fromString("spop-set")),
+            new BulkString(RedisBytes.fromString("a")),
+            new BulkString(RedisBytes.fromString("b")),
+            new BulkString(RedisBytes.fromString("c"))
+        }));
+
+        // 1. 部分弹出改写为移除实际弹出成员的SREM
+        site.hnfy258.command.Command spop = site.hnfy258.command.CommandType.SPOP.createCommand(redisContext);
+        spop.setContext(new Resp[]{
+            BulkString.wrapTrusted("SPOP".getBytes()),
+            new BulkString(RedisBytes.fromString("spop-set")),
+            new BulkString(RedisBytes.fromString("2"))
+        });
+        Resp[] popped = ((RespArray) spop.handle()).getContent();
+        Resp[] propagated = spop.propagateAs().getContent();
+        assertEquals("SREM", propagated[0].toString());
+        assertEquals("spop-set", propagated[1].toString());
+        assertEquals(2, propagated.length - 2);
+        assertEquals(popped[0].toString(), propagated[2].toString());
+        assertEquals(popped[1].toString(), propagated[3].toString());
+
+        // 2. 弹空集合时删除键，改写为DEL
+        spop.setContext(new Resp[]{
+            BulkString.wrapTrusted("SPOP".getBytes()),
+            new BulkString(RedisBytes.fromString("spop-set"))
+        });
+        assertTrue(spop.handle() instanceof BulkString);
+        propagated = spop.propagateAs().getContent();
+        assertEquals("DEL", propagated[0].toString());
+        assertEquals(2, propagated.length);
+        assertNull(redisContext.get(RedisBytes.fromString("spop-set")));
+    }
+
+    @Test
+    void testSetRejectsInvalidExpireOptions() throws Exception {
+        // 1. 非正数的过期时间
+        Resp response = handler.executeCommand(new RespArray(new Resp[]{
+            BulkString.SET,
+            new BulkString(RedisBytes.fromString("set-opt-key")),
+            new BulkString(RedisBytes.fromString("v")),
+            new BulkString(RedisBytes.fromString("EX")),
+            new BulkString(RedisBytes.fromString("0"))
+        }));
+        assertTrue(response instanceof Errors);
+        assertEquals("ERR invalid expire time in 'set' command", ((Errors) response).getContent());
+
+        // 2. 同时给出多个过期选项
+        response = handler.executeCommand(new RespArray(new Resp[]{
+            BulkString.SET,
+            new BulkString(RedisBytes.fromString("set-opt-key")),
+            new BulkString(RedisBytes.fromString("v")),
+            new BulkString(RedisBytes.fromString("EX")),
+            new BulkString(RedisBytes.fromString("1")),
+            new BulkString(RedisBytes.fromString("PX")),
+            new BulkString(RedisBytes.fromString("1"))
+        }));
+        assertTrue(response instanceof Errors);
+        assertEquals("ERR syntax error", ((Errors) response).getContent());
+        assertNull(redisContext.get(RedisBytes.fromString("set-opt-key")));
+
+        // 3. 同一个命令对象复用时清除上一次的错误
+        response = handler.executeCommand(set("set-opt-key", "v"));
+        assertEquals("OK", ((SimpleString) response).getContent());
+    }
+
+    @Test
+    void testNoevictionRejectsWritesOverMaxMemory() throws Exception {
+        when(channel.isActive()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+        RedisContext limitedContext = new RedisContextImpl(new RedisCoreImpl(16), "localhost", 6379,
+                RedisServerConfig.builder().aofEnabled(false).rdbEnabled(false)
+                        .maxMemory(1).maxMemoryPolicy(EvictionPolicy.NOEVICTION).build());
+        RespCommandHandler limitedHandler = new RespCommandHandler(limitedContext);
+
+        // 1. 第一次写入前未超过上限，写入后超过
+        limitedHandler.channelRead0(ctx, set("oom-a", "1"));
+        // 2. 之后的写命令被拒绝，读命令和释放内存的命令不受影响
+        limitedHandler.channelRead0(ctx, set("oom-b", "2"));
+        limitedHandler.channelRead0(ctx, get("oom-a"));
+        limitedHandler.channelRead0(ctx, new RespArray(new Resp[]{
+            BulkString.wrapTrusted("DEL".getBytes()),
+            new BulkString(RedisBytes.fromString("oom-a"))
+        }));
+
+        ArgumentCaptor<Resp> responses = ArgumentCaptor.forClass(Resp.class);
+        verify(ctx, times(4)).writeAndFlush(responses.capture());
+        List<Resp> replies = responses.getAllValues();
+        assertEquals("OK", ((SimpleString) replies.get(0)).getContent());
+        assertEquals("OOM command not allowed when used memory > 'maxmemory'.",
+                ((Errors) replies.get(1)).getContent());
+        assertEquals("1", ((BulkString) replies.get(2)).getContent().getString());
+        assertEquals(1, ((RespInteger) replies.get(3)).getContent());
+        assertNull(limitedContext.get(RedisBytes.fromString("oom-b")));
+    }
+
+    @Test
+    void testEvictionPropagatesDelToReplicas() throws Exception {
+        when(channel.isActive()).thenReturn(true);
+        when(channel.isWritable()).thenReturn(true);
+        RedisContext limitedContext = new RedisContextImpl(new RedisCoreImpl(16), "localhost", 6379,
+                RedisServerConfig.builder().aofEnabled(false).rdbEnabled(false)
+                        .maxMemory(1).maxMemoryPolicy(EvictionPolicy.ALLKEYS_LRU).build());
+        RedisNode master = mock(RedisNode.class);
+        when(master.isMaster()).thenReturn(true);
+        limitedContext.setRedisNode(master);
+        RespCommandHandler limitedHandler = new RespCommandHandler(limitedContext);
+
+        // 1. 第二次写入前超过上限，淘汰第一个键后执行
+        limitedHandler.channelRead0(ctx, set("evict-a", "1"));
+        limitedHandler.channelRead0(ctx, set("evict-b", "2"));
+        assertNull(limitedContext.get(RedisBytes.fromString("evict-a")));
+        assertNotNull(limitedContext.get(RedisBytes.fromString("evict-b")));
+        assertEquals(1, limitedContext.getMemoryEvictor().getEvictedKeys());
+
+        // 2. 复制流中淘汰的DEL位于两条SET之间
+        ArgumentCaptor<byte[]> propagated = ArgumentCaptor.forClass(byte[].class);
+        verify(master, atLeastOnce()).propagateCommand(propagated.capture());
+        List<String> stream = new ArrayList<>();
+        for (byte[] command : propagated.getAllValues()) {
+            stream.add(new String(command, java.nio.charset.StandardCharsets.US_ASCII));
+        }
+        int del = stream.indexOf("*2\r\n$3\r\nDEL\r\n$7\r\nevict-a\r\n");
+        assertTrue(del > 0, "复制流: " + stream);
+        assertTrue(stream.get(del - 1).contains("evict-a"));
+        assertTrue(stream.get(del + 1).contains("evict-b"));
+    }
+
+    private static RespArray set(final String key, final String value) {
+        return new RespArray(new Resp[]{
+            BulkString.SET,
+            new BulkString(RedisBytes.fromString(key)),
+            new BulkString(RedisBytes.fromString(value))
+        });
+    }
+
+    private static RespArray get(final String key) {
+        return new RespArray(new Resp[]{
+            BulkString.GET,
+            new BulkString(RedisBytes.fromString(key))
+        });
+    }
+}
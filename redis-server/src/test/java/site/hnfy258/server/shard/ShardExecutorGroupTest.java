@@ -0,0 +1,94 @@
+package site.hnfy258.server.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardExecutorGroupTest {
+
+    private ShardExecutorGroup group;
+
+    @BeforeEach
+    void setUp() {
+        group = new ShardExecutorGroup(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        group.shutdown();
+    }
+
+    @Test
+    void testSameShardPreservesOrder() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            futures.add(group.submit(2, () -> {
+                order.add(value);
+                return value;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void testGlobalTaskRunsWhileAllShardsPaused() throws Exception {
+        // 1. 让分片0上的任务阻塞，全局任务必须等待它完成
+        CountDownLatch blocker = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        group.submit(0, () -> {
+            running.incrementAndGet();
+            try {
+                blocker.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return null;
+        });
+
+        CompletableFuture<Integer> global = group.submitGlobal(running::get);
+        Thread.sleep(100);
+        assertFalse(global.isDone());
+
+        // 2. 分片任务完成后全局任务执行，此时没有分片任务在运行
+        blocker.countDown();
+        assertEquals(0, global.get(5, TimeUnit.SECONDS));
+
+        // 3. 屏障释放后分片继续工作
+        assertEquals("ok", group.submit(0, () -> "ok").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testTaskFailureCompletesExceptionally() {
+        CompletableFuture<Object> future = group.submit(1, () -> {
+            throw new IllegalStateException("boom");
+        });
+        assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testHomeShardsRoundRobin() {
+        assertEquals(4, group.getShardCount());
+        for (int i = 0; i < 8; i++) {
+            int home = group.nextHomeShard();
+            assertTrue(home >= 0 && home < 4);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ShardExecutorGroup(0));
+    }
+}